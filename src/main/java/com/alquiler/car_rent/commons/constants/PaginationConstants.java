@@ -0,0 +1,10 @@
+package com.alquiler.car_rent.commons.constants;
+
+public class PaginationConstants {
+	public static final int DEFAULT_PAGE_SIZE = 20;
+	public static final int MAX_PAGE_SIZE = 100;
+
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+	public static final String TOTAL_PAGES_HEADER = "X-Total-Pages";
+}
@@ -1,6 +1,8 @@
 package com.alquiler.car_rent.commons.constants;
 
 import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.Set;
 
 public class ReportingConstants {
     public static final int PAGE_SIZE = 100;
@@ -44,6 +46,30 @@ public class ReportingConstants {
         PDF, EXCEL, HTML, JSON, CHART_PNG, CHART_SVG
     }
 
+    /**
+     * Formatos de exportación de datos crudos, escritos fila a fila
+     */
+    public enum ExportFormat {
+        CSV("text/csv", ".csv"),
+        NDJSON("application/x-ndjson", ".ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
     /**
      * Tipos de reportes soportados
      */
@@ -72,4 +98,60 @@ public class ReportingConstants {
             return title;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Secciones del reporte que se pueden pedir por separado. Cada endpoint de métricas pide solo la suya,
+     * de modo que se ejecuta una consulta agregada en lugar de recalcular el reporte completo.
+     */
+    public enum ReportSection {
+        TOTALS(true, "totalRentals", "totalRevenue"),
+        CUSTOMER_COUNTS(true, "uniqueCustomers", "activeCustomers"),
+        UNIQUE_VEHICLES(true, "uniqueVehicles"),
+        CUSTOMER_ACTIVITY(true, "customerActivity"),
+        TOP_CUSTOMERS(true, "topCustomersByRentals", "averageRentalDurationByTopCustomers"),
+        VEHICLE_USAGE(true, "vehicleUsage"),
+        MOST_RENTED_VEHICLE(true, "mostRentedVehicle"),
+        VEHICLE_TYPE_BREAKDOWN(true, "rentalsByVehicleType", "revenueByVehicleType"),
+        PRICING_TIER_BREAKDOWN(true, "rentalsByPricingTier", "revenueByPricingTier"),
+        RENTAL_TRENDS(true, "rentalTrends"),
+        AVERAGE_DURATION(true, "averageRentalDuration"),
+        NEW_CUSTOMERS(false, "newCustomers"),
+        AVAILABLE_VEHICLES(false, "availableVehicles");
+
+        private final boolean rentalDerived;
+        private final Set<String> keys;
+
+        ReportSection(boolean rentalDerived, String... keys) {
+            this.rentalDerived = rentalDerived;
+            this.keys = Set.of(keys);
+        }
+
+        /**
+         * Indica si la sección se calcula a partir de los alquileres del rango.
+         */
+        public boolean isRentalDerived() {
+            return rentalDerived;
+        }
+
+        /**
+         * Claves del mapa de reporte que produce la sección.
+         */
+        public Set<String> getKeys() {
+            return keys;
+        }
+
+        public static Set<ReportSection> all() {
+            return EnumSet.allOf(ReportSection.class);
+        }
+
+        public static Set<ReportSection> rentalSections() {
+            EnumSet<ReportSection> sections = EnumSet.noneOf(ReportSection.class);
+            for (ReportSection section : values()) {
+                if (section.rentalDerived) {
+                    sections.add(section);
+                }
+            }
+            return sections;
+        }
+    }
+}
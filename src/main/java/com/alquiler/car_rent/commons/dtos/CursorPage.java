@@ -0,0 +1,13 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import java.util.List;
+
+/**
+ * Página obtenida por cursor: elementos y token de la siguiente página (null si no hay más).
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+	public boolean hasNext() {
+		return nextCursor != null;
+	}
+}
@@ -0,0 +1,11 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import com.alquiler.car_rent.commons.enums.CustomerStatus;
+
+/**
+ * Filtros opcionales del listado de clientes; el nombre se busca por prefijo para poder usar el índice.
+ */
+public record CustomerFilter(
+        CustomerStatus status,
+        String name) {
+}
@@ -0,0 +1,20 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mensaje STOMP con todas las alertas de vencimiento de una ejecución del recordatorio.
+ */
+public record RentalAlertBatch(
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime generatedAt,
+        int count,
+        List<RentalEndingAlert> alerts) {
+
+    public static RentalAlertBatch of(List<RentalEndingAlert> alerts) {
+        return new RentalAlertBatch(LocalDateTime.now(), alerts.size(), List.copyOf(alerts));
+    }
+}
@@ -0,0 +1,27 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import com.alquiler.car_rent.commons.enums.BatchItemStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado de un elemento de un lote de alquileres, en la misma posición que en la solicitud.
+ */
+@Schema(description = "Resultado de un elemento del lote")
+public record RentalBatchResult(
+		@Schema(description = "Posición del elemento en la solicitud", example = "0")
+		int index,
+		@Schema(description = "Resultado del elemento", example = "CREATED")
+		BatchItemStatus status,
+		@Schema(description = "Alquiler creado o actualizado; nulo si se rechazó")
+		RentalDto rental,
+		@Schema(description = "Motivo del rechazo", example = "El vehiculo ya está reservado en esas fechas")
+		String error) {
+
+	public static RentalBatchResult of(int index, BatchItemStatus status, RentalDto rental) {
+		return new RentalBatchResult(index, status, rental, null);
+	}
+
+	public static RentalBatchResult rejected(int index, String error) {
+		return new RentalBatchResult(index, BatchItemStatus.REJECTED, null, error);
+	}
+}
@@ -0,0 +1,51 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.alquiler.car_rent.commons.entities.Rental;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+
+/**
+ * Posición de paginación por clave (keyset) sobre (startDate, id).
+ * Se expone al cliente como un token opaco en Base64 URL-safe.
+ */
+public record RentalCursor(LocalDateTime startDate, Long id) {
+
+	/** Posición anterior a cualquier alquiler: primera página. */
+	public static final RentalCursor ORIGIN = new RentalCursor(LocalDateTime.of(1000, 1, 1, 0, 0), 0L);
+
+	private static final String SEPARATOR = "|";
+
+	public static RentalCursor after(Rental rental) {
+		return new RentalCursor(rental.getStartDate(), rental.getId());
+	}
+
+	public String encode() {
+		String raw = startDate + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodifica un token de cursor; un token vacío o nulo equivale a la primera página.
+	 */
+	public static RentalCursor decode(String token) {
+		if (token == null || token.isBlank()) {
+			return ORIGIN;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = raw.lastIndexOf(SEPARATOR);
+			if (separator < 0) {
+				throw new BadRequestException("Cursor de paginación inválido");
+			}
+			return new RentalCursor(
+					LocalDateTime.parse(raw.substring(0, separator)),
+					Long.parseLong(raw.substring(separator + 1)));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new BadRequestException("Cursor de paginación inválido");
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alerta para el panel de administración de un alquiler que vence pronto.
+ */
+public record RentalEndingAlert(
+        Long rentalId,
+        String customerName,
+        String vehicleBrand,
+        String vehicleModel,
+        String vehiclePlate,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime endDate,
+        String message) {
+}
@@ -0,0 +1,19 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import java.time.LocalDate;
+
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+
+/**
+ * Filtros opcionales del listado de alquileres; los campos nulos no restringen el resultado.
+ * El rango [from, to] selecciona los alquileres que se solapan con esas fechas.
+ */
+public record RentalFilter(
+        RentalStatus status,
+        LocalDate from,
+        LocalDate to,
+        VehicleType vehicleType,
+        Long customerId,
+        Long vehicleId) {
+}
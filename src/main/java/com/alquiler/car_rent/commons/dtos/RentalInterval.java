@@ -0,0 +1,13 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodo que un alquiler no cancelado ocupa en un vehículo; alimenta el índice de disponibilidad.
+ */
+public record RentalInterval(
+        Long rentalId,
+        Long vehicleId,
+        LocalDateTime startDate,
+        LocalDateTime endDate) {
+}
@@ -0,0 +1,17 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos de un alquiler próximo a vencer que necesitan el SMS al cliente y la alerta al administrador.
+ * Se obtiene con una expresión constructora JPQL que une cliente y vehículo en la misma consulta.
+ */
+public record RentalReminderRow(
+        Long rentalId,
+        LocalDateTime endDate,
+        String customerName,
+        String customerPhone,
+        String vehicleBrand,
+        String vehicleModel,
+        String vehiclePlate) {
+}
@@ -0,0 +1,27 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+
+/**
+ * Proyección plana de un alquiler con los datos de cliente y vehículo que necesitan los reportes.
+ * Se obtiene con una expresión constructora JPQL, sin cargar entidades en el contexto de persistencia.
+ */
+public record RentalReportRow(
+        Long id,
+        Long customerId,
+        String customerName,
+        Long vehicleId,
+        String vehicleBrand,
+        String vehicleModel,
+        VehicleType vehicleType,
+        PricingTier pricingTier,
+        RentalStatus rentalStatus,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        BigDecimal totalPrice) {
+}
@@ -0,0 +1,26 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Cambio de estado de varios alquileres en una sola operación")
+public class RentalStatusBatchRequest {
+
+    @NotEmpty(message = "La lista de IDs es obligatoria")
+    @Schema(description = "IDs de los alquileres", example = "[1, 2, 3]")
+    private List<Long> ids;
+
+    @NotNull(message = "El estado es obligatorio")
+    @Schema(description = "Estado destino: CANCELLED o COMPLETED", example = "COMPLETED")
+    private RentalStatus status;
+}
@@ -0,0 +1,54 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.enums.ReportJobPriority;
+import com.alquiler.car_rent.commons.enums.ReportJobStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Estado de un trabajo de generación de reporte")
+public class ReportJobDto {
+
+    @Schema(description = "Identificador del trabajo", example = "3f2b8c1e-6a7d-4e8f-9b0a-1c2d3e4f5a6b")
+    private String id;
+
+    @Schema(description = "Estado actual", example = "RUNNING")
+    private ReportJobStatus status;
+
+    @Schema(description = "Avance estimado en porcentaje", example = "60")
+    private int progress;
+
+    private ReportingConstants.OutputFormat format;
+
+    private ReportingConstants.ReportType reportType;
+
+    private ReportingConstants.TimePeriod period;
+
+    private ReportJobPriority priority;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Schema(description = "Fecha de creación del trabajo")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Fecha de finalización (correcta o con error)")
+    private LocalDateTime finishedAt;
+
+    @Schema(description = "Fecha a partir de la cual el resultado deja de estar disponible")
+    private LocalDateTime expiresAt;
+
+    @Schema(description = "Mensaje de error si el trabajo falló")
+    private String error;
+}
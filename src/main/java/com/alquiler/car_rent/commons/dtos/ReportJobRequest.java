@@ -0,0 +1,38 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.enums.ReportJobPriority;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Solicitud de generación asíncrona de un reporte")
+public class ReportJobRequest {
+
+    @NotNull(message = "El formato es obligatorio")
+    @Schema(description = "Formato de salida", example = "PDF")
+    private ReportingConstants.OutputFormat format;
+
+    @NotNull(message = "El tipo de reporte es obligatorio")
+    @Schema(description = "Tipo de reporte", example = "RENTAL_SUMMARY")
+    private ReportingConstants.ReportType reportType;
+
+    @Schema(description = "Periodo del reporte", example = "ALL_TIME", defaultValue = "MONTHLY")
+    private ReportingConstants.TimePeriod period = ReportingConstants.TimePeriod.MONTHLY;
+
+    @Schema(description = "Fecha de inicio personalizada", example = "2023-01-01")
+    private LocalDate startDate;
+
+    @Schema(description = "Fecha de fin personalizada", example = "2023-12-31")
+    private LocalDate endDate;
+
+    @Schema(description = "Prioridad en la cola; los trabajos HIGH se atienden primero", example = "NORMAL", defaultValue = "NORMAL")
+    private ReportJobPriority priority = ReportJobPriority.NORMAL;
+}
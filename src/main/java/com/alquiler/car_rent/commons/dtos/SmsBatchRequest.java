@@ -0,0 +1,25 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "Mismo SMS para varios destinatarios")
+public class SmsBatchRequest {
+
+    @NotEmpty(message = "La lista de destinatarios es obligatoria")
+    @Schema(description = "Números destino en formato E.164", example = "[\"+50761234567\", \"+50762345678\"]")
+    private List<@NotBlank(message = "El destinatario no puede estar vacío") String> recipients;
+
+    @NotBlank(message = "El mensaje es obligatorio")
+    @Schema(description = "Contenido del mensaje SMS", example = "Su vehículo requiere una revisión programada")
+    private String message;
+}
@@ -0,0 +1,26 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado del envío de un lote de SMS para un destinatario.
+ */
+@Schema(description = "Resultado del envío a un destinatario")
+public record SmsBatchResult(
+		@Schema(description = "Número destino en formato E.164", example = "+50761234567")
+		String to,
+		@Schema(description = "Indica si algún proveedor aceptó el mensaje", example = "true")
+		boolean sent,
+		@Schema(description = "Proveedor que aceptó el mensaje o el último que lo intentó", example = "vonage")
+		String provider,
+		@Schema(description = "Motivo del fallo; nulo si se envió", example = "Vonage rechazó el SMS: INVALID_MESSAGE")
+		String error) {
+
+	public static SmsBatchResult sent(String to, String provider) {
+		return new SmsBatchResult(to, true, provider, null);
+	}
+
+	public static SmsBatchResult failed(String to, String provider, String error) {
+		return new SmsBatchResult(to, false, provider, error);
+	}
+}
@@ -0,0 +1,15 @@
+package com.alquiler.car_rent.commons.dtos;
+
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.VehicleStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+
+/**
+ * Filtros opcionales del listado de vehículos; los campos nulos no restringen el resultado.
+ */
+public record VehicleFilter(
+        VehicleStatus status,
+        VehicleType vehicleType,
+        PricingTier pricingTier,
+        String brand) {
+}
@@ -17,6 +17,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -59,6 +60,13 @@ public class Rental {
 	
 	@JsonFormat(pattern = "yyyy-MM-dd HH:mm")
 	private LocalDateTime createdAt;
+
+	// Momento en que se envió el recordatorio de devolución; se limpia si cambian las fechas
+	private LocalDateTime reminderSentAt;
+
+	// Bloqueo optimista: dos reservas concurrentes del mismo vehículo no pueden confirmarse ambas
+	@Version
+	private Long version;
 	
 	@PrePersist
 	public void prePersist() {
@@ -0,0 +1,113 @@
+package com.alquiler.car_rent.commons.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Converter;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Agregado diario de alquileres por día de inicio, tipo de vehículo, nivel de precio y estado.
+ * Se mantiene de forma incremental desde RentalServiceImpl y se reconstruye periódicamente.
+ * Un tipo o nivel ausente se guarda como NONE y no como NULL: en MySQL las columnas NULL no cuentan para la
+ * clave única y dos altas simultáneas crearían dos buckets iguales.
+ */
+@Entity
+@Table(name = "rental_daily_rollups", uniqueConstraints = @UniqueConstraint(
+		name = "uk_rental_daily_rollup",
+		columnNames = {"bucket_date", "vehicle_type", "pricing_tier", "rental_status"}))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RentalDailyRollup {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "bucket_date", nullable = false)
+	private LocalDate bucketDate;
+
+	public static final String NONE = "NONE";
+
+	@Convert(converter = VehicleTypeColumn.class)
+	@Column(name = "vehicle_type", nullable = false)
+	private VehicleType vehicleType;
+
+	@Convert(converter = PricingTierColumn.class)
+	@Column(name = "pricing_tier", nullable = false)
+	private PricingTier pricingTier;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "rental_status", nullable = false)
+	private RentalStatus rentalStatus;
+
+	@Column(name = "rental_count", nullable = false)
+	private long rentalCount;
+
+	@Column(name = "revenue", nullable = false, precision = 19, scale = 2)
+	private BigDecimal revenue;
+
+	@Column(name = "rental_days", nullable = false)
+	private long rentalDays;
+
+	/**
+	 * Valor de columna de una dimensión del bucket: el nombre de la constante o NONE si no tiene.
+	 */
+	public static String dimension(Enum<?> value) {
+		return value != null ? value.name() : NONE;
+	}
+
+	abstract static class DimensionColumn<E extends Enum<E>> implements AttributeConverter<E, String> {
+
+		private final Class<E> type;
+
+		DimensionColumn(Class<E> type) {
+			this.type = type;
+		}
+
+		@Override
+		public String convertToDatabaseColumn(E value) {
+			return dimension(value);
+		}
+
+		@Override
+		public E convertToEntityAttribute(String column) {
+			return column == null || NONE.equals(column) ? null : Enum.valueOf(type, column);
+		}
+	}
+
+	@Converter
+	public static class VehicleTypeColumn extends DimensionColumn<VehicleType> {
+		public VehicleTypeColumn() {
+			super(VehicleType.class);
+		}
+	}
+
+	@Converter
+	public static class PricingTierColumn extends DimensionColumn<PricingTier> {
+		public PricingTierColumn() {
+			super(PricingTier.class);
+		}
+	}
+}
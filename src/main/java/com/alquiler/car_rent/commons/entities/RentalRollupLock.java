@@ -0,0 +1,25 @@
+package com.alquiler.car_rent.commons.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila única que coordina los agregados diarios: cada incremento la toma en modo compartido y la
+ * reconstrucción de cada día en modo exclusivo, así ningún incremento confirmado mientras se recalcula un día se
+ * pierde. La fila la inserta la migración V2.
+ */
+@Entity
+@Table(name = "rental_rollup_lock")
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RentalRollupLock {
+	public static final long ID = 1L;
+
+	@Id
+	private Long id;
+}
@@ -0,0 +1,66 @@
+package com.alquiler.car_rent.commons.entities;
+
+import java.time.LocalDateTime;
+
+import com.alquiler.car_rent.commons.enums.SmsOutboxStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * SMS pendiente de envío. Se inserta en la misma transacción que lo origina y lo entrega
+ * SmsOutboxServiceImpl en segundo plano, con reintentos hasta quedar SENT o DEAD.
+ */
+@Entity
+@Table(name = "sms_outbox", indexes = @Index(name = "idx_sms_outbox_due", columnList = "status, next_attempt_at"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SmsOutboxMessage {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false, length = 32)
+	private String recipient;
+
+	@Column(nullable = false, length = 1600)
+	private String body;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 16)
+	private SmsOutboxStatus status;
+
+	@Column(nullable = false)
+	private int attempts;
+
+	// Próximo intento; mientras está SENDING marca el fin de la reserva del mensaje
+	@Column(name = "next_attempt_at", nullable = false)
+	private LocalDateTime nextAttemptAt;
+
+	@Column(name = "last_error", length = 500)
+	private String lastError;
+
+	@Column(length = 32)
+	private String provider;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+
+	@Column(name = "sent_at")
+	private LocalDateTime sentAt;
+}
@@ -1,5 +1,7 @@
 package com.alquiler.car_rent.commons.enums;
 
+// Las consultas de reportes filtran por la lista IN de estados no cancelados (ver RentalRepository);
+// un estado nuevo debe añadirse también allí
 public enum RentalStatus {
 	PENDING,
 	ACTIVE,
@@ -0,0 +1,8 @@
+package com.alquiler.car_rent.commons.enums;
+
+public enum ReportJobPriority {
+	HIGH,
+	NORMAL,
+	LOW
+
+}
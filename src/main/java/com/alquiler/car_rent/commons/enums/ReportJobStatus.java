@@ -0,0 +1,9 @@
+package com.alquiler.car_rent.commons.enums;
+
+public enum ReportJobStatus {
+	QUEUED,
+	RUNNING,
+	COMPLETED,
+	FAILED
+
+}
@@ -0,0 +1,9 @@
+package com.alquiler.car_rent.commons.enums;
+
+public enum SmsOutboxStatus {
+	PENDING,
+	SENDING,
+	SENT,
+	DEAD
+
+}
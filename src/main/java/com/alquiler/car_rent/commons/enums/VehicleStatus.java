@@ -17,4 +17,9 @@ public enum VehicleStatus {
 		return description;
 	}
 
+	// Un vehículo alquilado puede reservarse para otras fechas; en mantenimiento o fuera de servicio, no
+	public boolean isBookable() {
+		return this == AVAILABLE || this == RENTED;
+	}
+
 }
@@ -0,0 +1,17 @@
+package com.alquiler.car_rent.commons.events;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Se publica cuando un alquiler se crea, modifica, cancela, completa o elimina.
+ * El rango [startDate, endDate] son los días afectados, para invalidar solo los reportes que se solapan.
+ */
+public record RentalChangedEvent(Long rentalId, LocalDate startDate, LocalDate endDate) {
+
+	public static RentalChangedEvent of(Long rentalId, LocalDateTime startDate, LocalDateTime endDate) {
+		LocalDate start = startDate != null ? startDate.toLocalDate() : LocalDate.MIN;
+		LocalDate end = endDate != null ? endDate.toLocalDate() : LocalDate.MAX;
+		return new RentalChangedEvent(rentalId, start, end);
+	}
+}
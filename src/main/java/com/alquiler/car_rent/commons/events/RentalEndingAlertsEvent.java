@@ -0,0 +1,16 @@
+package com.alquiler.car_rent.commons.events;
+
+import com.alquiler.car_rent.commons.dtos.RentalEndingAlert;
+
+import java.util.List;
+
+/**
+ * Alertas de vencimiento de una ejecución del recordatorio. Se publican al panel tras el commit, cuando la
+ * marca de aviso de esos alquileres ya es definitiva.
+ */
+public record RentalEndingAlertsEvent(List<RentalEndingAlert> alerts) {
+
+	public RentalEndingAlertsEvent {
+		alerts = List.copyOf(alerts);
+	}
+}
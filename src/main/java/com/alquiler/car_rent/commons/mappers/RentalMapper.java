@@ -35,6 +35,8 @@ public interface RentalMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "totalPrice", qualifiedByName = "scaleBigDecimal")
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true) // La versión la gestiona JPA para el bloqueo optimista
+    @Mapping(target = "reminderSentAt", ignore = true) // Solo lo marca el job de recordatorios
     @Mapping(target = "chosenPricingTier", source = "chosenPricingTier") // Mapea el campo elegido del DTO a la entidad
     Rental dtoToRental(RentalDto rentalDto);
 
@@ -42,6 +44,8 @@ public interface RentalMapper {
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "customer", ignore = true)
     @Mapping(target = "vehicle", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "reminderSentAt", ignore = true)
     @Mapping(target = "totalPrice", qualifiedByName = "scaleBigDecimal")
     @Mapping(target = "chosenPricingTier", source = "chosenPricingTier")
     void updateRentalFromDto(RentalDto rentalDto, @MappingTarget Rental rental);
@@ -3,6 +3,7 @@ package com.alquiler.car_rent.commons.mappers;
 import com.alquiler.car_rent.commons.dtos.VehicleDto;
 import com.alquiler.car_rent.commons.entities.Vehicle;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 
@@ -11,7 +12,10 @@ public interface VehicleMapper {
 
     VehicleDto vehicleToDto(Vehicle vehicle);
 
+    // La versión la gestiona JPA para el bloqueo optimista; nunca se toma del cliente
+    @Mapping(target = "version", ignore = true)
     Vehicle dtoToVehicle(VehicleDto vehicleDto);
 
+    @Mapping(target = "version", ignore = true)
     void updateVehicleFromDto(VehicleDto dto, @MappingTarget Vehicle entity);
 }
@@ -0,0 +1,74 @@
+package com.alquiler.car_rent.commons.utils;
+
+import static com.alquiler.car_rent.commons.constants.PaginationConstants.DEFAULT_PAGE_SIZE;
+import static com.alquiler.car_rent.commons.constants.PaginationConstants.MAX_PAGE_SIZE;
+import static com.alquiler.car_rent.commons.constants.PaginationConstants.TOTAL_COUNT_HEADER;
+import static com.alquiler.car_rent.commons.constants.PaginationConstants.TOTAL_PAGES_HEADER;
+
+import java.util.Set;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+
+import com.alquiler.car_rent.exceptions.BadRequestException;
+
+/**
+ * Traduce los parámetros de paginación de los listados a páginas acotadas y sus totales a cabeceras HTTP.
+ */
+public final class Pagination {
+
+	private Pagination() {
+	}
+
+	/**
+	 * Ajusta el tamaño de página solicitado al rango permitido [1, MAX_PAGE_SIZE].
+	 */
+	public static int boundedPageSize(Integer requested) {
+		if (requested == null || requested < 1) {
+			return DEFAULT_PAGE_SIZE;
+		}
+		return Math.min(requested, MAX_PAGE_SIZE);
+	}
+
+	/**
+	 * Construye una página acotada a partir de los parámetros de la petición.
+	 * El orden tiene la forma "campo" o "campo,asc|desc" y solo admite los campos indicados;
+	 * el ID se añade siempre como desempate para que el orden entre páginas sea estable.
+	 */
+	public static Pageable pageRequest(Integer page, Integer size, String sort, Sort defaultSort, Set<String> sortableFields) {
+		if (page != null && page < 0) {
+			throw new BadRequestException("El número de página no puede ser negativo.");
+		}
+		Sort order = defaultSort;
+		if (sort != null && !sort.isBlank()) {
+			String[] parts = sort.split(",");
+			String property = parts[0].trim();
+			if (!sortableFields.contains(property)) {
+				throw new BadRequestException("No se puede ordenar por el campo: " + property);
+			}
+			Sort.Direction direction = Sort.Direction.ASC;
+			if (parts.length > 1) {
+				direction = Sort.Direction.fromOptionalString(parts[1].trim())
+						.orElseThrow(() -> new BadRequestException("Dirección de orden inválida: " + parts[1].trim()));
+			}
+			order = Sort.by(direction, property);
+		}
+		if (order.getOrderFor("id") == null) {
+			order = order.and(Sort.by("id"));
+		}
+		return PageRequest.of(page != null ? page : 0, boundedPageSize(size), order);
+	}
+
+	/**
+	 * Cabeceras con los totales de una página; el cuerpo de los listados sigue siendo un arreglo JSON.
+	 */
+	public static HttpHeaders pageHeaders(Page<?> page) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()));
+		headers.add(TOTAL_PAGES_HEADER, String.valueOf(page.getTotalPages()));
+		return headers;
+	}
+}
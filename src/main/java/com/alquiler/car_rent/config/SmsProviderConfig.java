@@ -1,5 +1,9 @@
 package com.alquiler.car_rent.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,4 +14,32 @@ import lombok.Data;
 @Data
 public class SmsProviderConfig {
     private String provider = "vonage"; // 'twilio' por defecto para no romper la funcionalidad existente
+
+    // Mensajes por segundo admitidos por cada proveedor (sms.rate-limits.twilio: 10); sin entrada se usa sms.outbox.default-rate
+    private Map<String, Double> rateLimits = new HashMap<>();
+
+    // Peso de cada proveedor en el reparto (sms.weights.vonage: 3); con 0 solo recibe tráfico si los demás fallan.
+    // Sin pesos, 'provider' se lleva todo el tráfico y el resto queda de respaldo.
+    private Map<String, Integer> weights = new HashMap<>();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Batch batch = new Batch();
+
+    @Data
+    public static class CircuitBreaker {
+        private int windowSize = 20;                             // Últimos envíos evaluados por proveedor
+        private int minimumCalls = 10;                           // Envíos mínimos en la ventana antes de poder abrir
+        private double failureRateThreshold = 0.5;               // Proporción de fallos que abre el circuito
+        private Duration slowCallThreshold = Duration.ofSeconds(5);
+        private double slowCallRateThreshold = 0.8;              // Proporción de envíos lentos que abre el circuito
+        private Duration openDuration = Duration.ofSeconds(30);  // Tiempo abierto antes de dejar pasar una prueba
+    }
+
+    @Data
+    public static class Batch {
+        private int maxRecipients = 500;  // Destinatarios admitidos por lote
+        private int chunkSize = 50;       // Destinatarios por llamada a sendBatch del proveedor
+        private int parallelism = 8;      // Envíos en curso a la vez dentro de cada tramo
+    }
 }
@@ -1,5 +1,6 @@
 package com.alquiler.car_rent.config;
 
+import com.alquiler.car_rent.commons.constants.PaginationConstants;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -13,7 +14,8 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:9000") // Puerto de Quasar
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .exposedHeaders("Authorization") // Para que el frontend pueda leer el header
+                .exposedHeaders("Authorization", PaginationConstants.NEXT_CURSOR_HEADER,
+                        PaginationConstants.TOTAL_COUNT_HEADER, PaginationConstants.TOTAL_PAGES_HEADER) // Para que el frontend pueda leer los headers
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -0,0 +1,80 @@
+package com.alquiler.car_rent.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+/**
+ * Equivale a @EnableWebSocketMessageBroker (aplica los WebSocketMessageBrokerConfigurer como WebSocketConfig),
+ * pero permite elegir qué pasa cuando se llena el búfer de salida de una sesión. Con DROP, por defecto, un
+ * navegador lento pierde sus mensajes más antiguos en lugar de que se cierre su sesión; solo se cierra si un
+ * envío supera websocket.outbound.send-time-limit. Los demás administradores no se ven afectados.
+ * Las mismas estadísticas que registra en log WebSocketMessageBrokerStats se publican como métricas en
+ * WebSocketBrokerMetrics; el periodo del log se ajusta con websocket.stats-logging-period.
+ */
+@Configuration(proxyBeanMethods = false)
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+	private final OverflowStrategy overflowStrategy;
+	private final long statsLoggingPeriod;
+
+	public WebSocketBrokerConfig(WebSocketProperties properties) {
+		this.overflowStrategy = properties.getOutbound().getOverflowStrategy();
+		this.statsLoggingPeriod = properties.getStatsLoggingPeriod().toMillis();
+	}
+
+	@Override
+	@Bean
+	public WebSocketHandler subProtocolWebSocketHandler(AbstractSubscribableChannel clientInboundChannel,
+														AbstractSubscribableChannel clientOutboundChannel) {
+		BoundedSessionWebSocketHandler handler =
+				new BoundedSessionWebSocketHandler(clientInboundChannel, clientOutboundChannel, overflowStrategy);
+		handler.setPhase(getPhase());
+		return handler;
+	}
+
+	@Override
+	@Bean
+	public WebSocketMessageBrokerStats webSocketMessageBrokerStats(
+			@Nullable AbstractBrokerMessageHandler stompBrokerRelayMessageHandler,
+			WebSocketHandler subProtocolWebSocketHandler,
+			@Qualifier("clientInboundChannelExecutor") TaskExecutor inboundExecutor,
+			@Qualifier("clientOutboundChannelExecutor") TaskExecutor outboundExecutor,
+			@Qualifier("messageBrokerTaskScheduler") TaskScheduler scheduler) {
+		WebSocketMessageBrokerStats stats = super.webSocketMessageBrokerStats(stompBrokerRelayMessageHandler,
+				subProtocolWebSocketHandler, inboundExecutor, outboundExecutor, scheduler);
+		// Cero desactiva el log periódico; las métricas siguen disponibles
+		stats.setLoggingPeriod(statsLoggingPeriod);
+		return stats;
+	}
+
+	static class BoundedSessionWebSocketHandler extends SubProtocolWebSocketHandler {
+
+		private final OverflowStrategy overflowStrategy;
+
+		BoundedSessionWebSocketHandler(MessageChannel clientInboundChannel, SubscribableChannel clientOutboundChannel,
+									   OverflowStrategy overflowStrategy) {
+			super(clientInboundChannel, clientOutboundChannel);
+			this.overflowStrategy = overflowStrategy;
+		}
+
+		@Override
+		protected WebSocketSession decorateSession(WebSocketSession session) {
+			return new ConcurrentWebSocketSessionDecorator(session, getSendTimeLimit(), getSendBufferSizeLimit(), overflowStrategy);
+		}
+	}
+}
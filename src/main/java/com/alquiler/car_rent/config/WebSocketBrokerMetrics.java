@@ -0,0 +1,81 @@
+package com.alquiler.car_rent.config;
+
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publica como métricas las estadísticas del broker STOMP: sesiones abiertas, sesiones cerradas por causa y
+ * ocupación de los pools de los canales de entrada y salida. Con hilos virtuales el canal no tiene pool
+ * que medir y solo se publican las métricas de sesiones.
+ */
+@Component
+public class WebSocketBrokerMetrics implements MeterBinder {
+
+	private final SubProtocolWebSocketHandler webSocketHandler;
+	private final TaskExecutor inboundExecutor;
+	private final TaskExecutor outboundExecutor;
+
+	public WebSocketBrokerMetrics(@Qualifier("subProtocolWebSocketHandler") WebSocketHandler webSocketHandler,
+								  @Qualifier("clientInboundChannelExecutor") TaskExecutor inboundExecutor,
+								  @Qualifier("clientOutboundChannelExecutor") TaskExecutor outboundExecutor) {
+		this.webSocketHandler = (SubProtocolWebSocketHandler) webSocketHandler;
+		this.inboundExecutor = inboundExecutor;
+		this.outboundExecutor = outboundExecutor;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		SubProtocolWebSocketHandler.Stats stats = webSocketHandler.getStats();
+		Gauge.builder("websocket.sessions", stats, SubProtocolWebSocketHandler.Stats::getWebSocketSessions)
+				.description("Sesiones WebSocket abiertas")
+				.register(registry);
+		closedSessions(registry, stats, "limit_exceeded", SubProtocolWebSocketHandler.Stats::getLimitExceededSessions);
+		closedSessions(registry, stats, "no_messages_received", SubProtocolWebSocketHandler.Stats::getNoMessagesReceivedSessions);
+		closedSessions(registry, stats, "transport_error", SubProtocolWebSocketHandler.Stats::getTransportErrorSessions);
+
+		channelPool(registry, "inbound", inboundExecutor);
+		channelPool(registry, "outbound", outboundExecutor);
+	}
+
+	private static void closedSessions(MeterRegistry registry, SubProtocolWebSocketHandler.Stats stats, String reason,
+									   ToDoubleFunction<SubProtocolWebSocketHandler.Stats> count) {
+		FunctionCounter.builder("websocket.sessions.closed", stats, count)
+				.description("Sesiones cerradas por el servidor según la causa")
+				.tag("reason", reason)
+				.register(registry);
+	}
+
+	private static void channelPool(MeterRegistry registry, String channel, TaskExecutor executor) {
+		if (!(executor instanceof ThreadPoolTaskExecutor pool)) {
+			return;
+		}
+		Gauge.builder("websocket.channel.pool.size", pool, ThreadPoolTaskExecutor::getPoolSize)
+				.description("Hilos del pool del canal")
+				.tag("channel", channel)
+				.register(registry);
+		Gauge.builder("websocket.channel.active", pool, ThreadPoolTaskExecutor::getActiveCount)
+				.description("Hilos del canal procesando un mensaje")
+				.tag("channel", channel)
+				.register(registry);
+		Gauge.builder("websocket.channel.queued", pool, ThreadPoolTaskExecutor::getQueueSize)
+				.description("Mensajes en espera de un hilo del canal")
+				.tag("channel", channel)
+				.register(registry);
+		FunctionCounter.builder("websocket.channel.completed", pool,
+						p -> p.getThreadPoolExecutor().getCompletedTaskCount())
+				.description("Mensajes procesados por el canal")
+				.tag("channel", channel)
+				.register(registry);
+	}
+}
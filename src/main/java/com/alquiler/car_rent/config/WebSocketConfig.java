@@ -1,15 +1,29 @@
 package com.alquiler.car_rent.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+// El broker STOMP lo habilita WebSocketBrokerConfig, que reemplaza a @EnableWebSocketMessageBroker
 @Configuration
-@EnableWebSocketMessageBroker
 
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer{
+
+	private final WebSocketProperties properties;
+	private final TaskScheduler messageBrokerTaskScheduler;
+
+	public WebSocketConfig(WebSocketProperties properties,
+						   @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler messageBrokerTaskScheduler) {
+		this.properties = properties;
+		this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+	}
 	
 	@Override
 	public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -20,8 +34,44 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer{
 	
 	@Override
 	public void configureMessageBroker(MessageBrokerRegistry registry) {
-		registry.enableSimpleBroker("/topic");
+		// Latidos STOMP: detectan navegadores caídos sin esperar al timeout TCP
+		registry.enableSimpleBroker("/topic")
+				.setHeartbeatValue(new long[] {
+						properties.getHeartbeat().getServer().toMillis(),
+						properties.getHeartbeat().getClient().toMillis() })
+				.setTaskScheduler(messageBrokerTaskScheduler);
 		registry.setApplicationDestinationPrefixes("app");
+		registry.setPreservePublishOrder(properties.getOutbound().isPreservePublishOrder());
+	}
+
+	@Override
+	public void configureClientInboundChannel(ChannelRegistration registration) {
+		configureChannel(registration, properties.getInboundChannel(), "ws-inbound-");
+	}
+
+	@Override
+	public void configureClientOutboundChannel(ChannelRegistration registration) {
+		configureChannel(registration, properties.getOutboundChannel(), "ws-outbound-");
+	}
+
+	// Búfer de salida por sesión; qué pasa al llenarse lo decide websocket.outbound.overflow-strategy
+	@Override
+	public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+		registration.setSendTimeLimit((int) properties.getOutbound().getSendTimeLimit().toMillis());
+		registration.setSendBufferSizeLimit(properties.getOutbound().getBufferSizeLimit());
+		registration.setMessageSizeLimit(properties.getMessageSizeLimit());
+	}
+
+	private static void configureChannel(ChannelRegistration registration, WebSocketProperties.Channel channel, String threadPrefix) {
+		if (channel.isVirtualThreads()) {
+			registration.executor(new VirtualThreadTaskExecutor(threadPrefix));
+			return;
+		}
+		registration.taskExecutor()
+				.corePoolSize(channel.getCorePoolSize())
+				.maxPoolSize(Math.max(channel.getCorePoolSize(), channel.getMaxPoolSize()))
+				.queueCapacity(channel.getQueueCapacity())
+				.keepAliveSeconds((int) channel.getKeepAlive().toSeconds());
 	}
 
 }
@@ -0,0 +1,46 @@
+package com.alquiler.car_rent.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator.OverflowStrategy;
+
+import lombok.Data;
+
+@Configuration
+@ConfigurationProperties(prefix = "websocket")
+@Data
+public class WebSocketProperties {
+    // Hilos que procesan los frames STOMP recibidos de los navegadores
+    private Channel inboundChannel = new Channel();
+    // Hilos que escriben los mensajes hacia cada sesión
+    private Channel outboundChannel = new Channel();
+    private Outbound outbound = new Outbound();
+    private Heartbeat heartbeat = new Heartbeat();
+    private int messageSizeLimit = 64 * 1024;                   // Tamaño máximo de un mensaje STOMP recibido (bytes)
+    private Duration statsLoggingPeriod = Duration.ofMinutes(30); // Cada cuánto se registran en log las estadísticas del broker
+
+    @Data
+    public static class Channel {
+        private boolean virtualThreads = false;                 // Un hilo virtual por mensaje en lugar del pool
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private int maxPoolSize = Integer.MAX_VALUE;
+        private int queueCapacity = Integer.MAX_VALUE;
+        private Duration keepAlive = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class Outbound {
+        private Duration sendTimeLimit = Duration.ofSeconds(10);  // Un envío bloqueado más que esto cierra la sesión
+        private int bufferSizeLimit = 512 * 1024;                 // Bytes en espera por sesión
+        private OverflowStrategy overflowStrategy = OverflowStrategy.DROP;
+        private boolean preservePublishOrder = true;              // Mantiene el orden por sesión con varios hilos de salida
+    }
+
+    @Data
+    public static class Heartbeat {
+        private Duration server = Duration.ofSeconds(10);       // Cada cuánto el servidor envía latidos; cero los desactiva
+        private Duration client = Duration.ofSeconds(10);       // Cada cuánto se esperan latidos del navegador; cero no los exige
+    }
+}
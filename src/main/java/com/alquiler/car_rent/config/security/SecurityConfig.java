@@ -1,6 +1,7 @@
 package com.alquiler.car_rent.config.security;
 
 import com.alquiler.car_rent.commons.constants.ApiPathConstants;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -50,6 +51,10 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // El despacho ASYNC de las respuestas en streaming continúa una petición ya autorizada;
+                        // el filtro JWT no se vuelve a ejecutar en él
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Endpoints públicos de la API
                         .requestMatchers(ApiPathConstants.V1_ROUTE + ApiPathConstants.AUTH_ROUTE + "/login").permitAll()
                         .requestMatchers(ApiPathConstants.V1_ROUTE + ApiPathConstants.AUTH_ROUTE + "/register").permitAll()
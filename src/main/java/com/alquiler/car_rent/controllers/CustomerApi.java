@@ -11,9 +11,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.alquiler.car_rent.commons.constants.ApiPathConstants;
 import com.alquiler.car_rent.commons.dtos.CustomerDto;
+import com.alquiler.car_rent.commons.enums.CustomerStatus;
 import com.alquiler.car_rent.exceptions.GlobalExceptionHandler.ErrorResponse;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -65,8 +67,9 @@ public interface CustomerApi {
 	ResponseEntity<CustomerDto> createCustomer(@RequestBody CustomerDto customerDto);
 
 	@Operation(
-			summary = "Obtener todos los clientes",
-			description = "Retorna una lista completa de clientes registrados",
+			summary = "Listar clientes",
+			description = "Retorna una página de clientes (20 por defecto, máximo 100) con filtros opcionales por estado "
+					+ "y prefijo del nombre. El total se devuelve en las cabeceras X-Total-Count y X-Total-Pages.",
 			security = @SecurityRequirement(name = "JWT"),
 			responses = {
 					@ApiResponse(
@@ -82,7 +85,18 @@ public interface CustomerApi {
 	)
 	@GetMapping
 	@PreAuthorize("hasAnyRole('SUPER_ADMIN', 'USERS', 'ADMIN')")
-	ResponseEntity<List<CustomerDto>> getAllCustomers();
+	ResponseEntity<List<CustomerDto>> getAllCustomers(
+			@Parameter(description = "Número de página empezando en 0", example = "0")
+			@RequestParam(required = false) Integer page,
+			@Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+			@RequestParam(required = false) Integer size,
+			@Parameter(description = "Orden: name, email, createdAt o id, con ',asc' o ',desc'", example = "name,asc")
+			@RequestParam(required = false) String sort,
+			@Parameter(description = "Estado del cliente", example = "ACTIVE")
+			@RequestParam(required = false) CustomerStatus status,
+			@Parameter(description = "Prefijo del nombre del cliente", example = "Juan")
+			@RequestParam(required = false) String name
+	);
 
 	@Operation(
 			summary = "Obtener cliente por ID",
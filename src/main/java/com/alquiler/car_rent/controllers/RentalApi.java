@@ -1,8 +1,10 @@
 package com.alquiler.car_rent.controllers;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,9 +14,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.alquiler.car_rent.commons.constants.ApiPathConstants;
+import com.alquiler.car_rent.commons.dtos.RentalBatchResult;
 import com.alquiler.car_rent.commons.dtos.RentalDto;
+import com.alquiler.car_rent.commons.dtos.RentalStatusBatchRequest;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
 import com.alquiler.car_rent.exceptions.GlobalExceptionHandler.ErrorResponse;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -80,20 +87,122 @@ public interface RentalApi {
 	ResponseEntity<RentalDto> createRental(@Valid @RequestBody RentalDto rentalDto);
 
 	@Operation(
-			summary = "Listar todos los alquileres",
-			description = "Obtiene todos los contratos de alquiler registrados",
+			summary = "Crear alquileres por lote",
+			description = "Registra hasta 500 alquileres en una sola operación. Cada elemento se valida por separado: "
+					+ "los rechazados se informan en su posición con el motivo y no impiden la creación del resto. "
+					+ "Clientes y vehículos se cargan con una consulta por tipo y los alquileres se insertan por lotes.",
+			security = @SecurityRequirement(name = "JWT"),
+			responses = {
+					@ApiResponse(
+							responseCode = "200",
+							description = "Lote procesado; el resultado de cada elemento indica CREATED o REJECTED",
+							content = @Content(mediaType = "application/json")
+					),
+					@ApiResponse(
+							responseCode = "400",
+							description = "Lote vacío o demasiado grande",
+							content = @Content(
+									mediaType = "application/json",
+									schema = @Schema(implementation = ErrorResponse.class),
+									examples = @ExampleObject(
+											value = "{\"message\": \"El lote admite como máximo 500 elementos.\", \"status\": 400}"
+									)
+							)
+					),
+					@ApiResponse(
+							responseCode = "409",
+							description = "Otra operación modificó los mismos vehículos; reintentar",
+							content = @Content(
+									mediaType = "application/json",
+									schema = @Schema(implementation = ErrorResponse.class)
+							)
+					)
+			}
+	)
+	@PostMapping("/batch")
+	@PreAuthorize("hasAnyRole('SUPER_ADMIN', 'USERS', 'ADMIN')")
+	ResponseEntity<List<RentalBatchResult>> createRentals(@RequestBody List<RentalDto> rentals);
+
+	@Operation(
+			summary = "Cambiar el estado de varios alquileres",
+			description = "Pasa a CANCELLED o COMPLETED los alquileres PENDING o ACTIVE indicados y deja sus vehículos "
+					+ "en AVAILABLE. Los alquileres inexistentes o ya cerrados se informan como REJECTED.",
+			security = @SecurityRequirement(name = "JWT"),
+			responses = {
+					@ApiResponse(
+							responseCode = "200",
+							description = "Lote procesado; el resultado de cada elemento indica UPDATED o REJECTED",
+							content = @Content(mediaType = "application/json")
+					),
+					@ApiResponse(
+							responseCode = "400",
+							description = "Estado destino no admitido o lote vacío",
+							content = @Content(
+									mediaType = "application/json",
+									schema = @Schema(implementation = ErrorResponse.class),
+									examples = @ExampleObject(
+											value = "{\"message\": \"Solo se admite el cambio masivo a CANCELLED o COMPLETED.\", \"status\": 400}"
+									)
+							)
+					)
+			}
+	)
+	@PutMapping("/batch/status")
+	@PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+	ResponseEntity<List<RentalBatchResult>> updateRentalStatuses(@Valid @RequestBody RentalStatusBatchRequest request);
+
+	@Operation(
+			summary = "Listar alquileres",
+			description = "Obtiene una página de contratos de alquiler (20 por defecto, máximo 100) con filtros opcionales "
+					+ "por estado, rango de fechas, tipo de vehículo, cliente y vehículo. El total se devuelve en las "
+					+ "cabeceras X-Total-Count y X-Total-Pages. Si se envía el parámetro cursor (vacío para la primera "
+					+ "página) la lista se pagina por clave ordenada por fecha de inicio e ID; el token de la página "
+					+ "siguiente se devuelve en la cabecera X-Next-Cursor.",
 			security = @SecurityRequirement(name = "JWT"),
 			responses = {
 					@ApiResponse(
 							responseCode = "200",
 							description = "Lista de alquileres obtenida",
 							content = @Content(mediaType = "application/json")
+					),
+					@ApiResponse(
+							responseCode = "400",
+							description = "Cursor, orden o rango de fechas inválido",
+							content = @Content(
+									mediaType = "application/json",
+									schema = @Schema(implementation = ErrorResponse.class),
+									examples = @ExampleObject(
+											value = "{\"message\": \"Cursor de paginación inválido\", \"status\": 400}"
+									)
+							)
 					)
 			}
 	)
 	@GetMapping
 	@PreAuthorize("hasAnyRole('SUPER_ADMIN', 'USERS', 'ADMIN')")
-	ResponseEntity<List<RentalDto>> getAllRentals();
+	ResponseEntity<List<RentalDto>> getAllRentals(
+			@Parameter(description = "Token opaco de la página siguiente (X-Next-Cursor); vacío para la primera página")
+			@RequestParam(required = false) String cursor,
+			@Parameter(description = "Número de página empezando en 0 (ignorado con cursor)", example = "0")
+			@RequestParam(required = false) Integer page,
+			@Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+			@RequestParam(required = false) Integer size,
+			@Parameter(description = "Orden: startDate, endDate, totalPrice, createdAt o id, con ',asc' o ',desc' (ignorado con cursor)",
+					example = "startDate,desc")
+			@RequestParam(required = false) String sort,
+			@Parameter(description = "Fecha inicial del rango (yyyy-MM-dd)", example = "2025-01-01")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@Parameter(description = "Fecha final del rango (yyyy-MM-dd)", example = "2025-12-31")
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@Parameter(description = "Estado del alquiler (ignorado con cursor)", example = "ACTIVE")
+			@RequestParam(required = false) RentalStatus status,
+			@Parameter(description = "Tipo de vehículo (ignorado con cursor)", example = "SEDAN")
+			@RequestParam(required = false) VehicleType vehicleType,
+			@Parameter(description = "ID del cliente (ignorado con cursor)", example = "1")
+			@RequestParam(required = false) Long customerId,
+			@Parameter(description = "ID del vehículo (ignorado con cursor)", example = "1")
+			@RequestParam(required = false) Long vehicleId
+	);
 
 	@Operation(
 			summary = "Obtener alquiler por ID",
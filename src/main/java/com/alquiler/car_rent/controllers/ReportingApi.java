@@ -3,6 +3,8 @@ package com.alquiler.car_rent.controllers;
 import com.alquiler.car_rent.commons.constants.ApiPathConstants;
 import com.alquiler.car_rent.commons.constants.ReportingConstants;
 import com.alquiler.car_rent.commons.dtos.ExportMetricsRequest;
+import com.alquiler.car_rent.commons.dtos.ReportJobDto;
+import com.alquiler.car_rent.commons.dtos.ReportJobRequest;
 import com.alquiler.car_rent.exceptions.GlobalExceptionHandler.ErrorResponse;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,10 +17,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import jakarta.validation.Valid;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -122,6 +128,11 @@ public interface ReportingApi {
                             description = "Fecha de fin personalizada",
                             example = "2023-12-31",
                             in = ParameterIn.QUERY
+                    ),
+                    @Parameter(
+                            name = "If-None-Match",
+                            description = "ETag de una descarga anterior; si el reporte no cambió se responde 304 sin regenerarlo",
+                            in = ParameterIn.HEADER
                     )
             },
             responses = {
@@ -133,6 +144,10 @@ public interface ReportingApi {
                                     schema = @Schema(type = "string", format = "binary")
                             )
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "El reporte no cambió desde la versión indicada en If-None-Match"
+                    ),
                     @ApiResponse(
                             responseCode = "400",
                             description = "Parámetros inválidos",
@@ -151,17 +166,18 @@ public interface ReportingApi {
     )
     @GetMapping("/export")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
-    ResponseEntity<byte[]> exportReport(
+    ResponseEntity<StreamingResponseBody> exportReport(
             @RequestParam(defaultValue = "PDF") ReportingConstants.OutputFormat format,
             @RequestParam(defaultValue = "RENTAL_SUMMARY") ReportingConstants.ReportType reportType,
             @RequestParam(defaultValue = "MONTHLY") ReportingConstants.TimePeriod period,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     );
 
     @Operation(
             summary = "Exportar métricas genéricas",
-            description = "Genera un archivo Excel con datos tabulares personalizados",
+            description = "Genera un archivo Excel o CSV con datos tabulares personalizados",
             security = @SecurityRequirement(name = "JWT"),
             responses = {
                     @ApiResponse(
@@ -183,7 +199,110 @@ public interface ReportingApi {
     )
     @PostMapping("/export-metrics")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
-    ResponseEntity<byte[]> exportMetrics(@RequestBody ExportMetricsRequest request);
+    ResponseEntity<StreamingResponseBody> exportMetrics(@RequestBody ExportMetricsRequest request);
+
+    @Operation(
+            summary = "Exportar alquileres en crudo",
+            description = "Descarga en streaming los alquileres cuya fecha de inicio cae en el rango, en CSV o NDJSON y opcionalmente comprimidos con gzip",
+            security = @SecurityRequirement(name = "JWT"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Extracción generada exitosamente",
+                            content = {
+                                    @Content(mediaType = "text/csv", schema = @Schema(type = "string", format = "binary")),
+                                    @Content(mediaType = "application/x-ndjson", schema = @Schema(type = "string", format = "binary")),
+                                    @Content(mediaType = "application/gzip", schema = @Schema(type = "string", format = "binary"))
+                            }
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Rango de fechas o formato inválido",
+                            content = @Content(
+                                    schema = @Schema(implementation = ErrorResponse.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping("/export/rentals")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    ResponseEntity<StreamingResponseBody> exportRentals(
+            @Parameter(description = "Fecha de inicio (inclusive) en formato ISO", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Fecha de fin (inclusive) en formato ISO", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") ReportingConstants.ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip
+    );
+
+    @Operation(
+            summary = "Encolar la generación de un reporte",
+            description = "Crea un trabajo asíncrono y devuelve su identificador; el estado se consulta en /jobs/{jobId} y el archivo se descarga en /jobs/{jobId}/download",
+            security = @SecurityRequirement(name = "JWT"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "202",
+                            description = "Trabajo encolado",
+                            content = @Content(schema = @Schema(implementation = ReportJobDto.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Parámetros inválidos",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "429",
+                            description = "La cola de reportes está llena",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @PostMapping("/jobs")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    ResponseEntity<ReportJobDto> submitReportJob(@Valid @RequestBody ReportJobRequest request);
+
+    @Operation(
+            summary = "Consultar un trabajo de reporte",
+            description = "Devuelve el estado y el avance del trabajo",
+            security = @SecurityRequirement(name = "JWT"),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Estado del trabajo"),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Trabajo inexistente o expirado",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    ResponseEntity<ReportJobDto> getReportJob(@PathVariable String jobId);
+
+    @Operation(
+            summary = "Descargar el resultado de un trabajo de reporte",
+            description = "Devuelve el archivo generado mientras no haya expirado",
+            security = @SecurityRequirement(name = "JWT"),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "Reporte generado",
+                            content = @Content(schema = @Schema(type = "string", format = "binary"))
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "El trabajo aún no terminó o falló",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Trabajo inexistente o expirado",
+                            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+                    )
+            }
+    )
+    @GetMapping("/jobs/{jobId}/download")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    ResponseEntity<Resource> downloadReportJob(@PathVariable String jobId);
 
     @Operation(
             summary = "Obtener total de alquileres",
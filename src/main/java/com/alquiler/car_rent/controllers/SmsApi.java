@@ -1,9 +1,13 @@
 package com.alquiler.car_rent.controllers;
 
 import com.alquiler.car_rent.commons.constants.ApiPathConstants;
+import com.alquiler.car_rent.commons.dtos.SmsBatchRequest;
+import com.alquiler.car_rent.commons.dtos.SmsBatchResult;
+import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
@@ -19,6 +23,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.List;
+
 @Tag(
 		name = "SMS Service",
 		description = "Endpoints para el envío de mensajes SMS a clientes"
@@ -86,4 +92,33 @@ public interface SmsApi {
 			)
 			@RequestParam String message
 	);
-}
\ No newline at end of file
+
+	@Operation(
+			summary = "Enviar SMS masivo",
+			description = "Envía el mismo mensaje a una lista de destinatarios (máx. 500). Los envíos se reparten entre "
+					+ "los proveedores configurados respetando su límite por segundo; los destinatarios que fallan se "
+					+ "reintentan con el siguiente proveedor. Los números repetidos se envían una sola vez.",
+			security = @SecurityRequirement(name = "JWT"),
+			responses = {
+					@ApiResponse(
+							responseCode = "200",
+							description = "Lote procesado; cada resultado indica si el SMS se envió y por qué proveedor",
+							content = @Content(mediaType = "application/json")
+					),
+					@ApiResponse(
+							responseCode = "400",
+							description = "Lista de destinatarios vacía, mensaje vacío o lote demasiado grande",
+							content = @Content(
+									mediaType = "application/json",
+									schema = @Schema(implementation = ErrorResponse.class),
+									examples = @ExampleObject(
+											value = "{\"message\": \"El lote admite como máximo 500 destinatarios.\", \"status\": 400}"
+									)
+							)
+					)
+			}
+	)
+	@PostMapping("/send/batch")
+	@PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+	ResponseEntity<List<SmsBatchResult>> sendBatch(@Valid @RequestBody SmsBatchRequest request);
+}
@@ -3,6 +3,7 @@ package com.alquiler.car_rent.controllers;
 import com.alquiler.car_rent.commons.constants.ApiPathConstants;
 import com.alquiler.car_rent.commons.dtos.UserEntityRequest;
 import com.alquiler.car_rent.commons.entities.UserEntity;
+import com.alquiler.car_rent.commons.enums.Role;
 import com.alquiler.car_rent.exceptions.GlobalExceptionHandler;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -26,8 +27,9 @@ import static com.alquiler.car_rent.commons.constants.ApiPathConstants.USERS_BAS
 public interface UserApi {
 
     @Operation(
-            summary = "Obtener todos los usuarios",
-            description = "Recupera una lista de todos los usuarios registrados en el sistema. Requiere rol ADMIN.",
+            summary = "Listar usuarios",
+            description = "Recupera una página de usuarios (20 por defecto, máximo 100), opcionalmente filtrada por rol. "
+                    + "El total se devuelve en las cabeceras X-Total-Count y X-Total-Pages. Requiere rol ADMIN.",
             security = @SecurityRequirement(name = "JWT"),
             responses = {
                     @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida exitosamente"),
@@ -35,7 +37,16 @@ public interface UserApi {
             }
     )
     @GetMapping
-    ResponseEntity<List<UserEntity>> getAllUsers();
+    ResponseEntity<List<UserEntity>> getAllUsers(
+            @Parameter(description = "Número de página empezando en 0", example = "0")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Orden: username, email o id, con ',asc' o ',desc'", example = "username,asc")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "Rol de los usuarios", example = "USERS")
+            @RequestParam(required = false) Role role
+    );
 
     @Operation(
             summary = "Obtener usuario por ID",
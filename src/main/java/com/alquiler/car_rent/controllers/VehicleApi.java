@@ -1,8 +1,10 @@
 package com.alquiler.car_rent.controllers;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.media.ArraySchema;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,9 +14,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.alquiler.car_rent.commons.constants.ApiPathConstants;
 import com.alquiler.car_rent.commons.dtos.VehicleDto;
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.VehicleStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
 import com.alquiler.car_rent.exceptions.GlobalExceptionHandler.ErrorResponse;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -75,8 +81,9 @@ public interface VehicleApi {
 	);
 
 	@Operation(
-			summary = "Obtener todos los vehículos",
-			description = "Retorna una lista completa de todos los vehículos registrados en el sistema",
+			summary = "Listar vehículos",
+			description = "Retorna una página de vehículos (20 por defecto, máximo 100) con filtros opcionales por estado, "
+					+ "tipo, nivel de precio y marca. El total se devuelve en las cabeceras X-Total-Count y X-Total-Pages.",
 			responses = {
 					@ApiResponse(
 							responseCode = "200",
@@ -89,7 +96,55 @@ public interface VehicleApi {
 			}
 	)
 	@GetMapping
-	ResponseEntity<List<VehicleDto>> getAllVehicles();
+	ResponseEntity<List<VehicleDto>> getAllVehicles(
+			@Parameter(description = "Número de página empezando en 0", example = "0")
+			@RequestParam(required = false) Integer page,
+			@Parameter(description = "Tamaño de página (máximo 100)", example = "20")
+			@RequestParam(required = false) Integer size,
+			@Parameter(description = "Orden: brand, model, year, plate, createdAt o id, con ',asc' o ',desc'", example = "brand,asc")
+			@RequestParam(required = false) String sort,
+			@Parameter(description = "Estado del vehículo", example = "AVAILABLE")
+			@RequestParam(required = false) VehicleStatus status,
+			@Parameter(description = "Tipo de vehículo", example = "SEDAN")
+			@RequestParam(required = false) VehicleType vehicleType,
+			@Parameter(description = "Nivel de precio", example = "STANDARD")
+			@RequestParam(required = false) PricingTier pricingTier,
+			@Parameter(description = "Marca exacta", example = "Toyota")
+			@RequestParam(required = false) String brand
+	);
+
+	@Operation(
+			summary = "Buscar vehículos disponibles",
+			description = "Retorna los vehículos sin reservas que se solapen con el rango indicado, opcionalmente de un tipo. "
+					+ "Los vehículos en mantenimiento o fuera de servicio no se incluyen.",
+			responses = {
+					@ApiResponse(
+							responseCode = "200",
+							description = "Vehículos disponibles en el rango",
+							content = @Content(
+									mediaType = "application/json",
+									array = @ArraySchema(schema = @Schema(implementation = VehicleDto.class))
+							)
+					),
+					@ApiResponse(
+							responseCode = "400",
+							description = "Rango de fechas inválido",
+							content = @Content(
+									mediaType = "application/json",
+									schema = @Schema(implementation = ErrorResponse.class)
+							)
+					)
+			}
+	)
+	@GetMapping("/available")
+	ResponseEntity<List<VehicleDto>> getAvailableVehicles(
+			@Parameter(description = "Inicio del rango (ISO-8601)", example = "2025-07-01T10:00:00", required = true)
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+			@Parameter(description = "Fin del rango (ISO-8601, exclusivo)", example = "2025-07-05T10:00:00", required = true)
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+			@Parameter(description = "Tipo de vehículo", example = "SEDAN")
+			@RequestParam(required = false) VehicleType vehicleType
+	);
 
 	@Operation(
 			summary = "Obtener vehículo por ID",
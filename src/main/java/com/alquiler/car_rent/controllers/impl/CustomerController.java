@@ -1,16 +1,26 @@
 package com.alquiler.car_rent.controllers.impl;
 
 import com.alquiler.car_rent.commons.dtos.CustomerDto;
+import com.alquiler.car_rent.commons.dtos.CustomerFilter;
+import com.alquiler.car_rent.commons.enums.CustomerStatus;
+import com.alquiler.car_rent.commons.utils.Pagination;
 import com.alquiler.car_rent.controllers.CustomerApi;
 import com.alquiler.car_rent.service.CustomerService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 public class CustomerController implements CustomerApi{
-	
+
+	private static final Set<String> SORTABLE_FIELDS = Set.of("name", "email", "createdAt", "id");
+	private static final Sort DEFAULT_SORT = Sort.by("id");
+
 	private final CustomerService customerService;
 	
 	public CustomerController(CustomerService customerService) {
@@ -25,9 +35,11 @@ public class CustomerController implements CustomerApi{
 	}
 
 	@Override
-	public ResponseEntity<List<CustomerDto>> getAllCustomers() {
-		List<CustomerDto> customers = customerService.findAllCustomers();
-		return ResponseEntity.ok(customers);
+	public ResponseEntity<List<CustomerDto>> getAllCustomers(Integer page, Integer size, String sort,
+			CustomerStatus status, String name) {
+		Pageable pageable = Pagination.pageRequest(page, size, sort, DEFAULT_SORT, SORTABLE_FIELDS);
+		Page<CustomerDto> customers = customerService.findCustomers(new CustomerFilter(status, name), pageable);
+		return ResponseEntity.ok().headers(Pagination.pageHeaders(customers)).body(customers.getContent());
 	}
 
 	@Override
@@ -1,16 +1,32 @@
 package com.alquiler.car_rent.controllers.impl;
 
+import com.alquiler.car_rent.commons.constants.PaginationConstants;
+import com.alquiler.car_rent.commons.dtos.CursorPage;
+import com.alquiler.car_rent.commons.dtos.RentalBatchResult;
 import com.alquiler.car_rent.commons.dtos.RentalDto;
+import com.alquiler.car_rent.commons.dtos.RentalFilter;
+import com.alquiler.car_rent.commons.dtos.RentalStatusBatchRequest;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+import com.alquiler.car_rent.commons.utils.Pagination;
 import com.alquiler.car_rent.controllers.RentalApi;
 import com.alquiler.car_rent.service.RentalService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 public class RentalController implements RentalApi {
-	
+
+	private static final Set<String> SORTABLE_FIELDS = Set.of("startDate", "endDate", "totalPrice", "createdAt", "id");
+	private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "startDate");
+
 	private final RentalService rentalService;
 	public RentalController(RentalService rentalService) {
         this.rentalService = rentalService;
@@ -23,9 +39,30 @@ public class RentalController implements RentalApi {
 	}
 
 	@Override
-	public ResponseEntity<List<RentalDto>> getAllRentals() {
-		List<RentalDto> rentals = rentalService.findAllRentals();
-		return ResponseEntity.ok(rentals);
+	public ResponseEntity<List<RentalBatchResult>> createRentals(List<RentalDto> rentals) {
+		return ResponseEntity.ok(rentalService.createRentals(rentals));
+	}
+
+	@Override
+	public ResponseEntity<List<RentalBatchResult>> updateRentalStatuses(RentalStatusBatchRequest request) {
+		return ResponseEntity.ok(rentalService.updateRentalStatuses(request));
+	}
+
+	@Override
+	public ResponseEntity<List<RentalDto>> getAllRentals(String cursor, Integer page, Integer size, String sort,
+			LocalDate from, LocalDate to, RentalStatus status, VehicleType vehicleType, Long customerId, Long vehicleId) {
+		if (cursor == null) {
+			Pageable pageable = Pagination.pageRequest(page, size, sort, DEFAULT_SORT, SORTABLE_FIELDS);
+			Page<RentalDto> rentals = rentalService.findRentals(
+					new RentalFilter(status, from, to, vehicleType, customerId, vehicleId), pageable);
+			return ResponseEntity.ok().headers(Pagination.pageHeaders(rentals)).body(rentals.getContent());
+		}
+		CursorPage<RentalDto> cursorPage = rentalService.scrollRentals(cursor, size, from, to);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (cursorPage.hasNext()) {
+			response.header(PaginationConstants.NEXT_CURSOR_HEADER, cursorPage.nextCursor());
+		}
+		return response.body(cursorPage.items());
 	}
 
 	@Override
@@ -1,49 +1,57 @@
 package com.alquiler.car_rent.controllers.impl;
 
 import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.constants.ReportingConstants.ReportSection;
+import com.alquiler.car_rent.commons.constants.ApiPathConstants;
 import com.alquiler.car_rent.commons.dtos.ExportMetricsRequest;
+import com.alquiler.car_rent.commons.dtos.ReportJobDto;
+import com.alquiler.car_rent.commons.dtos.ReportJobRequest;
 import com.alquiler.car_rent.controllers.ReportingApi;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+import com.alquiler.car_rent.service.reportService.DataExportService;
+import com.alquiler.car_rent.service.reportService.ReportJobService;
+import com.alquiler.car_rent.service.reportService.ReportPrerenderService;
 import com.alquiler.car_rent.service.reportService.ReportingService;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.format.annotation.DateTimeFormat;
 
-import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
 public class ReportingController implements ReportingApi {
 
     private final ReportingService reportingService;
-    private final ObjectMapper objectMapper; // Inject ObjectMapper
+    private final DataExportService dataExportService;
+    private final ReportJobService reportJobService;
+    private final ReportPrerenderService reportPrerenderService;
 
-    public ReportingController(ReportingService reportingService, ObjectMapper objectMapper) {
+    public ReportingController(ReportingService reportingService, DataExportService dataExportService,
+                               ReportJobService reportJobService, ReportPrerenderService reportPrerenderService) {
         this.reportingService = reportingService;
-        this.objectMapper = objectMapper;
+        this.dataExportService = dataExportService;
+        this.reportJobService = reportJobService;
+        this.reportPrerenderService = reportPrerenderService;
     }
 
-    private Map<String, Object> getGenericReportData(LocalDate startDate, LocalDate endDate, ReportingConstants.TimePeriod period) {
-        byte[] reportBytes = reportingService.generateReport(
-                ReportingConstants.OutputFormat.JSON,
-                ReportingConstants.ReportType.GENERIC_METRICS,
-                period, // Using the passed period
-                startDate,
-                endDate
-        );
-        try {
-            return objectMapper.readValue(reportBytes, new TypeReference<Map<String, Object>>() {});
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-        }
+    // Cada métrica pide solo su sección; el resto del reporte no se calcula
+    private Map<String, Object> getSectionData(LocalDate startDate, LocalDate endDate, ReportingConstants.TimePeriod period,
+                                               ReportSection section) {
+        return reportingService.generateReportData(period, startDate, endDate, EnumSet.of(section));
     }
 
     @Override
@@ -62,17 +70,63 @@ public class ReportingController implements ReportingApi {
 
 
     @Override
-    public ResponseEntity<byte[]> exportReport(ReportingConstants.OutputFormat format,
+    public ResponseEntity<StreamingResponseBody> exportReport(ReportingConstants.OutputFormat format,
                                                ReportingConstants.ReportType reportType,
                                                ReportingConstants.TimePeriod period,
                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                               String ifNoneMatch) {
+
+        // El ETag sale de los datos (cacheados); si el cliente ya tiene esa versión no se renderiza nada
+        String eTag = reportingService.getReportETag(format, reportType, period, startDate, endDate);
+        if (eTag != null && matchesETag(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
 
-        byte[] report = reportingService.generateReport(format, reportType, period, startDate, endDate);
+        StreamingResponseBody body;
+        Optional<Path> prerendered = reportPrerenderService.findPrerendered(format, reportType, period, startDate, endDate, eTag);
+        if (prerendered.isPresent()) {
+            Path file = prerendered.get();
+            body = outputStream -> Files.copy(file, outputStream);
+        } else if (format == ReportingConstants.OutputFormat.PDF) {
+            // Los datos se calculan antes de responder; las páginas se escriben en la respuesta según se completan
+            Map<String, Object> reportData = reportingService.generateReportData(period, startDate, endDate);
+            body = outputStream -> reportingService.writePdfReport(reportType, reportData, outputStream);
+        } else if (format == ReportingConstants.OutputFormat.EXCEL) {
+            Map<String, Object> reportData = reportingService.generateReportData(period, startDate, endDate);
+            body = outputStream -> reportingService.writeExcelReport(reportType, reportData, outputStream);
+        } else {
+            byte[] report = reportingService.generateReport(format, reportType, period, startDate, endDate);
+            body = outputStream -> outputStream.write(report);
+        }
 
+        HttpHeaders headers = buildExportHeaders(format, reportType, period, startDate, endDate);
+        if (eTag != null) {
+            headers.setETag(eTag);
+            headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        }
         return ResponseEntity.ok()
-                .headers(buildExportHeaders(format, reportType, period, startDate, endDate))
-                .body(report);
+                .headers(headers)
+                .body(body);
+    }
+
+    private boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private HttpHeaders buildExportHeaders(ReportingConstants.OutputFormat format,
@@ -131,7 +185,7 @@ public class ReportingController implements ReportingApi {
             @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(value = "period", required = false, defaultValue = "MONTHLY") ReportingConstants.TimePeriod period
     ) {
-        Map<String, Object> reportData = getGenericReportData(startDate, endDate, period);
+        Map<String, Object> reportData = getSectionData(startDate, endDate, period, ReportSection.TOTALS);
         Long totalRentals = ((Number) reportData.get("totalRentals")).longValue();
         return ResponseEntity.ok(totalRentals);
     }
@@ -142,7 +196,7 @@ public class ReportingController implements ReportingApi {
             @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(value = "period", required = false, defaultValue = "MONTHLY") ReportingConstants.TimePeriod period
     ) {
-        Map<String, Object> reportData = getGenericReportData(startDate, endDate, period);
+        Map<String, Object> reportData = getSectionData(startDate, endDate, period, ReportSection.TOTALS);
         Double totalRevenue = (Double) reportData.get("totalRevenue");
         return ResponseEntity.ok(totalRevenue);
     }
@@ -153,8 +207,8 @@ public class ReportingController implements ReportingApi {
             @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(value = "period", required = false, defaultValue = "MONTHLY") ReportingConstants.TimePeriod period
     ) {
-        Map<String, Object> reportData = getGenericReportData(startDate, endDate, period);
-        Long uniqueVehicles = (Long) reportData.get("uniqueVehicles");
+        Map<String, Object> reportData = getSectionData(startDate, endDate, period, ReportSection.UNIQUE_VEHICLES);
+        Long uniqueVehicles = ((Number) reportData.getOrDefault("uniqueVehicles", 0L)).longValue();
         return ResponseEntity.ok(uniqueVehicles);
     }
 
@@ -164,7 +218,7 @@ public class ReportingController implements ReportingApi {
             @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(value = "period", required = false, defaultValue = "MONTHLY") ReportingConstants.TimePeriod period
     ) {
-        Map<String, Object> reportData = getGenericReportData(startDate, endDate, period);
+        Map<String, Object> reportData = getSectionData(startDate, endDate, period, ReportSection.MOST_RENTED_VEHICLE);
         return ResponseEntity.ok((Map<String, Object>) reportData.get("mostRentedVehicle"));
 
     }
@@ -175,7 +229,7 @@ public class ReportingController implements ReportingApi {
             @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(value = "period", required = false, defaultValue = "MONTHLY") ReportingConstants.TimePeriod period
     ) {
-        Map<String, Object> reportData = getGenericReportData(startDate, endDate, period);
+        Map<String, Object> reportData = getSectionData(startDate, endDate, period, ReportSection.VEHICLE_USAGE);
         List<Map<String, Object>> usageList = (List<Map<String, Object>>) reportData.get("vehicleUsage");
 
         List<Map<String, Object>> formatted = usageList.stream()
@@ -197,7 +251,7 @@ public class ReportingController implements ReportingApi {
             @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(value = "period", required = false, defaultValue = "MONTHLY") ReportingConstants.TimePeriod period
     ) {
-        Map<String, Object> reportData = getGenericReportData(startDate, endDate, period);
+        Map<String, Object> reportData = getSectionData(startDate, endDate, period, ReportSection.NEW_CUSTOMERS);
         Long newCustomers = ((Number) reportData.get("newCustomers")).longValue();
         return ResponseEntity.ok(newCustomers);
     }
@@ -210,25 +264,78 @@ public class ReportingController implements ReportingApi {
     ) {
         List<Map<String, Object>> rentalTrends =
                 (List<Map<String, Object>>) reportingService
-                        .generateReportData(period, startDate, endDate)
+                        .generateReportData(period, startDate, endDate, EnumSet.of(ReportSection.RENTAL_TRENDS))
                         .getOrDefault("rentalTrends", List.of());
         return ResponseEntity.ok(rentalTrends);
     }
 
 
     @Override
-    public ResponseEntity<byte[]> exportMetrics(ExportMetricsRequest request) {
-        if (!"EXCEL".equalsIgnoreCase(request.getFormat())) {
-            throw new UnsupportedOperationException("Formato no soportado: " + request.getFormat());
+    public ResponseEntity<StreamingResponseBody> exportMetrics(ExportMetricsRequest request) {
+        boolean csv = "CSV".equalsIgnoreCase(request.getFormat());
+        if (!csv && !"EXCEL".equalsIgnoreCase(request.getFormat())) {
+            throw new BadRequestException("Formato no soportado: " + request.getFormat());
         }
 
-        byte[] bytes = reportingService.generateGenericTableExcel(request.getHeaders(), request.getData());
-        String fileName = "metricas_" + LocalDate.now() + ".xlsx";
+        List<String> headers = request.getHeaders() != null ? request.getHeaders() : List.of();
+        List<List<String>> data = request.getData() != null ? request.getData() : List.of();
+        String fileName = "metricas_" + LocalDate.now() + (csv ? ".csv" : ".xlsx");
+
+        // El archivo se escribe directamente en la respuesta, sin materializarlo completo en memoria
+        StreamingResponseBody body = csv
+                ? outputStream -> dataExportService.writeGenericTableCsv(headers, data.iterator(), outputStream)
+                : outputStream -> reportingService.writeGenericTableExcel(headers, data.iterator(), outputStream);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(bytes);
+                .contentType(csv
+                        ? MediaType.parseMediaType("text/csv")
+                        : MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportRentals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") ReportingConstants.ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        // Se valida antes de empezar a escribir: una vez enviada la cabecera ya no se puede responder 400
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+
+        String fileName = String.format("alquileres_%s_%s%s%s", startDate, endDate, format.getExtension(), gzip ? ".gz" : "");
+        StreamingResponseBody body = outputStream ->
+                dataExportService.exportRentals(startDate, endDate, format, gzip, outputStream);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .body(body);
+    }
+
+    @Override
+    public ResponseEntity<ReportJobDto> submitReportJob(ReportJobRequest request) {
+        ReportJobDto job = reportJobService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create(ApiPathConstants.V1_ROUTE + ApiPathConstants.REPORTS_BASE_PATH + "/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @Override
+    public ResponseEntity<ReportJobDto> getReportJob(String jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+
+    @Override
+    public ResponseEntity<Resource> downloadReportJob(String jobId) {
+        Path resultFile = reportJobService.getResultFile(jobId);
+        ReportJobDto job = reportJobService.getJob(jobId);
+        return ResponseEntity.ok()
+                .headers(buildExportHeaders(job.getFormat(), job.getReportType(), job.getPeriod(),
+                        job.getStartDate(), job.getEndDate()))
+                .body(new FileSystemResource(resultFile));
     }
 
     @Override
@@ -237,8 +344,9 @@ public class ReportingController implements ReportingApi {
             @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(value = "period", required = false, defaultValue = "MONTHLY") ReportingConstants.TimePeriod period
     ) {
-        Map<String, Object> reportData = getGenericReportData(startDate, endDate, period);
-        Map<String, Double> avgMap = (Map<String, Double>) reportData.get("averageRentalDurationByTopCustomers");
+        Map<String, Object> reportData = getSectionData(startDate, endDate, period, ReportSection.TOP_CUSTOMERS);
+        Map<String, Double> avgMap = (Map<String, Double>) reportData.getOrDefault(
+                "averageRentalDurationByTopCustomers", Map.of());
 
         List<Map<String, Object>> formatted = avgMap.entrySet().stream()
                 .map(e -> {
@@ -260,7 +368,7 @@ public class ReportingController implements ReportingApi {
             @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(value = "period", required = false, defaultValue = "MONTHLY") ReportingConstants.TimePeriod period
     ) {
-        Map<String, Object> reportData = getGenericReportData(startDate, endDate, period);
+        Map<String, Object> reportData = getSectionData(startDate, endDate, period, ReportSection.TOP_CUSTOMERS);
         List<Map<String, Object>> topCustomers = (List<Map<String, Object>>) reportData.get("topCustomersByRentals");
         return ResponseEntity.ok(topCustomers);
     }
@@ -1,5 +1,7 @@
 package com.alquiler.car_rent.controllers.impl;
 
+import com.alquiler.car_rent.commons.dtos.SmsBatchRequest;
+import com.alquiler.car_rent.commons.dtos.SmsBatchResult;
 import com.alquiler.car_rent.exceptions.BadRequestException;
 import com.alquiler.car_rent.service.impl.SmsServiceImpl;
 import org.springframework.http.ResponseEntity;
@@ -8,6 +10,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.alquiler.car_rent.controllers.SmsApi;
 
+import java.util.List;
+
 @RestController
 public class SmsController implements SmsApi {
 
@@ -23,4 +27,9 @@ public class SmsController implements SmsApi {
         return ResponseEntity.ok("Solicitud de envío de SMS procesada para " + to);
     }
 
+    @Override
+    public ResponseEntity<List<SmsBatchResult>> sendBatch(SmsBatchRequest request) {
+        return ResponseEntity.ok(smsService.sendBatch(request.getRecipients(), request.getMessage()));
+    }
+
 }
@@ -3,24 +3,33 @@ package com.alquiler.car_rent.controllers.impl;
 import com.alquiler.car_rent.commons.dtos.UserEntityRequest;
 import com.alquiler.car_rent.commons.entities.UserEntity;
 import com.alquiler.car_rent.commons.enums.Role;
+import com.alquiler.car_rent.commons.utils.Pagination;
 import com.alquiler.car_rent.controllers.UserApi;
 import com.alquiler.car_rent.service.UserManagementService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
 public class UserController implements UserApi {
 
+    private static final Set<String> SORTABLE_FIELDS = Set.of("username", "email", "id");
+    private static final Sort DEFAULT_SORT = Sort.by("id");
+
     private final UserManagementService userManagementService;
 
     @Override
-    public ResponseEntity<List<UserEntity>> getAllUsers() {
-        return ResponseEntity.ok(userManagementService.getAllUsers());
+    public ResponseEntity<List<UserEntity>> getAllUsers(Integer page, Integer size, String sort, Role role) {
+        Page<UserEntity> users = userManagementService.findUsers(role,
+                Pagination.pageRequest(page, size, sort, DEFAULT_SORT, SORTABLE_FIELDS));
+        return ResponseEntity.ok().headers(Pagination.pageHeaders(users)).body(users.getContent());
     }
 
     @Override
@@ -1,23 +1,39 @@
 package com.alquiler.car_rent.controllers.impl;
 
 import com.alquiler.car_rent.commons.dtos.VehicleDto;
+import com.alquiler.car_rent.commons.dtos.VehicleFilter;
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.VehicleStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+import com.alquiler.car_rent.commons.utils.Pagination;
 import com.alquiler.car_rent.controllers.VehicleApi;
+import com.alquiler.car_rent.service.VehicleAvailabilityService;
 import com.alquiler.car_rent.service.VehicleService;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 public class VehicleController implements VehicleApi {
-	
+
+	private static final Set<String> SORTABLE_FIELDS = Set.of("brand", "model", "year", "plate", "createdAt", "id");
+	private static final Sort DEFAULT_SORT = Sort.by("id");
+
 	private final VehicleService vehicleService;
+	private final VehicleAvailabilityService vehicleAvailabilityService;
 	
-	 public VehicleController(VehicleService vehicleService) {
+	 public VehicleController(VehicleService vehicleService, VehicleAvailabilityService vehicleAvailabilityService) {
 	        this.vehicleService = vehicleService;
+	        this.vehicleAvailabilityService = vehicleAvailabilityService;
 	    }
 
 	@Override
@@ -27,9 +43,18 @@ public class VehicleController implements VehicleApi {
 	}
 
 	@Override
-	public ResponseEntity<List<VehicleDto>> getAllVehicles() {
-		List<VehicleDto> vehicles = vehicleService.findAllVehicles();
-		return ResponseEntity.ok(vehicles);
+	public ResponseEntity<List<VehicleDto>> getAllVehicles(Integer page, Integer size, String sort,
+			VehicleStatus status, VehicleType vehicleType, PricingTier pricingTier, String brand) {
+		Pageable pageable = Pagination.pageRequest(page, size, sort, DEFAULT_SORT, SORTABLE_FIELDS);
+		Page<VehicleDto> vehicles = vehicleService.findVehicles(
+				new VehicleFilter(status, vehicleType, pricingTier, brand), pageable);
+		return ResponseEntity.ok().headers(Pagination.pageHeaders(vehicles)).body(vehicles.getContent());
+	}
+
+	@Override
+	public ResponseEntity<List<VehicleDto>> getAvailableVehicles(LocalDateTime startDate, LocalDateTime endDate,
+			VehicleType vehicleType) {
+		return ResponseEntity.ok(vehicleAvailabilityService.findAvailableVehicles(startDate, endDate, vehicleType));
 	}
 
 	@Override
@@ -0,0 +1,13 @@
+package com.alquiler.car_rent.exceptions;
+
+public class ConflictException extends RuntimeException {
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public ConflictException(String message) {
+		super(message);
+	}
+
+}
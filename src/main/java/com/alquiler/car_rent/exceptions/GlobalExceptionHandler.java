@@ -4,6 +4,7 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -103,6 +104,35 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler(ConflictException.class)
+	public ResponseEntity<ErrorResponse> handleConflictException(ConflictException ex, WebRequest request) {
+        log.warn("Conflicto de concurrencia: {}", ex.getMessage());
+		ErrorResponse error = new ErrorResponse(ex.getMessage(), HttpStatus.CONFLICT.value());
+		return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(ConcurrencyFailureException.class)
+	public ResponseEntity<ErrorResponse> handleConcurrencyFailureException(ConcurrencyFailureException ex, WebRequest request) {
+        log.warn("Modificación concurrente: {}", ex.getMessage());
+		ErrorResponse error = new ErrorResponse("El recurso fue modificado por otra operación; intente de nuevo.",
+				HttpStatus.CONFLICT.value());
+		return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+        log.warn("Capacidad agotada: {}", ex.getMessage());
+		ErrorResponse error = new ErrorResponse(ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS.value());
+		return new ResponseEntity<>(error, HttpStatus.TOO_MANY_REQUESTS);
+	}
+
+	@ExceptionHandler(SmsDeliveryException.class)
+	public ResponseEntity<ErrorResponse> handleSmsDeliveryException(SmsDeliveryException ex, WebRequest request) {
+        log.warn("Fallo del proveedor de SMS: {}", ex.getMessage());
+		ErrorResponse error = new ErrorResponse(ex.getMessage(), HttpStatus.BAD_GATEWAY.value());
+		return new ResponseEntity<>(error, HttpStatus.BAD_GATEWAY);
+	}
+
 	@ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
         // This is specifically for the manual login check in AuthServiceImpl
@@ -0,0 +1,13 @@
+package com.alquiler.car_rent.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public TooManyRequestsException(String message) {
+		super(message);
+	}
+
+}
@@ -3,10 +3,11 @@ package com.alquiler.car_rent.repositories;
 import java.time.LocalDateTime;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import com.alquiler.car_rent.commons.entities.Customer;
 
-public interface CustomerRepository extends JpaRepository<Customer, Long>{
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
 	boolean existsByEmail(String email);
 	
 	  long countByCreatedAtBetween(LocalDateTime startDateTime, LocalDateTime endDateTime);
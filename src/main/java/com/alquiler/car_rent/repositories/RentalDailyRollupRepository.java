@@ -0,0 +1,107 @@
+package com.alquiler.car_rent.repositories;
+
+import com.alquiler.car_rent.commons.entities.RentalDailyRollup;
+import com.alquiler.car_rent.commons.entities.RentalRollupLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RentalDailyRollupRepository extends JpaRepository<RentalDailyRollup, Long> {
+
+    // Incremento atómico del bucket; lo crea si aún no existe. Dos altas simultáneas del primer alquiler de un
+    // bucket no chocan con la clave única: la segunda se convierte en incremento
+    @Modifying
+    @Query(value = """
+    INSERT INTO rental_daily_rollups (bucket_date, vehicle_type, pricing_tier, rental_status, rental_count, revenue, rental_days)
+    VALUES (:bucketDate, :vehicleType, :pricingTier, :rentalStatus, :count, :revenue, :days)
+    ON DUPLICATE KEY UPDATE
+        rental_count = rental_count + :count,
+        revenue = revenue + :revenue,
+        rental_days = rental_days + :days
+    """, nativeQuery = true)
+    int upsert(
+            @Param("bucketDate") LocalDate bucketDate,
+            @Param("vehicleType") String vehicleType,
+            @Param("pricingTier") String pricingTier,
+            @Param("rentalStatus") String rentalStatus,
+            @Param("count") long count,
+            @Param("revenue") BigDecimal revenue,
+            @Param("days") long days
+    );
+
+    // Bloqueo compartido: los incrementos no se esperan entre sí, solo a una reconstrucción en curso
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT l FROM RentalRollupLock l WHERE l.id = :id")
+    Optional<RentalRollupLock> lockForIncrement(@Param("id") long id);
+
+    // Bloqueo exclusivo: espera a los incrementos en curso y retiene los nuevos hasta confirmar la reconstrucción
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM RentalRollupLock l WHERE l.id = :id")
+    Optional<RentalRollupLock> lockForRebuild(@Param("id") long id);
+
+    // Totales del rango: [conteo, ingresos, días alquilados]
+    @Query("""
+    SELECT COALESCE(SUM(d.rentalCount), 0), COALESCE(SUM(d.revenue), 0), COALESCE(SUM(d.rentalDays), 0)
+    FROM RentalDailyRollup d
+    WHERE d.bucketDate >= :start AND d.bucketDate < :end AND d.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+    """)
+    List<Object[]> sumTotals(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end
+    );
+
+    // Tendencia mensual: [año, mes, conteo, ingresos]
+    @Query("""
+    SELECT YEAR(d.bucketDate), MONTH(d.bucketDate), SUM(d.rentalCount), SUM(d.revenue)
+    FROM RentalDailyRollup d
+    WHERE d.bucketDate >= :start AND d.bucketDate < :end AND d.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+    GROUP BY YEAR(d.bucketDate), MONTH(d.bucketDate)
+    ORDER BY YEAR(d.bucketDate), MONTH(d.bucketDate)
+    """)
+    List<Object[]> sumByMonth(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end
+    );
+
+    // Por tipo de vehículo: [tipo, conteo, ingresos]; el bucket sin tipo llega con tipo null
+    @Query("""
+    SELECT d.vehicleType, SUM(d.rentalCount), SUM(d.revenue)
+    FROM RentalDailyRollup d
+    WHERE d.bucketDate >= :start AND d.bucketDate < :end AND d.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+    GROUP BY d.vehicleType
+    """)
+    List<Object[]> sumByVehicleType(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end
+    );
+
+    // Por nivel de precio: [nivel, conteo, ingresos]; el bucket sin nivel llega con nivel null
+    @Query("""
+    SELECT d.pricingTier, SUM(d.rentalCount), SUM(d.revenue)
+    FROM RentalDailyRollup d
+    WHERE d.bucketDate >= :start AND d.bucketDate < :end AND d.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+    GROUP BY d.pricingTier
+    """)
+    List<Object[]> sumByPricingTier(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end
+    );
+
+    // Días con buckets: la reconstrucción también limpia los días que ya no tienen alquileres
+    @Query("SELECT DISTINCT d.bucketDate FROM RentalDailyRollup d")
+    List<LocalDate> findBucketDates();
+
+    @Modifying
+    @Query("DELETE FROM RentalDailyRollup d WHERE d.bucketDate = :day")
+    int deleteBucketsOn(@Param("day") LocalDate day);
+}
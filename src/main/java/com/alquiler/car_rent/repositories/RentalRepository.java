@@ -1,20 +1,42 @@
 package com.alquiler.car_rent.repositories;
 
+import com.alquiler.car_rent.commons.dtos.RentalInterval;
+import com.alquiler.car_rent.commons.dtos.RentalReminderRow;
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
 import com.alquiler.car_rent.commons.entities.Rental;
 import com.alquiler.car_rent.commons.enums.RentalStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface RentalRepository extends JpaRepository<Rental, Long> {
+public interface RentalRepository extends JpaRepository<Rental, Long>, JpaSpecificationExecutor<Rental> {
+
+    // Listado filtrado: carga cliente y vehículo en la misma consulta para mapear los DTO sin N+1
+    @Override
+    @EntityGraph(attributePaths = {"customer", "vehicle"})
+    Page<Rental> findAll(Specification<Rental> spec, Pageable pageable);
 
     // Consultas básicas
     List<Rental> findByRentalStatus(RentalStatus status);
@@ -25,7 +47,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     WHERE
         (:start IS NULL OR r.endDate >= :start)
         AND (:end IS NULL OR r.startDate <= :end)
-        AND r.rentalStatus != 'CANCELLED'
+        AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
 """)
 
     Page<Rental> searchByDateRange(
@@ -40,7 +62,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
         WHERE
             (:start IS NULL OR r.startDate <= :end) AND
             (:end IS NULL OR r.endDate >= :start) AND
-            r.rentalStatus != 'CANCELLED'
+            r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     """)
     long countByDateRange(
             @Param("start") LocalDateTime start,
@@ -54,7 +76,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
         COUNT(r) AS rentalCount,
         SUM(r.totalPrice) AS totalRevenue 
     FROM Rental r 
-    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus != 'CANCELLED'
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     GROUP BY period 
     ORDER BY period
 """)
@@ -67,7 +89,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     @Query("""
         SELECT COALESCE(SUM(r.totalPrice), 0.0)
         FROM Rental r
-        WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus != 'CANCELLED'
+        WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     """)
     double getTotalRevenueInRange(
             @Param("start") LocalDateTime start,
@@ -82,7 +104,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     FROM Rental r
     JOIN r.customer c
     WHERE r.startDate <= :end AND r.endDate >= :start
-        AND c.id IN :customerIds AND r.rentalStatus != 'CANCELLED'
+        AND c.id IN :customerIds AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     GROUP BY c.name
 """)
     List<Object[]> findAverageDurationByCustomer(
@@ -96,7 +118,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     SELECT v.id AS vehicleId, v.brand AS brand, v.model AS model, COUNT(r) AS usageCount 
     FROM Rental r 
     JOIN r.vehicle v 
-    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus != 'CANCELLED'
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     GROUP BY v.id, v.brand, v.model 
 """)
     List<Map<String, Object>> findVehicleUsage(
@@ -112,7 +134,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     COUNT(r) AS rentalCount
     FROM Rental r
     JOIN r.vehicle v
-    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus != 'CANCELLED'
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     GROUP BY v.brand, v.model
     ORDER BY rentalCount DESC
     """)
@@ -130,7 +152,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     	        SUM(r.totalPrice) AS revenue
     	    FROM Rental r
     	    JOIN r.customer c
-    	    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus != 'CANCELLED'
+    	    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     	    GROUP BY c.id, c.name
     	    ORDER BY rentals DESC
     	""")
@@ -145,7 +167,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     SELECT v.vehicleType AS vehicleType, COUNT(r) AS rentalCount
     FROM Rental r
     JOIN r.vehicle v
-    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus != 'CANCELLED'
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     GROUP BY v.vehicleType
     """)
     List<Map<String, Object>> findRentalCountsByVehicleType(
@@ -158,7 +180,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     SELECT v.vehicleType AS vehicleType, SUM(r.totalPrice) AS totalRevenue
     FROM Rental r
     JOIN r.vehicle v
-    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus != 'CANCELLED'
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     GROUP BY v.vehicleType
     """)
     List<Map<String, Object>> findRevenueByVehicleType(
@@ -170,7 +192,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     @Query("""
     SELECT r.chosenPricingTier AS pricingTier, COUNT(r) AS rentalCount
     FROM Rental r
-    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus != 'CANCELLED'
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     GROUP BY r.chosenPricingTier
     """)
     List<Map<String, Object>> findRentalCountsByPricingTier(
@@ -182,7 +204,7 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     @Query("""
     SELECT r.chosenPricingTier AS pricingTier, SUM(r.totalPrice) AS totalRevenue
     FROM Rental r
-    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus != 'CANCELLED'
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
     GROUP BY r.chosenPricingTier
     """)
     List<Map<String, Object>> findRevenueByPricingTier(
@@ -190,5 +212,261 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
             @Param("end") LocalDateTime end
     );
 
-    List<Rental> findByRentalStatusAndEndDateBefore(RentalStatus status, LocalDateTime endDate);
+    // Alquileres activos sin recordatorio que vencen en [from, to); usa idx_rental_reminder_due
+    @Query("""
+    SELECT new com.alquiler.car_rent.commons.dtos.RentalReminderRow(
+        r.id, r.endDate, c.name, c.phone, v.brand, v.model, v.plate)
+    FROM Rental r
+    JOIN r.customer c
+    JOIN r.vehicle v
+    WHERE r.rentalStatus = :status AND r.reminderSentAt IS NULL
+        AND r.endDate >= :from AND r.endDate < :to
+    ORDER BY r.endDate, r.id
+    """)
+    List<RentalReminderRow> findRemindersDue(
+            @Param("status") RentalStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Limit limit
+    );
+
+    // Marca los recordatorios enviados; los ya marcados no se tocan
+    @Modifying
+    @Query("UPDATE Rental r SET r.reminderSentAt = :sentAt WHERE r.id IN :ids AND r.reminderSentAt IS NULL")
+    int markReminderSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    // Siguiente tramo de alquileres vencidos para el job de expiración, sin cargar entidades
+    @Query("""
+    SELECT new com.alquiler.car_rent.commons.dtos.RentalReportRow(
+        r.id, c.id, c.name, v.id, v.brand, v.model, v.vehicleType,
+        r.chosenPricingTier, r.rentalStatus, r.startDate, r.endDate, r.totalPrice)
+    FROM Rental r
+    JOIN r.customer c
+    JOIN r.vehicle v
+    WHERE r.rentalStatus = :status AND r.endDate < :before
+    ORDER BY r.endDate, r.id
+    """)
+    List<RentalReportRow> findReportRowsByStatusAndEndDateBefore(
+            @Param("status") RentalStatus status,
+            @Param("before") LocalDateTime before,
+            Limit limit
+    );
+
+    // Bloquea los alquileres de un tramo que siguen en el estado esperado y devuelve sus IDs
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r.id FROM Rental r WHERE r.id IN :ids AND r.rentalStatus = :status")
+    List<Long> lockIdsByIdInAndRentalStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") RentalStatus status
+    );
+
+    // Cambio de estado de un tramo en una sola sentencia; solo afecta a los que siguen en el estado esperado
+    @Modifying
+    @Query("""
+    UPDATE Rental r SET r.rentalStatus = :newStatus, r.version = r.version + 1
+    WHERE r.id IN :ids AND r.rentalStatus = :currentStatus
+    """)
+    int updateStatusByIdIn(
+            @Param("ids") Collection<Long> ids,
+            @Param("currentStatus") RentalStatus currentStatus,
+            @Param("newStatus") RentalStatus newStatus
+    );
+
+    // Extracción cruda por fecha de inicio (todos los estados) para exportaciones; cursor de solo avance
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+    SELECT new com.alquiler.car_rent.commons.dtos.RentalReportRow(
+        r.id, c.id, c.name, v.id, v.brand, v.model, v.vehicleType,
+        r.chosenPricingTier, r.rentalStatus, r.startDate, r.endDate, r.totalPrice)
+    FROM Rental r
+    JOIN r.customer c
+    JOIN r.vehicle v
+    WHERE r.startDate >= :start AND r.startDate < :end
+    ORDER BY r.startDate, r.id
+    """)
+    Stream<RentalReportRow> streamExportRows(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end);
+
+    // Proyección en streaming para el motor de agregación de reportes (una sola consulta por reporte)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+    SELECT new com.alquiler.car_rent.commons.dtos.RentalReportRow(
+        r.id, c.id, c.name, v.id, v.brand, v.model, v.vehicleType,
+        r.chosenPricingTier, r.rentalStatus, r.startDate, r.endDate, r.totalPrice)
+    FROM Rental r
+    JOIN r.customer c
+    JOIN r.vehicle v
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+    """)
+    Stream<RentalReportRow> streamReportRows(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Días de inicio con alquileres, para reconstruir los agregados diarios día a día
+    @Query("SELECT DISTINCT CAST(r.startDate AS LocalDate) FROM Rental r WHERE r.startDate IS NOT NULL")
+    List<LocalDate> findStartDays();
+
+    // Alquileres (incluidos cancelados) que empiezan en [start, end), para reconstruir sus agregados diarios
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+    SELECT new com.alquiler.car_rent.commons.dtos.RentalReportRow(
+        r.id, c.id, c.name, v.id, v.brand, v.model, v.vehicleType,
+        r.chosenPricingTier, r.rentalStatus, r.startDate, r.endDate, r.totalPrice)
+    FROM Rental r
+    JOIN r.customer c
+    JOIN r.vehicle v
+    WHERE r.startDate >= :start AND r.startDate < :end
+    """)
+    Stream<RentalReportRow> streamReportRowsStartingIn(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Alquileres del rango que los agregados diarios no cubren: los que empezaron antes del rango y siguen
+    // dentro de él, y los que empiezan justo en su límite final. Sumados a los buckets de [start, end) dan
+    // el mismo conjunto que el criterio de solapamiento de las demás consultas; son tantos como la flota
+    @Query("""
+    SELECT new com.alquiler.car_rent.commons.dtos.RentalReportRow(
+        r.id, c.id, c.name, v.id, v.brand, v.model, v.vehicleType,
+        r.chosenPricingTier, r.rentalStatus, r.startDate, r.endDate, r.totalPrice)
+    FROM Rental r
+    JOIN r.customer c
+    JOIN r.vehicle v
+    WHERE r.endDate >= :start AND (r.startDate < :start OR r.startDate = :end)
+        AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+    """)
+    List<RentalReportRow> findRollupCarryOverRows(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Conteos distintos y promedio de duración resueltos en base de datos
+    @Query("""
+    SELECT COUNT(DISTINCT r.customer.id) FROM Rental r
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+    """)
+    long countDistinctCustomersInRange(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    @Query("""
+    SELECT COUNT(DISTINCT r.vehicle.id) FROM Rental r
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+    """)
+    long countDistinctVehiclesInRange(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    @Query("""
+    SELECT AVG(TIMESTAMPDIFF(DAY, r.startDate, r.endDate)) FROM Rental r
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+    """)
+    Double findAverageDurationInRange(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Paginación por clave (startDate, id): cada página es un seek por índice, sin OFFSET ni COUNT
+    @Query("""
+    SELECT r FROM Rental r
+    JOIN FETCH r.customer
+    JOIN FETCH r.vehicle
+    WHERE r.startDate <= :end AND r.endDate >= :start AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+        AND (r.startDate > :afterStart OR (r.startDate = :afterStart AND r.id > :afterId))
+    ORDER BY r.startDate ASC, r.id ASC
+    """)
+    List<Rental> findReportRangeAfter(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("afterStart") LocalDateTime afterStart,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    // Igual que la anterior pero incluye cancelados, para el listado de alquileres
+    @Query("""
+    SELECT r FROM Rental r
+    JOIN FETCH r.customer
+    JOIN FETCH r.vehicle
+    WHERE r.startDate <= :end AND r.endDate >= :start
+        AND (r.startDate > :afterStart OR (r.startDate = :afterStart AND r.id > :afterId))
+    ORDER BY r.startDate ASC, r.id ASC
+    """)
+    List<Rental> findRangeAfter(
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("afterStart") LocalDateTime afterStart,
+            @Param("afterId") Long afterId,
+            Limit limit
+    );
+
+    // Periodos ocupados que aún no han terminado, para reconstruir el índice de disponibilidad
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+    SELECT new com.alquiler.car_rent.commons.dtos.RentalInterval(r.id, r.vehicle.id, r.startDate, r.endDate)
+    FROM Rental r
+    WHERE r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+        AND r.startDate IS NOT NULL AND r.endDate > :now
+    """)
+    Stream<RentalInterval> streamBookedIntervals(@Param("now") LocalDateTime now);
+
+    // Periodo actual de un alquiler; vacío si se canceló o eliminó
+    @Query("""
+    SELECT new com.alquiler.car_rent.commons.dtos.RentalInterval(r.id, r.vehicle.id, r.startDate, r.endDate)
+    FROM Rental r
+    WHERE r.id = :id AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+        AND r.startDate IS NOT NULL AND r.endDate IS NOT NULL
+    """)
+    Optional<RentalInterval> findBookedInterval(@Param("id") Long id);
+
+    // Vehículos con un alquiler activo en curso sin contar excludeIds: los únicos que deben estar RENTED
+    @Query("""
+    SELECT DISTINCT r.vehicle.id FROM Rental r
+    WHERE r.vehicle.id IN :vehicleIds AND r.rentalStatus = com.alquiler.car_rent.commons.enums.RentalStatus.ACTIVE
+        AND r.startDate <= :now AND r.endDate > :now AND r.id NOT IN :excludeIds
+    """)
+    List<Long> findVehicleIdsInUse(
+            @Param("vehicleIds") Collection<Long> vehicleIds,
+            @Param("now") LocalDateTime now,
+            @Param("excludeIds") Collection<Long> excludeIds);
+
+    // Comprobación definitiva de solapamiento, dentro de la transacción que tiene bloqueado el vehículo
+    @Query("""
+    SELECT COUNT(r) > 0 FROM Rental r
+    WHERE r.vehicle.id = :vehicleId AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+        AND r.startDate < :end AND r.endDate > :start
+        AND (:excludeId IS NULL OR r.id <> :excludeId)
+    """)
+    boolean existsOverlappingBooking(
+            @Param("vehicleId") Long vehicleId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("excludeId") Long excludeId
+    );
+
+    // Periodos ocupados de varios vehículos que tocan [start, end), para validar un lote de reservas con una consulta
+    @Query("""
+    SELECT new com.alquiler.car_rent.commons.dtos.RentalInterval(r.id, r.vehicle.id, r.startDate, r.endDate)
+    FROM Rental r
+    WHERE r.vehicle.id IN :vehicleIds AND r.rentalStatus IN ('PENDING', 'ACTIVE', 'COMPLETED')
+        AND r.startDate < :end AND r.endDate > :start
+    """)
+    List<RentalInterval> findBookedIntervals(
+            @Param("vehicleIds") Collection<Long> vehicleIds,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    // Alquileres de un lote con vehículo y cliente en la misma consulta
+    @Query("""
+    SELECT r FROM Rental r
+    JOIN FETCH r.vehicle
+    JOIN FETCH r.customer
+    WHERE r.id IN :ids
+    """)
+    List<Rental> findAllWithVehicleByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,55 @@
+package com.alquiler.car_rent.repositories;
+
+import com.alquiler.car_rent.commons.entities.SmsOutboxMessage;
+import com.alquiler.car_rent.commons.enums.SmsOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SmsOutboxRepository extends JpaRepository<SmsOutboxMessage, Long> {
+
+    // Mensajes listos para enviar; SKIP LOCKED (timeout -2) deja a otras instancias los que ya están reservados
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+    SELECT m FROM SmsOutboxMessage m
+    WHERE m.status IN :statuses AND m.nextAttemptAt <= :now
+    ORDER BY m.nextAttemptAt
+    """)
+    List<SmsOutboxMessage> findDueForUpdate(@Param("statuses") Collection<SmsOutboxStatus> statuses,
+                                            @Param("now") LocalDateTime now, Limit limit);
+
+    // Las marcas solo aplican si el mensaje sigue reservado por el mismo intento; si la reserva venció y otro
+    // trabajador lo tomó, attempts ya no coincide y la actualización no afecta a ninguna fila
+    @Modifying
+    @Query("""
+    UPDATE SmsOutboxMessage m SET m.status = com.alquiler.car_rent.commons.enums.SmsOutboxStatus.SENT,
+        m.provider = :provider, m.sentAt = :sentAt, m.lastError = NULL
+    WHERE m.id = :id AND m.status = com.alquiler.car_rent.commons.enums.SmsOutboxStatus.SENDING
+        AND m.attempts = :attempt
+    """)
+    int markSent(@Param("id") Long id, @Param("attempt") int attempt, @Param("provider") String provider,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    // Tras un fallo: vuelve a PENDING con el siguiente intento o queda DEAD
+    @Modifying
+    @Query("""
+    UPDATE SmsOutboxMessage m SET m.status = :status, m.nextAttemptAt = :nextAttemptAt, m.lastError = :lastError
+    WHERE m.id = :id AND m.status = com.alquiler.car_rent.commons.enums.SmsOutboxStatus.SENDING
+        AND m.attempts = :attempt
+    """)
+    int markFailed(@Param("id") Long id, @Param("attempt") int attempt, @Param("status") SmsOutboxStatus status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+}
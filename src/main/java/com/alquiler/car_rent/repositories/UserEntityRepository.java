@@ -3,6 +3,8 @@ package com.alquiler.car_rent.repositories;
 import java.util.Optional;
 
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.alquiler.car_rent.commons.entities.UserEntity;
@@ -15,5 +17,7 @@ public interface UserEntityRepository extends JpaRepository<UserEntity, Long > {
 
     boolean existsByRole(Role role);
 
+    Page<UserEntity> findByRole(Role role, Pageable pageable);
+
     Optional<Object> findByUsername(@NotBlank(message = "El username no puede estar vacío") String username);
 }
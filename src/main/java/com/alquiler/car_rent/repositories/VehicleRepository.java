@@ -1,15 +1,71 @@
 package com.alquiler.car_rent.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import jakarta.persistence.LockModeType;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.alquiler.car_rent.commons.entities.Vehicle;
 import com.alquiler.car_rent.commons.enums.VehicleStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
 
-public interface VehicleRepository extends JpaRepository<Vehicle, Long>{
+public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle> {
 	List<Vehicle>findByStatus(VehicleStatus status);
     Optional<Vehicle> findByPlate(String plate);
+	List<Vehicle> findByStatusIn(Collection<VehicleStatus> statuses);
+	List<Vehicle> findByVehicleTypeAndStatusIn(VehicleType vehicleType, Collection<VehicleStatus> statuses);
+
+	// Reserva optimista: incrementa la versión al confirmar aunque el vehículo no cambie,
+	// así dos reservas simultáneas del mismo vehículo no pueden confirmarse ambas
+	@Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+	@Query("SELECT v FROM Vehicle v WHERE v.id = :id")
+	Optional<Vehicle> findByIdForBooking(@Param("id") Long id);
+
+	// Reserva pesimista: SELECT ... FOR UPDATE sobre la fila del vehículo
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT v FROM Vehicle v WHERE v.id = :id")
+	Optional<Vehicle> findByIdForUpdate(@Param("id") Long id);
+
+	// Variantes por lote de las dos anteriores; el orden por ID evita interbloqueos entre lotes que comparten vehículos
+	@Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+	@Query("SELECT v FROM Vehicle v WHERE v.id IN :ids ORDER BY v.id")
+	List<Vehicle> findAllByIdInForBooking(@Param("ids") Collection<Long> ids);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT v FROM Vehicle v WHERE v.id IN :ids ORDER BY v.id")
+	List<Vehicle> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+	// Libera en una sola sentencia los vehículos alquilados que ya no tienen un alquiler activo en curso
+	@Modifying
+	@Query("""
+	UPDATE Vehicle v SET v.status = com.alquiler.car_rent.commons.enums.VehicleStatus.AVAILABLE, v.version = v.version + 1
+	WHERE v.id IN :ids AND v.status = com.alquiler.car_rent.commons.enums.VehicleStatus.RENTED
+		AND NOT EXISTS (
+			SELECT r.id FROM Rental r
+			WHERE r.vehicle.id = v.id AND r.rentalStatus = com.alquiler.car_rent.commons.enums.RentalStatus.ACTIVE
+				AND r.startDate <= :now AND r.endDate > :now)
+	""")
+	int releaseRentedVehicles(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+	// Marca alquilados los vehículos disponibles cuyo alquiler activo ya empezó
+	@Modifying
+	@Query("""
+	UPDATE Vehicle v SET v.status = com.alquiler.car_rent.commons.enums.VehicleStatus.RENTED, v.version = v.version + 1
+	WHERE v.status = com.alquiler.car_rent.commons.enums.VehicleStatus.AVAILABLE
+		AND EXISTS (
+			SELECT r.id FROM Rental r
+			WHERE r.vehicle.id = v.id AND r.rentalStatus = com.alquiler.car_rent.commons.enums.RentalStatus.ACTIVE
+				AND r.startDate <= :now AND r.endDate > :now)
+	""")
+	int markStartedRentalVehicles(@Param("now") LocalDateTime now);
 
 }
@@ -0,0 +1,35 @@
+package com.alquiler.car_rent.repositories.specifications;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.alquiler.car_rent.commons.dtos.CustomerFilter;
+import com.alquiler.car_rent.commons.entities.Customer;
+
+/**
+ * Traduce los filtros del listado de clientes a predicados JPA.
+ */
+public final class CustomerSpecifications {
+
+	private CustomerSpecifications() {
+	}
+
+	public static Specification<Customer> withFilter(CustomerFilter filter) {
+		Specification<Customer> spec = Specification.where(null);
+		if (filter == null) {
+			return spec;
+		}
+		if (filter.status() != null) {
+			spec = spec.and((root, query, cb) -> cb.equal(root.get("customerStatus"), filter.status()));
+		}
+		if (filter.name() != null && !filter.name().isBlank()) {
+			// Búsqueda por prefijo: a diferencia de '%texto%' puede recorrer el índice por nombre
+			String prefix = escapeLike(filter.name().trim()) + "%";
+			spec = spec.and((root, query, cb) -> cb.like(root.get("name"), prefix, '\\'));
+		}
+		return spec;
+	}
+
+	private static String escapeLike(String value) {
+		return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
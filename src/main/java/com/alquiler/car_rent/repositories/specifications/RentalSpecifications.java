@@ -0,0 +1,46 @@
+package com.alquiler.car_rent.repositories.specifications;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.alquiler.car_rent.commons.dtos.RentalFilter;
+import com.alquiler.car_rent.commons.entities.Rental;
+
+/**
+ * Traduce los filtros del listado de alquileres a predicados JPA.
+ */
+public final class RentalSpecifications {
+
+	private RentalSpecifications() {
+	}
+
+	public static Specification<Rental> withFilter(RentalFilter filter) {
+		Specification<Rental> spec = Specification.where(null);
+		if (filter == null) {
+			return spec;
+		}
+		if (filter.status() != null) {
+			spec = spec.and((root, query, cb) -> cb.equal(root.get("rentalStatus"), filter.status()));
+		}
+		if (filter.customerId() != null) {
+			spec = spec.and((root, query, cb) -> cb.equal(root.get("customer").get("id"), filter.customerId()));
+		}
+		if (filter.vehicleId() != null) {
+			spec = spec.and((root, query, cb) -> cb.equal(root.get("vehicle").get("id"), filter.vehicleId()));
+		}
+		if (filter.vehicleType() != null) {
+			spec = spec.and((root, query, cb) -> cb.equal(root.get("vehicle").get("vehicleType"), filter.vehicleType()));
+		}
+		// Solapamiento con el rango: termina después del inicio y empieza antes del fin (inclusivo)
+		if (filter.from() != null) {
+			LocalDateTime from = filter.from().atStartOfDay();
+			spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("endDate"), from));
+		}
+		if (filter.to() != null) {
+			LocalDateTime to = filter.to().plusDays(1).atStartOfDay();
+			spec = spec.and((root, query, cb) -> cb.lessThan(root.get("startDate"), to));
+		}
+		return spec;
+	}
+}
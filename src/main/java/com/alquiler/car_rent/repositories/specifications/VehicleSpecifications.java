@@ -0,0 +1,37 @@
+package com.alquiler.car_rent.repositories.specifications;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.alquiler.car_rent.commons.dtos.VehicleFilter;
+import com.alquiler.car_rent.commons.entities.Vehicle;
+
+/**
+ * Traduce los filtros del listado de vehículos a predicados JPA.
+ */
+public final class VehicleSpecifications {
+
+	private VehicleSpecifications() {
+	}
+
+	public static Specification<Vehicle> withFilter(VehicleFilter filter) {
+		Specification<Vehicle> spec = Specification.where(null);
+		if (filter == null) {
+			return spec;
+		}
+		if (filter.status() != null) {
+			spec = spec.and((root, query, cb) -> cb.equal(root.get("status"), filter.status()));
+		}
+		if (filter.vehicleType() != null) {
+			spec = spec.and((root, query, cb) -> cb.equal(root.get("vehicleType"), filter.vehicleType()));
+		}
+		if (filter.pricingTier() != null) {
+			spec = spec.and((root, query, cb) -> cb.equal(root.get("pricingTier"), filter.pricingTier()));
+		}
+		if (filter.brand() != null && !filter.brand().isBlank()) {
+			// Igualdad directa para aprovechar el índice; la collation de MySQL ya ignora mayúsculas
+			String brand = filter.brand().trim();
+			spec = spec.and((root, query, cb) -> cb.equal(root.get("brand"), brand));
+		}
+		return spec;
+	}
+}
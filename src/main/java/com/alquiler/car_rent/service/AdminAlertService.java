@@ -1,5 +1,16 @@
 package com.alquiler.car_rent.service;
 
+import com.alquiler.car_rent.commons.dtos.RentalEndingAlert;
+
+import java.util.List;
+
 public interface AdminAlertService {
     void sendRentalEndingAlert(String message);
-}
\ No newline at end of file
+
+    /**
+     * Publica en un único mensaje las alertas de una ejecución, sin repetir alquileres ya avisados recientemente.
+     *
+     * @return número de alertas publicadas
+     */
+    int sendRentalEndingAlerts(List<RentalEndingAlert> alerts);
+}
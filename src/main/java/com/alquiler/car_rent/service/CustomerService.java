@@ -1,11 +1,16 @@
 package com.alquiler.car_rent.service;
 
 import com.alquiler.car_rent.commons.dtos.CustomerDto;
+import com.alquiler.car_rent.commons.dtos.CustomerFilter;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
 public interface CustomerService {
 	List<CustomerDto> findAllCustomers();
+	Page<CustomerDto> findCustomers(CustomerFilter filter, Pageable pageable);
 	CustomerDto findCustomerById(Long id);
 	CustomerDto createCustomer(CustomerDto customerdto);
 	CustomerDto updateCustomer(Long id, CustomerDto  customerDto);
@@ -0,0 +1,64 @@
+package com.alquiler.car_rent.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+
+import com.alquiler.car_rent.commons.entities.Rental;
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+
+public interface RentalRollupService {
+
+	/**
+	 * Aporte de un alquiler a un bucket diario (día de inicio × tipo × nivel × estado).
+	 */
+	record Contribution(LocalDate bucketDate, VehicleType vehicleType, PricingTier pricingTier,
+						RentalStatus rentalStatus, BigDecimal revenue, long rentalDays) {
+
+		/**
+		 * Captura el aporte actual del alquiler; devuelve null si aún no tiene fecha de inicio.
+		 */
+		public static Contribution of(Rental rental) {
+			if (rental == null || rental.getStartDate() == null) {
+				return null;
+			}
+			long days = rental.getEndDate() != null
+					? ChronoUnit.DAYS.between(rental.getStartDate(), rental.getEndDate())
+					: 0;
+			return new Contribution(
+					rental.getStartDate().toLocalDate(),
+					rental.getVehicle() != null ? rental.getVehicle().getVehicleType() : null,
+					rental.getChosenPricingTier(),
+					rental.getRentalStatus() != null ? rental.getRentalStatus() : RentalStatus.PENDING,
+					rental.getTotalPrice() != null ? rental.getTotalPrice() : BigDecimal.ZERO,
+					days);
+		}
+	}
+
+	void add(Contribution contribution);
+
+	/**
+	 * Suma varios aportes con una actualización por bucket diario en lugar de una por alquiler.
+	 */
+	void addAll(Collection<Contribution> contributions);
+
+	void subtract(Contribution contribution);
+
+	/**
+	 * Variante por lote de {@link #move}: descuenta y suma agrupando por bucket diario.
+	 */
+	void moveAll(Collection<Contribution> before, Collection<Contribution> after);
+
+	/**
+	 * Mueve el aporte de un alquiler de su estado anterior al nuevo (cambio de fechas, nivel, precio o estado).
+	 */
+	void move(Contribution before, Contribution after);
+
+	/**
+	 * Reconstruye todos los agregados a partir de la tabla de alquileres, un día de inicio por transacción.
+	 */
+	void rebuild();
+}
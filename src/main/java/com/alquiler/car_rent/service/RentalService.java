@@ -1,16 +1,44 @@
 package com.alquiler.car_rent.service;
 
+import com.alquiler.car_rent.commons.dtos.CursorPage;
+import com.alquiler.car_rent.commons.dtos.RentalBatchResult;
 import com.alquiler.car_rent.commons.dtos.RentalDto;
+import com.alquiler.car_rent.commons.dtos.RentalFilter;
+import com.alquiler.car_rent.commons.dtos.RentalStatusBatchRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface RentalService {
 	
 	List<RentalDto>findAllRentals();
+
+	/**
+	 * Lista una página de alquileres aplicando los filtros no nulos.
+	 */
+	Page<RentalDto> findRentals(RentalFilter filter, Pageable pageable);
+
+	/**
+	 * Lista alquileres por cursor (orden startDate, id) con el rango de fechas opcional [from, to].
+	 */
+	CursorPage<RentalDto> scrollRentals(String cursor, Integer size, LocalDate from, LocalDate to);
 	RentalDto findRentalById(Long id);
 	RentalDto createRental (RentalDto rentalDto);
 	RentalDto updateRental(Long id, RentalDto rentalDto);
     RentalDto cancelRental(Long id);
 	void deleteRental(Long id);
 
+	/**
+	 * Crea un lote de alquileres en una transacción; cada elemento se valida por separado y los rechazados
+	 * se informan en su posición sin impedir la creación del resto.
+	 */
+	List<RentalBatchResult> createRentals(List<RentalDto> rentals);
+
+	/**
+	 * Cambia a CANCELLED o COMPLETED el estado de varios alquileres PENDING o ACTIVE y libera sus vehículos.
+	 */
+	List<RentalBatchResult> updateRentalStatuses(RentalStatusBatchRequest request);
+
 }
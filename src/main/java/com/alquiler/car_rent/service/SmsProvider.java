@@ -1,6 +1,48 @@
 package com.alquiler.car_rent.service;
 
+import com.alquiler.car_rent.commons.dtos.SmsBatchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
 public interface SmsProvider {
     void sendSms(String to, String message);
     String getProviderName();
+
+    /**
+     * Envía el mismo mensaje a varios destinatarios y devuelve un resultado por destinatario, en el mismo orden.
+     * Por defecto lanza un envío individual por destinatario en hilos virtuales con a lo sumo
+     * {@code maxParallelism} en curso; los proveedores con envío masivo propio pueden sobrescribirlo.
+     */
+    default List<SmsBatchResult> sendBatch(List<String> recipients, String message, int maxParallelism) {
+        Semaphore permits = new Semaphore(Math.max(1, maxParallelism));
+        List<Future<SmsBatchResult>> futures = new ArrayList<>(recipients.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String to : recipients) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        sendSms(to, message);
+                        return SmsBatchResult.sent(to, getProviderName());
+                    } catch (RuntimeException e) {
+                        return SmsBatchResult.failed(to, getProviderName(), e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+        List<SmsBatchResult> results = new ArrayList<>(recipients.size());
+        for (int i = 0; i < recipients.size(); i++) {
+            Future<SmsBatchResult> future = futures.get(i);
+            results.add(future.state() == Future.State.SUCCESS
+                    ? future.resultNow()
+                    : SmsBatchResult.failed(recipients.get(i), getProviderName(), "Envío interrumpido"));
+        }
+        return results;
+    }
 }
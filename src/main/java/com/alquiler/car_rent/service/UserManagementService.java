@@ -3,11 +3,14 @@ package com.alquiler.car_rent.service;
 import com.alquiler.car_rent.commons.dtos.UserEntityRequest;
 import com.alquiler.car_rent.commons.entities.UserEntity;
 import com.alquiler.car_rent.commons.enums.Role;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
 public interface UserManagementService {
     List<UserEntity> getAllUsers();
+    Page<UserEntity> findUsers(Role role, Pageable pageable);
     UserEntity getUserById(Long id);
     UserEntity createUser(UserEntityRequest userRequest);
     UserEntity updateUser(Long id, UserEntityRequest userRequest);
@@ -0,0 +1,34 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.dtos.VehicleDto;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface VehicleAvailabilityService {
+
+	/**
+	 * Indica si el vehículo no tiene alquileres no cancelados que se solapen con [startDate, endDate).
+	 *
+	 * @param excludeRentalId Alquiler a ignorar (el que se está modificando), o null
+	 */
+	boolean isAvailable(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate, Long excludeRentalId);
+
+	/**
+	 * Vehículos reservables (disponibles o alquilados en otras fechas) libres en todo el rango.
+	 *
+	 * @param vehicleType Tipo de vehículo, o null para todos
+	 */
+	List<VehicleDto> findAvailableVehicles(LocalDateTime startDate, LocalDateTime endDate, VehicleType vehicleType);
+
+	/**
+	 * Reconstruye el índice completo desde la base de datos.
+	 */
+	void rebuild();
+
+	/**
+	 * Quita del índice los alquileres que ya han terminado.
+	 */
+	void evictEnded();
+}
@@ -1,12 +1,17 @@
 package com.alquiler.car_rent.service;
 
 import com.alquiler.car_rent.commons.dtos.VehicleDto;
+import com.alquiler.car_rent.commons.dtos.VehicleFilter;
 import com.alquiler.car_rent.commons.enums.VehicleStatus;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import java.util.List;
 
 public interface VehicleService {
 	List<VehicleDto>findAllVehicles();
+	Page<VehicleDto> findVehicles(VehicleFilter filter, Pageable pageable);
 	VehicleDto findVehicleById(Long id);
 	List<VehicleDto>findVehicleByStatus(VehicleStatus status);
 	VehicleDto createVehicle(VehicleDto vehicleDto);
@@ -1,21 +1,95 @@
 package com.alquiler.car_rent.service.impl;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import com.alquiler.car_rent.commons.dtos.RentalAlertBatch;
+import com.alquiler.car_rent.commons.dtos.RentalEndingAlert;
+import com.alquiler.car_rent.commons.events.RentalEndingAlertsEvent;
 import com.alquiler.car_rent.service.AdminAlertService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
+/**
+ * Alertas del panel de administración por STOMP. Las de vencimiento se agrupan en un solo mensaje JSON por
+ * ejecución y cada alquiler se avisa una vez dentro de admin-alerts.dedup-window, aunque el recordatorio
+ * lo vuelva a procesar. El recordatorio las entrega por {@link RentalEndingAlertsEvent} tras el commit, así que
+ * una ejecución revertida no publica ni deja alquileres marcados en la deduplicación.
+ * Expone "admin.alerts.published" y "admin.alerts.deduplicated".
+ */
 @Service
 public class AdminAlertServiceImpl implements AdminAlertService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminAlertServiceImpl.class);
+    static final String RENTAL_ALERTS_TOPIC = "/topic/rental-alerts";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final Cache<Long, Boolean> recentlyAlerted;
+    private final Counter published;
+    private final Counter deduplicated;
 
-    public AdminAlertServiceImpl(SimpMessagingTemplate messagingTemplate) {
+    public AdminAlertServiceImpl(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry,
+                                 @Value("${admin-alerts.dedup-window:PT2H}") Duration dedupWindow,
+                                 @Value("${admin-alerts.dedup-max-size:10000}") long dedupMaxSize) {
         this.messagingTemplate = messagingTemplate;
+        this.recentlyAlerted = Caffeine.newBuilder()
+                .expireAfterWrite(dedupWindow)
+                .maximumSize(dedupMaxSize)
+                .build();
+        this.published = Counter.builder("admin.alerts.published")
+                .description("Alertas de vencimiento publicadas al panel de administración")
+                .register(meterRegistry);
+        this.deduplicated = Counter.builder("admin.alerts.deduplicated")
+                .description("Alertas de vencimiento descartadas por repetir un alquiler ya avisado")
+                .register(meterRegistry);
     }
 
     @Override
     public void sendRentalEndingAlert(String message) {
-        messagingTemplate.convertAndSend("/topic/rental-alerts", message);
+        messagingTemplate.convertAndSend(RENTAL_ALERTS_TOPIC, message);
+    }
+
+    @Override
+    public int sendRentalEndingAlerts(List<RentalEndingAlert> alerts) {
+        List<RentalEndingAlert> fresh = new ArrayList<>(alerts.size());
+        Set<Long> seen = new HashSet<>();
+        for (RentalEndingAlert alert : alerts) {
+            if (seen.add(alert.rentalId()) && recentlyAlerted.getIfPresent(alert.rentalId()) == null) {
+                fresh.add(alert);
+            }
+        }
+        deduplicated.increment(alerts.size() - fresh.size());
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+        messagingTemplate.convertAndSend(RENTAL_ALERTS_TOPIC, RentalAlertBatch.of(fresh));
+        fresh.forEach(alert -> recentlyAlerted.put(alert.rentalId(), Boolean.TRUE));
+        published.increment(fresh.size());
+        logger.debug("Lote de alertas de vencimiento publicado: {} alquileres", fresh.size());
+        return fresh.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRentalsEnding(RentalEndingAlertsEvent event) {
+        try {
+            sendRentalEndingAlerts(event.alerts());
+        } catch (RuntimeException e) {
+            // Los SMS y las marcas ya están confirmados; la alerta del panel es lo único que se pierde
+            logger.warn("No se pudieron publicar {} alertas de vencimiento: {}", event.alerts().size(), e.getMessage());
+        }
     }
 }
@@ -0,0 +1,172 @@
+package com.alquiler.car_rent.service.impl;
+
+import java.time.LocalDateTime;
+
+/**
+ * Árbol de intervalos (AVL ordenado por inicio y aumentado con el fin máximo de cada subárbol) con los
+ * alquileres de un vehículo. Los intervalos son semiabiertos [inicio, fin): una devolución y una recogida a
+ * la misma hora no se solapan. Inserción, borrado y consulta de solapamiento en O(log n); thread-safe.
+ */
+final class BookingIntervalTree {
+
+	private static final class Node {
+		private final long rentalId;
+		private final LocalDateTime start;
+		private final LocalDateTime end;
+		private LocalDateTime maxEnd;
+		private int height = 1;
+		private Node left;
+		private Node right;
+
+		private Node(long rentalId, LocalDateTime start, LocalDateTime end) {
+			this.rentalId = rentalId;
+			this.start = start;
+			this.end = end;
+			this.maxEnd = end;
+		}
+	}
+
+	private Node root;
+	private int size;
+
+	synchronized void insert(long rentalId, LocalDateTime start, LocalDateTime end) {
+		root = insert(root, new Node(rentalId, start, end));
+	}
+
+	synchronized void remove(long rentalId, LocalDateTime start) {
+		root = remove(root, rentalId, start);
+	}
+
+	synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Indica si algún intervalo distinto de excludeRentalId se solapa con [from, to).
+	 */
+	synchronized boolean overlaps(LocalDateTime from, LocalDateTime to, Long excludeRentalId) {
+		return overlaps(root, from, to, excludeRentalId);
+	}
+
+	private static boolean overlaps(Node node, LocalDateTime from, LocalDateTime to, Long excludeRentalId) {
+		// Ningún intervalo de este subárbol termina después de from
+		if (node == null || !node.maxEnd.isAfter(from)) {
+			return false;
+		}
+		if (overlaps(node.left, from, to, excludeRentalId)) {
+			return true;
+		}
+		// Este nodo y todo su subárbol derecho empiezan en to o después
+		if (!node.start.isBefore(to)) {
+			return false;
+		}
+		if (node.end.isAfter(from) && (excludeRentalId == null || node.rentalId != excludeRentalId)) {
+			return true;
+		}
+		return overlaps(node.right, from, to, excludeRentalId);
+	}
+
+	private static int compare(LocalDateTime start, long rentalId, Node node) {
+		int byStart = start.compareTo(node.start);
+		return byStart != 0 ? byStart : Long.compare(rentalId, node.rentalId);
+	}
+
+	private Node insert(Node node, Node inserted) {
+		if (node == null) {
+			size++;
+			return inserted;
+		}
+		int cmp = compare(inserted.start, inserted.rentalId, node);
+		if (cmp < 0) {
+			node.left = insert(node.left, inserted);
+		} else if (cmp > 0) {
+			node.right = insert(node.right, inserted);
+		} else {
+			// Mismo alquiler y mismo inicio: se reemplaza el fin
+			inserted.left = node.left;
+			inserted.right = node.right;
+			inserted.height = node.height;
+			node = inserted;
+		}
+		return rebalance(node);
+	}
+
+	private Node remove(Node node, long rentalId, LocalDateTime start) {
+		if (node == null) {
+			return null;
+		}
+		int cmp = compare(start, rentalId, node);
+		if (cmp < 0) {
+			node.left = remove(node.left, rentalId, start);
+		} else if (cmp > 0) {
+			node.right = remove(node.right, rentalId, start);
+		} else {
+			size--;
+			if (node.left == null || node.right == null) {
+				return node.left != null ? node.left : node.right;
+			}
+			Node successor = node.right;
+			while (successor.left != null) {
+				successor = successor.left;
+			}
+			Node replacement = new Node(successor.rentalId, successor.start, successor.end);
+			size++; // el borrado del sucesor vuelve a descontarlo
+			replacement.right = remove(node.right, successor.rentalId, successor.start);
+			replacement.left = node.left;
+			node = replacement;
+		}
+		return rebalance(node);
+	}
+
+	private static Node rebalance(Node node) {
+		update(node);
+		int balance = height(node.left) - height(node.right);
+		if (balance > 1) {
+			if (height(node.left.left) < height(node.left.right)) {
+				node.left = rotateLeft(node.left);
+			}
+			return rotateRight(node);
+		}
+		if (balance < -1) {
+			if (height(node.right.right) < height(node.right.left)) {
+				node.right = rotateRight(node.right);
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	private static Node rotateRight(Node node) {
+		Node pivot = node.left;
+		node.left = pivot.right;
+		pivot.right = node;
+		update(node);
+		update(pivot);
+		return pivot;
+	}
+
+	private static Node rotateLeft(Node node) {
+		Node pivot = node.right;
+		node.right = pivot.left;
+		pivot.left = node;
+		update(node);
+		update(pivot);
+		return pivot;
+	}
+
+	private static void update(Node node) {
+		node.height = 1 + Math.max(height(node.left), height(node.right));
+		LocalDateTime maxEnd = node.end;
+		if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+			maxEnd = node.left.maxEnd;
+		}
+		if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+			maxEnd = node.right.maxEnd;
+		}
+		node.maxEnd = maxEnd;
+	}
+
+	private static int height(Node node) {
+		return node == null ? 0 : node.height;
+	}
+}
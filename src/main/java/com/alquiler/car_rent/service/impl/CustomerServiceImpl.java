@@ -1,13 +1,18 @@
 package com.alquiler.car_rent.service.impl;
 
 import com.alquiler.car_rent.commons.dtos.CustomerDto;
+import com.alquiler.car_rent.commons.dtos.CustomerFilter;
 import com.alquiler.car_rent.commons.entities.Customer;
 import com.alquiler.car_rent.commons.mappers.CustomerMapper;
 import com.alquiler.car_rent.exceptions.BadRequestException;
 import com.alquiler.car_rent.exceptions.NotFoundException;
 import com.alquiler.car_rent.repositories.CustomerRepository;
+import com.alquiler.car_rent.repositories.specifications.CustomerSpecifications;
 import com.alquiler.car_rent.service.CustomerService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -31,6 +36,13 @@ public class CustomerServiceImpl implements CustomerService {
 				.toList();
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public Page<CustomerDto> findCustomers(CustomerFilter filter, Pageable pageable) {
+		return customerRepository.findAll(CustomerSpecifications.withFilter(filter), pageable)
+				.map(customerMapper::customerToDto);
+	}
+
 	@Override
 	public CustomerDto findCustomerById(Long id) {
 		return customerRepository.findById(id)
@@ -0,0 +1,143 @@
+package com.alquiler.car_rent.service.impl;
+
+import com.alquiler.car_rent.commons.entities.Vehicle;
+import com.alquiler.car_rent.exceptions.ConflictException;
+import com.alquiler.car_rent.repositories.VehicleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta las reservas de vehículos en su propia transacción con el modo de bloqueo configurado.
+ * <ul>
+ *   <li>OPTIMISTIC (por defecto): el vehículo se lee con OPTIMISTIC_FORCE_INCREMENT; si otra reserva del mismo
+ *   vehículo confirma antes, la transacción falla al confirmar y se reintenta con espera creciente.</li>
+ *   <li>PESSIMISTIC: el vehículo se lee con SELECT ... FOR UPDATE y las reservas del mismo vehículo esperan
+ *   su turno; solo se reintenta ante timeouts o interbloqueos.</li>
+ * </ul>
+ * En ambos casos el bloqueo es por vehículo: reservas de vehículos distintos no se esperan entre sí.
+ * Expone "rental.booking.conflicts", "rental.booking.retries" y "rental.booking.exhausted" por modo.
+ */
+@Component
+public class RentalBookingExecutor {
+
+	private static final Logger logger = LoggerFactory.getLogger(RentalBookingExecutor.class);
+
+	public enum LockMode {
+		OPTIMISTIC,
+		PESSIMISTIC
+	}
+
+	private final TransactionTemplate transactionTemplate;
+	private final VehicleRepository vehicleRepository;
+	private final LockMode lockMode;
+	private final int maxAttempts;
+	private final Duration backoff;
+	private final Counter conflicts;
+	private final Counter retries;
+	private final Counter exhausted;
+
+	public RentalBookingExecutor(PlatformTransactionManager transactionManager,
+								 VehicleRepository vehicleRepository,
+								 MeterRegistry meterRegistry,
+								 @Value("${rental.booking.lock-mode:OPTIMISTIC}") LockMode lockMode,
+								 @Value("${rental.booking.max-attempts:3}") int maxAttempts,
+								 @Value("${rental.booking.backoff:PT0.05S}") Duration backoff) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.vehicleRepository = vehicleRepository;
+		this.lockMode = lockMode;
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.backoff = backoff;
+		String mode = lockMode.name().toLowerCase();
+		this.conflicts = Counter.builder("rental.booking.conflicts")
+				.description("Reservas que chocaron con otra modificación concurrente")
+				.tag("mode", mode)
+				.register(meterRegistry);
+		this.retries = Counter.builder("rental.booking.retries")
+				.description("Reintentos de reservas tras un conflicto")
+				.tag("mode", mode)
+				.register(meterRegistry);
+		this.exhausted = Counter.builder("rental.booking.exhausted")
+				.description("Reservas rechazadas tras agotar los reintentos")
+				.tag("mode", mode)
+				.register(meterRegistry);
+	}
+
+	public LockMode getLockMode() {
+		return lockMode;
+	}
+
+	/**
+	 * Ejecuta la reserva en una transacción nueva y la reintenta ante conflictos de concurrencia.
+	 * Si ya hay una transacción en curso se une a ella sin reintentos: no se puede repetir solo una parte.
+	 *
+	 * @throws ConflictException si los conflictos persisten tras el último intento
+	 */
+	public <T> T execute(Supplier<T> booking) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			return booking.get();
+		}
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> booking.get());
+			} catch (ConcurrencyFailureException e) {
+				conflicts.increment();
+				if (attempt >= maxAttempts) {
+					exhausted.increment();
+					logger.warn("Reserva rechazada tras {} intentos por conflictos de concurrencia ({})", attempt, lockMode);
+					throw new ConflictException("El vehículo está siendo reservado por otra operación; intente de nuevo.");
+				}
+				retries.increment();
+				logger.debug("Conflicto de concurrencia en la reserva (intento {} de {}): {}", attempt, maxAttempts, e.getMessage());
+				pause(attempt);
+			}
+		}
+	}
+
+	/**
+	 * Lee el vehículo con el bloqueo del modo configurado; debe llamarse dentro de {@link #execute}.
+	 */
+	public Optional<Vehicle> lockVehicle(Long vehicleId) {
+		return lockMode == LockMode.PESSIMISTIC
+				? vehicleRepository.findByIdForUpdate(vehicleId)
+				: vehicleRepository.findByIdForBooking(vehicleId);
+	}
+
+	/**
+	 * Variante por lote de {@link #lockVehicle}: una sola consulta IN, en orden de ID.
+	 */
+	public List<Vehicle> lockVehicles(Collection<Long> vehicleIds) {
+		if (vehicleIds.isEmpty()) {
+			return List.of();
+		}
+		return lockMode == LockMode.PESSIMISTIC
+				? vehicleRepository.findAllByIdInForUpdate(vehicleIds)
+				: vehicleRepository.findAllByIdInForBooking(vehicleIds);
+	}
+
+	private void pause(int attempt) {
+		long baseMillis = backoff.toMillis() * attempt;
+		// El azar evita que las reservas que chocaron vuelvan a chocar en el mismo instante
+		long jitter = baseMillis > 0 ? ThreadLocalRandom.current().nextLong(baseMillis + 1) : 0;
+		try {
+			Thread.sleep(baseMillis + jitter);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConflictException("Reserva interrumpida mientras esperaba un reintento.");
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.alquiler.car_rent.service.impl;
+
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.repositories.VehicleRepository;
+import com.alquiler.car_rent.service.RentalRollupService;
+import com.alquiler.car_rent.service.RentalRollupService.Contribution;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Completa los alquileres ACTIVE cuya fecha de fin ya pasó y libera sus vehículos. Trabaja por tramos de
+ * chunk-size alquileres, cada uno en su propia transacción corta con un UPDATE para alquileres y otro para
+ * vehículos, de modo que un fin de mes con miles de vencimientos no retiene bloqueos durante todo el job.
+ * Después marca RENTED los vehículos cuyo alquiler activo ya empezó: un vehículo está alquilado solo mientras
+ * tiene un alquiler en curso, la misma regla que aplica RentalServiceImpl al crear, cambiar o cancelar.
+ */
+@Service
+public class RentalExpiryServiceImpl {
+
+	private static final Logger logger = LoggerFactory.getLogger(RentalExpiryServiceImpl.class);
+
+	private final RentalRepository rentalRepository;
+	private final VehicleRepository vehicleRepository;
+	private final RentalRollupService rentalRollupService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final TransactionTemplate transactionTemplate;
+	private final Counter completedRentals;
+	private final int chunkSize;
+
+	public RentalExpiryServiceImpl(RentalRepository rentalRepository, VehicleRepository vehicleRepository,
+								   RentalRollupService rentalRollupService, ApplicationEventPublisher eventPublisher,
+								   PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+								   @Value("${rental.expiry.chunk-size:500}") int chunkSize) {
+		this.rentalRepository = rentalRepository;
+		this.vehicleRepository = vehicleRepository;
+		this.rentalRollupService = rentalRollupService;
+		this.eventPublisher = eventPublisher;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.completedRentals = Counter.builder("rental.expiry.completed")
+				.description("Alquileres completados automáticamente al vencer")
+				.register(meterRegistry);
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	@Scheduled(fixedDelayString = "${rental.expiry.interval:PT1H}")
+	public void completeExpiredRentals() {
+		long startedAt = System.nanoTime();
+		LocalDateTime now = LocalDateTime.now();
+		int total = 0;
+		int chunks = 0;
+		while (true) {
+			ChunkResult chunk = transactionTemplate.execute(status -> completeChunk(now));
+			if (chunk == null || chunk.read() == 0) {
+				break;
+			}
+			total += chunk.completed();
+			chunks++;
+			if (chunk.read() < chunkSize) {
+				break;
+			}
+		}
+		if (total > 0) {
+			logger.info("Alquileres vencidos completados: {} en {} tramos ({} ms)",
+					total, chunks, (System.nanoTime() - startedAt) / 1_000_000);
+		}
+		Integer started = transactionTemplate.execute(status -> vehicleRepository.markStartedRentalVehicles(now));
+		if (started != null && started > 0) {
+			logger.info("Vehículos marcados como alquilados al empezar su alquiler: {}", started);
+		}
+	}
+
+	/**
+	 * Completa el siguiente tramo. Solo cuenta, libera y mueve en el agregado los alquileres que este tramo
+	 * completó de verdad, no los leídos que otra transacción cambió mientras tanto.
+	 */
+	private ChunkResult completeChunk(LocalDateTime now) {
+		List<RentalReportRow> expired = rentalRepository.findReportRowsByStatusAndEndDateBefore(
+				RentalStatus.ACTIVE, now, Limit.of(chunkSize));
+		if (expired.isEmpty()) {
+			return new ChunkResult(0, 0);
+		}
+		List<Long> rentalIds = expired.stream().map(RentalReportRow::id).toList();
+		// Se bloquean antes del UPDATE para saber exactamente cuáles completa: tras él, un alquiler en
+		// COMPLETED podría haberlo cerrado otra transacción entre la lectura y el UPDATE
+		Set<Long> lockedIds = new HashSet<>(rentalRepository.lockIdsByIdInAndRentalStatus(rentalIds, RentalStatus.ACTIVE));
+		List<RentalReportRow> completed = lockedIds.size() == expired.size()
+				? expired
+				: expired.stream().filter(row -> lockedIds.contains(row.id())).toList();
+		if (completed.size() != expired.size()) {
+			logger.warn("Tramo de expiración: {} leídos, {} siguen activos y se completan", expired.size(), completed.size());
+		}
+		if (completed.isEmpty()) {
+			return new ChunkResult(expired.size(), 0);
+		}
+		int updated = rentalRepository.updateStatusByIdIn(
+				completed.stream().map(RentalReportRow::id).toList(), RentalStatus.ACTIVE, RentalStatus.COMPLETED);
+		Set<Long> vehicleIds = completed.stream().map(RentalReportRow::vehicleId)
+				.collect(Collectors.toCollection(TreeSet::new));
+		vehicleRepository.releaseRentedVehicles(vehicleIds, now);
+
+		rentalRollupService.moveAll(
+				completed.stream().map(row -> contribution(row, RentalStatus.ACTIVE)).toList(),
+				completed.stream().map(row -> contribution(row, RentalStatus.COMPLETED)).toList());
+		completedRentals.increment(updated);
+
+		// Un solo evento con el rango del tramo: basta para invalidar reportes y el periodo reservado no cambia
+		LocalDateTime from = completed.stream().map(RentalReportRow::startDate).filter(Objects::nonNull)
+				.min(Comparator.naturalOrder()).orElse(now);
+		LocalDateTime to = completed.stream().map(RentalReportRow::endDate)
+				.max(Comparator.naturalOrder()).orElse(now);
+		eventPublisher.publishEvent(RentalChangedEvent.of(null, from, to));
+		return new ChunkResult(expired.size(), updated);
+	}
+
+	private static Contribution contribution(RentalReportRow row, RentalStatus status) {
+		if (row.startDate() == null) {
+			return null;
+		}
+		return new Contribution(row.startDate().toLocalDate(), row.vehicleType(), row.pricingTier(), status,
+				row.totalPrice() != null ? row.totalPrice() : BigDecimal.ZERO,
+				ChronoUnit.DAYS.between(row.startDate(), row.endDate()));
+	}
+
+	private record ChunkResult(int read, int completed) {
+	}
+}
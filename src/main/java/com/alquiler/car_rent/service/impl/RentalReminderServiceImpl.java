@@ -1,49 +1,92 @@
 package com.alquiler.car_rent.service.impl;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.alquiler.car_rent.commons.entities.Rental;
+import com.alquiler.car_rent.commons.dtos.RentalEndingAlert;
+import com.alquiler.car_rent.commons.dtos.RentalReminderRow;
 import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.events.RentalEndingAlertsEvent;
 import com.alquiler.car_rent.repositories.RentalRepository;
-import com.alquiler.car_rent.service.AdminAlertService;
 
 @Service
 public class RentalReminderServiceImpl {
+	private static final Logger logger = LoggerFactory.getLogger(RentalReminderServiceImpl.class);
+	private static final Duration REMINDER_WINDOW = Duration.ofHours(1);
+	// Tope por ejecución; lo que quede se atiende en la siguiente
+	private static final int MAX_REMINDERS_PER_RUN = 500;
+
 	private final RentalRepository rentalRepository;
-	private final SmsServiceImpl smsService;
-	private final AdminAlertService adminAlertService;
+	private final SmsOutboxServiceImpl smsOutbox;
+	private final ApplicationEventPublisher eventPublisher;
+	private final TransactionTemplate transactionTemplate;
 
-	public RentalReminderServiceImpl(RentalRepository rentalRepository, SmsServiceImpl smsService, AdminAlertService adminAlertService) {
+	public RentalReminderServiceImpl(RentalRepository rentalRepository, SmsOutboxServiceImpl smsOutbox,
+									 ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
 		this.rentalRepository = rentalRepository;
-		this.smsService = smsService;
-		this.adminAlertService = adminAlertService;
+		this.smsOutbox = smsOutbox;
+		this.eventPublisher = eventPublisher;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
 	}
 
+	/**
+	 * Avisa una sola vez de cada alquiler activo que vence dentro de la próxima hora. La consulta solo
+	 * devuelve los pendientes de aviso, así el coste depende de los vencimientos y no del tamaño de la flota.
+	 * Cada alquiler se avisa en su propia transacción: el SMS entra en la bandeja de salida y el alquiler queda
+	 * marcado juntos, y el fallo de uno no revierte a los demás. El planificador no espera al proveedor.
+	 * Las alertas al panel salen en un único mensaje por ejecución y solo con los alquileres ya confirmados.
+	 */
 	@Scheduled(fixedRate = 90000)
 	public void sendReminders() {
 		LocalDateTime now = LocalDateTime.now();
-		LocalDateTime oneHourFromNow = now.plusHours(1);
-
-		List<Rental> rentalsActive = rentalRepository.findByRentalStatus(RentalStatus.ACTIVE);
-		List<Rental> rentalsToRemind = rentalsActive.stream()
-				.filter(rental -> !rental.getEndDate().isBefore(now) && rental.getEndDate().isBefore(oneHourFromNow))
-				.toList();
-
-		for (Rental rental : rentalsToRemind) {
-			String messageSms = "Hola " + rental.getCustomer().getName() +
-					", recuerde que debe devolver el vehiculo '" + rental.getVehicle().getModel() +
-					"' a mas tardar " + rental.getEndDate() + ". Si ya lo devolvio, ignore este sms";
-			smsService.sendSms(rental.getCustomer().getPhone(), messageSms);
-			
-			String messageWs = "El alquiler del vehiculo " + rental.getVehicle().getBrand() + " " + rental.getVehicle().getModel() +
-                    " (Placa: " + rental.getVehicle().getPlate() + ") rentado por " + rental.getCustomer().getName() +
-                    " esta proximo a vencer a las " + rental.getEndDate().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-			adminAlertService.sendRentalEndingAlert(messageWs);
+		List<RentalReminderRow> due = rentalRepository.findRemindersDue(RentalStatus.ACTIVE, now, now.plus(REMINDER_WINDOW),
+				Limit.of(MAX_REMINDERS_PER_RUN));
+		if (due.isEmpty()) {
+			return;
+		}
+
+		List<RentalEndingAlert> alerts = new ArrayList<>(due.size());
+		for (RentalReminderRow rental : due) {
+			try {
+				transactionTemplate.executeWithoutResult(status -> remind(rental, now));
+				alerts.add(alertFor(rental));
+			} catch (RuntimeException e) {
+				// Su transacción se revierte sin marca: se reintenta en la siguiente ejecución mientras siga dentro de la ventana
+				logger.warn("No se pudo enviar el recordatorio del alquiler {}: {}", rental.rentalId(), e.getMessage());
+			}
+		}
+		if (!alerts.isEmpty()) {
+			eventPublisher.publishEvent(new RentalEndingAlertsEvent(alerts));
 		}
 	}
+
+	private void remind(RentalReminderRow rental, LocalDateTime now) {
+		String messageSms = "Hola " + rental.customerName() +
+				", recuerde que debe devolver el vehiculo '" + rental.vehicleModel() +
+				"' a mas tardar " + rental.endDate() + ". Si ya lo devolvio, ignore este sms";
+		smsOutbox.enqueue(rental.customerPhone(), messageSms);
+		rentalRepository.markReminderSent(List.of(rental.rentalId()), now);
+	}
+
+	private static RentalEndingAlert alertFor(RentalReminderRow rental) {
+		String message = "El alquiler del vehiculo " + rental.vehicleBrand() + " " + rental.vehicleModel() +
+				" (Placa: " + rental.vehiclePlate() + ") rentado por " + rental.customerName() +
+				" esta proximo a vencer a las " + rental.endDate().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+		return new RentalEndingAlert(rental.rentalId(), rental.customerName(), rental.vehicleBrand(),
+				rental.vehicleModel(), rental.vehiclePlate(), rental.endDate(), message);
+	}
 }
@@ -0,0 +1,195 @@
+package com.alquiler.car_rent.service.impl;
+
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
+import com.alquiler.car_rent.commons.entities.RentalDailyRollup;
+import com.alquiler.car_rent.commons.entities.RentalRollupLock;
+import com.alquiler.car_rent.repositories.RentalDailyRollupRepository;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.service.RentalRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+@Service
+public class RentalRollupServiceImpl implements RentalRollupService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RentalRollupServiceImpl.class);
+
+	private final RentalDailyRollupRepository rollupRepository;
+	private final RentalRepository rentalRepository;
+	private final TransactionTemplate transactionTemplate;
+
+	public RentalRollupServiceImpl(RentalDailyRollupRepository rollupRepository, RentalRepository rentalRepository,
+								   PlatformTransactionManager transactionManager) {
+		this.rollupRepository = rollupRepository;
+		this.rentalRepository = rentalRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	@Transactional
+	public void add(Contribution contribution) {
+		lockForIncrement();
+		apply(contribution, 1);
+	}
+
+	@Override
+	@Transactional
+	public void addAll(Collection<Contribution> contributions) {
+		lockForIncrement();
+		applyGrouped(contributions, 1);
+	}
+
+	@Override
+	@Transactional
+	public void subtract(Contribution contribution) {
+		lockForIncrement();
+		apply(contribution, -1);
+	}
+
+	@Override
+	@Transactional
+	public void move(Contribution before, Contribution after) {
+		if (Objects.equals(before, after)) {
+			return;
+		}
+		lockForIncrement();
+		apply(before, -1);
+		apply(after, 1);
+	}
+
+	@Override
+	@Transactional
+	public void moveAll(Collection<Contribution> before, Collection<Contribution> after) {
+		lockForIncrement();
+		applyGrouped(before, -1);
+		applyGrouped(after, 1);
+	}
+
+	/**
+	 * Suma (o resta) los aportes agrupados por bucket: una actualización por bucket en lugar de una por alquiler.
+	 */
+	private void applyGrouped(Collection<Contribution> contributions, int sign) {
+		Map<Contribution, Contribution> totals = new HashMap<>();
+		Map<Contribution, Long> counts = new HashMap<>();
+		for (Contribution contribution : contributions) {
+			if (contribution == null) {
+				continue;
+			}
+			Contribution key = new Contribution(contribution.bucketDate(), contribution.vehicleType(),
+					contribution.pricingTier(), contribution.rentalStatus(), BigDecimal.ZERO, 0);
+			Contribution signed = sign > 0 ? contribution : new Contribution(contribution.bucketDate(),
+					contribution.vehicleType(), contribution.pricingTier(), contribution.rentalStatus(),
+					contribution.revenue().negate(), -contribution.rentalDays());
+			totals.merge(key, signed, (a, b) -> new Contribution(a.bucketDate(), a.vehicleType(), a.pricingTier(),
+					a.rentalStatus(), a.revenue().add(b.revenue()), a.rentalDays() + b.rentalDays()));
+			counts.merge(key, (long) sign, Long::sum);
+		}
+		totals.forEach((key, total) -> apply(total, counts.get(key)));
+	}
+
+	private void apply(Contribution contribution, int sign) {
+		if (contribution == null) {
+			return;
+		}
+		if (sign > 0) {
+			apply(contribution, 1L);
+			return;
+		}
+		Contribution negated = new Contribution(contribution.bucketDate(), contribution.vehicleType(),
+				contribution.pricingTier(), contribution.rentalStatus(), contribution.revenue().negate(),
+				-contribution.rentalDays());
+		apply(negated, -1L);
+	}
+
+	/**
+	 * Aplica count alquileres cuyos ingresos y días ya vienen sumados en la contribución. Un solo
+	 * INSERT ... ON DUPLICATE KEY UPDATE: crear el bucket y sumarle no compiten entre transacciones.
+	 */
+	private void apply(Contribution contribution, long count) {
+		rollupRepository.upsert(
+				contribution.bucketDate(),
+				RentalDailyRollup.dimension(contribution.vehicleType()),
+				RentalDailyRollup.dimension(contribution.pricingTier()),
+				contribution.rentalStatus().name(),
+				count,
+				contribution.revenue(),
+				contribution.rentalDays());
+	}
+
+	private void lockForIncrement() {
+		rollupRepository.lockForIncrement(RentalRollupLock.ID);
+	}
+
+	/**
+	 * Recalcula los buckets día a día, cada día en su propia transacción: el bloqueo exclusivo solo dura lo que
+	 * tarda en leerse y reescribirse un día, así las altas y cambios de alquileres no esperan a la reconstrucción
+	 * completa.
+	 */
+	@Override
+	@Scheduled(cron = "${reporting.rollup.rebuild-cron:0 30 3 * * *}")
+	public void rebuild() {
+		long startedAt = System.nanoTime();
+		// Los días con alquileres y los que aún tienen buckets: así también se limpian los que quedaron vacíos
+		SortedSet<LocalDate> days = new TreeSet<>(rentalRepository.findStartDays());
+		days.addAll(rollupRepository.findBucketDates());
+
+		long bucketCount = 0;
+		for (LocalDate day : days) {
+			bucketCount += transactionTemplate.execute(status -> rebuildDay(day));
+		}
+
+		logger.info("Agregados diarios de alquileres reconstruidos: {} días, {} buckets en {} ms",
+				days.size(), bucketCount, (System.nanoTime() - startedAt) / 1_000_000);
+	}
+
+	private int rebuildDay(LocalDate day) {
+		// Primero el bloqueo exclusivo y después la lectura: lo que se confirme antes entra en el recálculo y lo
+		// que llegue después espera y se suma sobre los buckets nuevos
+		rollupRepository.lockForRebuild(RentalRollupLock.ID);
+		Map<Contribution, RentalDailyRollup> buckets = new HashMap<>();
+
+		try (Stream<RentalReportRow> rows = rentalRepository.streamReportRowsStartingIn(day.atStartOfDay(),
+				day.plusDays(1).atStartOfDay())) {
+			rows.filter(row -> row.rentalStatus() != null)
+					.forEach(row -> {
+						// Clave del bucket: mismas dimensiones que la restricción única, sin métricas
+						Contribution key = new Contribution(day, row.vehicleType(), row.pricingTier(),
+								row.rentalStatus(), BigDecimal.ZERO, 0);
+						RentalDailyRollup bucket = buckets.computeIfAbsent(key, k -> RentalDailyRollup.builder()
+								.bucketDate(k.bucketDate())
+								.vehicleType(k.vehicleType())
+								.pricingTier(k.pricingTier())
+								.rentalStatus(k.rentalStatus())
+								.revenue(BigDecimal.ZERO)
+								.build());
+						bucket.setRentalCount(bucket.getRentalCount() + 1);
+						bucket.setRevenue(bucket.getRevenue().add(row.totalPrice() != null ? row.totalPrice() : BigDecimal.ZERO));
+						if (row.endDate() != null) {
+							bucket.setRentalDays(bucket.getRentalDays() + ChronoUnit.DAYS.between(row.startDate(), row.endDate()));
+						}
+					});
+		}
+
+		rollupRepository.deleteBucketsOn(day);
+		rollupRepository.flush();
+		rollupRepository.saveAll(List.copyOf(buckets.values()));
+		return buckets.size();
+	}
+}
@@ -1,45 +1,90 @@
 package com.alquiler.car_rent.service.impl;
 
+import com.alquiler.car_rent.commons.dtos.CursorPage;
+import com.alquiler.car_rent.commons.dtos.RentalBatchResult;
+import com.alquiler.car_rent.commons.dtos.RentalCursor;
 import com.alquiler.car_rent.commons.dtos.RentalDto;
+import com.alquiler.car_rent.commons.dtos.RentalFilter;
+import com.alquiler.car_rent.commons.dtos.RentalInterval;
+import com.alquiler.car_rent.commons.dtos.RentalStatusBatchRequest;
+import com.alquiler.car_rent.commons.entities.Customer;
 import com.alquiler.car_rent.commons.entities.Rental;
 import com.alquiler.car_rent.commons.entities.Vehicle;
+import com.alquiler.car_rent.commons.enums.BatchItemStatus;
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
+import com.alquiler.car_rent.commons.enums.PricingTier;
 import com.alquiler.car_rent.commons.enums.RentalStatus;
 import com.alquiler.car_rent.commons.enums.VehicleStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
 import com.alquiler.car_rent.commons.mappers.RentalMapper;
+import com.alquiler.car_rent.commons.utils.Pagination;
 import com.alquiler.car_rent.exceptions.BadRequestException;
 import com.alquiler.car_rent.exceptions.NotFoundException;
 import com.alquiler.car_rent.repositories.CustomerRepository;
 import com.alquiler.car_rent.repositories.RentalRepository;
 import com.alquiler.car_rent.repositories.VehicleRepository;
+import com.alquiler.car_rent.repositories.specifications.RentalSpecifications;
 import com.alquiler.car_rent.service.PricingService;
+import com.alquiler.car_rent.service.RentalRollupService;
+import com.alquiler.car_rent.service.RentalRollupService.Contribution;
 import com.alquiler.car_rent.service.RentalService;
-import org.springframework.scheduling.annotation.Scheduled;
+import com.alquiler.car_rent.service.VehicleAvailabilityService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Service
 public class RentalServiceImpl implements RentalService {
 	private static final Logger logger = LoggerFactory.getLogger(RentalServiceImpl.class);
+	private static final LocalDateTime OPEN_RANGE_END = LocalDateTime.of(9999, 12, 31, 23, 59);
+	private static final int MAX_BATCH_SIZE = 500;
 	private final RentalRepository rentalRepository;
 	private final VehicleRepository vehicleRepository;
 	private final CustomerRepository customerRepository;
 	private final RentalMapper rentalMapper;
 	private final PricingService pricingService;
+	private final RentalRollupService rentalRollupService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final VehicleAvailabilityService vehicleAvailabilityService;
+	private final RentalBookingExecutor bookingExecutor;
 
 	public RentalServiceImpl(RentalRepository rentalRepository, VehicleRepository vehicleRepository,
-							 CustomerRepository customerRepository, RentalMapper rentalMapper, PricingService pricingService) {
+							 CustomerRepository customerRepository, RentalMapper rentalMapper, PricingService pricingService,
+							 RentalRollupService rentalRollupService, ApplicationEventPublisher eventPublisher,
+							 VehicleAvailabilityService vehicleAvailabilityService, RentalBookingExecutor bookingExecutor) {
 		this.rentalRepository = rentalRepository;
 		this.vehicleRepository = vehicleRepository;
 		this.customerRepository = customerRepository;
 		this.rentalMapper = rentalMapper;
 		this.pricingService = pricingService;
+		this.rentalRollupService = rentalRollupService;
+		this.eventPublisher = eventPublisher;
+		this.vehicleAvailabilityService = vehicleAvailabilityService;
+		this.bookingExecutor = bookingExecutor;
 	}
 
 	@Override
@@ -52,6 +97,37 @@ public class RentalServiceImpl implements RentalService {
 				.toList();
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public Page<RentalDto> findRentals(RentalFilter filter, Pageable pageable) {
+		if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+			throw new BadRequestException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+		}
+		return rentalRepository.findAll(RentalSpecifications.withFilter(filter), pageable)
+				.map(rentalMapper::rentalToDto);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public CursorPage<RentalDto> scrollRentals(String cursor, Integer size, LocalDate from, LocalDate to) {
+		if (from != null && to != null && from.isAfter(to)) {
+			throw new BadRequestException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+		}
+		RentalCursor position = RentalCursor.decode(cursor);
+		int pageSize = Pagination.boundedPageSize(size);
+		LocalDateTime start = from != null ? from.atStartOfDay() : RentalCursor.ORIGIN.startDate();
+		LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : OPEN_RANGE_END;
+
+		// Se pide un elemento de más para saber si existe una página siguiente sin hacer COUNT
+		List<Rental> rentals = rentalRepository.findRangeAfter(start, end, position.startDate(), position.id(),
+				Limit.of(pageSize + 1));
+		boolean hasNext = rentals.size() > pageSize;
+		List<Rental> page = hasNext ? rentals.subList(0, pageSize) : rentals;
+		String nextCursor = hasNext ? RentalCursor.after(page.get(page.size() - 1)).encode() : null;
+
+		return new CursorPage<>(page.stream().map(rentalMapper::rentalToDto).toList(), nextCursor);
+	}
+
 	@Override
 	@Transactional(readOnly = true)
 	public RentalDto findRentalById(Long id) {
@@ -60,27 +136,33 @@ public class RentalServiceImpl implements RentalService {
 				.orElseThrow(() -> new NotFoundException("Alquiler no encontrado con ID: " + id));
 	}
 
+	/**
+	 * La transacción la abre el bookingExecutor para poder repetirla completa si otra reserva del mismo
+	 * vehículo confirma antes.
+	 */
 	@Override
 	public RentalDto createRental(RentalDto rentalDto) {
 
 		if (rentalDto.getStartDate().isAfter(rentalDto.getEndDate())) {
 			throw new BadRequestException("La fecha de inicio no puede ser posterior a la fecha de fin.");
 		}
+		return bookingExecutor.execute(() -> doCreateRental(rentalDto));
+	}
 
+	private RentalDto doCreateRental(RentalDto rentalDto) {
 
-		Rental rental = rentalMapper.dtoToRental(rentalDto);
+		// Obtener y bloquear el Vehículo antes de cualquier otra lectura de la transacción
+		Vehicle vehicle = bookingExecutor.lockVehicle(rentalDto.getVehicleId())
+				.orElseThrow(() -> new NotFoundException("Vehiculo No Encontrado por ID: " + rentalDto.getVehicleId()));
 
+		Rental rental = rentalMapper.dtoToRental(rentalDto);
 
 		// Obtener el Cliente
 		rental.setCustomer(customerRepository.findById(rentalDto.getCustomerId())
 				.orElseThrow(() -> new NotFoundException("Cliente No Encontrado por ID: " + rentalDto.getCustomerId())));
 
-		// Obtener el Vehículo
-		Vehicle vehicle = vehicleRepository.findById(rentalDto.getVehicleId())
-				.orElseThrow(() -> new NotFoundException("Vehiculo No Encontrado por ID: " + rentalDto.getVehicleId()));
-
-		// Validar disponibilidad
-		if (vehicle.getStatus() != VehicleStatus.AVAILABLE) {
+		// Validar disponibilidad: un vehículo alquilado admite reservas en otras fechas
+		if (vehicle.getStatus() == null || !vehicle.getStatus().isBookable()) {
 			throw new BadRequestException("El vehiculo no está disponible para alquiler");
 		}
 
@@ -90,35 +172,49 @@ public class RentalServiceImpl implements RentalService {
 			throw new BadRequestException("El nivel de precios elegido (chosenPricingTier) es requerido.");
 		}
 
-		BigDecimal dailyRate = pricingService.calculateDailyRate(vehicle.getVehicleType(), rentalDto.getChosenPricingTier());
-		long rentalDays = ChronoUnit.DAYS.between(rentalDto.getStartDate(), rentalDto.getEndDate());
-		if (rentalDays <= 0) {
-			rentalDays = 1; // Mínimo se cobra un día
+		// El índice descarta rápido los choques ya confirmados; la consulta cubre los confirmados tras el bloqueo
+		if (!vehicleAvailabilityService.isAvailable(vehicle.getId(), rentalDto.getStartDate(), rentalDto.getEndDate(), null)
+				|| rentalRepository.existsOverlappingBooking(vehicle.getId(), rentalDto.getStartDate(), rentalDto.getEndDate(), null)) {
+			throw new BadRequestException("El vehiculo ya está reservado en esas fechas");
 		}
-		BigDecimal totalPrice = dailyRate.multiply(new BigDecimal(rentalDays));
-		rental.setTotalPrice(totalPrice);
+
+		rental.setTotalPrice(calculateTotalPrice(vehicle.getVehicleType(), rentalDto.getChosenPricingTier(),
+				rentalDto.getStartDate(), rentalDto.getEndDate()));
 		rental.setChosenPricingTier(rentalDto.getChosenPricingTier());
 		// --- FIN DE LA LÓGICA DE CÁLCULO DE PRECIOS CENTRALIZADA ---
 
 
-		//Actualiza el estado del vehículo
-		vehicle.setStatus(VehicleStatus.RENTED);
-		vehicleRepository.save(vehicle);
-
 		//Info de Alquiler
+		LocalDateTime now = LocalDateTime.now();
 		rental.setVehicle(vehicle);
-		rental.setCreatedAt(LocalDateTime.now());
+		rental.setCreatedAt(now);
 		rental.setRentalStatus(RentalStatus.ACTIVE);
 
-		return rentalMapper.rentalToDto(rentalRepository.save(rental));
+		// Una reserva futura no cambia el estado del vehículo: hasta que empiece la protege el índice de disponibilidad
+		if (isInProgress(rental, now)) {
+			vehicle.setStatus(VehicleStatus.RENTED);
+			vehicleRepository.save(vehicle);
+		}
+
+		Rental savedRental = rentalRepository.save(rental);
+		rentalRollupService.add(Contribution.of(savedRental));
+		publishChange(savedRental);
+		return rentalMapper.rentalToDto(savedRental);
 	}
 
 
 	@Override
 	public RentalDto updateRental(Long id, RentalDto rentalDto) {
+		return bookingExecutor.execute(() -> doUpdateRental(id, rentalDto));
+	}
+
+	private RentalDto doUpdateRental(Long id, RentalDto rentalDto) {
 
 		return rentalRepository.findById(id)
 				.map(existingRental -> {
+					Contribution before = Contribution.of(existingRental);
+					RentalChangedEvent previousRange = RentalChangedEvent.of(existingRental.getId(),
+							existingRental.getStartDate(), existingRental.getEndDate());
 					if (rentalDto.getStartDate().isAfter(rentalDto.getEndDate())) {
 						throw new BadRequestException("La fecha de inicio no puede ser posterior a la fecha de fin.");
 					}
@@ -128,8 +224,23 @@ public class RentalServiceImpl implements RentalService {
 					boolean pricingTierChanged = rentalDto.getChosenPricingTier() != null &&
 							!rentalDto.getChosenPricingTier().equals(existingRental.getChosenPricingTier());
 
+					if (datesChanged && existingRental.getVehicle() != null) {
+						Long vehicleId = existingRental.getVehicle().getId();
+						if (!vehicleAvailabilityService.isAvailable(vehicleId, rentalDto.getStartDate(), rentalDto.getEndDate(), existingRental.getId())) {
+							throw new BadRequestException("El vehiculo ya está reservado en esas fechas");
+						}
+						bookingExecutor.lockVehicle(vehicleId);
+						if (rentalRepository.existsOverlappingBooking(vehicleId, rentalDto.getStartDate(), rentalDto.getEndDate(), existingRental.getId())) {
+							throw new BadRequestException("El vehiculo ya está reservado en esas fechas");
+						}
+					}
+
 					existingRental.setStartDate(rentalDto.getStartDate());
 					existingRental.setEndDate(rentalDto.getEndDate());
+					if (datesChanged) {
+						// Con un nuevo fin se vuelve a avisar al cliente
+						existingRental.setReminderSentAt(null);
+					}
 
 					if (rentalDto.getChosenPricingTier() != null) {
 						existingRental.setChosenPricingTier(rentalDto.getChosenPricingTier());
@@ -141,16 +252,25 @@ public class RentalServiceImpl implements RentalService {
 							throw new IllegalStateException("Vehículo asociado al alquiler no encontrado.");
 						}
 						// Usar el chosenPricingTier de la entidad, que ya fue actualizado si se proporcionó en el DTO
-						BigDecimal dailyRate = pricingService.calculateDailyRate(vehicle.getVehicleType(), existingRental.getChosenPricingTier());
-						long rentalDays = ChronoUnit.DAYS.between(existingRental.getStartDate(), existingRental.getEndDate());
-						if (rentalDays <= 0) {
-							rentalDays = 1;
-						}
-						BigDecimal newTotalPrice = dailyRate.multiply(new BigDecimal(rentalDays));
-						existingRental.setTotalPrice(newTotalPrice);
+						existingRental.setTotalPrice(calculateTotalPrice(vehicle.getVehicleType(),
+								existingRental.getChosenPricingTier(), existingRental.getStartDate(), existingRental.getEndDate()));
 					}
 
-					return rentalMapper.rentalToDto(rentalRepository.save(existingRental));
+					Rental savedRental = rentalRepository.save(existingRental);
+					rentalRollupService.move(before, Contribution.of(savedRental));
+					if (datesChanged) {
+						// Las nuevas fechas pueden empezar o terminar el alquiler en curso
+						LocalDateTime now = LocalDateTime.now();
+						Vehicle vehicle = existingRental.getVehicle();
+						if (vehicle != null) {
+							syncVehicleStatuses(List.of(vehicle), Set.of(existingRental.getId()),
+									isInProgress(existingRental, now) ? Set.of(vehicle.getId()) : Set.of(), now)
+									.forEach(vehicleRepository::save);
+						}
+						eventPublisher.publishEvent(previousRange);
+					}
+					publishChange(savedRental);
+					return rentalMapper.rentalToDto(savedRental);
 				})
 				.orElseThrow(() -> new NotFoundException("Alquiler no encontrado con ID: " + id));
 	}
@@ -160,15 +280,15 @@ public class RentalServiceImpl implements RentalService {
 	public RentalDto cancelRental(Long id) {
 		return rentalRepository.findById(id)
 				.map(rental -> {
-					Vehicle vehicle = rental.getVehicle();
-					if (vehicle != null) {
-						vehicle.setStatus(VehicleStatus.AVAILABLE);
-						vehicleRepository.save(vehicle);
-					}
+					Contribution before = Contribution.of(rental);
 					rental.setRentalStatus(RentalStatus.CANCELLED);
 					rental.setTotalPrice(BigDecimal.ZERO); // Restablecer el precio a cero
+					releaseVehicle(rental.getVehicle(), rental.getId());
 					logger.info("Antes de guardar - Rental ID: {}, TotalPrice: {}, RentalStatus: {}", rental.getId(), rental.getTotalPrice(), rental.getRentalStatus());
-					return rentalMapper.rentalToDto(rentalRepository.save(rental));
+					Rental savedRental = rentalRepository.save(rental);
+					rentalRollupService.move(before, Contribution.of(savedRental));
+					publishChange(savedRental);
+					return rentalMapper.rentalToDto(savedRental);
 				})
 				.orElseThrow(() -> new NotFoundException("Alquiler no encontrado con ID: " + id));
 	}
@@ -180,28 +300,262 @@ public class RentalServiceImpl implements RentalService {
 		Rental rental = rentalRepository.findById(id)
 				.orElseThrow(() -> new NotFoundException("Alquiler no encontrado con ID: " + id));
 
-		Vehicle vehicle = rental.getVehicle();
+		releaseVehicle(rental.getVehicle(), rental.getId());
+		rentalRollupService.subtract(Contribution.of(rental));
+		rentalRepository.delete(rental);
+		publishChange(rental);
+	}
+
+	@Override
+	public List<RentalBatchResult> createRentals(List<RentalDto> rentalDtos) {
+		validateBatchSize(rentalDtos);
+		return bookingExecutor.execute(() -> doCreateRentals(rentalDtos));
+	}
+
+	private List<RentalBatchResult> doCreateRentals(List<RentalDto> rentalDtos) {
+		// Dos consultas IN para todo el lote en lugar de dos búsquedas por alquiler
+		Set<Long> vehicleIds = rentalDtos.stream()
+				.filter(Objects::nonNull)
+				.map(RentalDto::getVehicleId)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toCollection(TreeSet::new));
+		Set<Long> customerIds = rentalDtos.stream()
+				.filter(Objects::nonNull)
+				.map(RentalDto::getCustomerId)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toSet());
+		Map<Long, Vehicle> vehicles = bookingExecutor.lockVehicles(vehicleIds).stream()
+				.collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+		Map<Long, Customer> customers = customerRepository.findAllById(customerIds).stream()
+				.collect(Collectors.toMap(Customer::getId, Function.identity()));
+		Map<Long, List<RentalInterval>> booked = findBookedIntervals(vehicles.keySet(), rentalDtos);
+
+		RentalBatchResult[] results = new RentalBatchResult[rentalDtos.size()];
+		List<Rental> accepted = new ArrayList<>();
+		List<Integer> acceptedIndexes = new ArrayList<>();
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < rentalDtos.size(); i++) {
+			RentalDto rentalDto = rentalDtos.get(i);
+			String error = validateBatchItem(rentalDto, customers, vehicles, booked);
+			if (error != null) {
+				results[i] = RentalBatchResult.rejected(i, error);
+				continue;
+			}
+			Vehicle vehicle = vehicles.get(rentalDto.getVehicleId());
+			Rental rental = rentalMapper.dtoToRental(rentalDto);
+			rental.setCustomer(customers.get(rentalDto.getCustomerId()));
+			rental.setVehicle(vehicle);
+			rental.setChosenPricingTier(rentalDto.getChosenPricingTier());
+			rental.setTotalPrice(calculateTotalPrice(vehicle.getVehicleType(), rentalDto.getChosenPricingTier(),
+					rentalDto.getStartDate(), rentalDto.getEndDate()));
+			rental.setCreatedAt(now);
+			rental.setRentalStatus(RentalStatus.ACTIVE);
+			if (isInProgress(rental, now)) {
+				vehicle.setStatus(VehicleStatus.RENTED);
+			}
+			// Los elementos siguientes del lote tampoco pueden solaparse con este
+			booked.computeIfAbsent(vehicle.getId(), id -> new ArrayList<>())
+					.add(new RentalInterval(null, vehicle.getId(), rentalDto.getStartDate(), rentalDto.getEndDate()));
+			accepted.add(rental);
+			acceptedIndexes.add(i);
+		}
+
+		if (!accepted.isEmpty()) {
+			List<Rental> savedRentals = rentalRepository.saveAll(accepted);
+			vehicleRepository.saveAll(savedRentals.stream().map(Rental::getVehicle).distinct().toList());
+			rentalRollupService.addAll(savedRentals.stream().map(Contribution::of).toList());
+			for (int k = 0; k < savedRentals.size(); k++) {
+				Rental savedRental = savedRentals.get(k);
+				int index = acceptedIndexes.get(k);
+				results[index] = RentalBatchResult.of(index, BatchItemStatus.CREATED, rentalMapper.rentalToDto(savedRental));
+				publishChange(savedRental);
+			}
+		}
+		logger.info("Lote de alquileres procesado: {} creados, {} rechazados", accepted.size(), rentalDtos.size() - accepted.size());
+		return Arrays.asList(results);
+	}
+
+	@Override
+	public List<RentalBatchResult> updateRentalStatuses(RentalStatusBatchRequest request) {
+		RentalStatus targetStatus = request.getStatus();
+		if (targetStatus != RentalStatus.CANCELLED && targetStatus != RentalStatus.COMPLETED) {
+			throw new BadRequestException("Solo se admite el cambio masivo a CANCELLED o COMPLETED.");
+		}
+		validateBatchSize(request.getIds());
+		return bookingExecutor.execute(() -> doUpdateRentalStatuses(request.getIds(), targetStatus));
+	}
+
+	private List<RentalBatchResult> doUpdateRentalStatuses(List<Long> ids, RentalStatus targetStatus) {
+		Map<Long, Rental> rentals = rentalRepository.findAllWithVehicleByIdIn(new HashSet<>(ids)).stream()
+				.collect(Collectors.toMap(Rental::getId, Function.identity()));
+
+		List<RentalBatchResult> results = new ArrayList<>(ids.size());
+		List<Rental> updated = new ArrayList<>();
+		List<Contribution> before = new ArrayList<>();
+		Map<Long, Vehicle> affectedVehicles = new LinkedHashMap<>();
+		Set<Long> seen = new HashSet<>();
+		for (int i = 0; i < ids.size(); i++) {
+			Long id = ids.get(i);
+			Rental rental = id != null ? rentals.get(id) : null;
+			if (rental == null) {
+				results.add(RentalBatchResult.rejected(i, "Alquiler no encontrado con ID: " + id));
+			} else if (!seen.add(id)) {
+				results.add(RentalBatchResult.rejected(i, "Alquiler repetido en el lote: " + id));
+			} else if (rental.getRentalStatus() != RentalStatus.PENDING && rental.getRentalStatus() != RentalStatus.ACTIVE) {
+				results.add(RentalBatchResult.rejected(i, "El alquiler " + id + " ya está en estado " + rental.getRentalStatus()));
+			} else {
+				before.add(Contribution.of(rental));
+				rental.setRentalStatus(targetStatus);
+				if (targetStatus == RentalStatus.CANCELLED) {
+					rental.setTotalPrice(BigDecimal.ZERO);
+				}
+				Vehicle vehicle = rental.getVehicle();
+				if (vehicle != null) {
+					affectedVehicles.put(vehicle.getId(), vehicle);
+				}
+				updated.add(rental);
+				results.add(RentalBatchResult.of(i, BatchItemStatus.UPDATED, rentalMapper.rentalToDto(rental)));
+			}
+		}
+
+		if (!updated.isEmpty()) {
+			rentalRepository.saveAll(updated);
+			// Una sola consulta para todos los vehículos del lote, excluyendo a la vez todos sus alquileres
+			Set<Long> releasedRentalIds = updated.stream().map(Rental::getId).collect(Collectors.toSet());
+			vehicleRepository.saveAll(syncVehicleStatuses(affectedVehicles.values(), releasedRentalIds, Set.of(),
+					LocalDateTime.now()));
+			// Un solo ajuste del agregado diario para todo el lote, agrupado por bucket
+			rentalRollupService.moveAll(before, updated.stream().map(Contribution::of).toList());
+			updated.forEach(this::publishChange);
+		}
+		logger.info("Cambio masivo a {}: {} alquileres actualizados, {} rechazados", targetStatus, updated.size(), ids.size() - updated.size());
+		return results;
+	}
+
+	/**
+	 * Deja el vehículo disponible salvo que otro alquiler suyo siga en curso.
+	 *
+	 * @param releasedRentalId Alquiler que se cancela o elimina en esta transacción
+	 */
+	private void releaseVehicle(Vehicle vehicle, Long releasedRentalId) {
 		if (vehicle != null) {
-			vehicle.setStatus(VehicleStatus.AVAILABLE);
-			vehicleRepository.save(vehicle);
+			syncVehicleStatuses(List.of(vehicle), Set.of(releasedRentalId), Set.of(), LocalDateTime.now())
+					.forEach(vehicleRepository::save);
 		}
-		rentalRepository.delete(rental);
 	}
 
-	@Scheduled(fixedRate = 3600000) // Ejecutar cada hora (3600000 ms)
-	@Transactional
-	public void completeExpiredRentals() {
-		List<Rental> expiredRentals = rentalRepository.findByRentalStatusAndEndDateBefore(RentalStatus.ACTIVE, LocalDateTime.now());
-
-		for (Rental rental : expiredRentals) {
-			rental.setRentalStatus(RentalStatus.COMPLETED);
-			Vehicle vehicle = rental.getVehicle();
-			if (vehicle != null) {
-				vehicle.setStatus(VehicleStatus.AVAILABLE);
-				vehicleRepository.save(vehicle);
+	/**
+	 * Aplica la regla del estado RENTED, la misma que sigue {@link RentalExpiryServiceImpl}: un vehículo está
+	 * alquilado solo mientras tiene un alquiler ACTIVE en curso. Las reservas futuras no cambian el estado; las
+	 * protege el índice de disponibilidad. Los vehículos en mantenimiento o fuera de servicio no se tocan.
+	 *
+	 * @param changedRentalIds Alquileres modificados en esta transacción; la consulta los ignora porque en la base
+	 *                         aún tienen su estado anterior
+	 * @param startedVehicleIds Vehículos que alguno de esos alquileres deja en curso
+	 * @return Vehículos cuyo estado cambió
+	 */
+	private List<Vehicle> syncVehicleStatuses(Collection<Vehicle> vehicles, Set<Long> changedRentalIds,
+											  Set<Long> startedVehicleIds, LocalDateTime now) {
+		Set<Long> inUse = new HashSet<>(startedVehicleIds);
+		Set<Long> toCheck = vehicles.stream()
+				.filter(vehicle -> vehicle.getStatus() != null && vehicle.getStatus().isBookable())
+				.map(Vehicle::getId)
+				.filter(id -> !inUse.contains(id))
+				.collect(Collectors.toSet());
+		if (!toCheck.isEmpty()) {
+			inUse.addAll(rentalRepository.findVehicleIdsInUse(toCheck, now, changedRentalIds));
+		}
+		List<Vehicle> changed = new ArrayList<>();
+		for (Vehicle vehicle : vehicles) {
+			if (vehicle.getStatus() == null || !vehicle.getStatus().isBookable()) {
+				continue;
+			}
+			VehicleStatus status = inUse.contains(vehicle.getId()) ? VehicleStatus.RENTED : VehicleStatus.AVAILABLE;
+			if (vehicle.getStatus() != status) {
+				vehicle.setStatus(status);
+				changed.add(vehicle);
 			}
-			rentalRepository.save(rental);
 		}
+		return changed;
+	}
+
+	private static boolean isInProgress(Rental rental, LocalDateTime now) {
+		return rental.getRentalStatus() == RentalStatus.ACTIVE && rental.getStartDate() != null
+				&& rental.getEndDate() != null && !rental.getStartDate().isAfter(now) && rental.getEndDate().isAfter(now);
+	}
+
+	private void validateBatchSize(List<?> items) {
+		if (items == null || items.isEmpty()) {
+			throw new BadRequestException("El lote no puede estar vacío.");
+		}
+		if (items.size() > MAX_BATCH_SIZE) {
+			throw new BadRequestException("El lote admite como máximo " + MAX_BATCH_SIZE + " elementos.");
+		}
+	}
+
+	/**
+	 * Devuelve el motivo de rechazo de un elemento del lote, o null si puede crearse.
+	 */
+	private String validateBatchItem(RentalDto rentalDto, Map<Long, Customer> customers, Map<Long, Vehicle> vehicles,
+									 Map<Long, List<RentalInterval>> booked) {
+		if (rentalDto == null || rentalDto.getCustomerId() == null || rentalDto.getVehicleId() == null
+				|| rentalDto.getStartDate() == null || rentalDto.getEndDate() == null) {
+			return "Cliente, vehículo y fechas son obligatorios.";
+		}
+		if (rentalDto.getStartDate().isAfter(rentalDto.getEndDate())) {
+			return "La fecha de inicio no puede ser posterior a la fecha de fin.";
+		}
+		Vehicle vehicle = vehicles.get(rentalDto.getVehicleId());
+		if (vehicle == null) {
+			return "Vehiculo No Encontrado por ID: " + rentalDto.getVehicleId();
+		}
+		if (!customers.containsKey(rentalDto.getCustomerId())) {
+			return "Cliente No Encontrado por ID: " + rentalDto.getCustomerId();
+		}
+		if (vehicle.getStatus() == null || !vehicle.getStatus().isBookable()) {
+			return "El vehiculo no está disponible para alquiler";
+		}
+		if (rentalDto.getChosenPricingTier() == null) {
+			return "El nivel de precios elegido (chosenPricingTier) es requerido.";
+		}
+		boolean overlaps = booked.getOrDefault(vehicle.getId(), List.of()).stream()
+				.anyMatch(interval -> interval.startDate().isBefore(rentalDto.getEndDate())
+						&& interval.endDate().isAfter(rentalDto.getStartDate()));
+		return overlaps ? "El vehiculo ya está reservado en esas fechas" : null;
+	}
+
+	/**
+	 * Periodos ya reservados de los vehículos del lote dentro del rango que cubre todo el lote.
+	 */
+	private Map<Long, List<RentalInterval>> findBookedIntervals(Set<Long> vehicleIds, List<RentalDto> rentalDtos) {
+		Map<Long, List<RentalInterval>> booked = new HashMap<>();
+		LocalDateTime from = rentalDtos.stream().filter(Objects::nonNull).map(RentalDto::getStartDate)
+				.filter(Objects::nonNull).min(Comparator.naturalOrder()).orElse(null);
+		LocalDateTime to = rentalDtos.stream().filter(Objects::nonNull).map(RentalDto::getEndDate)
+				.filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null);
+		if (vehicleIds.isEmpty() || from == null || to == null) {
+			return booked;
+		}
+		for (RentalInterval interval : rentalRepository.findBookedIntervals(vehicleIds, from, to)) {
+			booked.computeIfAbsent(interval.vehicleId(), id -> new ArrayList<>()).add(interval);
+		}
+		return booked;
+	}
+
+	private BigDecimal calculateTotalPrice(VehicleType vehicleType, PricingTier pricingTier,
+										   LocalDateTime startDate, LocalDateTime endDate) {
+		BigDecimal dailyRate = pricingService.calculateDailyRate(vehicleType, pricingTier);
+		long rentalDays = ChronoUnit.DAYS.between(startDate, endDate);
+		if (rentalDays <= 0) {
+			rentalDays = 1; // Mínimo se cobra un día
+		}
+		return dailyRate.multiply(new BigDecimal(rentalDays));
+	}
 
+	/**
+	 * Notifica el cambio para que los reportes cacheados que incluyen esas fechas se invaliden.
+	 */
+	private void publishChange(Rental rental) {
+		eventPublisher.publishEvent(RentalChangedEvent.of(rental.getId(), rental.getStartDate(), rental.getEndDate()));
 	}
 }
@@ -0,0 +1,150 @@
+package com.alquiler.car_rent.service.impl;
+
+import com.alquiler.car_rent.config.SmsProviderConfig;
+
+/**
+ * Circuito de un proveedor de SMS sobre una ventana de los últimos envíos:
+ * <ul>
+ *   <li>CLOSED: se registra cada envío; si la proporción de fallos o de envíos lentos supera su umbral
+ *   (con al menos minimumCalls en la ventana) pasa a OPEN.</li>
+ *   <li>OPEN: no se le envía nada durante openDuration.</li>
+ *   <li>HALF_OPEN: deja pasar un único envío de prueba; si sale bien y a tiempo se cierra, si no vuelve a OPEN.</li>
+ * </ul>
+ */
+public class SmsCircuitBreaker {
+
+	public enum State {
+		CLOSED,
+		HALF_OPEN,
+		OPEN
+	}
+
+	private final int minimumCalls;
+	private final double failureRateThreshold;
+	private final long slowCallNanos;
+	private final double slowCallRateThreshold;
+	private final long openNanos;
+	private final boolean[] failedCalls;
+	private final boolean[] slowCalls;
+
+	private State state = State.CLOSED;
+	private int next;
+	private int recorded;
+	private int failures;
+	private int slow;
+	private long openedAt;
+	private boolean probeInFlight;
+
+	public SmsCircuitBreaker(SmsProviderConfig.CircuitBreaker config) {
+		int windowSize = Math.max(1, config.getWindowSize());
+		this.minimumCalls = Math.min(windowSize, Math.max(1, config.getMinimumCalls()));
+		this.failureRateThreshold = config.getFailureRateThreshold();
+		this.slowCallNanos = config.getSlowCallThreshold().toNanos();
+		this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+		this.openNanos = config.getOpenDuration().toNanos();
+		this.failedCalls = new boolean[windowSize];
+		this.slowCalls = new boolean[windowSize];
+	}
+
+	/**
+	 * Indica si el proveedor puede recibir un envío ahora, sin reservar el turno de prueba.
+	 */
+	public synchronized boolean isAvailable() {
+		return switch (state) {
+			case CLOSED -> true;
+			case OPEN -> System.nanoTime() - openedAt >= openNanos;
+			case HALF_OPEN -> !probeInFlight;
+		};
+	}
+
+	/**
+	 * Reserva el envío; en HALF_OPEN solo lo consigue el primero que pregunta.
+	 */
+	public synchronized boolean tryAcquirePermission() {
+		if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+			state = State.HALF_OPEN;
+			probeInFlight = false;
+		}
+		switch (state) {
+			case CLOSED:
+				return true;
+			case HALF_OPEN:
+				if (probeInFlight) {
+					return false;
+				}
+				probeInFlight = true;
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Devuelve un permiso cuyo envío no llegó a hacerse, sin registrar resultado. En HALF_OPEN libera el turno
+	 * de prueba para que otro envío lo tome; si no, el circuito se quedaría semiabierto sin probar nunca.
+	 */
+	public synchronized void releasePermission() {
+		if (state == State.HALF_OPEN) {
+			probeInFlight = false;
+		}
+	}
+
+	public synchronized void onSuccess(long elapsedNanos) {
+		record(false, elapsedNanos >= slowCallNanos);
+	}
+
+	public synchronized void onFailure(long elapsedNanos) {
+		record(true, elapsedNanos >= slowCallNanos);
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	private void record(boolean failed, boolean slowCall) {
+		if (state == State.HALF_OPEN) {
+			if (failed || slowCall) {
+				open();
+			} else {
+				reset();
+			}
+			return;
+		}
+		if (state == State.OPEN) {
+			// Respuesta tardía de un envío iniciado antes de abrir
+			return;
+		}
+		if (recorded == failedCalls.length) {
+			failures -= failedCalls[next] ? 1 : 0;
+			slow -= slowCalls[next] ? 1 : 0;
+		} else {
+			recorded++;
+		}
+		failedCalls[next] = failed;
+		slowCalls[next] = slowCall;
+		failures += failed ? 1 : 0;
+		slow += slowCall ? 1 : 0;
+		next = (next + 1) % failedCalls.length;
+
+		if (recorded >= minimumCalls
+				&& ((double) failures / recorded >= failureRateThreshold
+				|| (double) slow / recorded >= slowCallRateThreshold)) {
+			open();
+		}
+	}
+
+	private void open() {
+		state = State.OPEN;
+		openedAt = System.nanoTime();
+		probeInFlight = false;
+	}
+
+	private void reset() {
+		state = State.CLOSED;
+		probeInFlight = false;
+		next = 0;
+		recorded = 0;
+		failures = 0;
+		slow = 0;
+	}
+}
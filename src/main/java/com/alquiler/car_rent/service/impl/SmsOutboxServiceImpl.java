@@ -0,0 +1,276 @@
+package com.alquiler.car_rent.service.impl;
+
+import com.alquiler.car_rent.commons.entities.SmsOutboxMessage;
+import com.alquiler.car_rent.commons.enums.SmsOutboxStatus;
+import com.alquiler.car_rent.repositories.SmsOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bandeja de salida de SMS. {@link #enqueue} solo inserta el mensaje en sms_outbox, dentro de la transacción
+ * de quien lo origina, y un pool acotado de trabajadores lo entrega en segundo plano:
+ * <ul>
+ *   <li>Cada ciclo reserva tantos mensajes vencidos como huecos quedan en la cola del pool (SENDING con una
+ *   reserva de sms.outbox.lease); si la instancia cae, la reserva vence y el mensaje se vuelve a tomar. Las
+ *   marcas de enviado o fallido llevan el intento reservado, así que un trabajador cuya reserva venció no pisa
+ *   el resultado del que lo retomó.</li>
+ *   <li>El envío respeta el límite por proveedor de {@link SmsRateLimiter}.</li>
+ *   <li>Los fallos se reintentan con espera exponencial; al agotar sms.outbox.max-attempts el mensaje queda DEAD.</li>
+ * </ul>
+ * Expone "sms.outbox.enqueued", "sms.outbox.sent" (por proveedor), "sms.outbox.retried", "sms.outbox.dead",
+ * los tiempos "sms.outbox.delivery" y "sms.outbox.lag", y el tamaño de cola y trabajadores activos del pool.
+ */
+@Service
+public class SmsOutboxServiceImpl {
+
+	private static final Logger logger = LoggerFactory.getLogger(SmsOutboxServiceImpl.class);
+	private static final List<SmsOutboxStatus> CLAIMABLE = List.of(SmsOutboxStatus.PENDING, SmsOutboxStatus.SENDING);
+	private static final int MAX_ERROR_LENGTH = 500;
+
+	private final SmsOutboxRepository outboxRepository;
+	private final SmsServiceImpl smsService;
+	private final TransactionTemplate transactionTemplate;
+	private final MeterRegistry meterRegistry;
+	private final ThreadPoolExecutor workers;
+	private final int maxAttempts;
+	private final Duration initialBackoff;
+	private final Duration maxBackoff;
+	private final Duration lease;
+	private final Counter enqueued;
+	private final Counter retried;
+	private final Counter dead;
+	private final Timer deliveredTime;
+	private final Timer failedTime;
+	private final Timer lag;
+
+	public SmsOutboxServiceImpl(SmsOutboxRepository outboxRepository, SmsServiceImpl smsService,
+								PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+								@Value("${sms.outbox.workers:8}") int workerCount,
+								@Value("${sms.outbox.queue-capacity:500}") int queueCapacity,
+								@Value("${sms.outbox.max-attempts:5}") int maxAttempts,
+								@Value("${sms.outbox.initial-backoff:PT30S}") Duration initialBackoff,
+								@Value("${sms.outbox.max-backoff:PT30M}") Duration maxBackoff,
+								@Value("${sms.outbox.lease:PT5M}") Duration lease) {
+		this.outboxRepository = outboxRepository;
+		this.smsService = smsService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.meterRegistry = meterRegistry;
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		this.lease = lease;
+
+		int threads = Math.max(1, workerCount);
+		AtomicInteger threadCount = new AtomicInteger();
+		this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+					Thread thread = new Thread(runnable, "sms-outbox-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.workers.allowCoreThreadTimeOut(true);
+
+		this.enqueued = Counter.builder("sms.outbox.enqueued")
+				.description("SMS agregados a la bandeja de salida")
+				.register(meterRegistry);
+		this.retried = Counter.builder("sms.outbox.retried")
+				.description("Envíos de SMS fallidos que se reprogramaron")
+				.register(meterRegistry);
+		this.dead = Counter.builder("sms.outbox.dead")
+				.description("SMS descartados tras agotar los reintentos")
+				.register(meterRegistry);
+		this.deliveredTime = Timer.builder("sms.outbox.delivery")
+				.description("Duración del envío, con la espera del límite por proveedor y los cambios de proveedor")
+				.tag("outcome", "sent")
+				.register(meterRegistry);
+		this.failedTime = Timer.builder("sms.outbox.delivery")
+				.description("Duración del envío, con la espera del límite por proveedor y los cambios de proveedor")
+				.tag("outcome", "failed")
+				.register(meterRegistry);
+		this.lag = Timer.builder("sms.outbox.lag")
+				.description("Tiempo desde que el SMS entra en la bandeja hasta que el proveedor lo acepta")
+				.register(meterRegistry);
+		Gauge.builder("sms.outbox.queue", workers, executor -> executor.getQueue().size())
+				.description("Mensajes reservados a la espera de un trabajador")
+				.register(meterRegistry);
+		Gauge.builder("sms.outbox.active", workers, ThreadPoolExecutor::getActiveCount)
+				.description("Trabajadores enviando SMS en este momento")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Agrega el SMS a la bandeja de salida. Se une a la transacción en curso: si quien lo origina
+	 * hace rollback, el mensaje tampoco se envía.
+	 */
+	@Transactional
+	public void enqueue(String to, String body) {
+		LocalDateTime now = LocalDateTime.now();
+		outboxRepository.save(SmsOutboxMessage.builder()
+				.recipient(to)
+				.body(body)
+				.status(SmsOutboxStatus.PENDING)
+				.attempts(0)
+				.nextAttemptAt(now)
+				.createdAt(now)
+				.build());
+		enqueued.increment();
+	}
+
+	@Scheduled(fixedDelayString = "${sms.outbox.poll-interval:PT5S}")
+	public void dispatchDue() {
+		int capacity = workers.getQueue().remainingCapacity();
+		if (capacity == 0 || workers.isShutdown()) {
+			return;
+		}
+		List<SmsOutboxMessage> claimed = transactionTemplate.execute(status -> claim(capacity));
+		if (claimed == null || claimed.isEmpty()) {
+			return;
+		}
+		for (SmsOutboxMessage message : claimed) {
+			try {
+				workers.execute(() -> deliver(message));
+			} catch (RejectedExecutionException e) {
+				// Queda reservado; se vuelve a tomar cuando venza la reserva
+				logger.warn("Pool de SMS lleno, el mensaje {} se reintentará al vencer su reserva", message.getId());
+			}
+		}
+		logger.debug("SMS reservados para envío: {}", claimed.size());
+	}
+
+	/**
+	 * Reserva hasta {@code limit} mensajes vencidos; los cambios se confirman al terminar la transacción.
+	 * Un mensaje cuya reserva venció con los intentos ya agotados pasa a DEAD aquí en lugar de reenviarse.
+	 */
+	private List<SmsOutboxMessage> claim(int limit) {
+		LocalDateTime now = LocalDateTime.now();
+		List<SmsOutboxMessage> due = outboxRepository.findDueForUpdate(CLAIMABLE, now, Limit.of(limit));
+		List<SmsOutboxMessage> claimed = new ArrayList<>(due.size());
+		for (SmsOutboxMessage message : due) {
+			if (message.getStatus() == SmsOutboxStatus.SENDING && message.getAttempts() >= maxAttempts) {
+				message.setStatus(SmsOutboxStatus.DEAD);
+				message.setNextAttemptAt(now);
+				message.setLastError("Reserva vencida sin confirmar el envío tras " + message.getAttempts() + " intentos");
+				dead.increment();
+				logger.error("SMS {} a {} descartado: su reserva venció en el último intento ({})",
+						message.getId(), message.getRecipient(), message.getAttempts());
+				continue;
+			}
+			message.setStatus(SmsOutboxStatus.SENDING);
+			message.setAttempts(message.getAttempts() + 1);
+			message.setNextAttemptAt(now.plus(lease));
+			claimed.add(message);
+		}
+		return claimed;
+	}
+
+	private void deliver(SmsOutboxMessage message) {
+		// Intento con el que se reservó; las marcas posteriores solo valen mientras siga siendo el vigente
+		int attempt = message.getAttempts();
+		long startedAt = System.nanoTime();
+		String provider;
+		try {
+			provider = smsService.deliver(message.getRecipient(), message.getBody());
+		} catch (RuntimeException e) {
+			failedTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+			handleFailure(message, attempt, e);
+			return;
+		}
+		deliveredTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+		LocalDateTime sentAt = LocalDateTime.now();
+		meterRegistry.counter("sms.outbox.sent", "provider", provider).increment();
+		lag.record(Duration.between(message.getCreatedAt(), sentAt));
+		try {
+			Integer updated = transactionTemplate.execute(status ->
+					outboxRepository.markSent(message.getId(), attempt, provider, sentAt));
+			if (updated == null || updated == 0) {
+				logger.warn("SMS {} enviado en el intento {}, pero su reserva ya había vencido y lo tomó otro trabajador",
+						message.getId(), attempt);
+			}
+		} catch (RuntimeException e) {
+			// El proveedor ya lo aceptó: si la marca no se guarda, al vencer la reserva se enviará de nuevo
+			logger.error("SMS {} enviado pero no se pudo marcar como SENT: {}", message.getId(), e.getMessage());
+		}
+	}
+
+	private void handleFailure(SmsOutboxMessage message, int attempt, RuntimeException error) {
+		LocalDateTime now = LocalDateTime.now();
+		String lastError = truncate(error.getMessage());
+		boolean exhausted = attempt >= maxAttempts;
+		SmsOutboxStatus status = exhausted ? SmsOutboxStatus.DEAD : SmsOutboxStatus.PENDING;
+		LocalDateTime nextAttemptAt = exhausted ? now : now.plus(backoff(attempt));
+		Integer updated;
+		try {
+			updated = transactionTemplate.execute(s ->
+					outboxRepository.markFailed(message.getId(), attempt, status, nextAttemptAt, lastError));
+		} catch (RuntimeException e) {
+			logger.error("No se pudo reprogramar el SMS {}: {}", message.getId(), e.getMessage());
+			return;
+		}
+		if (updated == null || updated == 0) {
+			// Otro trabajador lo reservó al vencer la reserva; su intento decide el estado
+			logger.warn("Fallo al enviar el SMS {} (intento {}) ignorado: la reserva ya no es de este intento: {}",
+					message.getId(), attempt, lastError);
+		} else if (exhausted) {
+			dead.increment();
+			logger.error("SMS {} a {} descartado tras {} intentos: {}",
+					message.getId(), message.getRecipient(), attempt, lastError);
+		} else {
+			retried.increment();
+			logger.warn("Fallo al enviar el SMS {} (intento {} de {}), se reintenta a las {}: {}",
+					message.getId(), attempt, maxAttempts, nextAttemptAt, lastError);
+		}
+	}
+
+	/**
+	 * Espera exponencial desde sms.outbox.initial-backoff, con hasta un 25% de azar y tope en sms.outbox.max-backoff.
+	 */
+	private Duration backoff(int attempt) {
+		long baseMillis = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+		long jitter = baseMillis > 0 ? ThreadLocalRandom.current().nextLong(baseMillis / 4 + 1) : 0;
+		return Duration.ofMillis(Math.min(baseMillis + jitter, maxBackoff.toMillis()));
+	}
+
+	private static String truncate(String error) {
+		if (error == null) {
+			return null;
+		}
+		return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		workers.shutdown();
+		try {
+			if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+				// Lo que quede en cola sigue SENDING y se retoma al vencer la reserva
+				workers.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			workers.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.alquiler.car_rent.service.impl;
+
+import com.alquiler.car_rent.config.SmsProviderConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita los envíos por proveedor con un token bucket: cada proveedor recibe sus mensajes por segundo
+ * configurados y admite ráfagas de hasta un segundo de capacidad. Los trabajadores que se adelantan
+ * esperan su turno en lugar de provocar rechazos (HTTP 429) del proveedor.
+ */
+@Component
+public class SmsRateLimiter {
+
+	private final SmsProviderConfig providerConfig;
+	private final double defaultRate;
+	private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+	public SmsRateLimiter(SmsProviderConfig providerConfig,
+						  @Value("${sms.outbox.default-rate:10}") double defaultRate) {
+		this.providerConfig = providerConfig;
+		this.defaultRate = defaultRate;
+	}
+
+	/**
+	 * Bloquea hasta que el proveedor tenga un token disponible.
+	 */
+	public void acquire(String provider) throws InterruptedException {
+		buckets.computeIfAbsent(provider, name ->
+				new TokenBucket(providerConfig.getRateLimits().getOrDefault(name, defaultRate))).acquire();
+	}
+
+	/**
+	 * Bloquea hasta obtener {@code permits} tokens; se piden de uno en uno para no exceder la capacidad de la cubeta.
+	 */
+	public void acquire(String provider, int permits) throws InterruptedException {
+		for (int i = 0; i < permits; i++) {
+			acquire(provider);
+		}
+	}
+
+	static final class TokenBucket {
+		private final double ratePerNano;
+		private final double capacity;
+		private double tokens;
+		private long refilledAt;
+
+		TokenBucket(double ratePerSecond) {
+			double rate = ratePerSecond > 0 ? ratePerSecond : 1;
+			this.ratePerNano = rate / TimeUnit.SECONDS.toNanos(1);
+			this.capacity = Math.max(1, rate);
+			this.tokens = capacity;
+			this.refilledAt = System.nanoTime();
+		}
+
+		void acquire() throws InterruptedException {
+			while (true) {
+				long waitNanos;
+				synchronized (this) {
+					long now = System.nanoTime();
+					tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerNano);
+					refilledAt = now;
+					if (tokens >= 1) {
+						tokens -= 1;
+						return;
+					}
+					waitNanos = (long) Math.ceil((1 - tokens) / ratePerNano);
+				}
+				TimeUnit.NANOSECONDS.sleep(waitNanos);
+			}
+		}
+	}
+}
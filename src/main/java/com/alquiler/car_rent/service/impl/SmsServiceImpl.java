@@ -1,43 +1,275 @@
 package com.alquiler.car_rent.service.impl;
 
+import com.alquiler.car_rent.commons.dtos.SmsBatchResult;
 import com.alquiler.car_rent.config.SmsProviderConfig;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+import com.alquiler.car_rent.exceptions.SmsDeliveryException;
 import com.alquiler.car_rent.service.SmsProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Enruta cada SMS entre todos los proveedores registrados:
+ * <ul>
+ *   <li>El primer candidato se elige al azar según sms.weights entre los proveedores con circuito disponible.</li>
+ *   <li>Si falla, se prueba el resto por peso descendente, incluidos los de respaldo (peso 0).</li>
+ *   <li>Cada proveedor tiene su {@link SmsCircuitBreaker}: mientras está abierto no recibe envíos.</li>
+ * </ul>
+ * Expone el histograma "sms.provider.latency" por proveedor y resultado, "sms.provider.failover" y el estado
+ * de cada circuito en "sms.provider.circuit" (0 cerrado, 1 semiabierto, 2 abierto).
+ */
 @Service
 public class SmsServiceImpl {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SmsServiceImpl.class);
 
-    private final SmsProvider activeProvider;
+    private final List<Route> routes;
+    private final SmsProviderConfig.Batch batchConfig;
+    private final SmsRateLimiter rateLimiter;
+    private final Counter failovers;
 
-    public SmsServiceImpl(SmsProviderConfig providerConfig, List<SmsProvider> smsProviders) {
-        Map<String, SmsProvider> providerMap = smsProviders.stream()
-                .collect(Collectors.toMap(SmsProvider::getProviderName, Function.identity()));
+    public SmsServiceImpl(SmsProviderConfig providerConfig, List<SmsProvider> smsProviders,
+                          SmsRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.batchConfig = providerConfig.getBatch();
+        this.rateLimiter = rateLimiter;
+        this.failovers = Counter.builder("sms.provider.failover")
+                .description("SMS entregados por un proveedor distinto del elegido en primer lugar")
+                .register(meterRegistry);
 
-        String providerName = providerConfig.getProvider();
-        this.activeProvider = providerMap.get(providerName);
+        String preferred = providerConfig.getProvider();
+        Map<String, Integer> weights = providerConfig.getWeights();
+        boolean preferredRegistered = smsProviders.stream().anyMatch(p -> p.getProviderName().equals(preferred));
+        if (weights.isEmpty() && !preferredRegistered) {
+            LOGGER.error("No se encontró un proveedor de SMS para el nombre: {}. Se repartirá entre todos los registrados.", preferred);
+        }
+
+        List<Route> configured = new ArrayList<>();
+        for (SmsProvider provider : smsProviders) {
+            String name = provider.getProviderName();
+            int weight;
+            if (!weights.isEmpty()) {
+                weight = Math.max(0, weights.getOrDefault(name, 0));
+            } else if (preferredRegistered) {
+                weight = name.equals(preferred) ? 1 : 0;
+            } else {
+                weight = 1;
+            }
+            configured.add(new Route(provider, weight, new SmsCircuitBreaker(providerConfig.getCircuitBreaker()), meterRegistry));
+        }
+        this.routes = List.copyOf(configured);
 
-        if (this.activeProvider != null) {
-            LOGGER.info("Proveedor de SMS activo: {}", this.activeProvider.getProviderName());
+        if (routes.isEmpty()) {
+            LOGGER.error("No hay proveedores de SMS registrados. El envío de SMS no funcionará.");
         } else {
-            LOGGER.error("No se encontró un proveedor de SMS para el nombre: {}. El envío de SMS no funcionará.", providerName);
-            // Considera lanzar una excepción aquí si el envío de SMS es crítico
+            LOGGER.info("Proveedores de SMS: {}", routes.stream().map(r -> r.name + "=" + r.weight).toList());
         }
     }
 
     public void sendSms(String to, String text) {
-        if (activeProvider == null) {
+        if (routes.isEmpty()) {
             LOGGER.warn("No hay un proveedor de SMS activo. No se puede enviar el mensaje.");
             return;
         }
-        activeProvider.sendSms(to, text);
+        deliver(to, text);
+    }
+
+    /**
+     * Envía el SMS por el primer proveedor disponible que lo acepte, respetando su límite de mensajes por segundo.
+     *
+     * @return nombre del proveedor que aceptó el mensaje
+     * @throws SmsDeliveryException si ningún proveedor está disponible o todos rechazan el mensaje
+     */
+    public String deliver(String to, String text) {
+        List<Route> candidates = candidates();
+        if (candidates.isEmpty()) {
+            throw new SmsDeliveryException(routes.isEmpty()
+                    ? "No hay un proveedor de SMS activo"
+                    : "Todos los proveedores de SMS tienen el circuito abierto");
+        }
+        RuntimeException lastError = null;
+        boolean first = true;
+        for (Route route : candidates) {
+            if (!route.breaker.tryAcquirePermission()) {
+                continue;
+            }
+            try {
+                rateLimiter.acquire(route.name);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // No se llegó a enviar: si era el envío de prueba, el turno queda libre para el siguiente
+                route.breaker.releasePermission();
+                throw new SmsDeliveryException("Envío interrumpido mientras esperaba turno en " + route.name, e);
+            }
+            long startedAt = System.nanoTime();
+            try {
+                route.provider.sendSms(to, text);
+            } catch (RuntimeException e) {
+                long elapsed = System.nanoTime() - startedAt;
+                route.breaker.onFailure(elapsed);
+                route.failed.record(elapsed, TimeUnit.NANOSECONDS);
+                LOGGER.warn("El proveedor {} falló al enviar SMS a {}: {}", route.name, to, e.getMessage());
+                lastError = e;
+                first = false;
+                continue;
+            }
+            long elapsed = System.nanoTime() - startedAt;
+            route.breaker.onSuccess(elapsed);
+            route.sent.record(elapsed, TimeUnit.NANOSECONDS);
+            if (!first) {
+                failovers.increment();
+            }
+            return route.name;
+        }
+        if (lastError == null) {
+            throw new SmsDeliveryException("Todos los proveedores de SMS tienen el circuito abierto");
+        }
+        throw lastError instanceof SmsDeliveryException delivery
+                ? delivery
+                : new SmsDeliveryException("Ningún proveedor de SMS aceptó el mensaje: " + lastError.getMessage(), lastError);
+    }
+
+    /**
+     * Envía el mismo mensaje a varios destinatarios con la llamada {@link SmsProvider#sendBatch} de cada proveedor,
+     * en tramos de sms.batch.chunk-size que consumen el límite por segundo del proveedor y comprueban su circuito.
+     * Los destinatarios que fallan pasan al siguiente proveedor disponible. Los duplicados se envían una sola vez.
+     *
+     * @return un resultado por destinatario distinto, en el orden de la solicitud
+     * @throws BadRequestException si el lote supera sms.batch.max-recipients
+     */
+    public List<SmsBatchResult> sendBatch(List<String> recipients, String message) {
+        List<String> distinct = recipients.stream().distinct().toList();
+        if (distinct.size() > batchConfig.getMaxRecipients()) {
+            throw new BadRequestException("El lote admite como máximo " + batchConfig.getMaxRecipients() + " destinatarios.");
+        }
+        int chunkSize = Math.max(1, batchConfig.getChunkSize());
+        int parallelism = Math.max(1, batchConfig.getParallelism());
+        Map<String, SmsBatchResult> results = new LinkedHashMap<>();
+        List<String> pending = distinct;
+        boolean first = true;
+        for (Route route : candidates()) {
+            if (pending.isEmpty()) {
+                break;
+            }
+            List<String> failed = new ArrayList<>();
+            int sent = 0;
+            for (int from = 0; from < pending.size(); from += chunkSize) {
+                List<String> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+                if (!route.breaker.tryAcquirePermission()) {
+                    failed.addAll(pending.subList(from, pending.size()));
+                    break;
+                }
+                try {
+                    rateLimiter.acquire(route.name, chunk.size());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    route.breaker.releasePermission();
+                    throw new SmsDeliveryException("Lote interrumpido mientras esperaba turno en " + route.name, e);
+                }
+                long startedAt = System.nanoTime();
+                List<SmsBatchResult> chunkResults;
+                try {
+                    chunkResults = route.provider.sendBatch(chunk, message, parallelism);
+                } catch (RuntimeException e) {
+                    chunkResults = chunk.stream().map(to -> SmsBatchResult.failed(to, route.name, e.getMessage())).toList();
+                }
+                // Latencia aproximada de cada envío: el tramo sale en rondas de 'parallelism' envíos simultáneos
+                long rounds = (chunk.size() + parallelism - 1) / parallelism;
+                long perCall = (System.nanoTime() - startedAt) / rounds;
+                for (SmsBatchResult result : chunkResults) {
+                    results.put(result.to(), result);
+                    if (result.sent()) {
+                        sent++;
+                        route.breaker.onSuccess(perCall);
+                        route.sent.record(perCall, TimeUnit.NANOSECONDS);
+                    } else {
+                        failed.add(result.to());
+                        route.breaker.onFailure(perCall);
+                        route.failed.record(perCall, TimeUnit.NANOSECONDS);
+                    }
+                }
+            }
+            if (!first) {
+                failovers.increment(sent);
+            }
+            if (!failed.isEmpty()) {
+                LOGGER.warn("El proveedor {} no entregó {} de {} SMS del lote", route.name, failed.size(), pending.size());
+            }
+            first = false;
+            pending = failed;
+        }
+        for (String to : pending) {
+            results.putIfAbsent(to, SmsBatchResult.failed(to, null, "Todos los proveedores de SMS tienen el circuito abierto"));
+        }
+        return distinct.stream().map(results::get).toList();
+    }
+
+    /**
+     * Orden de intento: uno elegido por peso entre los disponibles y después el resto por peso descendente.
+     */
+    private List<Route> candidates() {
+        List<Route> available = new ArrayList<>();
+        int totalWeight = 0;
+        for (Route route : routes) {
+            if (route.breaker.isAvailable()) {
+                available.add(route);
+                totalWeight += route.weight;
+            }
+        }
+        available.sort(Comparator.comparingInt((Route route) -> route.weight).reversed());
+        if (totalWeight > 0 && available.size() > 1) {
+            int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (int i = 0; i < available.size(); i++) {
+                pick -= available.get(i).weight;
+                if (pick < 0) {
+                    available.add(0, available.remove(i));
+                    break;
+                }
+            }
+        }
+        return available;
+    }
+
+    private static final class Route {
+        private final SmsProvider provider;
+        private final String name;
+        private final int weight;
+        private final SmsCircuitBreaker breaker;
+        private final Timer sent;
+        private final Timer failed;
+
+        private Route(SmsProvider provider, int weight, SmsCircuitBreaker breaker, MeterRegistry meterRegistry) {
+            this.provider = provider;
+            this.name = provider.getProviderName();
+            this.weight = weight;
+            this.breaker = breaker;
+            this.sent = latency(meterRegistry, name, "sent");
+            this.failed = latency(meterRegistry, name, "failed");
+            Gauge.builder("sms.provider.circuit", breaker, b -> b.getState().ordinal())
+                    .description("Estado del circuito del proveedor: 0 cerrado, 1 semiabierto, 2 abierto")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+        }
+
+        private static Timer latency(MeterRegistry meterRegistry, String provider, String outcome) {
+            return Timer.builder("sms.provider.latency")
+                    .description("Duración de la llamada al proveedor de SMS")
+                    .tag("provider", provider)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
     }
 }
@@ -9,6 +9,8 @@ import com.alquiler.car_rent.repositories.UserEntityRepository;
 import com.alquiler.car_rent.service.UserManagementService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -28,6 +30,14 @@ public class UserManagementServiceImpl implements UserManagementService {
         return userEntityRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserEntity> findUsers(Role role, Pageable pageable) {
+        return role != null
+                ? userEntityRepository.findByRole(role, pageable)
+                : userEntityRepository.findAll(pageable);
+    }
+
     @Override
     public UserEntity getUserById(Long id) {
         return userEntityRepository.findById(id)
@@ -0,0 +1,149 @@
+package com.alquiler.car_rent.service.impl;
+
+import com.alquiler.car_rent.commons.dtos.RentalInterval;
+import com.alquiler.car_rent.commons.dtos.VehicleDto;
+import com.alquiler.car_rent.commons.entities.Vehicle;
+import com.alquiler.car_rent.commons.enums.VehicleStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
+import com.alquiler.car_rent.commons.mappers.VehicleMapper;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.repositories.VehicleRepository;
+import com.alquiler.car_rent.service.VehicleAvailabilityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria de los periodos ocupados de cada vehículo. Se reconstruye al arrancar y se actualiza
+ * tras el commit de cada cambio de alquiler (RentalChangedEvent), releyendo solo ese alquiler. Solo guarda
+ * alquileres que aún no han terminado: los vencidos se desalojan periódicamente para que el índice no crezca
+ * con el histórico.
+ */
+@Service
+public class VehicleAvailabilityServiceImpl implements VehicleAvailabilityService {
+
+	private static final Logger logger = LoggerFactory.getLogger(VehicleAvailabilityServiceImpl.class);
+	private static final Set<VehicleStatus> BOOKABLE_STATUSES = EnumSet.copyOf(Arrays.stream(VehicleStatus.values())
+			.filter(VehicleStatus::isBookable)
+			.toList());
+
+	private final RentalRepository rentalRepository;
+	private final VehicleRepository vehicleRepository;
+	private final VehicleMapper vehicleMapper;
+
+	private final Map<Long, BookingIntervalTree> treesByVehicle = new ConcurrentHashMap<>();
+	// Último periodo indexado de cada alquiler, para poder quitarlo del árbol cuando cambia
+	private final Map<Long, RentalInterval> indexedRentals = new ConcurrentHashMap<>();
+
+	public VehicleAvailabilityServiceImpl(RentalRepository rentalRepository, VehicleRepository vehicleRepository,
+										  VehicleMapper vehicleMapper) {
+		this.rentalRepository = rentalRepository;
+		this.vehicleRepository = vehicleRepository;
+		this.vehicleMapper = vehicleMapper;
+	}
+
+	@Override
+	public boolean isAvailable(Long vehicleId, LocalDateTime startDate, LocalDateTime endDate, Long excludeRentalId) {
+		validateRange(startDate, endDate);
+		BookingIntervalTree tree = treesByVehicle.get(vehicleId);
+		return tree == null || !tree.overlaps(startDate, endDate, excludeRentalId);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<VehicleDto> findAvailableVehicles(LocalDateTime startDate, LocalDateTime endDate, VehicleType vehicleType) {
+		validateRange(startDate, endDate);
+		List<Vehicle> candidates = vehicleType != null
+				? vehicleRepository.findByVehicleTypeAndStatusIn(vehicleType, BOOKABLE_STATUSES)
+				: vehicleRepository.findByStatusIn(BOOKABLE_STATUSES);
+		return candidates.stream()
+				.filter(vehicle -> isAvailable(vehicle.getId(), startDate, endDate, null))
+				.map(vehicleMapper::vehicleToDto)
+				.toList();
+	}
+
+	@Override
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public synchronized void rebuild() {
+		treesByVehicle.clear();
+		indexedRentals.clear();
+		try (Stream<RentalInterval> intervals = rentalRepository.streamBookedIntervals(LocalDateTime.now())) {
+			intervals.forEach(this::index);
+		}
+		logger.info("Índice de disponibilidad construido: {} alquileres en {} vehículos",
+				indexedRentals.size(), treesByVehicle.size());
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${rental.availability.evict-interval:PT1H}")
+	public synchronized void evictEnded() {
+		LocalDateTime now = LocalDateTime.now();
+		List<Long> ended = indexedRentals.values().stream()
+				.filter(interval -> !interval.endDate().isAfter(now))
+				.map(RentalInterval::rentalId)
+				.toList();
+		ended.forEach(this::unindex);
+		treesByVehicle.values().removeIf(tree -> tree.size() == 0);
+		if (!ended.isEmpty()) {
+			logger.debug("Índice de disponibilidad: {} alquileres terminados desalojados", ended.size());
+		}
+	}
+
+	/**
+	 * Tras el commit para no indexar cambios que luego se revierten.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public synchronized void onRentalChanged(RentalChangedEvent event) {
+		if (event.rentalId() == null) {
+			return;
+		}
+		unindex(event.rentalId());
+		rentalRepository.findBookedInterval(event.rentalId()).ifPresent(this::index);
+	}
+
+	private void index(RentalInterval interval) {
+		if (!interval.startDate().isBefore(interval.endDate()) || !interval.endDate().isAfter(LocalDateTime.now())) {
+			return;
+		}
+		treesByVehicle.computeIfAbsent(interval.vehicleId(), id -> new BookingIntervalTree())
+				.insert(interval.rentalId(), interval.startDate(), interval.endDate());
+		indexedRentals.put(interval.rentalId(), interval);
+	}
+
+	private void unindex(Long rentalId) {
+		RentalInterval previous = indexedRentals.remove(rentalId);
+		if (previous != null) {
+			BookingIntervalTree tree = treesByVehicle.get(previous.vehicleId());
+			if (tree != null) {
+				tree.remove(previous.rentalId(), previous.startDate());
+			}
+		}
+	}
+
+	private void validateRange(LocalDateTime startDate, LocalDateTime endDate) {
+		if (startDate == null || endDate == null) {
+			throw new BadRequestException("Las fechas de inicio y fin son obligatorias.");
+		}
+		if (startDate.isAfter(endDate)) {
+			throw new BadRequestException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+		}
+	}
+}
@@ -1,13 +1,17 @@
 package com.alquiler.car_rent.service.impl;
 
 import com.alquiler.car_rent.commons.dtos.VehicleDto;
+import com.alquiler.car_rent.commons.dtos.VehicleFilter;
 import com.alquiler.car_rent.commons.entities.Vehicle;
 import com.alquiler.car_rent.commons.enums.VehicleStatus;
 import com.alquiler.car_rent.commons.mappers.VehicleMapper;
 import com.alquiler.car_rent.exceptions.BadRequestException;
 import com.alquiler.car_rent.exceptions.NotFoundException;
 import com.alquiler.car_rent.repositories.VehicleRepository;
+import com.alquiler.car_rent.repositories.specifications.VehicleSpecifications;
 import com.alquiler.car_rent.service.VehicleService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +36,13 @@ public class VehicleServiceImpl implements VehicleService {
 				.toList();
 	}
 
+	@Override
+    @Transactional(readOnly = true)
+	public Page<VehicleDto> findVehicles(VehicleFilter filter, Pageable pageable) {
+		return vehicleRepository.findAll(VehicleSpecifications.withFilter(filter), pageable)
+				.map(vehicleMapper::vehicleToDto);
+	}
+
 	@Override
     @Transactional(readOnly = true)
 	public VehicleDto findVehicleById(Long id) {
@@ -3,6 +3,10 @@ package com.alquiler.car_rent.service.impl.reportsImpl;
 import com.alquiler.car_rent.commons.constants.ReportingConstants;
 import com.alquiler.car_rent.commons.entities.Vehicle;
 import com.alquiler.car_rent.service.reportService.ChartReportService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.apache.batik.svggen.SVGGraphics2D;
 import org.jfree.chart.*;
 import org.jfree.chart.axis.NumberAxis;
@@ -13,6 +17,7 @@ import org.jfree.data.category.*;
 import org.jfree.data.xy.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
@@ -27,8 +32,10 @@ import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 
 @Service
@@ -37,6 +44,36 @@ public class ChartReportServiceImpl implements ChartReportService {
     private static final Logger logger = LoggerFactory.getLogger(ChartReportServiceImpl.class);
     private static final int DEFAULT_WIDTH = 800;
     private static final int DEFAULT_HEIGHT = 600;
+    static final String CACHE_NAME = "reportCharts";
+
+    /**
+     * Claves de los datos del reporte que lee cada gráfico; solo ellas forman parte de la huella del contenido.
+     */
+    private static final Map<ReportingConstants.ReportType, List<String>> CHART_DATA_KEYS = Map.of(
+            ReportingConstants.ReportType.MOST_RENTED_VEHICLES, List.of("rentalCountsByVehicle"),
+            ReportingConstants.ReportType.RENTAL_TRENDS, List.of("rentalTrends"),
+            ReportingConstants.ReportType.VEHICLE_USAGE, List.of("vehicleUsage"),
+            ReportingConstants.ReportType.CUSTOMER_ACTIVITY, List.of("customerActivity"),
+            ReportingConstants.ReportType.AVERAGE_RENTAL_DURATION, List.of("averageRentalDurationByTopCustomers"),
+            ReportingConstants.ReportType.TOP_CUSTOMERS_BY_RENTALS, List.of("topCustomersByRentals"),
+            ReportingConstants.ReportType.RENTAL_SUMMARY, List.of("totalRentals"),
+            ReportingConstants.ReportType.REVENUE_ANALYSIS, List.of("revenueComposition"));
+
+    private final boolean cacheEnabled;
+    private final Cache<String, byte[]> renderedCharts;
+
+    public ChartReportServiceImpl(MeterRegistry meterRegistry,
+                                  @Value("${reporting.chart-cache.enabled:true}") boolean cacheEnabled,
+                                  @Value("${reporting.chart-cache.max-bytes:33554432}") long maxBytes) {
+        this.cacheEnabled = cacheEnabled;
+        // Presupuesto en bytes: cada entrada pesa lo que ocupa el gráfico renderizado
+        this.renderedCharts = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, byte[] bytes) -> bytes.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, renderedCharts, CACHE_NAME);
+    }
 
     @Override
     public byte[] generateReport(Map<String, Object> data, ReportingConstants.ReportType reportType,
@@ -51,8 +88,34 @@ public class ChartReportServiceImpl implements ChartReportService {
         }
     }
 
+    @Override
+    public String contentHash(Map<String, Object> data, ReportingConstants.ReportType reportType,
+                              ReportingConstants.OutputFormat format) {
+        Map<String, Object> chartData = new HashMap<>();
+        CHART_DATA_KEYS.getOrDefault(reportType, List.of()).forEach(key -> chartData.put(key, data.get(key)));
+        return ReportDigests.sha256(reportType, format, DEFAULT_WIDTH, DEFAULT_HEIGHT, chartData);
+    }
+
     @Override
     public byte[] generateChartAsPng(Map<String, Object> data, ReportingConstants.ReportType reportType) {
+        return cached(data, reportType, ReportingConstants.OutputFormat.CHART_PNG, () -> renderPng(data, reportType));
+    }
+
+    @Override
+    public byte[] generateChartAsSvg(Map<String, Object> data, ReportingConstants.ReportType reportType) {
+        return cached(data, reportType, ReportingConstants.OutputFormat.CHART_SVG, () -> renderSvg(data, reportType));
+    }
+
+    // Mismo contenido, mismo gráfico: se reutilizan los bytes ya renderizados
+    private byte[] cached(Map<String, Object> data, ReportingConstants.ReportType reportType,
+                          ReportingConstants.OutputFormat format, Supplier<byte[]> renderer) {
+        if (!cacheEnabled) {
+            return renderer.get();
+        }
+        return renderedCharts.get(contentHash(data, reportType, format), key -> renderer.get());
+    }
+
+    private byte[] renderPng(Map<String, Object> data, ReportingConstants.ReportType reportType) {
         JFreeChart chart = createChart(data, reportType);
         if (chart == null) return generatePlaceholderPng(DEFAULT_WIDTH, DEFAULT_HEIGHT);
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
@@ -65,8 +128,7 @@ public class ChartReportServiceImpl implements ChartReportService {
         }
     }
 
-    @Override
-    public byte[] generateChartAsSvg(Map<String, Object> data, ReportingConstants.ReportType reportType) {
+    private byte[] renderSvg(Map<String, Object> data, ReportingConstants.ReportType reportType) {
         JFreeChart chart = createChart(data, reportType);
         if (chart == null) return new byte[0];
         DOMImplementation domImpl = GenericDOMImplementation.getDOMImplementation();
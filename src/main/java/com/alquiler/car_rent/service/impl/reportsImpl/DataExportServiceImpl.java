@@ -0,0 +1,137 @@
+package com.alquiler.car_rent.service.impl.reportsImpl;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.service.reportService.DataExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class DataExportServiceImpl implements DataExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataExportServiceImpl.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final List<String> RENTAL_COLUMNS = List.of(
+            "id", "customerId", "customerName", "vehicleId", "vehicleBrand", "vehicleModel", "vehicleType",
+            "pricingTier", "rentalStatus", "startDate", "endDate", "totalPrice");
+
+    private final RentalRepository rentalRepository;
+    private final ObjectWriter rowWriter;
+
+    public DataExportServiceImpl(RentalRepository rentalRepository, ObjectMapper objectMapper) {
+        this.rentalRepository = rentalRepository;
+        this.rowWriter = objectMapper.writerFor(RentalReportRow.class);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportRentals(LocalDate startDate, LocalDate endDate, ReportingConstants.ExportFormat format,
+                              boolean gzip, OutputStream outputStream) throws IOException {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new BadRequestException("Rango de fechas inválido para la exportación: " + startDate + " - " + endDate);
+        }
+
+        long startedAt = System.nanoTime();
+        long exported = 0;
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        // El stream mantiene abierto el cursor del servidor: cada fila se escribe y se descarta
+        try (Stream<RentalReportRow> rows = rentalRepository.streamExportRows(
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+            if (format == ReportingConstants.ExportFormat.CSV) {
+                writeCsvLine(writer, RENTAL_COLUMNS);
+            }
+            Iterator<RentalReportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                RentalReportRow row = iterator.next();
+                if (format == ReportingConstants.ExportFormat.CSV) {
+                    writeCsvLine(writer, toCsvValues(row));
+                } else {
+                    writer.write(rowWriter.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                exported++;
+            }
+        }
+
+        finish(writer, target);
+        logger.info("Exportación de alquileres [{} - {}] en {}{}: {} filas en {} ms", startDate, endDate, format,
+                gzip ? " (gzip)" : "", exported, (System.nanoTime() - startedAt) / 1_000_000);
+        return exported;
+    }
+
+    @Override
+    public void writeGenericTableCsv(List<String> headers, Iterator<List<String>> rows, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writeCsvLine(writer, headers);
+        while (rows.hasNext()) {
+            writeCsvLine(writer, rows.next());
+        }
+        writer.flush();
+    }
+
+    private List<String> toCsvValues(RentalReportRow row) {
+        return List.of(
+                Objects.toString(row.id(), ""),
+                Objects.toString(row.customerId(), ""),
+                Objects.toString(row.customerName(), ""),
+                Objects.toString(row.vehicleId(), ""),
+                Objects.toString(row.vehicleBrand(), ""),
+                Objects.toString(row.vehicleModel(), ""),
+                Objects.toString(row.vehicleType(), ""),
+                Objects.toString(row.pricingTier(), ""),
+                Objects.toString(row.rentalStatus(), ""),
+                Objects.toString(row.startDate(), ""),
+                Objects.toString(row.endDate(), ""),
+                row.totalPrice() != null ? row.totalPrice().toPlainString() : "");
+    }
+
+    private void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, values.get(i));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // El stream de la respuesta lo cierra el contenedor; aquí solo se vacían los buffers y se cierra el bloque gzip
+    private void finish(Writer writer, OutputStream target) throws IOException {
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+    }
+}
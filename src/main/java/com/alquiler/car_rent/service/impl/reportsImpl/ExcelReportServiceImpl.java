@@ -7,14 +7,20 @@ import com.alquiler.car_rent.commons.enums.PricingTier;
 import com.alquiler.car_rent.service.reportService.ExcelReportService;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -26,38 +32,45 @@ public class ExcelReportServiceImpl implements ExcelReportService {
     private static final short HEADER_FONT_SIZE = 12;
     private static final short TITLE_FONT_SIZE = 16;
     private static final short SUBTITLE_FONT_SIZE = 12;
+    private static final int MAX_COLUMN_CHARS = 80;
 
-    private XSSFCellStyle createTitleStyle(XSSFWorkbook workbook) {
-        XSSFFont font = workbook.createFont();
+    private final int windowSize;
+
+    public ExcelReportServiceImpl(@Value("${reporting.excel.window-size:100}") int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    private CellStyle createTitleStyle(SXSSFWorkbook workbook) {
+        Font font = workbook.createFont();
         font.setFontName(FONT_NAME);
         font.setBold(true);
         font.setFontHeightInPoints(TITLE_FONT_SIZE);
         font.setColor(IndexedColors.BLACK.getIndex());
-        XSSFCellStyle style = workbook.createCellStyle();
+        CellStyle style = workbook.createCellStyle();
         style.setFont(font);
         style.setAlignment(HorizontalAlignment.CENTER);
         return style;
     }
 
-    private XSSFCellStyle createSubtitleStyle(XSSFWorkbook workbook) {
-        XSSFFont font = workbook.createFont();
+    private CellStyle createSubtitleStyle(SXSSFWorkbook workbook) {
+        Font font = workbook.createFont();
         font.setFontName(FONT_NAME);
         font.setItalic(true);
         font.setFontHeightInPoints(SUBTITLE_FONT_SIZE);
         font.setColor(IndexedColors.GREY_80_PERCENT.getIndex());
-        XSSFCellStyle style = workbook.createCellStyle();
+        CellStyle style = workbook.createCellStyle();
         style.setFont(font);
         style.setAlignment(HorizontalAlignment.CENTER);
         return style;
     }
 
-    private XSSFCellStyle createHeaderStyle(XSSFWorkbook workbook) {
-        XSSFFont font = workbook.createFont();
+    private CellStyle createHeaderStyle(SXSSFWorkbook workbook) {
+        Font font = workbook.createFont();
         font.setFontName(FONT_NAME);
         font.setBold(true);
         font.setFontHeightInPoints(HEADER_FONT_SIZE);
         font.setColor(IndexedColors.WHITE.getIndex());
-        XSSFCellStyle style = workbook.createCellStyle();
+        XSSFCellStyle style = (XSSFCellStyle) workbook.createCellStyle();
         style.setFont(font);
         style.setFillForegroundColor(new XSSFColor(new byte[]{(byte) 33, (byte) 82, (byte) 131}, null));
         style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
@@ -65,8 +78,8 @@ public class ExcelReportServiceImpl implements ExcelReportService {
         return style;
     }
 
-    private XSSFCellStyle createDataStyle(XSSFWorkbook workbook) {
-        XSSFCellStyle style = workbook.createCellStyle();
+    private CellStyle createDataStyle(SXSSFWorkbook workbook) {
+        CellStyle style = workbook.createCellStyle();
         style.setBorderBottom(BorderStyle.THIN);
         style.setBorderTop(BorderStyle.THIN);
         style.setBorderLeft(BorderStyle.THIN);
@@ -74,7 +87,7 @@ public class ExcelReportServiceImpl implements ExcelReportService {
         return style;
     }
 
-    private void createSafeCell(Row row, int column, Object value, XSSFCellStyle style) {
+    private void createSafeCell(Row row, int column, Object value, CellStyle style) {
         Cell cell = row.createCell(column);
         if (value instanceof Number) {
             cell.setCellValue(((Number) value).doubleValue());
@@ -89,15 +102,24 @@ public class ExcelReportServiceImpl implements ExcelReportService {
 
     @Override
     public byte[] generateReport(Map<String, Object> data, ReportingConstants.ReportType reportType, ReportingConstants.OutputFormat format) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            XSSFSheet sheet = workbook.createSheet(reportType.getTitle());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeReport(data, reportType, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public void writeReport(Map<String, Object> data, ReportingConstants.ReportType reportType, OutputStream outputStream) {
+        // Igual que la tabla genérica: SXSSF solo retiene la ventana de filas y escribe el libro directo en el stream
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, windowSize, true);
+        try (workbook) {
+            SXSSFSheet sheet = createSheet(workbook, reportType.getTitle());
             int rowNum = 0;
 
             // Estilos para el encabezado
-            XSSFCellStyle titleStyle = createTitleStyle(workbook);
-            XSSFCellStyle subtitleStyle = createSubtitleStyle(workbook);
-            XSSFCellStyle headerStyle = createHeaderStyle(workbook);
-            XSSFCellStyle dataStyle = createDataStyle(workbook);
+            CellStyle titleStyle = createTitleStyle(workbook);
+            CellStyle subtitleStyle = createSubtitleStyle(workbook);
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle dataStyle = createDataStyle(workbook);
 
             // Añadir título
             Row titleRow = sheet.createRow(rowNum++);
@@ -117,8 +139,8 @@ public class ExcelReportServiceImpl implements ExcelReportService {
             Row dateRow = sheet.createRow(rowNum++);
             Cell dateCell = dateRow.createCell(5); // Colocar a la derecha
             dateCell.setCellValue("Fecha de generación: " + LocalDate.now());
-            XSSFCellStyle dateStyle = workbook.createCellStyle();
-            XSSFFont dateFont = workbook.createFont();
+            CellStyle dateStyle = workbook.createCellStyle();
+            Font dateFont = workbook.createFont();
             dateFont.setItalic(true);
             dateCell.setCellStyle(dateStyle);
 
@@ -174,7 +196,7 @@ public class ExcelReportServiceImpl implements ExcelReportService {
                     }
 
                     if (data.get("rentalTrends") instanceof List) {
-                        XSSFSheet trendsSheet = workbook.createSheet("Tendencias de Ingresos");
+                        SXSSFSheet trendsSheet = createSheet(workbook, "Tendencias de Ingresos");
                         int trendsRowNum = 0;
                         Row headerRowRevenueTrends = trendsSheet.createRow(trendsRowNum++);
                         createSafeCell(headerRowRevenueTrends, 0, "Período", headerStyle);
@@ -217,7 +239,7 @@ public class ExcelReportServiceImpl implements ExcelReportService {
                     createSafeCell(sheet.getRow(currentRowNum[0] - 1), 1, data.get("newCustomers"), dataStyle);
 
                     if (data.get("topCustomersByRentals") instanceof List) {
-                        XSSFSheet topCustomersSheet = workbook.createSheet("Top Clientes por Alquileres");
+                        SXSSFSheet topCustomersSheet = createSheet(workbook, "Top Clientes por Alquileres");
                         int topRowNum = 0;
                         Row headerRowTopCustomers = topCustomersSheet.createRow(topRowNum++);
                         createSafeCell(headerRowTopCustomers, 0, "Cliente", headerStyle);
@@ -263,61 +285,93 @@ public class ExcelReportServiceImpl implements ExcelReportService {
                 }
             }
 
-            return writeToBytes(workbook);
+            workbook.write(outputStream);
 
         } catch (Exception e) {
             logger.error("Error crítico generando reporte: {}", e.getMessage(), e);
             throw new RuntimeException("Error generando reporte: " + e.getMessage(), e);
+        } finally {
+            workbook.dispose();
         }
     }
 
-    private byte[] writeToBytes(XSSFWorkbook workbook) throws IOException {
+    /**
+     * Hoja que registra el ancho de sus columnas al escribir cada fila: en SXSSF autoSizeColumn no ve las filas
+     * ya volcadas al temporal.
+     */
+    private SXSSFSheet createSheet(SXSSFWorkbook workbook, String name) {
+        SXSSFSheet sheet = workbook.createSheet(name);
+        sheet.trackAllColumnsForAutoSizing();
+        return sheet;
+    }
+
+    @Override
+    public byte[] generateGenericTableExcel(List<String> headers, List<List<String>> data) {
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            workbook.write(outputStream);
+            writeGenericTableExcel(headers, data != null ? data.iterator() : Collections.emptyIterator(), outputStream);
             return outputStream.toByteArray();
+        } catch (IOException e) {
+            logger.error("Error generando tabla genérica: {}", e.getMessage(), e);
+            throw new RuntimeException("Error en tabla genérica: " + e.getMessage(), e);
         }
     }
 
     @Override
-    public byte[] generateGenericTableExcel(List<String> headers, List<List<String>> data) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
-            XSSFSheet sheet = workbook.createSheet("Reporte");
-            XSSFCellStyle headerStyle = createHeaderStyle(workbook);
-            XSSFCellStyle dataStyle = createDataStyle(workbook);
+    public void writeGenericTableExcel(List<String> headers, Iterator<List<String>> rows, OutputStream outputStream) throws IOException {
+        // SXSSF solo mantiene en memoria la ventana de filas; el resto se vuelca a un archivo temporal comprimido
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, windowSize, true);
+        try (workbook) {
+            SXSSFSheet sheet = workbook.createSheet("Reporte");
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle dataStyle = createDataStyle(workbook);
+            int[] columnChars = new int[headers.size()];
 
             Row headerRow = sheet.createRow(0);
             for (int i = 0; i < headers.size(); i++) {
-                createSafeCell(headerRow, i, headers.get(i), headerStyle);
+                String header = headers.get(i);
+                createStreamingCell(headerRow, i, header, headerStyle);
+                columnChars[i] = header != null ? header.length() : 0;
             }
 
-            if (data != null && !data.isEmpty()) {
-                for (int i = 0; i < data.size(); i++) {
-                    Row row = sheet.createRow(i + 1);
-                    List<String> rowData = data.get(i);
-                    for (int j = 0; j < rowData.size(); j++) {
-                        createSafeCell(row, j, rowData.get(j), dataStyle);
+            int rowNum = 1;
+            while (rows.hasNext()) {
+                List<String> rowData = rows.next();
+                Row row = sheet.createRow(rowNum++);
+                for (int j = 0; j < rowData.size(); j++) {
+                    String value = rowData.get(j);
+                    createStreamingCell(row, j, value, dataStyle);
+                    if (j < columnChars.length && value != null) {
+                        columnChars[j] = Math.max(columnChars[j], value.length());
                     }
                 }
             }
 
-            for (int i = 0; i < headers.size(); i++) {
-                sheet.autoSizeColumn(i);
+            // autoSizeColumn necesitaría todas las filas en memoria: el ancho se estima por la longitud máxima vista
+            for (int i = 0; i < columnChars.length; i++) {
+                sheet.setColumnWidth(i, Math.min(MAX_COLUMN_CHARS, columnChars[i] + 2) * 256);
             }
 
-            return writeToBytes(workbook);
-        } catch (IOException e) {
-            logger.error("Error generando tabla genérica: {}", e.getMessage(), e);
-            throw new RuntimeException("Error en tabla genérica: " + e.getMessage(), e);
+            workbook.write(outputStream);
+            logger.debug("Tabla Excel generada en modo streaming: {} filas", rowNum - 1);
+        } finally {
+            // close() solo cierra los escritores de las hojas; los temporales en java.io.tmpdir los borra dispose()
+            workbook.dispose();
         }
     }
 
+    private void createStreamingCell(Row row, int column, String value, CellStyle style) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value != null ? value : "N/A");
+        cell.setCellStyle(style);
+    }
+
     @Override
     public String getReportTitle(ReportingConstants.ReportType reportType) {
         return reportType.getTitle() + " - " + java.time.LocalDate.now();
     }
 
-    private void addRentalsByVehicleTypeSheet(XSSFWorkbook workbook, Map<String, Object> data, XSSFCellStyle headerStyle, XSSFCellStyle dataStyle) {
-        XSSFSheet sheet = workbook.createSheet("Alquileres por Tipo de Vehículo");
+    private void addRentalsByVehicleTypeSheet(SXSSFWorkbook workbook, Map<String, Object> data, CellStyle headerStyle, CellStyle dataStyle) {
+        SXSSFSheet sheet = createSheet(workbook, "Alquileres por Tipo de Vehículo");
         int rowNum = 0;
 
         Row headerRow = sheet.createRow(rowNum++);
@@ -335,8 +389,8 @@ public class ExcelReportServiceImpl implements ExcelReportService {
         autoSizeColumns(sheet, 2);
     }
 
-    private void addRevenueByVehicleTypeSheet(XSSFWorkbook workbook, Map<String, Object> data, XSSFCellStyle headerStyle, XSSFCellStyle dataStyle) {
-        XSSFSheet sheet = workbook.createSheet("Ingresos por Tipo de Vehículo");
+    private void addRevenueByVehicleTypeSheet(SXSSFWorkbook workbook, Map<String, Object> data, CellStyle headerStyle, CellStyle dataStyle) {
+        SXSSFSheet sheet = createSheet(workbook, "Ingresos por Tipo de Vehículo");
         int rowNum = 0;
 
         Row headerRow = sheet.createRow(rowNum++);
@@ -354,8 +408,8 @@ public class ExcelReportServiceImpl implements ExcelReportService {
         autoSizeColumns(sheet, 2);
     }
 
-    private void addRentalsByPricingTierSheet(XSSFWorkbook workbook, Map<String, Object> data, XSSFCellStyle headerStyle, XSSFCellStyle dataStyle) {
-        XSSFSheet sheet = workbook.createSheet("Alquileres por Nivel de Precios");
+    private void addRentalsByPricingTierSheet(SXSSFWorkbook workbook, Map<String, Object> data, CellStyle headerStyle, CellStyle dataStyle) {
+        SXSSFSheet sheet = createSheet(workbook, "Alquileres por Nivel de Precios");
         int rowNum = 0;
 
         Row headerRow = sheet.createRow(rowNum++);
@@ -373,8 +427,8 @@ public class ExcelReportServiceImpl implements ExcelReportService {
         autoSizeColumns(sheet, 2);
     }
 
-    private void addRevenueByPricingTierSheet(XSSFWorkbook workbook, Map<String, Object> data, XSSFCellStyle headerStyle, XSSFCellStyle dataStyle) {
-        XSSFSheet sheet = workbook.createSheet("Ingresos por Nivel de Precios");
+    private void addRevenueByPricingTierSheet(SXSSFWorkbook workbook, Map<String, Object> data, CellStyle headerStyle, CellStyle dataStyle) {
+        SXSSFSheet sheet = createSheet(workbook, "Ingresos por Nivel de Precios");
         int rowNum = 0;
 
         Row headerRow = sheet.createRow(rowNum++);
@@ -392,7 +446,7 @@ public class ExcelReportServiceImpl implements ExcelReportService {
         autoSizeColumns(sheet, 2);
     }
 
-    private void autoSizeColumns(XSSFSheet sheet, int numColumns) {
+    private void autoSizeColumns(SXSSFSheet sheet, int numColumns) {
         for (int i = 0; i < numColumns; i++) {
             sheet.autoSizeColumn(i);
         }
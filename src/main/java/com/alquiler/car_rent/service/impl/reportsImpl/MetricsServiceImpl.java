@@ -1,7 +1,6 @@
 package com.alquiler.car_rent.service.impl.reportsImpl;
 
 import com.alquiler.car_rent.commons.constants.ReportingConstants;
-import com.alquiler.car_rent.commons.entities.Rental;
 import com.alquiler.car_rent.commons.entities.Vehicle;
 import com.alquiler.car_rent.commons.enums.VehicleStatus;
 import com.alquiler.car_rent.commons.enums.VehicleType;
@@ -13,16 +12,15 @@ import com.alquiler.car_rent.service.reportService.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -37,9 +35,6 @@ public class MetricsServiceImpl implements MetricsService {
     private static final LocalDateTime SAFE_MIN_DATE = LocalDateTime.of(1900, 1, 1, 0, 0);
     private static final LocalDateTime SAFE_MAX_DATE = LocalDateTime.of(2150, 1, 1, 0, 0);
 
-    @Value("${reporting.page.size:100}")
-    private int pageSize;
-
     public MetricsServiceImpl(RentalRepository rentalRepository, CustomerRepository customerRepository,
     		VehicleRepository vehicleRepository) {
         this.rentalRepository = rentalRepository;
@@ -82,17 +77,6 @@ public class MetricsServiceImpl implements MetricsService {
     }
 
 
-    private List<Rental> getRentalsInRange(LocalDateTime start, LocalDateTime end) {
-        int pageNum = 0;
-        List<Rental> allRentals = new ArrayList<>();
-        Page<Rental> page;
-        do {
-            page = rentalRepository.searchByDateRange(start, end, PageRequest.of(pageNum++, pageSize));
-            allRentals.addAll(page.getContent());
-        } while (page.hasNext());
-        return allRentals;
-    }
-
     @Override
     public long getTotalRentals(ReportingConstants.TimePeriod period,LocalDate startDate, LocalDate endDate) {
         Pair<LocalDateTime, LocalDateTime> dateRange = getDateRange(startDate, endDate, period);
@@ -107,12 +91,10 @@ public class MetricsServiceImpl implements MetricsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long getUniqueVehiclesRented(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate) {
         Pair<LocalDateTime, LocalDateTime> dateRange = getDateRange(startDate, endDate, period);
-        return getRentalsInRange(dateRange.getFirst(), dateRange.getSecond()).stream()
-                .map(Rental::getVehicle)
-                .distinct()
-                .count();
+        return rentalRepository.countDistinctVehiclesInRange(dateRange.getFirst(), dateRange.getSecond());
     }
 
     @Override
@@ -196,28 +178,22 @@ public class MetricsServiceImpl implements MetricsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long getUniqueCustomersRented(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate) {
         Pair<LocalDateTime, LocalDateTime> dateRange = getDateRange(startDate, endDate, period);
-        return getRentalsInRange(dateRange.getFirst(), dateRange.getSecond()).stream()
-                .map(Rental::getCustomer)
-                .distinct()
-                .count();
+        return rentalRepository.countDistinctCustomersInRange(dateRange.getFirst(), dateRange.getSecond());
     }
 
     @Override
     public double getAverageRentalDuration(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate) {
         Pair<LocalDateTime, LocalDateTime> dateRange = getDateRange(startDate, endDate, period);
-        List<Rental> rentals = getRentalsInRange(dateRange.getFirst(), dateRange.getSecond());
-        if (rentals.isEmpty()) return 0;
-        long total = rentals.stream()
-                .mapToLong(r -> ChronoUnit.DAYS.between(r.getStartDate(), r.getEndDate()))
-                .sum();
-        return (double) total / rentals.size();
+        Double average = rentalRepository.findAverageDurationInRange(dateRange.getFirst(), dateRange.getSecond());
+        return average != null ? average : 0;
     }
 
     @Override
     public long getActiveCustomersCount(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate) {
-        return getUniqueCustomersRented(period, endDate, startDate);
+        return getUniqueCustomersRented(period, startDate, endDate);
     }
 
     @Override
@@ -1,7 +1,6 @@
 package com.alquiler.car_rent.service.impl.reportsImpl;
 
 import com.alquiler.car_rent.commons.constants.ReportingConstants;
-import com.alquiler.car_rent.commons.entities.Vehicle;
 import com.alquiler.car_rent.commons.enums.VehicleType;
 import com.alquiler.car_rent.commons.enums.PricingTier;
 import com.alquiler.car_rent.exceptions.GlobalExceptionHandler;
@@ -13,10 +12,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 @Service
 public class PdfReportServiceImpl implements PdfReportService {
@@ -30,6 +30,7 @@ public class PdfReportServiceImpl implements PdfReportService {
     private static final Font boldItalicFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLDITALIC);
     private static final Font normalFont = new Font(Font.FontFamily.HELVETICA, 10);
     private static final BaseColor headerBackgroundColor = BaseColor.LIGHT_GRAY;
+    private static final int FLUSH_ROWS = 200;
 
     private final GlobalExceptionHandler globalExceptionHandler;
 
@@ -39,10 +40,18 @@ public class PdfReportServiceImpl implements PdfReportService {
 
     @Override
     public byte[] generateReport(Map<String, Object> data, ReportingConstants.ReportType reportType, ReportingConstants.OutputFormat format) {
-        Document document = new Document(PageSize.A4, 36, 36, 54, 36);
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeReport(data, reportType, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public void writeReport(Map<String, Object> data, ReportingConstants.ReportType reportType, OutputStream outputStream) {
+        Document document = new Document(PageSize.A4, 36, 36, 54, 36);
         try {
-            PdfWriter.getInstance(document, outputStream);
+            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            // El stream de la respuesta lo cierra el contenedor
+            writer.setCloseStream(false);
             document.open();
             addPdfHeader(document, reportType, data);
             addReportContent(document, reportType, data);
@@ -51,13 +60,7 @@ public class PdfReportServiceImpl implements PdfReportService {
             throw new RuntimeException("No se pudo generar el PDF", e);
         } finally {
             if (document.isOpen()) document.close();
-            try {
-                outputStream.close();
-            } catch (IOException e) {
-                logger.error("Error cerrando OutputStream", e);
-            }
         }
-        return outputStream.toByteArray();
     }
 
     @Override
@@ -196,6 +199,21 @@ public class PdfReportServiceImpl implements PdfReportService {
             doc.add(new Paragraph("No hay datos de actividad de clientes disponibles.", normalFont));
             doc.add(Chunk.NEWLINE);
         }
+
+        List<Map<String, Object>> customerActivity = (List<Map<String, Object>>) data.get("customerActivity");
+        if (customerActivity != null && !customerActivity.isEmpty()) {
+            Paragraph activityTitle = new Paragraph("Detalle de Actividad por Cliente:", headerFont);
+            activityTitle.setAlignment(Element.ALIGN_CENTER);
+            doc.add(activityTitle);
+            doc.add(Chunk.NEWLINE);
+
+            addStreamingTable(doc, List.of("Nombre Cliente", "Cantidad Alquileres", "Ingresos"), customerActivity, (table, customer) -> {
+                table.addCell(new Phrase(String.valueOf(customer.get("name")), normalFont));
+                table.addCell(new Phrase(String.valueOf(customer.get("rentals")), normalFont));
+                table.addCell(new Phrase("$" + String.format("%.2f", ((Number) customer.get("revenue")).doubleValue()), normalFont));
+            });
+            doc.add(Chunk.NEWLINE);
+        }
     }
 
     private void addMostRentedVehiclesTable(Document doc, Map<String, Object> data) throws DocumentException {
@@ -228,23 +246,15 @@ public class PdfReportServiceImpl implements PdfReportService {
         doc.add(title);
         doc.add(Chunk.NEWLINE);
 
-        PdfPTable table = new PdfPTable(2);
-        table.setWidthPercentage(80);
-        table.setHorizontalAlignment(Element.ALIGN_CENTER);
-        addTableHeader(table, "Periodo");
-        addTableHeader(table, "Cantidad");
-
-        for (Map<String, Object> t : trends) {
+        addStreamingTable(doc, List.of("Periodo", "Cantidad"), trends, (table, t) -> {
             table.addCell(new Phrase(String.valueOf(t.get("period")), normalFont));
             table.addCell(new Phrase(String.valueOf(t.get("rentalCount")), normalFont));
-        }
-
-        doc.add(table);
+        });
         doc.add(Chunk.NEWLINE);
     }
 
     private void addVehicleUsageTable(Document doc, Map<String, Object> data) throws DocumentException {
-        Map<Vehicle, Long> usage = (Map<Vehicle, Long>) data.get("vehicleUsage");
+        List<Map<String, Object>> usage = (List<Map<String, Object>>) data.get("vehicleUsage");
         if (usage == null || usage.isEmpty()) return;
 
         Paragraph title = new Paragraph("Uso de Vehículos", headerFont);
@@ -252,19 +262,38 @@ public class PdfReportServiceImpl implements PdfReportService {
         doc.add(title);
         doc.add(Chunk.NEWLINE);
 
-        PdfPTable table = new PdfPTable(2);
-        table.setWidthPercentage(80);
-        table.setHorizontalAlignment(Element.ALIGN_CENTER);
-        addTableHeader(table, "Vehículo");
-        addTableHeader(table, "Usos");
-
-        usage.forEach((v, count) -> {
-            table.addCell(new Phrase(v.getBrand() + " " + v.getModel(), normalFont));
-            table.addCell(new Phrase(String.valueOf(count), normalFont));
+        addStreamingTable(doc, List.of("Vehículo", "Usos"), usage, (table, entry) -> {
+            table.addCell(new Phrase(String.valueOf(entry.get("vehicle")), normalFont));
+            table.addCell(new Phrase(String.valueOf(entry.get("count")), normalFont));
         });
+        doc.add(Chunk.NEWLINE);
+    }
 
+    /**
+     * Tabla sin límite de filas: se marca incompleta y se añade al documento cada {@link #FLUSH_ROWS} filas,
+     * de modo que iText maqueta y escribe las filas terminadas y las libera. El encabezado se repite por página.
+     * Acota la memoria del documento, no la de {@code rows}: las listas del reporte ya llegan completas desde
+     * el mapa cacheado (p. ej. una fila por cliente o vehículo, agregada en SQL).
+     */
+    private <T> void addStreamingTable(Document doc, List<String> headers, Iterable<T> rows,
+                                       BiConsumer<PdfPTable, T> rowWriter) throws DocumentException {
+        PdfPTable table = new PdfPTable(headers.size());
+        table.setWidthPercentage(80);
+        table.setHorizontalAlignment(Element.ALIGN_CENTER);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        headers.forEach(header -> addTableHeader(table, header));
+
+        int pendingRows = 0;
+        for (T row : rows) {
+            rowWriter.accept(table, row);
+            if (++pendingRows == FLUSH_ROWS) {
+                doc.add(table);
+                pendingRows = 0;
+            }
+        }
+        table.setComplete(true);
         doc.add(table);
-        doc.add(Chunk.NEWLINE);
     }
 
     private PdfPTable createKeyValueTable() {
@@ -0,0 +1,64 @@
+package com.alquiler.car_rent.service.impl.reportsImpl;
+
+import com.alquiler.car_rent.commons.dtos.RentalCursor;
+import com.alquiler.car_rent.commons.entities.Rental;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Recorre los alquileres (no cancelados) de un rango por lotes usando paginación por clave.
+ * Cada lote continúa desde el último (startDate, id) leído, así el coste total es lineal
+ * en el número de filas en lugar de crecer con el OFFSET de cada página.
+ */
+class RentalKeysetIterator implements Iterator<Rental> {
+
+    private final RentalRepository rentalRepository;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final int batchSize;
+
+    private RentalCursor cursor = RentalCursor.ORIGIN;
+    private List<Rental> batch = List.of();
+    private int position;
+    private boolean lastBatch;
+
+    RentalKeysetIterator(RentalRepository rentalRepository, LocalDateTime start, LocalDateTime end, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor que cero");
+        }
+        this.rentalRepository = rentalRepository;
+        this.start = start;
+        this.end = end;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position < batch.size()) {
+            return true;
+        }
+        if (lastBatch) {
+            return false;
+        }
+        batch = rentalRepository.findReportRangeAfter(start, end, cursor.startDate(), cursor.id(), Limit.of(batchSize));
+        position = 0;
+        lastBatch = batch.size() < batchSize;
+        if (!batch.isEmpty()) {
+            cursor = RentalCursor.after(batch.get(batch.size() - 1));
+        }
+        return !batch.isEmpty();
+    }
+
+    @Override
+    public Rental next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return batch.get(position++);
+    }
+}
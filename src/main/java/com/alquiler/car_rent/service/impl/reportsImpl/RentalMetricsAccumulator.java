@@ -0,0 +1,215 @@
+package com.alquiler.car_rent.service.impl.reportsImpl;
+
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Acumula en una sola pasada todas las métricas derivadas de los alquileres de un reporte.
+ * Cada clave del mapa de reporte tiene su propio acumulador; no es thread-safe.
+ */
+class RentalMetricsAccumulator {
+
+    private static final DateTimeFormatter TREND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private long totalRentals;
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+    private long durationDaysSum;
+    private long durationCount;
+
+    private final Map<Long, CustomerStats> customers = new HashMap<>();
+    private final Map<Long, VehicleStats> vehicles = new HashMap<>();
+    private final Map<VehicleType, Long> rentalsByVehicleType = new EnumMap<>(VehicleType.class);
+    private final Map<VehicleType, BigDecimal> revenueByVehicleType = new EnumMap<>(VehicleType.class);
+    private final Map<PricingTier, Long> rentalsByPricingTier = new EnumMap<>(PricingTier.class);
+    private final Map<PricingTier, BigDecimal> revenueByPricingTier = new EnumMap<>(PricingTier.class);
+    private final SortedMap<String, TrendStats> trends = new TreeMap<>();
+
+    void accept(RentalReportRow row) {
+        BigDecimal price = row.totalPrice() != null ? row.totalPrice() : BigDecimal.ZERO;
+
+        totalRentals++;
+        totalRevenue = totalRevenue.add(price);
+
+        Long durationDays = null;
+        if (row.startDate() != null && row.endDate() != null) {
+            durationDays = ChronoUnit.DAYS.between(row.startDate(), row.endDate());
+            durationDaysSum += durationDays;
+            durationCount++;
+        }
+
+        if (row.customerId() != null) {
+            CustomerStats customer = customers.computeIfAbsent(row.customerId(), id -> new CustomerStats(id, row.customerName()));
+            customer.rentals++;
+            customer.revenue = customer.revenue.add(price);
+            if (durationDays != null) {
+                customer.durationDaysSum += durationDays;
+                customer.durationCount++;
+            }
+        }
+
+        if (row.vehicleId() != null) {
+            vehicles.computeIfAbsent(row.vehicleId(), id -> new VehicleStats(row.vehicleBrand(), row.vehicleModel())).count++;
+        }
+
+        if (row.vehicleType() != null) {
+            rentalsByVehicleType.merge(row.vehicleType(), 1L, Long::sum);
+            revenueByVehicleType.merge(row.vehicleType(), price, BigDecimal::add);
+        }
+
+        if (row.pricingTier() != null) {
+            rentalsByPricingTier.merge(row.pricingTier(), 1L, Long::sum);
+            revenueByPricingTier.merge(row.pricingTier(), price, BigDecimal::add);
+        }
+
+        if (row.startDate() != null) {
+            TrendStats trend = trends.computeIfAbsent(row.startDate().format(TREND_FORMATTER), p -> new TrendStats());
+            trend.rentalCount++;
+            trend.totalRevenue = trend.totalRevenue.add(price);
+        }
+    }
+
+    /**
+     * Vuelca las métricas acumuladas con las mismas claves y formas que consumen los generadores de reportes.
+     */
+    Map<String, Object> toReportData(int topCustomersLimit) {
+        Map<String, Object> reportData = new HashMap<>();
+
+        reportData.put("totalRentals", totalRentals);
+        reportData.put("totalRevenue", totalRevenue.doubleValue());
+
+        putCustomerMetrics(reportData, topCustomersLimit);
+        putVehicleMetrics(reportData);
+
+        reportData.put("rentalsByVehicleType", new EnumMap<>(rentalsByVehicleType));
+        reportData.put("revenueByVehicleType", toDoubles(revenueByVehicleType, VehicleType.class));
+        reportData.put("rentalsByPricingTier", new EnumMap<>(rentalsByPricingTier));
+        reportData.put("revenueByPricingTier", toDoubles(revenueByPricingTier, PricingTier.class));
+
+        List<Map<String, Object>> rentalTrends = new ArrayList<>();
+        trends.forEach((period, trend) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("period", period);
+            entry.put("rentalCount", trend.rentalCount);
+            entry.put("totalRevenue", trend.totalRevenue);
+            rentalTrends.add(entry);
+        });
+        reportData.put("rentalTrends", rentalTrends);
+
+        double averageDuration = durationCount == 0 ? 0 : (double) durationDaysSum / durationCount;
+        reportData.put("averageRentalDuration", Math.round(averageDuration));
+
+        return reportData;
+    }
+
+    private void putCustomerMetrics(Map<String, Object> reportData, int topCustomersLimit) {
+        List<CustomerStats> ranked = customers.values().stream()
+                .sorted(Comparator.comparingLong((CustomerStats c) -> c.rentals).reversed()
+                        .thenComparing(c -> c.customerId))
+                .toList();
+
+        long uniqueCustomers = customers.size();
+        reportData.put("uniqueCustomers", uniqueCustomers);
+        reportData.put("activeCustomers", uniqueCustomers);
+
+        List<Map<String, Object>> customerActivity = new ArrayList<>(ranked.size());
+        for (CustomerStats customer : ranked) {
+            Map<String, Object> customerData = new HashMap<>();
+            customerData.put("name", customer.name);
+            customerData.put("rentals", customer.rentals);
+            customerData.put("revenue", customer.revenue);
+            customerActivity.add(customerData);
+        }
+        reportData.put("customerActivity", customerActivity);
+
+        List<CustomerStats> topCustomers = ranked.subList(0, Math.min(topCustomersLimit, ranked.size()));
+        reportData.put("topCustomersByRentals", topCustomers.stream()
+                .map(c -> Map.<String, Object>of("name", c.name, "rentalCount", c.rentals))
+                .toList());
+
+        if (!topCustomers.isEmpty()) {
+            // Igual que la consulta original: el promedio se agrupa por nombre del cliente
+            Map<String, long[]> durationByName = new LinkedHashMap<>();
+            for (CustomerStats customer : topCustomers) {
+                long[] totals = durationByName.computeIfAbsent(customer.name, n -> new long[2]);
+                totals[0] += customer.durationDaysSum;
+                totals[1] += customer.durationCount;
+            }
+            Map<String, Double> averageByCustomer = new LinkedHashMap<>();
+            durationByName.forEach((name, totals) -> {
+                if (totals[1] > 0) {
+                    averageByCustomer.put(name, (double) totals[0] / totals[1]);
+                }
+            });
+            reportData.put("averageRentalDurationByTopCustomers", averageByCustomer);
+        }
+    }
+
+    private void putVehicleMetrics(Map<String, Object> reportData) {
+        List<Map<String, Object>> vehicleUsage = new ArrayList<>(vehicles.size());
+        Map<String, VehicleStats> byBrandAndModel = new HashMap<>();
+
+        for (VehicleStats vehicle : vehicles.values()) {
+            Map<String, Object> usage = new HashMap<>();
+            usage.put("vehicle", vehicle.brand + " " + vehicle.model);
+            usage.put("count", vehicle.count);
+            vehicleUsage.add(usage);
+
+            byBrandAndModel.computeIfAbsent(vehicle.brand + "\u0000" + vehicle.model,
+                    k -> new VehicleStats(vehicle.brand, vehicle.model)).count += vehicle.count;
+        }
+        reportData.put("vehicleUsage", vehicleUsage);
+        reportData.put("uniqueVehicles", (long) vehicles.size());
+
+        Map<String, Object> mostRented = byBrandAndModel.values().stream()
+                .max(Comparator.comparingLong((VehicleStats v) -> v.count)
+                        .thenComparing(v -> v.brand + " " + v.model, Comparator.reverseOrder()))
+                .<Map<String, Object>>map(v -> Map.of(
+                        "brand", v.brand,
+                        "model", v.model,
+                        "rentalCount", v.count))
+                .orElseGet(HashMap::new);
+        reportData.put("mostRentedVehicle", mostRented);
+    }
+
+    private static <K extends Enum<K>> Map<K, Double> toDoubles(Map<K, BigDecimal> source, Class<K> keyType) {
+        Map<K, Double> result = new EnumMap<>(keyType);
+        source.forEach((key, value) -> result.put(key, value.doubleValue()));
+        return result;
+    }
+
+    private static final class CustomerStats {
+        private final Long customerId;
+        private final String name;
+        private long rentals;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long durationDaysSum;
+        private long durationCount;
+
+        private CustomerStats(Long customerId, String name) {
+            this.customerId = customerId;
+            this.name = name;
+        }
+    }
+
+    private static final class VehicleStats {
+        private final String brand;
+        private final String model;
+        private long count;
+
+        private VehicleStats(String brand, String model) {
+            this.brand = brand;
+            this.model = model;
+        }
+    }
+
+    private static final class TrendStats {
+        private long rentalCount;
+        private BigDecimal totalRevenue = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,321 @@
+package com.alquiler.car_rent.service.impl.reportsImpl;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants.ReportSection;
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+import com.alquiler.car_rent.repositories.RentalDailyRollupRepository;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.service.reportService.ReportAggregationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+public class ReportAggregationServiceImpl implements ReportAggregationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportAggregationServiceImpl.class);
+    private static final int DEFAULT_TOP_CUSTOMERS_LIMIT = 10;
+
+    // Secciones que se pueden servir desde los agregados diarios
+    private static final Set<ReportSection> ROLLUP_SECTIONS = EnumSet.of(ReportSection.TOTALS,
+            ReportSection.RENTAL_TRENDS, ReportSection.VEHICLE_TYPE_BREAKDOWN, ReportSection.PRICING_TIER_BREAKDOWN,
+            ReportSection.AVERAGE_DURATION);
+
+    private final RentalRepository rentalRepository;
+    private final RentalDailyRollupRepository rollupRepository;
+
+    // Si está activo, TOTALS, RENTAL_TRENDS, AVERAGE_DURATION y los desgloses por tipo/nivel salen de los
+    // agregados diarios en lugar de recorrer la tabla de alquileres
+    @Value("${reporting.rollup.enabled:true}")
+    private boolean rollupEnabled;
+
+    public ReportAggregationServiceImpl(RentalRepository rentalRepository, RentalDailyRollupRepository rollupRepository) {
+        this.rentalRepository = rentalRepository;
+        this.rollupRepository = rollupRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> aggregateRentalMetrics(LocalDateTime start, LocalDateTime end, Set<ReportSection> sections) {
+        long startedAt = System.nanoTime();
+        RentalMetricsAccumulator accumulator = new RentalMetricsAccumulator();
+
+        // El stream mantiene abierto el cursor: se cierra siempre al terminar la pasada
+        try (Stream<RentalReportRow> rows = rentalRepository.streamReportRows(start, end)) {
+            rows.forEach(accumulator::accept);
+        }
+
+        Map<String, Object> metrics = accumulator.toReportData(DEFAULT_TOP_CUSTOMERS_LIMIT);
+        logger.debug("Agregación de alquileres [{} - {}] completada en {} ms ({} alquileres)",
+                start, end, (System.nanoTime() - startedAt) / 1_000_000, metrics.get("totalRentals"));
+
+        Set<String> keys = new HashSet<>();
+        sections.forEach(section -> keys.addAll(section.getKeys()));
+        metrics.keySet().retainAll(keys);
+        return metrics;
+    }
+
+    @Override
+    public Set<ReportSection> rollupSections(LocalDateTime start, LocalDateTime end) {
+        // Los buckets son por día: el rango debe empezar y terminar a medianoche
+        return rollupEnabled && start.toLocalTime().equals(LocalTime.MIDNIGHT) && end.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? EnumSet.copyOf(ROLLUP_SECTIONS)
+                : EnumSet.noneOf(ReportSection.class);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> aggregateSections(LocalDateTime start, LocalDateTime end, Set<ReportSection> sections) {
+        long startedAt = System.nanoTime();
+        Map<String, Object> metrics = new HashMap<>();
+        Set<ReportSection> fromRollup = rollupSections(start, end);
+        fromRollup.retainAll(sections);
+        if (!fromRollup.isEmpty()) {
+            putRollupSections(metrics, start, end, fromRollup);
+        }
+
+        for (ReportSection section : sections) {
+            if (metrics.keySet().containsAll(section.getKeys())) {
+                continue;
+            }
+            switch (section) {
+                case TOTALS -> {
+                    metrics.put("totalRentals", rentalRepository.countByDateRange(start, end));
+                    metrics.put("totalRevenue", rentalRepository.getTotalRevenueInRange(start, end));
+                }
+                case CUSTOMER_COUNTS -> {
+                    long customers = rentalRepository.countDistinctCustomersInRange(start, end);
+                    metrics.put("uniqueCustomers", customers);
+                    metrics.put("activeCustomers", customers);
+                }
+                case UNIQUE_VEHICLES -> metrics.put("uniqueVehicles", rentalRepository.countDistinctVehiclesInRange(start, end));
+                case CUSTOMER_ACTIVITY -> metrics.put("customerActivity", customerActivity(start, end));
+                case TOP_CUSTOMERS -> putTopCustomers(metrics, start, end);
+                case VEHICLE_USAGE -> metrics.put("vehicleUsage", vehicleUsage(start, end));
+                case MOST_RENTED_VEHICLE -> metrics.put("mostRentedVehicle", mostRentedVehicle(start, end));
+                case VEHICLE_TYPE_BREAKDOWN -> {
+                    metrics.put("rentalsByVehicleType", toEnumMap(rentalRepository.findRentalCountsByVehicleType(start, end),
+                            "vehicleType", "rentalCount", VehicleType.class, Number::longValue));
+                    metrics.put("revenueByVehicleType", toEnumMap(rentalRepository.findRevenueByVehicleType(start, end),
+                            "vehicleType", "totalRevenue", VehicleType.class, Number::doubleValue));
+                }
+                case PRICING_TIER_BREAKDOWN -> {
+                    metrics.put("rentalsByPricingTier", toEnumMap(rentalRepository.findRentalCountsByPricingTier(start, end),
+                            "pricingTier", "rentalCount", PricingTier.class, Number::longValue));
+                    metrics.put("revenueByPricingTier", toEnumMap(rentalRepository.findRevenueByPricingTier(start, end),
+                            "pricingTier", "totalRevenue", PricingTier.class, Number::doubleValue));
+                }
+                case RENTAL_TRENDS -> metrics.put("rentalTrends", rentalTrends(start, end));
+                case AVERAGE_DURATION -> {
+                    Double average = rentalRepository.findAverageDurationInRange(start, end);
+                    metrics.put("averageRentalDuration", Math.round(average != null ? average : 0));
+                }
+                default -> {
+                    // Las secciones que no dependen de alquileres las resuelve ReportDataService
+                }
+            }
+        }
+
+        logger.debug("Secciones {} del rango [{} - {}] calculadas en {} ms",
+                sections, start, end, (System.nanoTime() - startedAt) / 1_000_000);
+        return metrics;
+    }
+
+    /**
+     * Los agregados diarios atribuyen cada alquiler a su día de inicio, mientras que el resto del reporte cuenta
+     * los alquileres que se solapan con el rango. Para que ambos den las mismas cifras se suman a los buckets de
+     * [start, end) los alquileres que empezaron antes del rango y siguen dentro de él (a lo sumo uno por
+     * vehículo y fecha), leídos de la tabla de alquileres. Las tendencias los agrupan en su mes de inicio, igual
+     * que la consulta directa.
+     */
+    private void putRollupSections(Map<String, Object> metrics, LocalDateTime start, LocalDateTime end,
+                                   Set<ReportSection> sections) {
+        LocalDate startDay = start.toLocalDate();
+        LocalDate endDay = end.toLocalDate();
+        List<RentalReportRow> carryOver = rentalRepository.findRollupCarryOverRows(start, end);
+
+        if (sections.contains(ReportSection.TOTALS) || sections.contains(ReportSection.AVERAGE_DURATION)) {
+            Object[] totals = rollupRepository.sumTotals(startDay, endDay).stream().findFirst()
+                    .orElse(new Object[]{0L, BigDecimal.ZERO, 0L});
+            long count = ((Number) totals[0]).longValue() + carryOver.size();
+            BigDecimal revenue = toBigDecimal(totals[1]);
+            long days = ((Number) totals[2]).longValue();
+            for (RentalReportRow row : carryOver) {
+                revenue = revenue.add(row.totalPrice() != null ? row.totalPrice() : BigDecimal.ZERO);
+                days += ChronoUnit.DAYS.between(row.startDate(), row.endDate());
+            }
+            if (sections.contains(ReportSection.TOTALS)) {
+                metrics.put("totalRentals", count);
+                metrics.put("totalRevenue", revenue.doubleValue());
+            }
+            if (sections.contains(ReportSection.AVERAGE_DURATION)) {
+                metrics.put("averageRentalDuration", count == 0 ? 0L : Math.round((double) days / count));
+            }
+        }
+        if (sections.contains(ReportSection.RENTAL_TRENDS)) {
+            metrics.put("rentalTrends", rollupTrends(startDay, endDay, carryOver));
+        }
+        if (sections.contains(ReportSection.VEHICLE_TYPE_BREAKDOWN)) {
+            putRollupBreakdown(metrics, rollupRepository.sumByVehicleType(startDay, endDay), carryOver,
+                    RentalReportRow::vehicleType, VehicleType.class, "rentalsByVehicleType", "revenueByVehicleType");
+        }
+        if (sections.contains(ReportSection.PRICING_TIER_BREAKDOWN)) {
+            putRollupBreakdown(metrics, rollupRepository.sumByPricingTier(startDay, endDay), carryOver,
+                    RentalReportRow::pricingTier, PricingTier.class, "rentalsByPricingTier", "revenueByPricingTier");
+        }
+    }
+
+    private List<Map<String, Object>> rollupTrends(LocalDate startDay, LocalDate endDay, List<RentalReportRow> carryOver) {
+        Map<String, Object[]> byMonth = new TreeMap<>();
+        for (Object[] row : rollupRepository.sumByMonth(startDay, endDay)) {
+            String period = String.format("%04d-%02d", ((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            byMonth.put(period, new Object[]{((Number) row[2]).longValue(), toBigDecimal(row[3])});
+        }
+        for (RentalReportRow row : carryOver) {
+            String period = String.format("%04d-%02d", row.startDate().getYear(), row.startDate().getMonthValue());
+            Object[] month = byMonth.computeIfAbsent(period, k -> new Object[]{0L, BigDecimal.ZERO});
+            month[0] = (Long) month[0] + 1;
+            month[1] = ((BigDecimal) month[1]).add(row.totalPrice() != null ? row.totalPrice() : BigDecimal.ZERO);
+        }
+        List<Map<String, Object>> trends = new ArrayList<>(byMonth.size());
+        byMonth.forEach((period, month) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("period", period);
+            entry.put("rentalCount", month[0]);
+            entry.put("totalRevenue", month[1]);
+            trends.add(entry);
+        });
+        return trends;
+    }
+
+    private static <K extends Enum<K>> void putRollupBreakdown(Map<String, Object> metrics, List<Object[]> rows,
+                                                               List<RentalReportRow> carryOver,
+                                                               Function<RentalReportRow, K> dimension, Class<K> keyType,
+                                                               String countKey, String revenueKey) {
+        Map<K, Long> counts = new EnumMap<>(keyType);
+        Map<K, Double> revenue = new EnumMap<>(keyType);
+        for (Object[] row : rows) {
+            // El bucket sin tipo o nivel tampoco aparece en el desglose de la consulta directa
+            if (row[0] != null) {
+                counts.merge(keyType.cast(row[0]), ((Number) row[1]).longValue(), Long::sum);
+                revenue.merge(keyType.cast(row[0]), ((Number) row[2]).doubleValue(), Double::sum);
+            }
+        }
+        for (RentalReportRow row : carryOver) {
+            K key = dimension.apply(row);
+            if (key != null) {
+                counts.merge(key, 1L, Long::sum);
+                revenue.merge(key, row.totalPrice() != null ? row.totalPrice().doubleValue() : 0.0, Double::sum);
+            }
+        }
+        metrics.put(countKey, counts);
+        metrics.put(revenueKey, revenue);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(String.valueOf(value));
+    }
+
+    /**
+     * Una fila por cliente con alquileres en el rango, agregada en SQL: crece con los clientes activos, no con
+     * los alquileres. Se guarda entera en el mapa del reporte, que es el que se cachea y comparten el JSON, los
+     * gráficos y las exportaciones; por eso no se puede servir como Stream.
+     */
+    private List<Map<String, Object>> customerActivity(LocalDateTime start, LocalDateTime end) {
+        List<Map<String, Object>> activity = new ArrayList<>();
+        for (Object[] row : rentalRepository.findTopCustomersByRentals(start, end, Pageable.unpaged())) {
+            Map<String, Object> customerData = new HashMap<>();
+            customerData.put("name", row[1]);
+            customerData.put("rentals", ((Number) row[2]).longValue());
+            customerData.put("revenue", row[3] != null ? row[3] : BigDecimal.ZERO);
+            activity.add(customerData);
+        }
+        return activity;
+    }
+
+    private void putTopCustomers(Map<String, Object> metrics, LocalDateTime start, LocalDateTime end) {
+        List<Object[]> rows = rentalRepository.findTopCustomersByRentals(start, end,
+                PageRequest.of(0, DEFAULT_TOP_CUSTOMERS_LIMIT));
+        List<Long> customerIds = new ArrayList<>(rows.size());
+        List<Map<String, Object>> topCustomers = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            customerIds.add(((Number) row[0]).longValue());
+            topCustomers.add(Map.of("name", row[1], "rentalCount", ((Number) row[2]).longValue()));
+        }
+        metrics.put("topCustomersByRentals", topCustomers);
+
+        if (!customerIds.isEmpty()) {
+            Map<String, Double> averageByCustomer = new LinkedHashMap<>();
+            for (Object[] row : rentalRepository.findAverageDurationByCustomer(start, end, customerIds)) {
+                averageByCustomer.put((String) row[0], ((Number) row[1]).doubleValue());
+            }
+            metrics.put("averageRentalDurationByTopCustomers", averageByCustomer);
+        }
+    }
+
+    /**
+     * Una fila por vehículo alquilado en el rango; igual que {@link #customerActivity}, va completa en el reporte cacheado.
+     */
+    private List<Map<String, Object>> vehicleUsage(LocalDateTime start, LocalDateTime end) {
+        List<Map<String, Object>> usage = new ArrayList<>();
+        for (Map<String, Object> row : rentalRepository.findVehicleUsage(start, end)) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("vehicle", row.get("brand") + " " + row.get("model"));
+            entry.put("count", ((Number) row.get("usageCount")).longValue());
+            usage.add(entry);
+        }
+        return usage;
+    }
+
+    private Map<String, Object> mostRentedVehicle(LocalDateTime start, LocalDateTime end) {
+        List<Map<String, Object>> rows = rentalRepository.findMostRentedVehicle(start, end);
+        if (rows.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<String, Object> top = rows.get(0);
+        return Map.of(
+                "brand", top.get("brand"),
+                "model", top.get("model"),
+                "rentalCount", ((Number) top.get("rentalCount")).longValue());
+    }
+
+    private List<Map<String, Object>> rentalTrends(LocalDateTime start, LocalDateTime end) {
+        List<Map<String, Object>> trends = new ArrayList<>();
+        for (Map<String, Object> row : rentalRepository.findRentalTrends(start, end)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("period", row.get("period"));
+            entry.put("rentalCount", ((Number) row.get("rentalCount")).longValue());
+            entry.put("totalRevenue", row.get("totalRevenue") != null ? row.get("totalRevenue") : BigDecimal.ZERO);
+            trends.add(entry);
+        }
+        return trends;
+    }
+
+    private static <K extends Enum<K>, V> Map<K, V> toEnumMap(List<Map<String, Object>> rows, String keyColumn,
+                                                              String valueColumn, Class<K> keyType,
+                                                              Function<Number, V> converter) {
+        Map<K, V> result = new EnumMap<>(keyType);
+        for (Map<String, Object> row : rows) {
+            Object key = row.get(keyColumn);
+            Object value = row.get(valueColumn);
+            if (key != null && value != null) {
+                result.put(Enum.valueOf(keyType, key.toString()), converter.apply((Number) value));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package com.alquiler.car_rent.service.impl.reportsImpl;
+
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
+import com.alquiler.car_rent.service.reportService.ReportCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Cache acotado (TTL + tamaño máximo) de los datos de reportes. Los cambios de alquileres invalidan solo
+ * las entradas cuyo rango se solapa; los datos que no dependen de alquileres (clientes nuevos, vehículos
+ * disponibles) se refrescan al expirar el TTL. Expone aciertos y fallos como métricas "cache.*" con cache=reportData.
+ */
+@Service
+public class ReportCacheServiceImpl implements ReportCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCacheServiceImpl.class);
+    static final String CACHE_NAME = "reportData";
+
+    private final boolean enabled;
+    private final Cache<Key, Object> cache;
+
+    public ReportCacheServiceImpl(MeterRegistry meterRegistry,
+                                  @Value("${reporting.cache.enabled:true}") boolean enabled,
+                                  @Value("${reporting.cache.ttl:PT2M}") Duration ttl,
+                                  @Value("${reporting.cache.max-size:500}") long maxSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return (T) cache.get(key, k -> loader.get());
+    }
+
+    @Override
+    public int evictOverlapping(LocalDate from, LocalDate to) {
+        int evicted = 0;
+        for (Key key : cache.asMap().keySet()) {
+            if (key.overlaps(from, to) && cache.asMap().remove(key) != null) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.debug("Invalidadas {} entradas del cache de reportes para el rango {} - {}", evicted, from, to);
+        }
+        return evicted;
+    }
+
+    @Override
+    public void evict(Key key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Invalida tras el commit para que una lectura concurrente no vuelva a cachear datos previos al cambio.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        evictOverlapping(event.startDate(), event.endDate());
+    }
+}
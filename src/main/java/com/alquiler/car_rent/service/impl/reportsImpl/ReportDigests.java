@@ -0,0 +1,60 @@
+package com.alquiler.car_rent.service.impl.reportsImpl;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Huellas SHA-256 del contenido de un reporte. Los mapas se recorren ordenados por clave para que dos
+ * datos iguales produzcan la misma huella sin importar el tipo de mapa ni el orden de inserción.
+ */
+final class ReportDigests {
+
+    private ReportDigests() {
+    }
+
+    static String sha256(Object... parts) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object part : parts) {
+            appendCanonical(canonical, part);
+            canonical.append('|');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static void appendCanonical(StringBuilder out, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((key, entry) -> sorted.put(String.valueOf(key), entry));
+            out.append('{');
+            sorted.forEach((key, entry) -> {
+                out.append(key).append('=');
+                appendCanonical(out, entry);
+                out.append(';');
+            });
+            out.append('}');
+        } else if (value instanceof Collection<?> collection) {
+            out.append('[');
+            collection.forEach(entry -> {
+                appendCanonical(out, entry);
+                out.append(';');
+            });
+            out.append(']');
+        } else if (value instanceof BigDecimal decimal) {
+            // 150.0 y 150.00 son el mismo importe
+            out.append(decimal.stripTrailingZeros().toPlainString());
+        } else {
+            out.append(value);
+        }
+    }
+}
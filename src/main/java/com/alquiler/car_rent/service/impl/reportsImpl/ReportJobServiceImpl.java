@@ -0,0 +1,306 @@
+package com.alquiler.car_rent.service.impl.reportsImpl;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.dtos.ReportJobDto;
+import com.alquiler.car_rent.commons.dtos.ReportJobRequest;
+import com.alquiler.car_rent.commons.enums.ReportJobPriority;
+import com.alquiler.car_rent.commons.enums.ReportJobStatus;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+import com.alquiler.car_rent.exceptions.NotFoundException;
+import com.alquiler.car_rent.exceptions.TooManyRequestsException;
+import com.alquiler.car_rent.service.reportService.ReportJobService;
+import com.alquiler.car_rent.service.reportService.ReportingService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cola de trabajos de reporte. Un despachador arranca los trabajos por prioridad (y orden de llegada) mientras
+ * haya trabajadores libres y el formato no haya llegado a su límite de ejecuciones simultáneas; los PDF y Excel
+ * grandes son los que más memoria y CPU consumen. Los resultados se escriben en disco y se borran al expirar.
+ */
+@Service
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobServiceImpl.class);
+
+    private static final Comparator<Job> QUEUE_ORDER = Comparator
+            .comparing((Job job) -> job.priority)
+            .thenComparingLong(job -> job.sequence);
+
+    private final ReportingService reportingService;
+    private final int workers;
+    private final int maxQueued;
+    private final Map<ReportingConstants.OutputFormat, Integer> formatLimits = new EnumMap<>(ReportingConstants.OutputFormat.class);
+    private final Path spoolDir;
+    private final Duration resultTtl;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService executor;
+
+    // Protegidos por el monitor de esta instancia
+    private final TreeSet<Job> queue = new TreeSet<>(QUEUE_ORDER);
+    private final Map<ReportingConstants.OutputFormat, Integer> runningByFormat = new EnumMap<>(ReportingConstants.OutputFormat.class);
+    private int running;
+
+    public ReportJobServiceImpl(ReportingService reportingService,
+                                @Value("${reporting.jobs.workers:2}") int workers,
+                                @Value("${reporting.jobs.max-queued:50}") int maxQueued,
+                                @Value("${reporting.jobs.max-concurrent-pdf:1}") int maxConcurrentPdf,
+                                @Value("${reporting.jobs.max-concurrent-excel:1}") int maxConcurrentExcel,
+                                @Value("${reporting.jobs.spool-dir:${java.io.tmpdir}/car-rent-reports}") Path spoolDir,
+                                @Value("${reporting.jobs.result-ttl:PT1H}") Duration resultTtl) {
+        this.reportingService = reportingService;
+        this.workers = Math.max(1, workers);
+        this.maxQueued = Math.max(1, maxQueued);
+        this.formatLimits.put(ReportingConstants.OutputFormat.PDF, Math.max(1, maxConcurrentPdf));
+        this.formatLimits.put(ReportingConstants.OutputFormat.EXCEL, Math.max(1, maxConcurrentExcel));
+        this.spoolDir = spoolDir;
+        this.resultTtl = resultTtl;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, runnable -> {
+            Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(spoolDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de resultados " + spoolDir, e);
+        }
+    }
+
+    @Override
+    public ReportJobDto submit(ReportJobRequest request) {
+        if (request.getFormat() == ReportingConstants.OutputFormat.HTML) {
+            throw new BadRequestException("Formato no soportado para trabajos de reporte: " + request.getFormat());
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getStartDate().isAfter(request.getEndDate())) {
+            throw new BadRequestException("La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), sequence.incrementAndGet(), request);
+        synchronized (this) {
+            if (queue.size() >= maxQueued) {
+                throw new TooManyRequestsException("La cola de reportes está llena; intente de nuevo más tarde");
+            }
+            jobs.put(job.id, job);
+            queue.add(job);
+            dispatch();
+        }
+        logger.info("Trabajo de reporte {} encolado [{} - {} - {}] con prioridad {}",
+                job.id, job.format, job.reportType, job.period, job.priority);
+        return job.toDto();
+    }
+
+    @Override
+    public ReportJobDto getJob(String jobId) {
+        return findJob(jobId).toDto();
+    }
+
+    @Override
+    public Path getResultFile(String jobId) {
+        Job job = findJob(jobId);
+        if (job.status != ReportJobStatus.COMPLETED) {
+            throw new BadRequestException("El trabajo " + jobId + " no tiene resultado disponible (estado " + job.status + ")");
+        }
+        return job.resultFile;
+    }
+
+    private Job findJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new NotFoundException("Trabajo de reporte no encontrado: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Arranca los trabajos en cola que caben: el primero por prioridad cuyo formato tenga cupo, mientras queden
+     * trabajadores libres. Un PDF esperando su cupo no bloquea a un JSON que venga detrás.
+     */
+    private synchronized void dispatch() {
+        Iterator<Job> iterator = queue.iterator();
+        while (running < workers && iterator.hasNext()) {
+            Job job = iterator.next();
+            int limit = formatLimits.getOrDefault(job.format, workers);
+            if (runningByFormat.getOrDefault(job.format, 0) >= limit) {
+                continue;
+            }
+            iterator.remove();
+            running++;
+            runningByFormat.merge(job.format, 1, Integer::sum);
+            executor.execute(() -> run(job));
+        }
+    }
+
+    private synchronized void release(Job job) {
+        running--;
+        runningByFormat.merge(job.format, -1, Integer::sum);
+        dispatch();
+    }
+
+    private void run(Job job) {
+        job.status = ReportJobStatus.RUNNING;
+        job.progress = 10;
+        Path partFile = spoolDir.resolve(job.id + ".part");
+        Path resultFile = spoolDir.resolve(job.id + "." + job.format.name().toLowerCase());
+        try {
+            Map<String, Object> reportData = reportingService.generateReportData(job.period, job.startDate, job.endDate);
+            job.progress = 60;
+            try (OutputStream outputStream = Files.newOutputStream(partFile)) {
+                if (job.format == ReportingConstants.OutputFormat.PDF) {
+                    reportingService.writePdfReport(job.reportType, reportData, outputStream);
+                } else if (job.format == ReportingConstants.OutputFormat.EXCEL) {
+                    reportingService.writeExcelReport(job.reportType, reportData, outputStream);
+                } else {
+                    outputStream.write(reportingService.generateReport(job.format, job.reportType, job.period,
+                            job.startDate, job.endDate));
+                }
+            }
+            job.progress = 90;
+            // El archivo solo aparece con su nombre final cuando está completo
+            Files.move(partFile, resultFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.resultFile = resultFile;
+            job.progress = 100;
+            job.finish(ReportJobStatus.COMPLETED, null, resultTtl);
+            logger.info("Trabajo de reporte {} completado ({} bytes)", job.id, Files.size(resultFile));
+        } catch (Exception e) {
+            logger.error("Error en el trabajo de reporte {} [{} - {}]: {}", job.id, job.format, job.reportType, e.getMessage(), e);
+            deleteQuietly(partFile);
+            job.finish(ReportJobStatus.FAILED, e.getMessage(), resultTtl);
+        } finally {
+            release(job);
+        }
+    }
+
+    /**
+     * Borra los trabajos terminados cuyo resultado expiró y los archivos huérfanos de ejecuciones anteriores.
+     */
+    @Scheduled(fixedDelayString = "${reporting.jobs.purge-interval:PT5M}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Path> liveFiles = new HashSet<>();
+        for (Iterator<Job> iterator = jobs.values().iterator(); iterator.hasNext(); ) {
+            Job job = iterator.next();
+            if (job.expiresAt != null && job.expiresAt.isBefore(now)) {
+                iterator.remove();
+                if (job.resultFile != null) {
+                    deleteQuietly(job.resultFile);
+                }
+                logger.debug("Resultado del trabajo de reporte {} expirado", job.id);
+            } else {
+                liveFiles.add(spoolDir.resolve(job.id + ".part"));
+                if (job.resultFile != null) {
+                    liveFiles.add(job.resultFile);
+                }
+            }
+        }
+
+        long cutoff = System.currentTimeMillis() - resultTtl.toMillis();
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.filter(file -> !liveFiles.contains(file))
+                    .filter(file -> {
+                        try {
+                            return Files.getLastModifiedTime(file).toMillis() < cutoff;
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    })
+                    .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            logger.warn("No se pudo revisar el directorio de resultados {}: {}", spoolDir, e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar el archivo de reporte {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Job {
+        private final String id;
+        private final long sequence;
+        private final ReportingConstants.OutputFormat format;
+        private final ReportingConstants.ReportType reportType;
+        private final ReportingConstants.TimePeriod period;
+        private final ReportJobPriority priority;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile int progress;
+        private volatile Path resultFile;
+        private volatile LocalDateTime finishedAt;
+        private volatile LocalDateTime expiresAt;
+        private volatile String error;
+
+        private Job(String id, long sequence, ReportJobRequest request) {
+            this.id = id;
+            this.sequence = sequence;
+            this.format = request.getFormat();
+            this.reportType = request.getReportType();
+            this.period = request.getPeriod() != null ? request.getPeriod() : ReportingConstants.TimePeriod.MONTHLY;
+            this.priority = request.getPriority() != null ? request.getPriority() : ReportJobPriority.NORMAL;
+            this.startDate = request.getStartDate();
+            this.endDate = request.getEndDate();
+        }
+
+        private void finish(ReportJobStatus finalStatus, String errorMessage, Duration ttl) {
+            this.error = errorMessage;
+            this.finishedAt = LocalDateTime.now();
+            this.expiresAt = finishedAt.plus(ttl);
+            // El estado se publica al final para que quien lo lea vea ya el archivo y las fechas
+            this.status = finalStatus;
+        }
+
+        private ReportJobDto toDto() {
+            return ReportJobDto.builder()
+                    .id(id)
+                    .status(status)
+                    .progress(progress)
+                    .format(format)
+                    .reportType(reportType)
+                    .period(period)
+                    .priority(priority)
+                    .startDate(startDate)
+                    .endDate(endDate)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .expiresAt(expiresAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
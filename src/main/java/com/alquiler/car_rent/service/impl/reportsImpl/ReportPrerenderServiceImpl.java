@@ -0,0 +1,197 @@
+package com.alquiler.car_rent.service.impl.reportsImpl;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
+import com.alquiler.car_rent.service.reportService.ReportPrerenderService;
+import com.alquiler.car_rent.service.reportService.ReportingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-renderiza fuera de hora punta los reportes estándar (período × tipo × formato) en disco local para que
+ * exportReport los sirva sin recalcular. Cada archivo guarda el rango de fechas y el ETag con el que se generó:
+ * solo se sirve si el ETag sigue coincidiendo, y solo se vuelve a renderizar si el rango cambió de día o
+ * recibió cambios de alquileres.
+ */
+@Service
+public class ReportPrerenderServiceImpl implements ReportPrerenderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportPrerenderServiceImpl.class);
+
+    private record Key(ReportingConstants.TimePeriod period,
+                       ReportingConstants.ReportType reportType,
+                       ReportingConstants.OutputFormat format) {
+    }
+
+    private record Entry(Path file, LocalDate renderedOn, LocalDate rangeStart, LocalDate rangeEnd,
+                         String eTag, boolean dirty) {
+
+        Entry markDirty() {
+            return new Entry(file, renderedOn, rangeStart, rangeEnd, eTag, true);
+        }
+    }
+
+    private final ReportingService reportingService;
+    private final boolean enabled;
+    private final List<ReportingConstants.TimePeriod> periods;
+    private final List<ReportingConstants.ReportType> reportTypes;
+    private final List<ReportingConstants.OutputFormat> formats;
+    private final Path directory;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public ReportPrerenderServiceImpl(ReportingService reportingService,
+                                      @Value("${reporting.prerender.enabled:false}") boolean enabled,
+                                      @Value("${reporting.prerender.periods:MONTHLY,QUARTERLY,ANNUAL}")
+                                      List<ReportingConstants.TimePeriod> periods,
+                                      @Value("${reporting.prerender.report-types:RENTAL_SUMMARY,VEHICLE_USAGE,REVENUE_ANALYSIS,CUSTOMER_ACTIVITY}")
+                                      List<ReportingConstants.ReportType> reportTypes,
+                                      @Value("${reporting.prerender.formats:PDF,EXCEL}")
+                                      List<ReportingConstants.OutputFormat> formats,
+                                      @Value("${reporting.prerender.dir:${java.io.tmpdir}/car-rent-prerendered}") Path directory) {
+        this.reportingService = reportingService;
+        this.enabled = enabled;
+        this.periods = List.copyOf(periods);
+        this.reportTypes = List.copyOf(reportTypes);
+        this.formats = formats.stream()
+                .filter(format -> format != ReportingConstants.OutputFormat.HTML)
+                .toList();
+        this.directory = directory;
+        if (enabled) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo crear el directorio de reportes pre-renderizados " + directory, e);
+            }
+        }
+    }
+
+    @Override
+    public Optional<Path> findPrerendered(ReportingConstants.OutputFormat format,
+                                          ReportingConstants.ReportType reportType,
+                                          ReportingConstants.TimePeriod period,
+                                          LocalDate startDate,
+                                          LocalDate endDate,
+                                          String eTag) {
+        // Con fechas personalizadas el rango no es el estándar del período
+        if (!enabled || startDate != null || endDate != null || eTag == null) {
+            return Optional.empty();
+        }
+        Entry entry = entries.get(new Key(period, reportType, format));
+        if (entry == null || !entry.renderedOn().equals(LocalDate.now()) || !entry.eTag().equals(eTag)
+                || !Files.exists(entry.file())) {
+            return Optional.empty();
+        }
+        logger.debug("Sirviendo reporte pre-renderizado [{} - {} - {}]", format, reportType, period);
+        return Optional.of(entry.file());
+    }
+
+    /**
+     * Pasada completa fuera de hora punta: al cambiar de día todos los rangos se desplazan y se renderizan de nuevo.
+     */
+    @Scheduled(cron = "${reporting.prerender.cron:0 0 5 * * *}")
+    public void prerenderAll() {
+        if (!enabled) {
+            return;
+        }
+        int rendered = refresh();
+        logger.info("Pre-renderizado de reportes estándar completado: {} reportes generados", rendered);
+    }
+
+    /**
+     * Pasada intradía: solo vuelve a renderizar lo marcado por cambios de alquileres.
+     */
+    @Scheduled(fixedDelayString = "${reporting.prerender.refresh-interval:PT15M}",
+            initialDelayString = "${reporting.prerender.refresh-interval:PT15M}")
+    public void refreshChanged() {
+        if (!enabled) {
+            return;
+        }
+        int rendered = refresh();
+        if (rendered > 0) {
+            logger.info("Actualizados {} reportes pre-renderizados tras cambios de alquileres", rendered);
+        }
+    }
+
+    @Override
+    public synchronized int refresh() {
+        LocalDate today = LocalDate.now();
+        int rendered = 0;
+        for (ReportingConstants.TimePeriod period : periods) {
+            for (ReportingConstants.ReportType reportType : reportTypes) {
+                for (ReportingConstants.OutputFormat format : formats) {
+                    Key key = new Key(period, reportType, format);
+                    Entry entry = entries.get(key);
+                    if (entry != null && entry.renderedOn().equals(today) && !entry.dirty()) {
+                        continue;
+                    }
+                    try {
+                        render(key, today);
+                        rendered++;
+                    } catch (Exception e) {
+                        // Se sigue con el resto; exportReport generará este en el momento
+                        entries.remove(key);
+                        logger.error("Error pre-renderizando el reporte [{} - {} - {}]: {}",
+                                format, reportType, period, e.getMessage(), e);
+                    }
+                }
+            }
+        }
+        return rendered;
+    }
+
+    private void render(Key key, LocalDate today) throws IOException {
+        // El ETag se toma antes de renderizar: si los datos cambian mientras tanto, el archivo no se servirá
+        String eTag = reportingService.getReportETag(key.format(), key.reportType(), key.period(), null, null);
+        Path file = directory.resolve(String.format("%s_%s.%s", key.period(), key.reportType(), key.format()).toLowerCase());
+        Path partFile = file.resolveSibling(file.getFileName() + ".part");
+
+        try (OutputStream outputStream = Files.newOutputStream(partFile)) {
+            if (key.format() == ReportingConstants.OutputFormat.PDF) {
+                Map<String, Object> reportData = reportingService.generateReportData(key.period(), null, null);
+                reportingService.writePdfReport(key.reportType(), reportData, outputStream);
+            } else if (key.format() == ReportingConstants.OutputFormat.EXCEL) {
+                Map<String, Object> reportData = reportingService.generateReportData(key.period(), null, null);
+                reportingService.writeExcelReport(key.reportType(), reportData, outputStream);
+            } else {
+                outputStream.write(reportingService.generateReport(key.format(), key.reportType(), key.period(), null, null));
+            }
+        }
+        // Quien esté enviando la versión anterior la termina de leer; las nuevas peticiones ven la nueva
+        Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        LocalDate rangeStart = key.period() == ReportingConstants.TimePeriod.ALL_TIME
+                ? LocalDate.MIN
+                : today.minus(key.period().getValue(), key.period().getUnit());
+        LocalDate rangeEnd = key.period() == ReportingConstants.TimePeriod.ALL_TIME ? LocalDate.MAX : today;
+        entries.put(key, new Entry(file, today, rangeStart, rangeEnd, eTag, false));
+    }
+
+    /**
+     * Marca para la siguiente pasada los reportes cuyo rango se solapa con el alquiler modificado.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        entries.replaceAll((key, entry) -> !entry.dirty()
+                && !event.startDate().isAfter(entry.rangeEnd())
+                && !event.endDate().isBefore(entry.rangeStart())
+                ? entry.markDirty()
+                : entry);
+    }
+}
@@ -0,0 +1,134 @@
+package com.alquiler.car_rent.service.impl.reportsImpl;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants.ReportSection;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta las secciones independientes de un reporte. En modo paralelo (opt-in) cada sección corre en su
+ * propio hilo virtual, con un máximo de secciones simultáneas compartido por todos los reportes para no agotar
+ * el pool de conexiones, y un plazo por reporte: las secciones que no terminan a tiempo o fallan se omiten y
+ * se informan en "incompleteSections" con "partial" = true.
+ * <p>
+ * Cancelar el hilo no detiene una consulta JDBC, así que cada sección corre en una transacción de solo lectura
+ * cuyo timeout es lo que queda del plazo (más un segundo de margen): Spring lo aplica como timeout de consulta
+ * y la base de datos la aborta, liberando la conexión y el permiso.
+ */
+@Component
+public class ReportSectionExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportSectionExecutor.class);
+
+    /**
+     * Secciones que resuelve una tarea y el cálculo que devuelve sus claves del reporte.
+     */
+    public record SectionTask(Set<ReportSection> sections, Supplier<Map<String, Object>> loader) {
+    }
+
+    private final PlatformTransactionManager transactionManager;
+    private final boolean parallel;
+    private final Duration deadline;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    public ReportSectionExecutor(PlatformTransactionManager transactionManager,
+                                 @Value("${reporting.parallel.enabled:false}") boolean parallel,
+                                 @Value("${reporting.parallel.max-concurrency:4}") int maxConcurrency,
+                                 @Value("${reporting.parallel.deadline:PT10S}") Duration deadline) {
+        this.transactionManager = transactionManager;
+        this.parallel = parallel;
+        this.deadline = deadline;
+        this.permits = new Semaphore(Math.max(1, maxConcurrency));
+        this.executor = parallel ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public Map<String, Object> execute(List<SectionTask> tasks) {
+        Map<String, Object> reportData = new HashMap<>();
+        if (!parallel || tasks.size() < 2) {
+            tasks.forEach(task -> reportData.putAll(task.loader().get()));
+            return reportData;
+        }
+
+        long startedAt = System.nanoTime();
+        long deadlineNanos = startedAt + deadline.toNanos();
+        Map<SectionTask, Future<Map<String, Object>>> futures = new LinkedHashMap<>();
+        for (SectionTask task : tasks) {
+            futures.put(task, executor.submit(() -> runBounded(task, deadlineNanos)));
+        }
+
+        List<String> incomplete = new ArrayList<>();
+        for (Map.Entry<SectionTask, Future<Map<String, Object>>> entry : futures.entrySet()) {
+            SectionTask task = entry.getKey();
+            Future<Map<String, Object>> future = entry.getValue();
+            try {
+                reportData.putAll(future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                logger.warn("Secciones {} sin terminar tras el plazo de {}; se omiten del reporte", task.sections(), deadline);
+                task.sections().forEach(section -> incomplete.add(section.name()));
+            } catch (ExecutionException e) {
+                logger.error("Error calculando las secciones {} del reporte", task.sections(), e.getCause());
+                task.sections().forEach(section -> incomplete.add(section.name()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                task.sections().forEach(section -> incomplete.add(section.name()));
+            }
+        }
+
+        if (!incomplete.isEmpty()) {
+            reportData.put("partial", true);
+            reportData.put("incompleteSections", incomplete);
+        }
+        logger.debug("{} secciones del reporte calculadas en paralelo en {} ms", tasks.size(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return reportData;
+    }
+
+    private Map<String, Object> runBounded(SectionTask task, long deadlineNanos)
+            throws InterruptedException, TimeoutException {
+        // Una sección que no consigue permiso antes del plazo ya no llegaría a tiempo
+        if (!permits.tryAcquire(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("Sin turno de consulta antes del plazo del reporte");
+        }
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.setTimeout(remainingSeconds(deadlineNanos));
+            return transaction.execute(status -> task.loader().get());
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Segundos que quedan hasta el plazo más uno. Hibernate redondea hacia abajo el tiempo restante de la
+     * transacción y rechaza las sentencias con menos de un segundo; sin ese margen, una consulta lanzada en el
+     * último segundo del plazo fallaría en lugar de acotarse.
+     */
+    private static int remainingSeconds(long deadlineNanos) {
+        long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+        return (int) Math.ceilDiv(remaining, TimeUnit.SECONDS.toNanos(1)) + 1;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
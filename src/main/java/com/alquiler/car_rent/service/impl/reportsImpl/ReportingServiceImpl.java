@@ -1,12 +1,15 @@
 package com.alquiler.car_rent.service.impl.reportsImpl;
 
 import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.constants.ReportingConstants.ReportSection;
 import com.alquiler.car_rent.commons.entities.Vehicle;
 import com.alquiler.car_rent.service.reportService.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -21,6 +24,7 @@ public class ReportingServiceImpl implements ReportingService {
     private final JsonReportService jsonReportService;
     private final ChartReportService chartReportService;
     private final MetricsService metricsService;
+    private final ReportCacheService reportCacheService;
 
     public ReportingServiceImpl(
             ReportDataService reportDataService,
@@ -28,7 +32,8 @@ public class ReportingServiceImpl implements ReportingService {
             ExcelReportService excelReportService,
             JsonReportService jsonReportService,
             ChartReportService chartReportService,
-            MetricsService metricsService
+            MetricsService metricsService,
+            ReportCacheService reportCacheService
     ) {
         this.reportDataService = reportDataService;
         this.pdfReportService = pdfReportService;
@@ -36,20 +41,43 @@ public class ReportingServiceImpl implements ReportingService {
         this.jsonReportService = jsonReportService;
         this.chartReportService = chartReportService;
         this.metricsService = metricsService;
+        this.reportCacheService = reportCacheService;
     }
 
     public Map<String, Object> generateReportData(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate) {
+        return generateReportData(period, startDate, endDate, ReportSection.all());
+    }
+
+    @Override
+    public Map<String, Object> generateReportData(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate,
+                                                  Set<ReportSection> sections) {
+        ReportCacheService.Key key = cacheKey(period, startDate, endDate, null, sections);
+        // Los generadores solo leen el mapa; se comparte como inmutable entre las peticiones que aciertan en el cache
+        Map<String, Object> reportData = reportCacheService.get(key, () -> Collections.unmodifiableMap(
+                reportDataService.generateReportData(period, key.startDate(), key.endDate(), key.sections())));
+        if (reportData.containsKey("partial")) {
+            // Un reporte incompleto por plazo vencido no debe servirse durante todo el TTL
+            reportCacheService.evict(key);
+        }
+        return reportData;
+    }
+
+    private ReportCacheService.Key cacheKey(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate,
+                                            ReportingConstants.ReportType reportType, Set<ReportSection> sections) {
         LocalDate resolvedStart;
         LocalDate resolvedEnd;
 
         if (period == ReportingConstants.TimePeriod.ALL_TIME) {
             resolvedStart = Optional.ofNullable(startDate).orElse(LocalDate.MIN); // O una fecha muy antigua
             resolvedEnd = Optional.ofNullable(endDate).orElse(LocalDate.MAX);   // O una fecha muy futura
-        } else {
+        } else if (period != null) {
             resolvedStart = Optional.ofNullable(startDate).orElse(LocalDate.now().minus(period.getValue(), period.getUnit()));
             resolvedEnd = Optional.ofNullable(endDate).orElse(LocalDate.now());
+        } else {
+            resolvedStart = Optional.ofNullable(startDate).orElse(LocalDate.now().minusMonths(1));
+            resolvedEnd = Optional.ofNullable(endDate).orElse(LocalDate.now());
         }
-        return reportDataService.generateReportData(period, resolvedStart, resolvedEnd);
+        return new ReportCacheService.Key(period, resolvedStart, resolvedEnd, reportType, Set.copyOf(sections));
     }
 
 
@@ -61,6 +89,11 @@ public class ReportingServiceImpl implements ReportingService {
                                  LocalDate endDate) {
         try {
             Map<String, Object> reportData = generateReportData(period, startDate, endDate);
+            if (format == ReportingConstants.OutputFormat.JSON) {
+                // Los endpoints de métricas piden el JSON completo en cada sondeo del dashboard
+                return reportCacheService.get(cacheKey(period, startDate, endDate, reportType, ReportSection.all()),
+                        () -> jsonReportService.generateReport(reportData, reportType, format));
+            }
             return switch (format) {
                 case PDF -> pdfReportService.generateReport(reportData, reportType, format);
                 case EXCEL -> excelReportService.generateReport(reportData, reportType, format);
@@ -75,9 +108,33 @@ public class ReportingServiceImpl implements ReportingService {
         }
     }
 
+    @Override
+    public String getReportETag(ReportingConstants.OutputFormat format,
+                                ReportingConstants.ReportType reportType,
+                                ReportingConstants.TimePeriod period,
+                                LocalDate startDate,
+                                LocalDate endDate) {
+        Map<String, Object> reportData = generateReportData(period, startDate, endDate);
+        String hash = switch (format) {
+            case CHART_PNG, CHART_SVG -> chartReportService.contentHash(reportData, reportType, format);
+            default -> ReportDigests.sha256(format, reportType, LocalDate.now(), reportData);
+        };
+        return "\"" + hash + "\"";
+    }
+
+    @Override
+    public void writePdfReport(ReportingConstants.ReportType reportType, Map<String, Object> reportData, OutputStream outputStream) {
+        pdfReportService.writeReport(reportData, reportType, outputStream);
+    }
+
+    @Override
+    public void writeExcelReport(ReportingConstants.ReportType reportType, Map<String, Object> reportData, OutputStream outputStream) {
+        excelReportService.writeReport(reportData, reportType, outputStream);
+    }
+
     @Override
     public List<Map<String, Object>> getRentalTrends(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate) {
-        return reportDataService.generateReportData(period, startDate, endDate)
+        return generateReportData(period, startDate, endDate, EnumSet.of(ReportSection.RENTAL_TRENDS))
                 .getOrDefault("rentalTrends", Collections.emptyList()) instanceof List list ? list : List.of();
     }
 
@@ -91,58 +148,71 @@ public class ReportingServiceImpl implements ReportingService {
         return excelReportService.generateGenericTableExcel(headers, data);
     }
 
+    @Override
+    public void writeGenericTableExcel(List<String> headers, Iterator<List<String>> rows, OutputStream outputStream) throws IOException {
+        excelReportService.writeGenericTableExcel(headers, rows, outputStream);
+    }
+
     @Override
     public long getTotalRentals(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate);
+        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate,
+                EnumSet.of(ReportSection.TOTALS));
         return (long) reportData.getOrDefault("totalRentals", 0L);
     }
 
     @Override
     public double getTotalRevenue(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate);
+        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate,
+                EnumSet.of(ReportSection.TOTALS));
         return (double) reportData.getOrDefault("totalRevenue", 0.0);
     }
 
     @Override
     public long getUniqueVehiclesRented(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate);
-        List<Map<String, Object>> vehicleUsage = (List<Map<String, Object>>) reportData.getOrDefault("vehicleUsage", Collections.emptyList());
-        return vehicleUsage.size();
+        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate,
+                EnumSet.of(ReportSection.UNIQUE_VEHICLES));
+        return ((Number) reportData.getOrDefault("uniqueVehicles", 0L)).longValue();
     }
 
     @Override
     public Map<String, Object> getMostRentedVehicle(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate);
+        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate,
+                EnumSet.of(ReportSection.MOST_RENTED_VEHICLE));
         return (Map<String, Object>) reportData.getOrDefault("mostRentedVehicle", Collections.emptyMap());
     }
 
     @Override
     public long getNewCustomersCount(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate);
+        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate,
+                EnumSet.of(ReportSection.NEW_CUSTOMERS));
         return (long) reportData.getOrDefault("newCustomers", 0L);
     }
 
     @Override
     public Map<com.alquiler.car_rent.commons.enums.VehicleType, Long> getRentalsByVehicleType(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate);
+        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate,
+                EnumSet.of(ReportSection.VEHICLE_TYPE_BREAKDOWN));
         return (Map<com.alquiler.car_rent.commons.enums.VehicleType, Long>) reportData.getOrDefault("rentalsByVehicleType", Collections.emptyMap());
     }
 
     @Override
     public Map<com.alquiler.car_rent.commons.enums.VehicleType, Double> getRevenueByVehicleType(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate);
+        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate,
+                EnumSet.of(ReportSection.VEHICLE_TYPE_BREAKDOWN));
         return (Map<com.alquiler.car_rent.commons.enums.VehicleType, Double>) reportData.getOrDefault("revenueByVehicleType", Collections.emptyMap());
     }
 
     @Override
     public Map<com.alquiler.car_rent.commons.enums.PricingTier, Long> getRentalsByPricingTier(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate);
+        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate,
+                EnumSet.of(ReportSection.PRICING_TIER_BREAKDOWN));
         return (Map<com.alquiler.car_rent.commons.enums.PricingTier, Long>) reportData.getOrDefault("rentalsByPricingTier", Collections.emptyMap());
     }
 
     @Override
     public Map<com.alquiler.car_rent.commons.enums.PricingTier, Double> getRevenueByPricingTier(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate);
+        Map<String, Object> reportData = generateReportData(ReportingConstants.TimePeriod.ALL_TIME, startDate, endDate,
+                EnumSet.of(ReportSection.PRICING_TIER_BREAKDOWN));
         return (Map<com.alquiler.car_rent.commons.enums.PricingTier, Double>) reportData.getOrDefault("revenueByPricingTier", Collections.emptyMap());
     }
 }
@@ -1,6 +1,8 @@
 package com.alquiler.car_rent.service.provider;
 
+import com.alquiler.car_rent.commons.dtos.SmsBatchResult;
 import com.alquiler.car_rent.config.TwilioConfigProperties;
+import com.alquiler.car_rent.exceptions.SmsDeliveryException;
 import com.alquiler.car_rent.service.SmsProvider;
 import com.twilio.Twilio;
 import com.twilio.exception.ApiException;
@@ -11,6 +13,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @Service("twilio")
 public class TwilioSmsProvider implements SmsProvider {
 
@@ -39,8 +46,9 @@ public class TwilioSmsProvider implements SmsProvider {
     @Override
     public void sendSms(String to, String text) {
         if (!twilioConfig.isEnabled()) {
-            LOGGER.debug("Intento de envío de SMS con Twilio mientras el servicio está deshabilitado. Ignorando.");
-            return;
+            LOGGER.debug("Intento de envío de SMS con Twilio mientras el servicio está deshabilitado.");
+            // Se rechaza para que el enrutador pase al siguiente proveedor en lugar de darlo por enviado
+            throw new SmsDeliveryException("Twilio está deshabilitado por configuración");
         }
 
         try {
@@ -52,7 +60,52 @@ public class TwilioSmsProvider implements SmsProvider {
             LOGGER.info("SMS enviado exitosamente con Twilio al número: {}", to);
         } catch (ApiException e) {
             LOGGER.error("Error al enviar SMS con Twilio al número {}: {} - Código de error: {}", to, e.getMessage(), e.getCode(), e);
-            // Aquí se podría lanzar una excepción personalizada
+            // Se propaga para que la bandeja de salida reintente el envío
+            throw new SmsDeliveryException("Twilio rechazó el SMS: " + e.getMessage() + " (código " + e.getCode() + ")", e);
+        }
+    }
+
+    /**
+     * Twilio no ofrece un envío masivo en la API de mensajes: se usan las llamadas asíncronas del SDK,
+     * que comparten su pool HTTP, en tandas de {@code maxParallelism} solicitudes en vuelo.
+     */
+    @Override
+    public List<SmsBatchResult> sendBatch(List<String> recipients, String text, int maxParallelism) {
+        List<SmsBatchResult> results = new ArrayList<>(recipients.size());
+        if (!twilioConfig.isEnabled()) {
+            recipients.forEach(to -> results.add(SmsBatchResult.failed(to, getProviderName(), "Twilio está deshabilitado por configuración")));
+            return results;
+        }
+
+        int window = Math.max(1, maxParallelism);
+        for (int from = 0; from < recipients.size(); from += window) {
+            List<String> slice = recipients.subList(from, Math.min(from + window, recipients.size()));
+            List<CompletableFuture<Message>> inFlight = slice.stream().map(to -> submit(to, text)).toList();
+            for (int i = 0; i < slice.size(); i++) {
+                String to = slice.get(i);
+                try {
+                    inFlight.get(i).join();
+                    results.add(SmsBatchResult.sent(to, getProviderName()));
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    LOGGER.error("Error al enviar SMS con Twilio al número {}: {}", to, cause.getMessage());
+                    results.add(SmsBatchResult.failed(to, getProviderName(), "Twilio rechazó el SMS: " + cause.getMessage()));
+                }
+            }
+        }
+        LOGGER.info("Lote de SMS procesado con Twilio: {} destinatarios", recipients.size());
+        return results;
+    }
+
+    private CompletableFuture<Message> submit(String to, String text) {
+        try {
+            return Message.creator(
+                new PhoneNumber(to),
+                new PhoneNumber(twilioConfig.getPhoneNumber()),
+                text
+            ).createAsync();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
@@ -1,9 +1,11 @@
 package com.alquiler.car_rent.service.provider;
 
 import com.alquiler.car_rent.config.VonageConfigProperties;
+import com.alquiler.car_rent.exceptions.SmsDeliveryException;
 import com.alquiler.car_rent.service.SmsProvider;
 import com.vonage.client.VonageClient;
 import com.vonage.client.sms.MessageStatus;
+import com.vonage.client.sms.SmsSubmissionResponseMessage;
 import com.vonage.client.sms.SmsSubmissionResponse;
 import com.vonage.client.sms.messages.TextMessage;
 import jakarta.annotation.PostConstruct;
@@ -11,6 +13,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+/**
+ * La API de SMS de Vonage acepta un destinatario por solicitud, así que los lotes usan el reparto
+ * concurrente por defecto de {@link SmsProvider#sendBatch}.
+ */
 @Service("vonage")
 public class VonageSmsProvider implements SmsProvider {
 
@@ -40,9 +46,10 @@ public class VonageSmsProvider implements SmsProvider {
     public void sendSms(String to, String message) {
         if (client == null) {
             LOGGER.error("No se puede enviar SMS con Vonage porque el cliente no está inicializado.");
-            return;
+            throw new SmsDeliveryException("El cliente de Vonage no está inicializado");
         }
 
+        SmsSubmissionResponse response;
         try {
             TextMessage textMessage = new TextMessage(
                 vonageConfig.getFromNumber(), // Alphanumeric Sender ID
@@ -50,17 +57,20 @@ public class VonageSmsProvider implements SmsProvider {
                 message
             );
 
-            SmsSubmissionResponse response = client.getSmsClient().submitMessage(textMessage);
-
-            if (response.getMessages().get(0).getStatus() == MessageStatus.OK) {
-                LOGGER.info("SMS enviado exitosamente con Vonage al número: {}", to);
-            } else {
-                LOGGER.error("Error al enviar SMS con Vonage. Estado: {} - Detalle: {}", 
-                    response.getMessages().get(0).getStatus(), 
-                    response.getMessages().get(0).getErrorText());
-            }
+            response = client.getSmsClient().submitMessage(textMessage);
         } catch (Exception e) {
             LOGGER.error("Excepción al enviar SMS con Vonage al número {}: {}", to, e.getMessage(), e);
+            throw new SmsDeliveryException("Vonage no aceptó el SMS: " + e.getMessage(), e);
+        }
+
+        SmsSubmissionResponseMessage result = response.getMessages().get(0);
+        if (result.getStatus() == MessageStatus.OK) {
+            LOGGER.info("SMS enviado exitosamente con Vonage al número: {}", to);
+        } else {
+            LOGGER.error("Error al enviar SMS con Vonage. Estado: {} - Detalle: {}", 
+                result.getStatus(), 
+                result.getErrorText());
+            throw new SmsDeliveryException("Vonage rechazó el SMS: " + result.getStatus() + " - " + result.getErrorText());
         }
     }
 
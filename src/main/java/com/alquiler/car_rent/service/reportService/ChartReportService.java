@@ -14,4 +14,11 @@ public interface ChartReportService extends ReportFormatService {
      * Genera un gráfico en formato SVG
      */
     byte[] generateChartAsSvg(Map<String, Object> data, ReportingConstants.ReportType reportType);
+
+    /**
+     * Huella del contenido que dibuja el gráfico (datos usados + tipo + formato + tamaño). Sirve como clave del
+     * cache de gráficos renderizados y como ETag: si no cambia, el gráfico tampoco.
+     */
+    String contentHash(Map<String, Object> data, ReportingConstants.ReportType reportType,
+                       ReportingConstants.OutputFormat format);
 }
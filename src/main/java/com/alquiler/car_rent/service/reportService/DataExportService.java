@@ -0,0 +1,27 @@
+package com.alquiler.car_rent.service.reportService;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+
+public interface DataExportService {
+
+    /**
+     * Escribe los alquileres cuya fecha de inicio cae en [startDate, endDate] fila a fila sobre el stream,
+     * con memoria constante sin importar el tamaño del rango.
+     *
+     * @param gzip comprime la salida con gzip
+     * @return número de alquileres exportados
+     */
+    long exportRentals(LocalDate startDate, LocalDate endDate, ReportingConstants.ExportFormat format,
+                       boolean gzip, OutputStream outputStream) throws IOException;
+
+    /**
+     * Escribe una tabla genérica como CSV (RFC 4180) directamente sobre el stream.
+     */
+    void writeGenericTableCsv(List<String> headers, Iterator<List<String>> rows, OutputStream outputStream) throws IOException;
+}
@@ -1,9 +1,27 @@
 package com.alquiler.car_rent.service.reportService;
 
 
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 // ✅ Final recomendado
 public interface ExcelReportService extends ReportFormatService {
+    /**
+     * Escribe el libro del reporte directamente en el stream con SXSSF, sin armarlo antes en un arreglo de bytes;
+     * el stream no se cierra.
+     */
+    void writeReport(Map<String, Object> data, ReportingConstants.ReportType reportType, OutputStream outputStream);
+
     byte[] generateGenericTableExcel(List<String> headers, List<List<String>> data);
+
+    /**
+     * Escribe la tabla directamente en el stream con memoria acotada: solo la ventana de filas de SXSSF
+     * permanece en el heap, sin importar cuántas filas entregue el iterador.
+     */
+    void writeGenericTableExcel(List<String> headers, Iterator<List<String>> rows, OutputStream outputStream) throws IOException;
 }
@@ -3,6 +3,7 @@ package com.alquiler.car_rent.service.reportService;
 import com.alquiler.car_rent.commons.constants.ReportingConstants;
 import com.itextpdf.text.Document;
 
+import java.io.OutputStream;
 import java.util.Map;
 
 public interface PdfReportService extends ReportFormatService {
@@ -10,6 +11,11 @@ public interface PdfReportService extends ReportFormatService {
 
     void addReportContent(Document doc, ReportingConstants.ReportType type, Map<String, Object> data);
 
+    /**
+     * Escribe el PDF directamente en el stream a medida que se completan las páginas; el stream no se cierra.
+     */
+    void writeReport(Map<String, Object> data, ReportingConstants.ReportType reportType, OutputStream outputStream);
+
     @Override
     byte[] generateReport(Map<String, Object> data, ReportingConstants.ReportType reportType, ReportingConstants.OutputFormat format);
 }
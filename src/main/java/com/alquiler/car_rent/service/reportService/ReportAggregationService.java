@@ -0,0 +1,38 @@
+package com.alquiler.car_rent.service.reportService;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants.ReportSection;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+public interface ReportAggregationService {
+
+    /**
+     * Calcula en una sola pasada sobre los alquileres del rango las secciones pedidas. Para el reporte completo
+     * se usa con las secciones que no cubren los agregados diarios (ver {@link #rollupSections}).
+     *
+     * @param start    Inicio del rango (inclusivo)
+     * @param end      Fin del rango
+     * @param sections Secciones derivadas de alquileres a calcular
+     * @return Mapa con las claves de las secciones pedidas
+     */
+    Map<String, Object> aggregateRentalMetrics(LocalDateTime start, LocalDateTime end, Set<ReportSection> sections);
+
+    /**
+     * Secciones que {@link #aggregateSections} sirve desde los agregados diarios para el rango; vacío si los
+     * agregados están desactivados o el rango no empieza y termina a medianoche.
+     */
+    Set<ReportSection> rollupSections(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Calcula solo las secciones pedidas: las que cubren los agregados diarios salen de ellos y el resto con una
+     * consulta agregada por sección en base de datos.
+     *
+     * @param start    Inicio del rango (inclusivo)
+     * @param end      Fin del rango
+     * @param sections Secciones derivadas de alquileres a calcular
+     * @return Mapa con las claves de las secciones pedidas
+     */
+    Map<String, Object> aggregateSections(LocalDateTime start, LocalDateTime end, Set<ReportSection> sections);
+}
@@ -0,0 +1,38 @@
+package com.alquiler.car_rent.service.reportService;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.function.Supplier;
+
+public interface ReportCacheService {
+
+    /**
+     * Clave de una entrada del cache. Un reportType nulo identifica los datos del reporte sin renderizar;
+     * sections distingue el reporte completo de las consultas de métricas sueltas.
+     */
+    record Key(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate,
+               ReportingConstants.ReportType reportType, Set<ReportingConstants.ReportSection> sections) {
+
+        public boolean overlaps(LocalDate from, LocalDate to) {
+            return !startDate.isAfter(to) && !endDate.isBefore(from);
+        }
+    }
+
+    /**
+     * Devuelve el valor cacheado para la clave o lo calcula con el loader y lo guarda.
+     */
+    <T> T get(Key key, Supplier<T> loader);
+
+    /**
+     * Elimina las entradas cuyo rango de fechas se solapa con [from, to].
+     *
+     * @return número de entradas eliminadas
+     */
+    int evictOverlapping(LocalDate from, LocalDate to);
+
+    void evict(Key key);
+
+    void evictAll();
+}
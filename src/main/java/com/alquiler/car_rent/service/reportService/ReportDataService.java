@@ -7,11 +7,18 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface ReportDataService {
 
     Map<String, Object> generateReportData(ReportingConstants.TimePeriod timePeriod, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Genera solo las secciones pedidas del reporte. El mapa incluye siempre period, startDate y endDate.
+     */
+    Map<String, Object> generateReportData(ReportingConstants.TimePeriod timePeriod, LocalDate startDate, LocalDate endDate,
+                                           Set<ReportingConstants.ReportSection> sections);
+
     /**
      * Obtiene los alquileres en un rango de fechas
      */
@@ -0,0 +1,36 @@
+package com.alquiler.car_rent.service.reportService;
+
+import com.alquiler.car_rent.commons.dtos.ReportJobDto;
+import com.alquiler.car_rent.commons.dtos.ReportJobRequest;
+
+import java.nio.file.Path;
+
+public interface ReportJobService {
+
+    /**
+     * Encola la generación de un reporte y devuelve de inmediato el trabajo creado.
+     *
+     * @param request Formato, tipo, período, fechas y prioridad del reporte
+     * @return El trabajo en estado QUEUED
+     * @throws com.alquiler.car_rent.exceptions.TooManyRequestsException si la cola está llena
+     */
+    ReportJobDto submit(ReportJobRequest request);
+
+    /**
+     * Obtiene el estado y el avance de un trabajo.
+     *
+     * @param jobId Identificador del trabajo
+     * @return El estado actual del trabajo
+     * @throws com.alquiler.car_rent.exceptions.NotFoundException si no existe o su resultado ya expiró
+     */
+    ReportJobDto getJob(String jobId);
+
+    /**
+     * Obtiene el archivo generado por un trabajo terminado.
+     *
+     * @param jobId Identificador del trabajo
+     * @return Ruta del archivo en el directorio de resultados
+     * @throws com.alquiler.car_rent.exceptions.BadRequestException si el trabajo aún no terminó o falló
+     */
+    Path getResultFile(String jobId);
+}
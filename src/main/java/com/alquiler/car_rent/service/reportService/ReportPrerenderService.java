@@ -0,0 +1,28 @@
+package com.alquiler.car_rent.service.reportService;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface ReportPrerenderService {
+
+    /**
+     * Busca una versión pre-renderizada del reporte. Solo aplica a los períodos estándar sin fechas
+     * personalizadas, renderizados hoy y cuyo contenido sigue siendo el actual.
+     *
+     * @param eTag ETag actual del reporte (ver {@link ReportingService#getReportETag}); debe coincidir con el del archivo
+     * @return El archivo listo para enviar, o vacío si hay que generarlo en el momento
+     */
+    Optional<Path> findPrerendered(ReportingConstants.OutputFormat format, ReportingConstants.ReportType reportType,
+                                   ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate,
+                                   String eTag);
+
+    /**
+     * Renderiza las combinaciones configuradas que faltan, son de un día anterior o tuvieron cambios de alquileres.
+     *
+     * @return Número de reportes renderizados
+     */
+    int refresh();
+}
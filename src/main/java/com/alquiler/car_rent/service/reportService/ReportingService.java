@@ -5,9 +5,13 @@ import com.alquiler.car_rent.commons.entities.Vehicle;
 import com.alquiler.car_rent.commons.enums.VehicleType;
 import com.alquiler.car_rent.commons.enums.PricingTier;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface ReportingService {
 
@@ -22,6 +26,18 @@ public interface ReportingService {
      */
     Map<String, Object> generateReportData(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Genera solo las secciones pedidas del reporte; lo usan los endpoints de métricas individuales
+     *
+     * @param period    El período de tiempo
+     * @param startDate Fecha de inicio opcional
+     * @param endDate   Fecha final opcional
+     * @param sections  Secciones a calcular
+     * @return Mapa con period, startDate, endDate y las claves de las secciones pedidas
+     */
+    Map<String, Object> generateReportData(ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate,
+                                           Set<ReportingConstants.ReportSection> sections);
+
     /**
      * Genera un reporte en el formato solicitado
      *
@@ -35,6 +51,36 @@ public interface ReportingService {
     byte[] generateReport(ReportingConstants.OutputFormat format, ReportingConstants.ReportType reportType, ReportingConstants.TimePeriod period,
                           LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Calcula el ETag del reporte a partir de sus datos, sin renderizarlo. Para gráficos es la huella del
+     * contenido dibujado; para el resto incluye además la fecha del día, que aparece impresa en el documento.
+     *
+     * @return El ETag entre comillas, listo para la cabecera HTTP
+     */
+    String getReportETag(ReportingConstants.OutputFormat format, ReportingConstants.ReportType reportType,
+                         ReportingConstants.TimePeriod period, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Escribe el reporte PDF directamente en el stream, página a página, a partir de datos ya calculados.
+     * Los datos se obtienen antes con {@link #generateReportData} para que un error salga como respuesta normal
+     * y no a mitad de la descarga.
+     *
+     * @param reportType   El tipo de reporte
+     * @param reportData   Datos del reporte
+     * @param outputStream Stream de salida (normalmente el de la respuesta HTTP)
+     */
+    void writePdfReport(ReportingConstants.ReportType reportType, Map<String, Object> reportData, OutputStream outputStream);
+
+    /**
+     * Escribe el reporte Excel directamente en el stream a partir de datos ya calculados, igual que
+     * {@link #writePdfReport}.
+     *
+     * @param reportType   El tipo de reporte
+     * @param reportData   Datos del reporte
+     * @param outputStream Stream de salida (la respuesta HTTP o el archivo del trabajo)
+     */
+    void writeExcelReport(ReportingConstants.ReportType reportType, Map<String, Object> reportData, OutputStream outputStream);
+
     /**
      * Obtiene el total de alquileres para el período especificado.
      *
@@ -100,6 +146,15 @@ public interface ReportingService {
      */
     byte[] generateGenericTableExcel(List<String> headers, List<List<String>> data);
 
+    /**
+     * Variante en streaming de {@link #generateGenericTableExcel}: escribe el Excel directamente en la respuesta.
+     *
+     * @param headers      Encabezados de las columnas
+     * @param rows         Filas de datos, consumidas una a una
+     * @param outputStream Stream de salida (normalmente el de la respuesta HTTP)
+     */
+    void writeGenericTableExcel(List<String> headers, Iterator<List<String>> rows, OutputStream outputStream) throws IOException;
+
     Map<VehicleType, Long> getRentalsByVehicleType(LocalDate startDate, LocalDate endDate);
 
     Map<VehicleType, Double> getRevenueByVehicleType(LocalDate startDate, LocalDate endDate);
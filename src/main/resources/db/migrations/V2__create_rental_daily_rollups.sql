@@ -0,0 +1,38 @@
+-- V2: Tabla de agregados diarios de alquileres para los reportes por período.
+-- El tipo y el nivel ausentes se guardan como 'NONE' y no como NULL: en MySQL las columnas NULL no cuentan para
+-- la clave única y dos altas simultáneas crearían dos buckets iguales.
+
+CREATE TABLE IF NOT EXISTS rental_daily_rollups (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    bucket_date DATE NOT NULL,
+    vehicle_type VARCHAR(255) NOT NULL,
+    pricing_tier VARCHAR(255) NOT NULL,
+    rental_status VARCHAR(255) NOT NULL,
+    rental_count BIGINT NOT NULL,
+    revenue DECIMAL(19, 2) NOT NULL,
+    rental_days BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_rental_daily_rollup UNIQUE (bucket_date, vehicle_type, pricing_tier, rental_status)
+);
+
+-- Carga inicial a partir de los alquileres existentes (el job de reconstrucción corrige cualquier desvío)
+INSERT INTO rental_daily_rollups (bucket_date, vehicle_type, pricing_tier, rental_status, rental_count, revenue, rental_days)
+SELECT DATE(r.start_date),
+       COALESCE(v.vehicle_type, 'NONE'),
+       COALESCE(r.chosen_pricing_tier, 'NONE'),
+       r.rental_status,
+       COUNT(*),
+       COALESCE(SUM(r.total_price), 0),
+       COALESCE(SUM(TIMESTAMPDIFF(DAY, r.start_date, r.end_date)), 0)
+FROM rentals r
+JOIN vehicles v ON v.id = r.vehicle_id
+WHERE r.start_date IS NOT NULL AND r.rental_status IS NOT NULL
+GROUP BY DATE(r.start_date), COALESCE(v.vehicle_type, 'NONE'), COALESCE(r.chosen_pricing_tier, 'NONE'), r.rental_status;
+
+-- Fila única que coordina incrementos (bloqueo compartido) y reconstrucción (bloqueo exclusivo)
+CREATE TABLE IF NOT EXISTS rental_rollup_lock (
+    id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO rental_rollup_lock (id) VALUES (1);
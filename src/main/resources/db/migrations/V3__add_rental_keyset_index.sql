@@ -0,0 +1,3 @@
+-- V3: Índice para la paginación por clave (keyset) de alquileres ordenados por (start_date, id).
+
+CREATE INDEX idx_rental_start_id ON rentals(start_date, id);
@@ -0,0 +1,16 @@
+-- V4: Indices para los filtros y el orden de los listados paginados.
+
+-- Alquileres por cliente o vehiculo ordenados por fecha de inicio
+CREATE INDEX idx_rental_customer_start ON rentals(customer_id, start_date);
+CREATE INDEX idx_rental_vehicle_start ON rentals(vehicle_id, start_date);
+
+-- Filtros de vehiculos
+CREATE INDEX idx_vehicle_status ON vehicles(status);
+CREATE INDEX idx_vehicle_brand ON vehicles(brand);
+
+-- Filtros de clientes (el nombre se busca por prefijo)
+CREATE INDEX idx_customer_status ON customers(customer_status);
+CREATE INDEX idx_customer_name ON customers(name);
+
+-- Filtro de usuarios por rol
+CREATE INDEX idx_user_role ON user_entity(role);
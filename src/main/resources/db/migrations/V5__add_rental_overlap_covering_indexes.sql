@@ -0,0 +1,12 @@
+-- V5: Indices de cobertura para el predicado de solapamiento de los reportes
+-- (rental_status IN (...) AND end_date >= :start AND start_date <= :end).
+
+-- Con la lista IN de estados el índice se recorre como un rango de end_date por cada estado, que es lo
+-- selectivo en los rangos recientes (último mes, trimestre). Incluye las columnas que leen los reportes
+-- para resolverlos sin ir a la tabla, y también sirve al job de expiración (estado + end_date).
+CREATE INDEX idx_rental_status_end_cover ON rentals(rental_status, end_date, start_date, vehicle_id, customer_id, total_price, chosen_pricing_tier);
+DROP INDEX idx_rental_status ON rentals;
+
+-- Para rangos históricos lo selectivo es start_date <= :end. Reemplaza al índice de fechas de V1
+CREATE INDEX idx_rental_start_cover ON rentals(start_date, end_date, rental_status, vehicle_id, customer_id, total_price, chosen_pricing_tier);
+DROP INDEX idx_rental_dates ON rentals;
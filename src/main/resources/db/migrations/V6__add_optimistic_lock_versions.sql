@@ -0,0 +1,4 @@
+-- V6: Columnas de versión para el bloqueo optimista de vehículos y alquileres.
+
+ALTER TABLE vehicles ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE rentals ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
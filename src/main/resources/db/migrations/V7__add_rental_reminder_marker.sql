@@ -0,0 +1,6 @@
+-- V7: Marca de recordatorio enviado e índice para buscar solo los alquileres activos pendientes de aviso
+-- que vencen dentro de la ventana (igualdad en estado y marca nula, rango en end_date).
+
+ALTER TABLE rentals ADD COLUMN reminder_sent_at DATETIME(6) NULL;
+
+CREATE INDEX idx_rental_reminder_due ON rentals(rental_status, reminder_sent_at, end_date);
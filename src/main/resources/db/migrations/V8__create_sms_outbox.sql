@@ -0,0 +1,18 @@
+-- V8: Bandeja de salida de SMS. Los avisos se guardan aquí y un pool de trabajadores los entrega en segundo
+-- plano; el índice sirve la búsqueda de mensajes vencidos (igualdad en estado, rango en next_attempt_at).
+
+CREATE TABLE IF NOT EXISTS sms_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    recipient VARCHAR(32) NOT NULL,
+    body VARCHAR(1600) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(500) NULL,
+    provider VARCHAR(32) NULL,
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6) NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_sms_outbox_due ON sms_outbox(status, next_attempt_at);
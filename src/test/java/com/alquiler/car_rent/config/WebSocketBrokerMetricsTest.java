@@ -0,0 +1,65 @@
+package com.alquiler.car_rent.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketBrokerMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Caso de éxito: Se publican las sesiones, los cierres por causa y la ocupación de ambos pools.
+    @Test
+    void bindTo_shouldRegisterSessionAndChannelPoolMeters() {
+        // Arrange
+        ThreadPoolTaskExecutor inbound = pool(3);
+        ThreadPoolTaskExecutor outbound = pool(5);
+        WebSocketBrokerMetrics metrics = new WebSocketBrokerMetrics(handler(), inbound, outbound);
+
+        // Act
+        metrics.bindTo(meterRegistry);
+
+        // Assert
+        assertEquals(0.0, meterRegistry.get("websocket.sessions").gauge().value());
+        assertEquals(0.0, meterRegistry.get("websocket.sessions.closed").tag("reason", "limit_exceeded").functionCounter().count());
+        assertEquals(3.0, meterRegistry.get("websocket.channel.pool.size").tag("channel", "inbound").gauge().value());
+        assertEquals(5.0, meterRegistry.get("websocket.channel.pool.size").tag("channel", "outbound").gauge().value());
+        assertEquals(0.0, meterRegistry.get("websocket.channel.queued").tag("channel", "outbound").gauge().value());
+        inbound.shutdown();
+        outbound.shutdown();
+    }
+
+    // Caso borde: Un canal con hilos virtuales no tiene pool que medir y solo se omiten sus métricas.
+    @Test
+    void bindTo_shouldSkipChannelPoolMeters_whenChannelUsesVirtualThreads() {
+        // Arrange
+        ThreadPoolTaskExecutor inbound = pool(2);
+        WebSocketBrokerMetrics metrics = new WebSocketBrokerMetrics(handler(), inbound, new VirtualThreadTaskExecutor("ws-outbound-"));
+
+        // Act
+        metrics.bindTo(meterRegistry);
+
+        // Assert
+        assertNotNull(meterRegistry.find("websocket.channel.active").tag("channel", "inbound").gauge());
+        assertNull(meterRegistry.find("websocket.channel.active").tag("channel", "outbound").gauge());
+        assertNotNull(meterRegistry.find("websocket.sessions").gauge());
+        inbound.shutdown();
+    }
+
+    private static SubProtocolWebSocketHandler handler() {
+        return new SubProtocolWebSocketHandler(new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel());
+    }
+
+    private static ThreadPoolTaskExecutor pool(int coreSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setPrestartAllCoreThreads(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -2,8 +2,10 @@ package com.alquiler.car_rent.controller;
 
 import com.alquiler.car_rent.commons.dtos.CustomerDto;
 import com.alquiler.car_rent.commons.dtos.RentalDto;
+import com.alquiler.car_rent.commons.dtos.RentalStatusBatchRequest;
 import com.alquiler.car_rent.commons.dtos.VehicleDto;
 import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
 import com.alquiler.car_rent.commons.enums.VehicleStatus;
 import com.alquiler.car_rent.commons.enums.VehicleType;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -21,11 +23,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -226,6 +231,102 @@ public class RentalControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetAllRentals_WithCursor_ReturnsPageAndNextCursorHeader() throws Exception {
+        // Arrange: dos alquileres del mismo cliente y vehículo
+        createTestRentalAndGetId();
+        cancelAndCreateAnotherRental();
+
+        // Act & Assert: primera página de tamaño 1 con cursor para la siguiente
+        MvcResult firstPage = mockMvc.perform(get("/v1/rentals")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn();
+
+        mockMvc.perform(get("/v1/rentals")
+                        .param("cursor", firstPage.getResponse().getHeader("X-Next-Cursor"))
+                        .param("size", "1")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void testGetAllRentals_WithInvalidCursor_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/rentals")
+                        .param("cursor", "%%%")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS"))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCreateRentals_Batch_ReturnsPerItemResults() throws Exception {
+        // Arrange: dos reservas del mismo vehículo en fechas distintas y una que se solapa con la primera
+        RentalDto first = batchRental(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(3));
+        RentalDto second = batchRental(LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6));
+        RentalDto overlapping = batchRental(LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(4));
+        RentalDto unknownVehicle = batchRental(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        unknownVehicle.setVehicleId(99999L);
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/rentals/batch")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(first, second, overlapping, unknownVehicle))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].rental.id").exists())
+                .andExpect(jsonPath("$[0].rental.rentalStatus").value("ACTIVE"))
+                .andExpect(jsonPath("$[1].status").value("CREATED"))
+                .andExpect(jsonPath("$[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$[2].error").value("El vehiculo ya está reservado en esas fechas"))
+                .andExpect(jsonPath("$[3].status").value("REJECTED"))
+                .andExpect(jsonPath("$[3].error").value("Vehiculo No Encontrado por ID: 99999"));
+    }
+
+    @Test
+    void testCreateRentals_EmptyBatch_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/v1/rentals/batch")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testUpdateRentalStatuses_CompletesActiveAndRejectsUnknown() throws Exception {
+        // Arrange
+        Long rentalId = createTestRentalAndGetId();
+        RentalStatusBatchRequest request = new RentalStatusBatchRequest(List.of(rentalId, 99999L), RentalStatus.COMPLETED);
+
+        // Act & Assert
+        mockMvc.perform(put("/v1/rentals/batch/status")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[0].rental.rentalStatus").value("COMPLETED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"));
+    }
+
+    @Test
+    void testUpdateRentalStatuses_Fail_ForbiddenForUserRole() throws Exception {
+        RentalStatusBatchRequest request = new RentalStatusBatchRequest(List.of(1L), RentalStatus.CANCELLED);
+
+        mockMvc.perform(put("/v1/rentals/batch/status")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+    }
+
     // ============== Helper Methods to create prerequisite data ==============
 
     private CustomerDto createTestCustomer() throws Exception {
@@ -283,4 +384,27 @@ public class RentalControllerTest {
         RentalDto createdRental = objectMapper.readValue(result.getResponse().getContentAsString(), RentalDto.class);
         return createdRental.getId();
     }
-}
\ No newline at end of file
+
+    private RentalDto batchRental(LocalDateTime startDate, LocalDateTime endDate) {
+        RentalDto rental = new RentalDto();
+        rental.setCustomerId(testCustomer.id());
+        rental.setVehicleId(testVehicle.getId());
+        rental.setStartDate(startDate);
+        rental.setEndDate(endDate);
+        rental.setChosenPricingTier(PricingTier.STANDARD);
+        return rental;
+    }
+
+    private void cancelAndCreateAnotherRental() throws Exception {
+        // El vehículo queda RENTED tras el primer alquiler: se cancela para liberarlo
+        MvcResult list = mockMvc.perform(get("/v1/rentals")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS"))))
+                .andReturn();
+        RentalDto[] rentals = objectMapper.readValue(list.getResponse().getContentAsString(), RentalDto[].class);
+        for (RentalDto rental : rentals) {
+            mockMvc.perform(put("/v1/rentals/" + rental.getId() + "/cancel")
+                    .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS"))));
+        }
+        createTestRentalAndGetId();
+    }
+}
@@ -20,10 +20,18 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.util.EnumSet;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -56,13 +64,10 @@ public class ReportingControllerTest {
     @Test
     void testGetTotalRentalsMetric_AsAdmin_Success() throws Exception {
         // Arrange: Mock the service layer
-        // The controller calls a private method that then calls this service method
-        byte[] mockJsonResponse = objectMapper.writeValueAsBytes(Map.of("totalRentals", 150L));
-        when(reportingService.generateReport(
-                any(ReportingConstants.OutputFormat.class),
-                any(ReportingConstants.ReportType.class),
-                any(), any(), any()))
-                .thenReturn(mockJsonResponse);
+        // The controller requests only the TOTALS section from the service
+        when(reportingService.generateReportData(
+                any(), any(), any(), eq(EnumSet.of(ReportingConstants.ReportSection.TOTALS))))
+                .thenReturn(Map.of("totalRentals", 150L));
 
         // Act & Assert
         mockMvc.perform(get("/v1/reports/metrics/total-rentals")
@@ -88,22 +93,82 @@ public class ReportingControllerTest {
 
     @Test
     void testExportReport_AsAdmin_Success() throws Exception {
-        // Arrange
+        // Arrange: el PDF se escribe en streaming sobre la respuesta
         byte[] dummyPdf = "dummy pdf content".getBytes();
-        when(reportingService.generateReport(any(), any(), any(), any(), any()))
-                .thenReturn(dummyPdf);
-
-        // Act & Assert
-        mockMvc.perform(get("/v1/reports/export")
+        when(reportingService.generateReportData(any(), any(), any())).thenReturn(Map.of("totalRentals", 1L));
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write(dummyPdf);
+            return null;
+        }).when(reportingService).writePdfReport(eq(ReportingConstants.ReportType.RENTAL_SUMMARY), anyMap(), any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/v1/reports/export")
                         .header("Authorization", "Bearer " + adminToken)
                         .param("format", "PDF")
                         .param("reportType", "RENTAL_SUMMARY"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_PDF))
                 .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("attachment; filename=")))
                 .andExpect(content().bytes(dummyPdf));
     }
 
+    @Test
+    void testExportReport_Excel_StreamsWorkbook() throws Exception {
+        // Arrange: el libro Excel también se escribe directo en la respuesta, sin pasar por un byte[]
+        byte[] dummyExcel = "dummy excel content".getBytes();
+        when(reportingService.generateReportData(any(), any(), any())).thenReturn(Map.of("totalRentals", 1L));
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write(dummyExcel);
+            return null;
+        }).when(reportingService).writeExcelReport(eq(ReportingConstants.ReportType.RENTAL_SUMMARY), anyMap(), any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/v1/reports/export")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("format", "EXCEL")
+                        .param("reportType", "RENTAL_SUMMARY"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(dummyExcel));
+        verify(reportingService, never()).generateReport(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testExportReport_MatchingETag_NotModified() throws Exception {
+        // Arrange
+        when(reportingService.getReportETag(any(), any(), any(), any(), any())).thenReturn("\"abc123\"");
+
+        // Act & Assert: el reporte no se genera cuando el cliente ya tiene la misma versión
+        mockMvc.perform(get("/v1/reports/export")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", "\"abc123\"")
+                        .param("format", "CHART_PNG")
+                        .param("reportType", "RENTAL_TRENDS"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc123\""));
+        verify(reportingService, never()).generateReport(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testExportRentals_InvertedRange_BadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/v1/reports/export/rentals")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("startDate", "2025-07-31")
+                        .param("endDate", "2025-07-01")
+                        .param("format", "NDJSON"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetDashboardData_AsAdmin_Success() throws Exception {
         // Arrange
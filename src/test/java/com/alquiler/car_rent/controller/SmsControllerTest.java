@@ -1,6 +1,8 @@
 package com.alquiler.car_rent.controller;
 
 import com.alquiler.car_rent.commons.dtos.LoginRequest;
+import com.alquiler.car_rent.commons.dtos.SmsBatchRequest;
+import com.alquiler.car_rent.commons.dtos.SmsBatchResult;
 import com.alquiler.car_rent.commons.dtos.TokenResponse;
 import com.alquiler.car_rent.commons.dtos.UserEntityRequest;
 import com.alquiler.car_rent.commons.enums.Role;
@@ -19,9 +21,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -129,6 +134,38 @@ public class SmsControllerTest {
         verify(smsService, times(1)).sendSms(phoneNumber, message);
     }
 
+    @Test
+    void testSendBatch_ReturnsPerRecipientResults() throws Exception {
+        List<String> recipients = List.of("+1234567890", "+1234567891");
+        when(smsService.sendBatch(recipients, "Campaña")).thenReturn(List.of(
+                SmsBatchResult.sent("+1234567890", "vonage"),
+                SmsBatchResult.failed("+1234567891", "twilio", "Número inválido")));
+
+        mockMvc.perform(post("/v1/sms/send/batch")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SmsBatchRequest(recipients, "Campaña"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].sent").value(true))
+                .andExpect(jsonPath("$[0].provider").value("vonage"))
+                .andExpect(jsonPath("$[1].sent").value(false))
+                .andExpect(jsonPath("$[1].error").value("Número inválido"));
+
+        verify(smsService, times(1)).sendBatch(recipients, "Campaña");
+    }
+
+    @Test
+    void testSendBatch_EmptyRecipients_BadRequest() throws Exception {
+        mockMvc.perform(post("/v1/sms/send/batch")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new SmsBatchRequest(List.of(), "Campaña"))))
+                .andExpect(status().isBadRequest());
+
+        verify(smsService, never()).sendBatch(anyList(), anyString());
+    }
+
     // =================================================================================================================
     // HELPER Methods
     // =================================================================================================================
@@ -111,6 +111,34 @@ public class VehicleControllerTest {
                 .andExpect(status().isBadRequest()); // Change from isConflict() to isBadRequest()
     }
 
+    @Test
+    void testGetAvailableVehicles_ReturnsBookableVehiclesOfType() throws Exception {
+        String uniquePlate = UUID.randomUUID().toString().substring(0, 4);
+        VehicleDto newVehicle = createValidVehicleDto(uniquePlate);
+        mockMvc.perform(post("/v1/vehicles")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newVehicle)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/vehicles/available")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .param("startDate", "2030-07-01T10:00:00")
+                        .param("endDate", "2030-07-05T10:00:00")
+                        .param("vehicleType", "SEDAN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.plate == 'PLATE-" + uniquePlate + "')]").exists());
+    }
+
+    @Test
+    void testGetAvailableVehicles_Fail_BadRequest_InvertedRange() throws Exception {
+        mockMvc.perform(get("/v1/vehicles/available")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .param("startDate", "2030-07-05T10:00:00")
+                        .param("endDate", "2030-07-01T10:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetVehicleById_Success() throws Exception {
         // Arrange: Create a vehicle first
@@ -251,4 +279,38 @@ public class VehicleControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$", hasSize(0)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAllVehicles_PagedAndFiltered_ReturnsTotalHeaders() throws Exception {
+        // Arrange: tres vehículos, uno de ellos en mantenimiento
+        for (int i = 0; i < 3; i++) {
+            VehicleDto dto = createValidVehicleDto(UUID.randomUUID().toString().substring(0, 4));
+            dto.setVehicleType(i == 2 ? VehicleType.SUV : VehicleType.SEDAN);
+            mockMvc.perform(post("/v1/vehicles")
+                            .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated());
+        }
+
+        // Act & Assert: la página respeta el tamaño y las cabeceras informan el total filtrado
+        mockMvc.perform(get("/v1/vehicles")
+                        .param("vehicleType", "SEDAN")
+                        .param("size", "1")
+                        .param("sort", "plate,desc")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].vehicleType").value("SEDAN"))
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(header().string("X-Total-Pages", "2"));
+    }
+
+    @Test
+    void testGetAllVehicles_InvalidSortField_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/vehicles")
+                        .param("sort", "password")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_USERS"))))
+                .andExpect(status().isBadRequest());
+    }
+}
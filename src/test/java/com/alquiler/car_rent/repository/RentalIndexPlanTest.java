@@ -0,0 +1,160 @@
+package com.alquiler.car_rent.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aplica las migraciones de índices de alquileres sobre H2 en modo MySQL y comprueba con EXPLAIN que los
+ * predicados de los reportes usan los índices de cobertura.
+ */
+class RentalIndexPlanTest {
+
+    private static final String ACTIVE_STATUSES = "('PENDING', 'ACTIVE', 'COMPLETED')";
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:rental_index_plan;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE rentals (
+                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        customer_id BIGINT NOT NULL,
+                        vehicle_id BIGINT NOT NULL,
+                        rental_status VARCHAR(255),
+                        start_date TIMESTAMP,
+                        end_date TIMESTAMP,
+                        total_price DECIMAL(38, 2),
+                        chosen_pricing_tier VARCHAR(255),
+                        created_at TIMESTAMP
+                    )""");
+            // Histórico de varios años para que el optimizador compare el coste real de cada índice
+            statement.execute("""
+                    INSERT INTO rentals (customer_id, vehicle_id, rental_status, start_date, end_date, total_price, chosen_pricing_tier)
+                    SELECT MOD(X, 200), MOD(X, 50),
+                           CASE MOD(X, 4) WHEN 0 THEN 'CANCELLED' WHEN 1 THEN 'ACTIVE' ELSE 'COMPLETED' END,
+                           DATEADD('DAY', X / 5, TIMESTAMP '2020-01-01 10:00:00'),
+                           DATEADD('DAY', X / 5 + 3, TIMESTAMP '2020-01-01 10:00:00'),
+                           100, 'STANDARD'
+                    FROM SYSTEM_RANGE(1, 10000)""");
+        }
+        applyRentalIndexes("V1__create_performance_indexes.sql");
+        applyRentalIndexes("V5__add_rental_overlap_covering_indexes.sql");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    // Caso de éxito: Un rango reciente se resuelve con un rango de end_date por cada estado de la lista IN.
+    @Test
+    void overlapPredicate_shouldUseStatusEndIndex_forRecentRange() throws Exception {
+        // Act
+        String plan = explain("""
+                SELECT COUNT(*), SUM(r.total_price) FROM rentals r
+                WHERE r.start_date <= TIMESTAMP '2025-06-30 00:00:00' AND r.end_date >= TIMESTAMP '2025-06-01 00:00:00'
+                  AND r.rental_status IN """ + ACTIVE_STATUSES);
+
+        // Assert
+        assertTrue(accessPath(plan).startsWith(
+                "PUBLIC.IDX_RENTAL_STATUS_END_COVER: RENTAL_STATUS IN('PENDING', 'ACTIVE', 'COMPLETED')"), plan);
+    }
+
+    // Caso de éxito: Sin filtro de estado (listado con cancelados) el solapamiento se acota por start_date.
+    @Test
+    void overlapPredicate_shouldUseStartCoveringIndex_withoutStatusFilter() throws Exception {
+        // Act
+        String plan = explain("""
+                SELECT r.vehicle_id, COUNT(*) FROM rentals r
+                WHERE r.start_date <= TIMESTAMP '2020-01-31 00:00:00' AND r.end_date >= TIMESTAMP '2020-01-01 00:00:00'
+                GROUP BY r.vehicle_id""");
+
+        // Assert
+        assertTrue(accessPath(plan).startsWith("PUBLIC.IDX_RENTAL_START_COVER: START_DATE <="), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    // Caso borde: Con != el estado no puede acotar el índice; por eso las consultas usan la lista IN.
+    @Test
+    void notEqualsStatus_shouldNotSeekStatusIndex() throws Exception {
+        // Act
+        String plan = explain("""
+                SELECT COUNT(*) FROM rentals r
+                WHERE r.start_date <= TIMESTAMP '2025-06-30 00:00:00' AND r.end_date >= TIMESTAMP '2025-06-01 00:00:00'
+                  AND r.rental_status != 'CANCELLED'""");
+
+        // Assert: se busca por el rango de fechas y el estado queda como filtro sobre cada fila leída
+        assertEquals("PUBLIC.IDX_RENTAL_START_COVER: START_DATE <= TIMESTAMP '2025-06-30 00:00:00'"
+                + " AND END_DATE >= TIMESTAMP '2025-06-01 00:00:00'", accessPath(plan), plan);
+        assertTrue(plan.contains("WHERE (\"R\".\"RENTAL_STATUS\" <> 'CANCELLED')"), plan);
+    }
+
+    // Caso de éxito: El job de expiración filtra por estado y fecha de fin con el mismo índice.
+    @Test
+    void expiryQuery_shouldUseStatusEndIndex() throws Exception {
+        // Act
+        String plan = explain("""
+                SELECT r.id FROM rentals r
+                WHERE r.rental_status = 'ACTIVE' AND r.end_date < TIMESTAMP '2020-03-01 00:00:00'""");
+
+        // Assert
+        assertEquals("PUBLIC.IDX_RENTAL_STATUS_END_COVER: RENTAL_STATUS = 'ACTIVE'"
+                + " AND END_DATE < TIMESTAMP '2020-03-01 00:00:00'", accessPath(plan), plan);
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        }
+    }
+
+    /**
+     * Índice elegido y condiciones con las que se recorre, tal como H2 los anota en el plan (espacios normalizados).
+     */
+    private static String accessPath(String plan) {
+        int start = plan.indexOf("/*");
+        int end = plan.indexOf("*/", start);
+        assertTrue(start >= 0 && end > start, plan);
+        return plan.substring(start + 2, end).trim().replaceAll("\\s+", " ");
+    }
+
+    // Solo las sentencias de la tabla rentals; el resto de tablas no se crea en esta prueba
+    private static void applyRentalIndexes(String migration) throws IOException, SQLException {
+        try (InputStream input = RentalIndexPlanTest.class.getResourceAsStream("/db/migrations/" + migration);
+             Statement statement = connection.createStatement()) {
+            assertNotNull(input, migration);
+            String script = new String(input.readAllBytes(), StandardCharsets.UTF_8).replaceAll("--[^\n]*", "");
+            List<String> statements = Arrays.stream(script.split(";"))
+                    .map(String::trim)
+                    .filter(sql -> sql.contains(" ON rentals"))
+                    .toList();
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
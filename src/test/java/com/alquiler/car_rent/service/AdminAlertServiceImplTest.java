@@ -1,13 +1,28 @@
 package com.alquiler.car_rent.service;
 
+import com.alquiler.car_rent.commons.dtos.RentalAlertBatch;
+import com.alquiler.car_rent.commons.dtos.RentalEndingAlert;
+import com.alquiler.car_rent.commons.events.RentalEndingAlertsEvent;
 import com.alquiler.car_rent.service.impl.AdminAlertServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -16,9 +31,15 @@ public class AdminAlertServiceImplTest {
     @Mock
     private SimpMessagingTemplate messagingTemplate;
 
-    @InjectMocks
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private AdminAlertServiceImpl adminAlertServiceImpl;
 
+    @BeforeEach
+    void setUp() {
+        adminAlertServiceImpl = new AdminAlertServiceImpl(messagingTemplate, meterRegistry, Duration.ofHours(2), 100);
+    }
+
     @Test
     void sendRentalEndingAlert_ShouldSendMessageToCorrectTopic(){
 
@@ -31,6 +52,77 @@ public class AdminAlertServiceImplTest {
 
     }
 
+    // Caso de éxito: Las alertas de una ejecución salen en un solo mensaje, sin repetir alquileres.
+    @Test
+    void sendRentalEndingAlerts_ShouldPublishOneBatch_WithoutDuplicates() {
+        // Act
+        int published = adminAlertServiceImpl.sendRentalEndingAlerts(List.of(alert(1L), alert(2L), alert(1L)));
+
+        // Assert
+        ArgumentCaptor<RentalAlertBatch> batch = ArgumentCaptor.forClass(RentalAlertBatch.class);
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/rental-alerts"), batch.capture());
+        assertEquals(2, published);
+        assertEquals(2, batch.getValue().count());
+        assertEquals(List.of(1L, 2L), batch.getValue().alerts().stream().map(RentalEndingAlert::rentalId).toList());
+        assertEquals(1.0, meterRegistry.counter("admin.alerts.deduplicated").count());
+    }
 
+    // Caso borde: Un alquiler ya avisado en una ejecución anterior no se vuelve a publicar.
+    @Test
+    void sendRentalEndingAlerts_ShouldSkipRentalsAlreadyAlerted() {
+        // Arrange
+        adminAlertServiceImpl.sendRentalEndingAlerts(List.of(alert(1L)));
+
+        // Act
+        int published = adminAlertServiceImpl.sendRentalEndingAlerts(List.of(alert(1L), alert(3L)));
+
+        // Assert
+        ArgumentCaptor<RentalAlertBatch> batch = ArgumentCaptor.forClass(RentalAlertBatch.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/rental-alerts"), batch.capture());
+        assertEquals(1, published);
+        assertEquals(List.of(3L), batch.getAllValues().get(1).alerts().stream().map(RentalEndingAlert::rentalId).toList());
+    }
+
+    // Caso borde: Sin alertas nuevas no se envía ningún mensaje.
+    @Test
+    void sendRentalEndingAlerts_ShouldNotSend_WhenNothingIsNew() {
+        // Act
+        int published = adminAlertServiceImpl.sendRentalEndingAlerts(List.of());
 
+        // Assert
+        assertEquals(0, published);
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    // Caso de éxito: El evento de la ejecución del recordatorio se publica como lote tras el commit.
+    @Test
+    void onRentalsEnding_ShouldPublishBatch() {
+        // Act
+        adminAlertServiceImpl.onRentalsEnding(new RentalEndingAlertsEvent(List.of(alert(1L), alert(2L))));
+
+        // Assert
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/rental-alerts"), any(RentalAlertBatch.class));
+        assertEquals(2.0, meterRegistry.counter("admin.alerts.published").count());
+    }
+
+    // Caso borde: Un fallo del broker no se propaga; el alquiler no queda marcado en la deduplicación.
+    @Test
+    void onRentalsEnding_ShouldSwallowBrokerFailure_AndNotDeduplicate() {
+        // Arrange
+        doThrow(new IllegalStateException("broker caído")).doNothing()
+                .when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+
+        // Act
+        adminAlertServiceImpl.onRentalsEnding(new RentalEndingAlertsEvent(List.of(alert(1L))));
+        int published = adminAlertServiceImpl.sendRentalEndingAlerts(List.of(alert(1L)));
+
+        // Assert
+        assertEquals(1, published);
+        verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+    }
+
+    private static RentalEndingAlert alert(Long rentalId) {
+        return new RentalEndingAlert(rentalId, "John Doe", "Toyota", "Corolla", "ABC-123",
+                LocalDateTime.now().plusMinutes(30), "Alquiler " + rentalId + " próximo a vencer");
+    }
 }
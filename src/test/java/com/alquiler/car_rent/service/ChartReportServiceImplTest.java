@@ -0,0 +1,68 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.service.impl.reportsImpl.ChartReportServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChartReportServiceImplTest {
+
+    private final ChartReportServiceImpl chartReportService =
+            new ChartReportServiceImpl(new SimpleMeterRegistry(), true, 32L * 1024 * 1024);
+
+    private Map<String, Object> trendsData(long januaryRentals) {
+        Map<String, Object> trend = new LinkedHashMap<>();
+        trend.put("period", "2025-01");
+        trend.put("rentalCount", januaryRentals);
+        trend.put("totalRevenue", new BigDecimal("300.00"));
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("rentalTrends", List.of(trend));
+        data.put("totalRentals", januaryRentals);
+        return data;
+    }
+
+    // Caso de éxito: Los mismos datos devuelven los bytes ya renderizados sin volver a dibujar el gráfico.
+    @Test
+    void generateChartAsPng_shouldReuseRenderedBytes_forSameContent() {
+        // Arrange
+        Map<String, Object> data = trendsData(5L);
+        Map<String, Object> sameContent = new TreeMap<>(trendsData(5L));
+
+        // Act
+        byte[] first = chartReportService.generateChartAsPng(data, ReportingConstants.ReportType.RENTAL_TRENDS);
+        byte[] second = chartReportService.generateChartAsPng(sameContent, ReportingConstants.ReportType.RENTAL_TRENDS);
+
+        // Assert
+        assertTrue(first.length > 0);
+        assertSame(first, second);
+    }
+
+    // Caso borde: La huella solo depende de los datos que dibuja el gráfico, del formato y del tipo.
+    @Test
+    void contentHash_shouldChangeOnlyWithChartedData() {
+        // Arrange
+        Map<String, Object> data = trendsData(5L);
+        Map<String, Object> withUnrelatedKey = new LinkedHashMap<>(data);
+        withUnrelatedKey.put("newCustomers", 99L);
+
+        // Act
+        String hash = chartReportService.contentHash(data, ReportingConstants.ReportType.RENTAL_TRENDS,
+                ReportingConstants.OutputFormat.CHART_PNG);
+
+        // Assert
+        assertEquals(hash, chartReportService.contentHash(withUnrelatedKey, ReportingConstants.ReportType.RENTAL_TRENDS,
+                ReportingConstants.OutputFormat.CHART_PNG));
+        assertNotEquals(hash, chartReportService.contentHash(trendsData(6L), ReportingConstants.ReportType.RENTAL_TRENDS,
+                ReportingConstants.OutputFormat.CHART_PNG));
+        assertNotEquals(hash, chartReportService.contentHash(data, ReportingConstants.ReportType.RENTAL_TRENDS,
+                ReportingConstants.OutputFormat.CHART_SVG));
+    }
+}
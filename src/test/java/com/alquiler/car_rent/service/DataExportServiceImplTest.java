@@ -0,0 +1,108 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.service.impl.reportsImpl.DataExportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DataExportServiceImplTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 7, 1);
+    private static final LocalDate END = LocalDate.of(2025, 7, 31);
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    private DataExportServiceImpl dataExportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        dataExportService = new DataExportServiceImpl(rentalRepository, objectMapper);
+    }
+
+    private RentalReportRow row(long id, String customer) {
+        return new RentalReportRow(id, 10L, customer, 100L, "Toyota", "Corolla", VehicleType.SEDAN, PricingTier.STANDARD,
+                RentalStatus.COMPLETED, LocalDateTime.of(2025, 7, 5, 10, 0), LocalDateTime.of(2025, 7, 7, 10, 0),
+                new BigDecimal("150.00"));
+    }
+
+    // Caso de éxito: El CSV escapa comas y comillas y el stream de la consulta se cierra al terminar.
+    @Test
+    void exportRentals_shouldWriteEscapedCsvAndCloseStream() throws Exception {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean(false);
+        when(rentalRepository.streamExportRows(START.atStartOfDay(), END.plusDays(1).atStartOfDay()))
+                .thenReturn(Stream.of(row(1, "Pérez, \"Ana\""), row(2, "Luis")).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        long exported = dataExportService.exportRentals(START, END, ReportingConstants.ExportFormat.CSV, false, outputStream);
+
+        // Assert
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, exported);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,customerId,customerName"));
+        assertEquals("1,10,\"Pérez, \"\"Ana\"\"\",100,Toyota,Corolla,SEDAN,STANDARD,COMPLETED,2025-07-05T10:00,2025-07-07T10:00,150.00",
+                lines[1]);
+        assertTrue(closed.get());
+    }
+
+    // Caso de éxito: NDJSON comprimido produce una línea JSON por alquiler.
+    @Test
+    void exportRentals_shouldWriteGzippedNdjson() throws Exception {
+        // Arrange
+        when(rentalRepository.streamExportRows(any(), any())).thenReturn(Stream.of(row(1, "Ana"), row(2, "Luis")));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        dataExportService.exportRentals(START, END, ReportingConstants.ExportFormat.NDJSON, true, outputStream);
+
+        // Assert
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            String[] lines = new String(gzip.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            assertEquals(2, lines.length);
+            assertTrue(lines[1].contains("\"customerName\":\"Luis\""));
+            assertTrue(lines[1].contains("\"startDate\":\"2025-07-05T10:00:00\""));
+        }
+    }
+
+    // Caso de error: Un rango invertido se rechaza sin consultar la base de datos.
+    @Test
+    void exportRentals_shouldRejectInvertedRange() {
+        assertThrows(BadRequestException.class, () -> dataExportService.exportRentals(
+                END, START, ReportingConstants.ExportFormat.CSV, false, new ByteArrayOutputStream()));
+        verifyNoInteractions(rentalRepository);
+    }
+}
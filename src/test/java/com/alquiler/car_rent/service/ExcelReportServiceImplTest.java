@@ -0,0 +1,111 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.service.impl.reportsImpl.ExcelReportServiceImpl;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExcelReportServiceImplTest {
+
+    private final ExcelReportServiceImpl excelReportService = new ExcelReportServiceImpl(10);
+
+    // Caso de éxito: La tabla se escribe en streaming con más filas que la ventana de SXSSF y anchos estimados.
+    @Test
+    void writeGenericTableExcel_shouldStreamRowsBeyondWindow() throws Exception {
+        // Arrange
+        Iterator<List<String>> rows = IntStream.range(0, 250)
+                .mapToObj(i -> List.of("2025-01-" + (i % 28 + 1), "Toyota Corolla " + i))
+                .iterator();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        excelReportService.writeGenericTableExcel(List.of("Fecha", "Vehículo"), rows, outputStream);
+
+        // Assert
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Reporte");
+            assertEquals(250, sheet.getLastRowNum());
+            assertEquals("Fecha", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Toyota Corolla 249", sheet.getRow(250).getCell(1).getStringCellValue());
+            assertEquals(("Toyota Corolla 249".length() + 2) * 256, sheet.getColumnWidth(1));
+        }
+    }
+
+    // Caso borde: Los archivos temporales de SXSSF se borran al terminar, también si la escritura falla.
+    @Test
+    void writeGenericTableExcel_shouldDeleteTempFiles_evenWhenRowsFail() throws Exception {
+        // Arrange
+        Set<String> before = sxssfTempFiles();
+        Iterator<List<String>> failing = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public List<String> next() {
+                if (next == 50) {
+                    throw new NoSuchElementException("fallo de lectura");
+                }
+                return List.of("fila " + next++);
+            }
+        };
+
+        // Act
+        excelReportService.writeGenericTableExcel(List.of("Col"), List.of(List.of("a")).iterator(), new ByteArrayOutputStream());
+        assertThrows(NoSuchElementException.class,
+                () -> excelReportService.writeGenericTableExcel(List.of("Col"), failing, new ByteArrayOutputStream()));
+
+        // Assert
+        assertEquals(before, sxssfTempFiles());
+    }
+
+    // Caso de éxito: El reporte se escribe directo en el stream con SXSSF, con sus hojas de detalle y sin temporales.
+    @Test
+    void writeReport_shouldStreamWorkbookAndDeleteTempFiles() throws Exception {
+        // Arrange
+        Set<String> before = sxssfTempFiles();
+        Map<String, Object> data = Map.of(
+                "totalRevenue", 1500.0,
+                "totalRentals", 3L,
+                "rentalTrends", List.of(Map.of("period", "2025-01", "rentalCount", 3L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        excelReportService.writeReport(data, ReportingConstants.ReportType.REVENUE_ANALYSIS, outputStream);
+
+        // Assert
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Sheet summary = workbook.getSheet(ReportingConstants.ReportType.REVENUE_ANALYSIS.getTitle());
+            assertEquals("Ingresos Totales:", summary.getRow(5).getCell(0).getStringCellValue());
+            assertEquals(1500.0, summary.getRow(5).getCell(1).getNumericCellValue(), 0.001);
+            Sheet trends = workbook.getSheet("Tendencias de Ingresos");
+            assertEquals("2025-01", trends.getRow(1).getCell(0).getStringCellValue());
+        }
+        assertEquals(before, sxssfTempFiles());
+    }
+
+    private static Set<String> sxssfTempFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir"), "poifiles").listFiles();
+        return files == null ? Set.of() : Stream.of(files).map(File::getName)
+                .filter(name -> name.startsWith("poi-sxssf"))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,44 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.exceptions.SmsDeliveryException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Proveedor de SMS en memoria para las pruebas: guarda los destinatarios aceptados y puede
+ * fallar las primeras N llamadas para simular una caída del proveedor.
+ */
+public class FakeSmsProvider implements SmsProvider {
+
+    private final String name;
+    private final AtomicInteger failuresLeft;
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    public FakeSmsProvider(String name) {
+        this(name, 0);
+    }
+
+    public FakeSmsProvider(String name, int failures) {
+        this.name = name;
+        this.failuresLeft = new AtomicInteger(failures);
+    }
+
+    @Override
+    public void sendSms(String to, String message) {
+        if (failuresLeft.getAndDecrement() > 0) {
+            throw new SmsDeliveryException(name + " no disponible");
+        }
+        delivered.add(to);
+    }
+
+    @Override
+    public String getProviderName() {
+        return name;
+    }
+
+    public List<String> getDelivered() {
+        return delivered;
+    }
+}
@@ -0,0 +1,78 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.repositories.CustomerRepository;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.repositories.VehicleRepository;
+import com.alquiler.car_rent.service.impl.reportsImpl.MetricsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsServiceImplTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END = LocalDate.of(2025, 12, 31);
+
+    @Mock
+    private RentalRepository rentalRepository;
+    @Mock
+    private CustomerRepository customerRepository;
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @InjectMocks
+    private MetricsServiceImpl metricsService;
+
+    // Caso de éxito: Los clientes únicos salen de COUNT(DISTINCT) sin cargar entidades.
+    @Test
+    void getUniqueCustomersRented_shouldUseCountDistinct() {
+        when(rentalRepository.countDistinctCustomersInRange(START.atStartOfDay(), END.plusDays(1).atStartOfDay()))
+                .thenReturn(42L);
+
+        long result = metricsService.getUniqueCustomersRented(ReportingConstants.TimePeriod.ANNUAL, START, END);
+
+        assertEquals(42L, result);
+        verify(rentalRepository, never()).searchByDateRange(any(), any(), any());
+    }
+
+    // Caso de éxito: Los clientes activos usan el rango en el orden correcto.
+    @Test
+    void getActiveCustomersCount_shouldUseSameRangeAsUniqueCustomers() {
+        when(rentalRepository.countDistinctCustomersInRange(START.atStartOfDay(), END.plusDays(1).atStartOfDay()))
+                .thenReturn(7L);
+
+        assertEquals(7L, metricsService.getActiveCustomersCount(ReportingConstants.TimePeriod.ANNUAL, START, END));
+    }
+
+    // Caso de éxito: Los vehículos únicos salen de COUNT(DISTINCT) sin recorrer los alquileres.
+    @Test
+    void getUniqueVehiclesRented_shouldUseCountDistinct() {
+        when(rentalRepository.countDistinctVehiclesInRange(START.atStartOfDay(), END.plusDays(1).atStartOfDay()))
+                .thenReturn(12L);
+
+        long result = metricsService.getUniqueVehiclesRented(ReportingConstants.TimePeriod.ANNUAL, START, END);
+
+        assertEquals(12L, result);
+        verify(rentalRepository, never()).searchByDateRange(any(), any(), any());
+    }
+
+    // Caso borde: Sin alquileres el promedio de duración es 0.
+    @Test
+    void getAverageRentalDuration_shouldReturnZero_whenNoRentals() {
+        when(rentalRepository.findAverageDurationInRange(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(null);
+
+        assertEquals(0.0, metricsService.getAverageRentalDuration(ReportingConstants.TimePeriod.ANNUAL, START, END), 0.001);
+    }
+}
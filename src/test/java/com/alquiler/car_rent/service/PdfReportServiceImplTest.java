@@ -0,0 +1,53 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.exceptions.GlobalExceptionHandler;
+import com.alquiler.car_rent.service.impl.reportsImpl.PdfReportServiceImpl;
+import com.itextpdf.text.pdf.PdfReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfReportServiceImplTest {
+
+    private final PdfReportServiceImpl pdfReportService = new PdfReportServiceImpl(new GlobalExceptionHandler());
+
+    // Caso de éxito: Una tabla de actividad grande se reparte en varias páginas y el stream de salida queda abierto.
+    @Test
+    void writeReport_shouldStreamLargeCustomerActivityTable() throws Exception {
+        // Arrange
+        List<Map<String, Object>> activity = IntStream.range(0, 2_000)
+                .<Map<String, Object>>mapToObj(i -> Map.of("name", "Cliente " + i, "rentals", 1L, "revenue", new BigDecimal("99.50")))
+                .toList();
+        Map<String, Object> data = new HashMap<>();
+        data.put("activeCustomers", 2_000L);
+        data.put("newCustomers", 10L);
+        data.put("customerActivity", activity);
+        boolean[] closed = {false};
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        // Act
+        pdfReportService.writeReport(data, ReportingConstants.ReportType.CUSTOMER_ACTIVITY, outputStream);
+
+        // Assert
+        assertFalse(closed[0], "El stream de la respuesta no debe cerrarse desde el generador");
+        PdfReader reader = new PdfReader(outputStream.toByteArray());
+        try {
+            assertTrue(reader.getNumberOfPages() > 10);
+        } finally {
+            reader.close();
+        }
+    }
+}
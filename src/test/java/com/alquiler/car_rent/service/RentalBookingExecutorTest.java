@@ -0,0 +1,115 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.entities.Vehicle;
+import com.alquiler.car_rent.exceptions.ConflictException;
+import com.alquiler.car_rent.repositories.VehicleRepository;
+import com.alquiler.car_rent.service.impl.RentalBookingExecutor;
+import com.alquiler.car_rent.service.impl.RentalBookingExecutor.LockMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RentalBookingExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Caso de éxito: Un conflicto optimista se reintenta en una transacción nueva y la reserva termina bien.
+    @Test
+    void execute_shouldRetryAfterOptimisticConflict() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        RentalBookingExecutor executor = executor(LockMode.OPTIMISTIC, 3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        String result = executor.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Vehicle.class, 1L);
+            }
+            return "reservado";
+        });
+
+        // Assert
+        assertEquals("reservado", result);
+        assertEquals(2, attempts.get());
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(1)).rollback(any());
+        assertEquals(1.0, meterRegistry.counter("rental.booking.conflicts", "mode", "optimistic").count());
+        assertEquals(1.0, meterRegistry.counter("rental.booking.retries", "mode", "optimistic").count());
+        assertEquals(0.0, meterRegistry.counter("rental.booking.exhausted", "mode", "optimistic").count());
+    }
+
+    // Caso borde: Si los conflictos persisten se responde con ConflictException tras el último intento.
+    @Test
+    void execute_shouldThrowConflictException_whenAttemptsAreExhausted() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        RentalBookingExecutor executor = executor(LockMode.OPTIMISTIC, 3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> executor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Vehicle.class, 1L);
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(3.0, meterRegistry.counter("rental.booking.conflicts", "mode", "optimistic").count());
+        assertEquals(2.0, meterRegistry.counter("rental.booking.retries", "mode", "optimistic").count());
+        assertEquals(1.0, meterRegistry.counter("rental.booking.exhausted", "mode", "optimistic").count());
+    }
+
+    // Caso borde: Los errores de negocio no se reintentan.
+    @Test
+    void execute_shouldNotRetryBusinessErrors() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        RentalBookingExecutor executor = executor(LockMode.OPTIMISTIC, 3);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> executor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("fallo");
+        }));
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, meterRegistry.counter("rental.booking.conflicts", "mode", "optimistic").count());
+    }
+
+    // Caso de éxito: Cada modo bloquea el vehículo con su consulta.
+    @Test
+    void lockVehicle_shouldUseQueryOfConfiguredMode() {
+        // Arrange
+        Vehicle vehicle = new Vehicle();
+        when(vehicleRepository.findByIdForBooking(1L)).thenReturn(Optional.of(vehicle));
+        when(vehicleRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(vehicle));
+
+        // Act & Assert
+        assertEquals(Optional.of(vehicle), executor(LockMode.OPTIMISTIC, 3).lockVehicle(1L));
+        assertEquals(Optional.of(vehicle), executor(LockMode.PESSIMISTIC, 3).lockVehicle(1L));
+        verify(vehicleRepository, times(1)).findByIdForBooking(1L);
+        verify(vehicleRepository, times(1)).findByIdForUpdate(1L);
+    }
+
+    private RentalBookingExecutor executor(LockMode lockMode, int maxAttempts) {
+        return new RentalBookingExecutor(transactionManager, vehicleRepository, meterRegistry, lockMode, maxAttempts, Duration.ZERO);
+    }
+}
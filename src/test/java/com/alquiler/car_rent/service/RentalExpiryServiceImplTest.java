@@ -0,0 +1,186 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.repositories.VehicleRepository;
+import com.alquiler.car_rent.service.RentalRollupService.Contribution;
+import com.alquiler.car_rent.service.impl.RentalExpiryServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RentalExpiryServiceImplTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 28, 10, 0);
+
+    @Mock
+    private RentalRepository rentalRepository;
+    @Mock
+    private VehicleRepository vehicleRepository;
+    @Mock
+    private RentalRollupService rentalRollupService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RentalExpiryServiceImpl rentalExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        rentalExpiryService = new RentalExpiryServiceImpl(rentalRepository, vehicleRepository, rentalRollupService,
+                eventPublisher, transactionManager, meterRegistry, 2);
+    }
+
+    // Caso de éxito: Los vencidos se completan por tramos con un UPDATE de alquileres y otro de vehículos por tramo.
+    @Test
+    void completeExpiredRentals_shouldUpdateInChunks() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(rentalRepository.findReportRowsByStatusAndEndDateBefore(eq(RentalStatus.ACTIVE), any(), any()))
+                .thenReturn(List.of(row(1L, 10L), row(2L, 11L)))
+                .thenReturn(List.of(row(3L, 10L)));
+        when(rentalRepository.lockIdsByIdInAndRentalStatus(any(), eq(RentalStatus.ACTIVE)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(rentalRepository.updateStatusByIdIn(any(), eq(RentalStatus.ACTIVE), eq(RentalStatus.COMPLETED)))
+                .thenReturn(2)
+                .thenReturn(1);
+
+        // Act
+        rentalExpiryService.completeExpiredRentals();
+
+        // Assert
+        verify(rentalRepository).updateStatusByIdIn(List.of(1L, 2L), RentalStatus.ACTIVE, RentalStatus.COMPLETED);
+        verify(rentalRepository).updateStatusByIdIn(List.of(3L), RentalStatus.ACTIVE, RentalStatus.COMPLETED);
+        verify(vehicleRepository).releaseRentedVehicles(eq(Set.of(10L, 11L)), any());
+        verify(vehicleRepository).releaseRentedVehicles(eq(Set.of(10L)), any());
+        // Un tramo incompleto indica que no quedan más vencidos
+        verify(rentalRepository, times(2)).findReportRowsByStatusAndEndDateBefore(any(), any(), any());
+        // Dos tramos y la marca de los alquileres que empezaron
+        verify(transactionManager, times(3)).commit(any());
+        verify(eventPublisher, times(2)).publishEvent(any(RentalChangedEvent.class));
+        assertEquals(3.0, meterRegistry.counter("rental.expiry.completed").count());
+    }
+
+    // Caso de éxito: El agregado diario pasa de ACTIVE a COMPLETED sin cambiar los ingresos.
+    @Test
+    @SuppressWarnings("unchecked")
+    void completeExpiredRentals_shouldMoveRollupFromActiveToCompleted() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(rentalRepository.findReportRowsByStatusAndEndDateBefore(eq(RentalStatus.ACTIVE), any(), any()))
+                .thenReturn(List.of(row(1L, 10L)));
+        when(rentalRepository.lockIdsByIdInAndRentalStatus(any(), any())).thenReturn(List.of(1L));
+        when(rentalRepository.updateStatusByIdIn(any(), any(), any())).thenReturn(1);
+
+        // Act
+        rentalExpiryService.completeExpiredRentals();
+
+        // Assert
+        ArgumentCaptor<Collection<Contribution>> before = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<Contribution>> after = ArgumentCaptor.forClass(Collection.class);
+        verify(rentalRollupService).moveAll(before.capture(), after.capture());
+        Contribution active = before.getValue().iterator().next();
+        Contribution completed = after.getValue().iterator().next();
+        assertEquals(RentalStatus.ACTIVE, active.rentalStatus());
+        assertEquals(RentalStatus.COMPLETED, completed.rentalStatus());
+        assertEquals(new BigDecimal("300.00"), completed.revenue());
+        assertEquals(3, completed.rentalDays());
+    }
+
+    // Caso borde: Un alquiler cancelado entre la lectura y el UPDATE no se completa, ni libera su vehículo ni se mueve en el agregado.
+    @Test
+    @SuppressWarnings("unchecked")
+    void completeExpiredRentals_shouldMoveOnlyRentalsStillActive() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(rentalRepository.findReportRowsByStatusAndEndDateBefore(eq(RentalStatus.ACTIVE), any(), any()))
+                .thenReturn(List.of(row(1L, 10L), row(2L, 11L)))
+                .thenReturn(List.of());
+        when(rentalRepository.lockIdsByIdInAndRentalStatus(List.of(1L, 2L), RentalStatus.ACTIVE)).thenReturn(List.of(2L));
+        when(rentalRepository.updateStatusByIdIn(any(), any(), any())).thenReturn(1);
+
+        // Act
+        rentalExpiryService.completeExpiredRentals();
+
+        // Assert
+        verify(rentalRepository).updateStatusByIdIn(List.of(2L), RentalStatus.ACTIVE, RentalStatus.COMPLETED);
+        verify(vehicleRepository).releaseRentedVehicles(eq(Set.of(11L)), any());
+        ArgumentCaptor<Collection<Contribution>> after = ArgumentCaptor.forClass(Collection.class);
+        verify(rentalRollupService).moveAll(any(), after.capture());
+        assertEquals(1, after.getValue().size());
+        // El tramo leído estaba lleno, así que se busca el siguiente
+        verify(rentalRepository, times(2)).findReportRowsByStatusAndEndDateBefore(any(), any(), any());
+        assertEquals(1.0, meterRegistry.counter("rental.expiry.completed").count());
+    }
+
+    // Caso borde: Sin vencidos no se completa ni libera nada, pero sí se marcan los vehículos cuyo alquiler empezó.
+    @Test
+    void completeExpiredRentals_shouldOnlyMarkStartedRentals_whenNoRentalExpired() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(rentalRepository.findReportRowsByStatusAndEndDateBefore(any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        rentalExpiryService.completeExpiredRentals();
+
+        // Assert
+        verify(rentalRepository, never()).updateStatusByIdIn(any(), any(), any());
+        verify(vehicleRepository, never()).releaseRentedVehicles(any(), any());
+        verify(vehicleRepository, times(1)).markStartedRentalVehicles(any());
+        verifyNoInteractions(rentalRollupService, eventPublisher);
+    }
+
+    // Caso de éxito: Libera y marca con el mismo instante, así un vehículo no queda a medias entre ambas reglas.
+    @Test
+    void completeExpiredRentals_shouldMarkStartedRentalsWithSameInstant_afterReleasing() {
+        // Arrange
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(rentalRepository.findReportRowsByStatusAndEndDateBefore(eq(RentalStatus.ACTIVE), any(), any()))
+                .thenReturn(List.of(row(1L, 10L)));
+        when(rentalRepository.lockIdsByIdInAndRentalStatus(any(), eq(RentalStatus.ACTIVE))).thenReturn(List.of(1L));
+        when(rentalRepository.updateStatusByIdIn(any(), eq(RentalStatus.ACTIVE), eq(RentalStatus.COMPLETED))).thenReturn(1);
+
+        // Act
+        rentalExpiryService.completeExpiredRentals();
+
+        // Assert
+        ArgumentCaptor<LocalDateTime> releasedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> markedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        InOrder inOrder = inOrder(vehicleRepository);
+        inOrder.verify(vehicleRepository).releaseRentedVehicles(eq(Set.of(10L)), releasedAt.capture());
+        inOrder.verify(vehicleRepository).markStartedRentalVehicles(markedAt.capture());
+        assertEquals(releasedAt.getValue(), markedAt.getValue());
+    }
+
+    private static RentalReportRow row(Long rentalId, Long vehicleId) {
+        return new RentalReportRow(rentalId, 1L, "Cliente", vehicleId, "Toyota", "Corolla", VehicleType.SEDAN,
+                PricingTier.STANDARD, RentalStatus.ACTIVE, START, START.plusDays(3), new BigDecimal("300.00"));
+    }
+}
@@ -1,24 +1,33 @@
 package com.alquiler.car_rent.service;
 
-import com.alquiler.car_rent.commons.entities.Customer;
-import com.alquiler.car_rent.commons.entities.Rental;
-import com.alquiler.car_rent.commons.entities.Vehicle;
+import com.alquiler.car_rent.commons.dtos.RentalReminderRow;
 import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.events.RentalEndingAlertsEvent;
 import com.alquiler.car_rent.repositories.RentalRepository;
-import com.alquiler.car_rent.service.impl.AdminAlertServiceImpl;
 import com.alquiler.car_rent.service.impl.RentalReminderServiceImpl;
-import com.alquiler.car_rent.service.impl.SmsServiceImpl;
-import org.junit.jupiter.api.BeforeEach;
+import com.alquiler.car_rent.service.impl.SmsOutboxServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,74 +37,125 @@ public class RentalReminderServiceImplTest {
     private RentalRepository rentalRepository;
 
     @Mock
-    private SmsServiceImpl smsService;
+    private SmsOutboxServiceImpl smsOutbox;
 
     @Mock
-    private AdminAlertServiceImpl adminAlertService;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private RentalReminderServiceImpl rentalReminderService;
 
-    private Rental rental;
-    private Customer customer;
-    private Vehicle vehicle;
-
-    @BeforeEach
-    void setUp() {
-        customer = new Customer();
-        customer.setName("John Doe");
-        customer.setPhone("+1234567890");
-
-        vehicle = new Vehicle();
-        vehicle.setModel("Corolla");
-        vehicle.setBrand("Toyota");
-        vehicle.setPlate("ABC-123");
-
-        rental = new Rental();
-        rental.setCustomer(customer);
-        rental.setVehicle(vehicle);
-        rental.setRentalStatus(RentalStatus.ACTIVE);
+    @Test
+    void sendReminders_shouldEnqueueSmsAndAlert_andMarkRental_whenRentalEndsWithinOneHour() {
+        // Arrange
+        RentalReminderRow rental = reminder(1L, "+1234567890");
+        when(rentalRepository.findRemindersDue(eq(RentalStatus.ACTIVE), any(), any(), any())).thenReturn(List.of(rental));
+
+        // Act
+        rentalReminderService.sendReminders();
+
+        // Assert
+        verify(smsOutbox, times(1)).enqueue(eq("+1234567890"), anyString());
+        assertEquals(List.of(1L), publishedAlerts().alerts().stream().map(alert -> alert.rentalId()).toList());
+        verify(rentalRepository, times(1)).markReminderSent(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void sendReminders_shouldQueryOnlyTheNextHour() {
+        // Arrange
+        when(rentalRepository.findRemindersDue(any(), any(), any(), any())).thenReturn(Collections.emptyList());
+
+        // Act
+        rentalReminderService.sendReminders();
+
+        // Assert: la ventana la resuelve la consulta indexada, no un filtro en memoria
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(rentalRepository).findRemindersDue(eq(RentalStatus.ACTIVE), from.capture(), to.capture(), any());
+        assertEquals(Duration.ofHours(1), Duration.between(from.getValue(), to.getValue()));
+        verify(rentalRepository, never()).findByRentalStatus(any());
+    }
+
+    @Test
+    void sendReminders_shouldNotSendAnything_whenNoRelevantRentalsAreFound() {
+        // Arrange: alquileres ya avisados, vencidos, no activos o fuera de la ventana no los devuelve la consulta
+        when(rentalRepository.findRemindersDue(eq(RentalStatus.ACTIVE), any(), any(), any())).thenReturn(Collections.emptyList());
+
+        // Act
+        rentalReminderService.sendReminders();
+
+        // Assert
+        verify(smsOutbox, never()).enqueue(anyString(), anyString());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(rentalRepository, never()).markReminderSent(any(), any());
     }
 
+    // Caso borde: Si falla el encolado de un alquiler solo se revierte su transacción; los demás se confirman y se marcan.
     @Test
-    void sendReminders_shouldSendSmsAndAlert_whenRentalEndsWithinOneHour() {
+    void sendReminders_shouldCommitOtherRentals_whenOneEnqueueFails() {
         // Arrange
-        rental.setEndDate(LocalDateTime.now().plusMinutes(30));
-        when(rentalRepository.findByRentalStatus(RentalStatus.ACTIVE)).thenReturn(List.of(rental));
+        RentalReminderRow ok = reminder(1L, "+1111111111");
+        RentalReminderRow failing = reminder(2L, "+2222222222");
+        RentalReminderRow last = reminder(3L, "+3333333333");
+        when(rentalRepository.findRemindersDue(eq(RentalStatus.ACTIVE), any(), any(), any())).thenReturn(List.of(ok, failing, last));
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        lenient().doThrow(new IllegalStateException("bandeja no disponible")).when(smsOutbox).enqueue(eq("+2222222222"), anyString());
 
         // Act
         rentalReminderService.sendReminders();
 
         // Assert
-        verify(smsService, times(1)).sendSms(eq(customer.getPhone()), anyString());
-        verify(adminAlertService, times(1)).sendRentalEndingAlert(anyString());
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(3)).getTransaction(definitions.capture());
+        definitions.getAllValues().forEach(definition ->
+                assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getPropagationBehavior()));
+        verify(transactionManager, times(2)).commit(any(TransactionStatus.class));
+        verify(transactionManager, times(1)).rollback(any(TransactionStatus.class));
+        verify(rentalRepository).markReminderSent(eq(List.of(1L)), any());
+        verify(rentalRepository).markReminderSent(eq(List.of(3L)), any());
+        verify(rentalRepository, never()).markReminderSent(eq(List.of(2L)), any());
+        assertEquals(List.of(1L, 3L), publishedAlerts().alerts().stream().map(alert -> alert.rentalId()).toList());
     }
 
     @Test
-    void sendReminders_shouldNotSendAnything_whenRentalEndsAfterOneHour() {
+    void sendReminders_shouldCoalesceAlertsOfOneRunIntoSingleBatch() {
         // Arrange
-        rental.setEndDate(LocalDateTime.now().plusHours(2));
-        when(rentalRepository.findByRentalStatus(RentalStatus.ACTIVE)).thenReturn(List.of(rental));
+        when(rentalRepository.findRemindersDue(eq(RentalStatus.ACTIVE), any(), any(), any()))
+                .thenReturn(List.of(reminder(1L, "+1111111111"), reminder(2L, "+2222222222"), reminder(3L, "+3333333333")));
 
         // Act
         rentalReminderService.sendReminders();
 
         // Assert
-        verify(smsService, never()).sendSms(anyString(), anyString());
-        verify(adminAlertService, never()).sendRentalEndingAlert(anyString());
+        assertEquals(3, publishedAlerts().alerts().size());
     }
 
+    // Caso de éxito: Las alertas no se envían al panel dentro de la transacción; salen como evento para después del commit.
     @Test
-    void sendReminders_shouldNotSendAnything_whenNoRelevantRentalsAreFound() {
-        // Arrange: This covers cases where the rental already ended, is not active, or the list is empty.
-        // In all these scenarios, the list of rentals to remind will be empty.
-        when(rentalRepository.findByRentalStatus(RentalStatus.ACTIVE)).thenReturn(Collections.emptyList());
+    void sendReminders_shouldPublishAlertsAsEvent_afterMarkingRentals() {
+        // Arrange
+        when(rentalRepository.findRemindersDue(eq(RentalStatus.ACTIVE), any(), any(), any())).thenReturn(List.of(reminder(1L, "+1234567890")));
 
         // Act
         rentalReminderService.sendReminders();
 
         // Assert
-        verify(smsService, never()).sendSms(anyString(), anyString());
-        verify(adminAlertService, never()).sendRentalEndingAlert(anyString());
+        InOrder inOrder = inOrder(rentalRepository, eventPublisher);
+        inOrder.verify(rentalRepository).markReminderSent(eq(List.of(1L)), any());
+        inOrder.verify(eventPublisher).publishEvent(any(RentalEndingAlertsEvent.class));
+    }
+
+    private RentalEndingAlertsEvent publishedAlerts() {
+        ArgumentCaptor<RentalEndingAlertsEvent> event = ArgumentCaptor.forClass(RentalEndingAlertsEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        return event.getValue();
+    }
+
+    private static RentalReminderRow reminder(Long rentalId, String phone) {
+        return new RentalReminderRow(rentalId, LocalDateTime.now().plusMinutes(30), "John Doe", phone,
+                "Toyota", "Corolla", "ABC-123");
     }
-}
\ No newline at end of file
+}
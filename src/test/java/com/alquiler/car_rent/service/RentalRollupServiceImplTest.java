@@ -0,0 +1,187 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
+import com.alquiler.car_rent.commons.entities.RentalDailyRollup;
+import com.alquiler.car_rent.commons.entities.RentalRollupLock;
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+import com.alquiler.car_rent.repositories.RentalDailyRollupRepository;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.service.RentalRollupService.Contribution;
+import com.alquiler.car_rent.service.impl.RentalRollupServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RentalRollupServiceImplTest {
+
+    @Mock
+    private RentalDailyRollupRepository rollupRepository;
+    @Mock
+    private RentalRepository rentalRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RentalRollupServiceImpl rentalRollupService;
+
+    private final Contribution active = new Contribution(LocalDate.of(2025, 7, 15), VehicleType.SEDAN,
+            PricingTier.STANDARD, RentalStatus.ACTIVE, new BigDecimal("200.00"), 2);
+
+    // Caso de éxito: El aporte se aplica con un único upsert, sin comprobar antes si el bucket existe.
+    @Test
+    void add_shouldUpsertBucketInSingleStatement() {
+        rentalRollupService.add(active);
+
+        verify(rollupRepository).upsert(active.bucketDate(), "SEDAN", "STANDARD", "ACTIVE",
+                1L, new BigDecimal("200.00"), 2L);
+        verify(rollupRepository, never()).save(any(RentalDailyRollup.class));
+    }
+
+    // Caso borde: Sin tipo ni nivel el bucket usa el valor NONE para que la clave única siga aplicando.
+    @Test
+    void add_shouldUseNoneSentinel_whenDimensionsAreMissing() {
+        Contribution withoutDimensions = new Contribution(active.bucketDate(), null, null, RentalStatus.PENDING,
+                new BigDecimal("50.00"), 1);
+
+        rentalRollupService.add(withoutDimensions);
+
+        verify(rollupRepository).upsert(active.bucketDate(), RentalDailyRollup.NONE, RentalDailyRollup.NONE, "PENDING",
+                1L, new BigDecimal("50.00"), 1L);
+    }
+
+    // Caso de éxito: Un lote suma con una sola actualización por bucket diario.
+    @Test
+    void addAll_shouldIncrementEachBucketOnce() {
+        Contribution sameDay = new Contribution(active.bucketDate(), VehicleType.SEDAN, PricingTier.STANDARD,
+                RentalStatus.ACTIVE, new BigDecimal("300.00"), 3);
+        Contribution otherDay = new Contribution(active.bucketDate().plusDays(1), VehicleType.SEDAN, PricingTier.STANDARD,
+                RentalStatus.ACTIVE, new BigDecimal("100.00"), 1);
+        rentalRollupService.addAll(List.of(active, sameDay, otherDay));
+
+        verify(rollupRepository).upsert(active.bucketDate(), "SEDAN", "STANDARD", "ACTIVE",
+                2L, new BigDecimal("500.00"), 5L);
+        verify(rollupRepository).upsert(otherDay.bucketDate(), "SEDAN", "STANDARD", "ACTIVE",
+                1L, new BigDecimal("100.00"), 1L);
+        verify(rollupRepository, times(2)).upsert(any(), any(), any(), any(), anyLong(), any(), anyLong());
+        verify(rollupRepository, times(1)).lockForIncrement(RentalRollupLock.ID);
+    }
+
+    // Caso de éxito: El cambio de estado de un lote descuenta y suma una vez por bucket.
+    @Test
+    void moveAll_shouldSubtractAndAddGroupedByBucket() {
+        Contribution completed = new Contribution(active.bucketDate(), VehicleType.SEDAN, PricingTier.STANDARD,
+                RentalStatus.COMPLETED, new BigDecimal("200.00"), 2);
+        rentalRollupService.moveAll(List.of(active, active), List.of(completed, completed));
+
+        verify(rollupRepository).upsert(active.bucketDate(), "SEDAN", "STANDARD", "ACTIVE",
+                -2L, new BigDecimal("-400.00"), -4L);
+        verify(rollupRepository).upsert(active.bucketDate(), "SEDAN", "STANDARD", "COMPLETED",
+                2L, new BigDecimal("400.00"), 4L);
+    }
+
+    // Caso de éxito: Un cambio de estado descuenta del bucket anterior y suma al nuevo.
+    @Test
+    void move_shouldSubtractBeforeAndAddAfter() {
+        Contribution cancelled = new Contribution(active.bucketDate(), VehicleType.SEDAN,
+                PricingTier.STANDARD, RentalStatus.CANCELLED, BigDecimal.ZERO, 2);
+        rentalRollupService.move(active, cancelled);
+
+        verify(rollupRepository).upsert(active.bucketDate(), "SEDAN", "STANDARD", "ACTIVE",
+                -1L, new BigDecimal("-200.00"), -2L);
+        verify(rollupRepository).upsert(eq(active.bucketDate()), eq("SEDAN"), eq("STANDARD"),
+                eq("CANCELLED"), eq(1L), eq(BigDecimal.ZERO), eq(2L));
+    }
+
+    // Caso borde: Sin cambios en el alquiler no se toca la tabla de agregados.
+    @Test
+    void move_shouldDoNothing_whenContributionUnchanged() {
+        rentalRollupService.move(active, active);
+
+        verifyNoInteractions(rollupRepository);
+    }
+
+    // Caso de éxito: La reconstrucción agrupa los alquileres de cada día por bucket y reemplaza los de ese día.
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_shouldGroupRentalsIntoBuckets() {
+        LocalDateTime day = LocalDateTime.of(2025, 7, 15, 9, 0);
+        when(rentalRepository.findStartDays()).thenReturn(List.of(day.toLocalDate()));
+        when(rentalRepository.streamReportRowsStartingIn(day.toLocalDate().atStartOfDay(), day.toLocalDate().plusDays(1).atStartOfDay()))
+                .thenReturn(Stream.of(
+                        new RentalReportRow(1L, 1L, "Ana", 1L, "Toyota", "Corolla", VehicleType.SEDAN, PricingTier.STANDARD,
+                                RentalStatus.COMPLETED, day, day.plusDays(2), new BigDecimal("100.00")),
+                        new RentalReportRow(2L, 2L, "Luis", 2L, "Toyota", "Yaris", VehicleType.SEDAN, PricingTier.STANDARD,
+                                RentalStatus.COMPLETED, day.plusHours(5), day.plusDays(3), new BigDecimal("150.00")),
+                        new RentalReportRow(3L, 2L, "Luis", 3L, "Ford", "Ranger", VehicleType.PICKUP, PricingTier.PREMIUM,
+                                RentalStatus.CANCELLED, day, day.plusDays(1), BigDecimal.ZERO)
+                ));
+
+        rentalRollupService.rebuild();
+
+        verify(rollupRepository).deleteBucketsOn(day.toLocalDate());
+        ArgumentCaptor<List<RentalDailyRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(rollupRepository).saveAll(captor.capture());
+        List<RentalDailyRollup> buckets = captor.getValue();
+        assertEquals(2, buckets.size());
+        RentalDailyRollup sedan = buckets.stream()
+                .filter(b -> b.getVehicleType() == VehicleType.SEDAN)
+                .findFirst().orElseThrow();
+        assertEquals(2L, sedan.getRentalCount());
+        assertEquals(new BigDecimal("250.00"), sedan.getRevenue());
+        assertEquals(4L, sedan.getRentalDays());
+    }
+
+    // Caso borde: Cada día toma el bloqueo exclusivo en su propia transacción y antes de leer sus alquileres.
+    @Test
+    void rebuild_shouldLockEachDayInItsOwnTransactionBeforeReadingRentals() {
+        LocalDate first = LocalDate.of(2025, 7, 15);
+        LocalDate second = first.plusDays(1);
+        when(rentalRepository.findStartDays()).thenReturn(List.of(second, first));
+        when(rentalRepository.streamReportRowsStartingIn(any(), any())).thenAnswer(invocation -> Stream.empty());
+
+        rentalRollupService.rebuild();
+
+        InOrder inOrder = inOrder(transactionManager, rollupRepository, rentalRepository);
+        for (LocalDate day : List.of(first, second)) {
+            inOrder.verify(transactionManager).getTransaction(any());
+            inOrder.verify(rollupRepository).lockForRebuild(RentalRollupLock.ID);
+            inOrder.verify(rentalRepository).streamReportRowsStartingIn(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            inOrder.verify(rollupRepository).deleteBucketsOn(day);
+            inOrder.verify(transactionManager).commit(any());
+        }
+    }
+
+    // Caso borde: Un día que conserva buckets pero ya no tiene alquileres queda vacío.
+    @Test
+    void rebuild_shouldClearDaysWithoutRentals() {
+        LocalDate stale = LocalDate.of(2025, 7, 15);
+        when(rentalRepository.findStartDays()).thenReturn(List.of());
+        when(rollupRepository.findBucketDates()).thenReturn(List.of(stale));
+        when(rentalRepository.streamReportRowsStartingIn(any(), any())).thenReturn(Stream.empty());
+
+        rentalRollupService.rebuild();
+
+        verify(rollupRepository).deleteBucketsOn(stale);
+        verify(rollupRepository).saveAll(List.of());
+    }
+}
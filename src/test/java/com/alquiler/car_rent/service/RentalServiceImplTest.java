@@ -1,10 +1,17 @@
 package com.alquiler.car_rent.service;
 
+import com.alquiler.car_rent.commons.dtos.CursorPage;
+import com.alquiler.car_rent.commons.dtos.RentalBatchResult;
+import com.alquiler.car_rent.commons.dtos.RentalCursor;
 import com.alquiler.car_rent.commons.dtos.RentalDto;
+import com.alquiler.car_rent.commons.dtos.RentalFilter;
+import com.alquiler.car_rent.commons.dtos.RentalStatusBatchRequest;
 import com.alquiler.car_rent.commons.entities.Customer;
 import com.alquiler.car_rent.commons.entities.Rental;
 import com.alquiler.car_rent.commons.entities.Vehicle;
+import com.alquiler.car_rent.commons.enums.BatchItemStatus;
 import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
 import com.alquiler.car_rent.commons.enums.RentalStatus;
 import com.alquiler.car_rent.commons.enums.VehicleStatus;
 import com.alquiler.car_rent.commons.enums.VehicleType;
@@ -14,20 +21,31 @@ import com.alquiler.car_rent.exceptions.NotFoundException;
 import com.alquiler.car_rent.repositories.CustomerRepository;
 import com.alquiler.car_rent.repositories.RentalRepository;
 import com.alquiler.car_rent.repositories.VehicleRepository;
+import com.alquiler.car_rent.service.impl.RentalBookingExecutor;
 import com.alquiler.car_rent.service.impl.RentalServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +61,14 @@ class RentalServiceImplTest {
     private RentalMapper rentalMapper;
     @Mock
     private PricingService pricingService;
+    @Mock
+    private RentalRollupService rentalRollupService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private VehicleAvailabilityService vehicleAvailabilityService;
+    @Mock
+    private RentalBookingExecutor bookingExecutor;
 
     @InjectMocks
     private RentalServiceImpl rentalService;
@@ -77,14 +103,18 @@ class RentalServiceImplTest {
         rental.setStartDate(rentalDto.getStartDate());
         rental.setEndDate(rentalDto.getEndDate());
         rental.setChosenPricingTier(PricingTier.STANDARD);
+
+        // El ejecutor de reservas ejecuta la operación directamente, sin transacción ni reintentos
+        lenient().when(bookingExecutor.execute(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
     }
 
-    // Caso de éxito: Crear un alquiler válido.
+    // Caso de éxito: Crear un alquiler válido; una reserva futura no cambia el estado del vehículo.
     @Test
     void createRental_shouldSucceed_whenDataIsValid() {
         // Arrange
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        when(vehicleRepository.findById(1L)).thenReturn(Optional.of(vehicle));
+        when(bookingExecutor.lockVehicle(1L)).thenReturn(Optional.of(vehicle));
+        when(vehicleAvailabilityService.isAvailable(1L, rentalDto.getStartDate(), rentalDto.getEndDate(), null)).thenReturn(true);
         when(pricingService.calculateDailyRate(any(VehicleType.class), any(PricingTier.class))).thenReturn(new BigDecimal("100"));
         when(rentalMapper.dtoToRental(any(RentalDto.class))).thenReturn(rental);
         when(rentalRepository.save(any(Rental.class))).thenReturn(rental);
@@ -95,11 +125,14 @@ class RentalServiceImplTest {
 
         // Assert
         assertNotNull(result);
-        // Verifica que el estado del vehículo se actualizó a RENTED.
-        verify(vehicleRepository, times(1)).save(vehicle);
-        assertEquals(VehicleStatus.RENTED, vehicle.getStatus());
+        // Verifica que el vehículo sigue disponible hasta que empiece el alquiler.
+        verify(vehicleRepository, never()).save(vehicle);
+        assertEquals(VehicleStatus.AVAILABLE, vehicle.getStatus());
         // Verifica que el alquiler se guardó.
         verify(rentalRepository, times(1)).save(rental);
+        // Verifica que el alquiler se sumó al agregado diario.
+        verify(rentalRollupService, times(1)).add(any(RentalRollupService.Contribution.class));
+        verify(eventPublisher, times(1)).publishEvent(any(RentalChangedEvent.class));
     }
 
     // Caso borde: La fecha de inicio es posterior a la fecha de fin.
@@ -122,7 +155,7 @@ class RentalServiceImplTest {
         // Arrange
         vehicle.setStatus(VehicleStatus.MAINTENANCE); // Estado no disponible
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        when(vehicleRepository.findById(1L)).thenReturn(Optional.of(vehicle));
+        when(bookingExecutor.lockVehicle(1L)).thenReturn(Optional.of(vehicle));
         when(rentalMapper.dtoToRental(any(RentalDto.class))).thenReturn(rental);
 
 
@@ -137,6 +170,7 @@ class RentalServiceImplTest {
     @Test
     void createRental_shouldThrowNotFoundException_whenCustomerDoesNotExist() {
         // Arrange
+        when(bookingExecutor.lockVehicle(1L)).thenReturn(Optional.of(vehicle));
         when(customerRepository.findById(1L)).thenReturn(Optional.empty());
         when(rentalMapper.dtoToRental(any(RentalDto.class))).thenReturn(rental);
 
@@ -154,7 +188,7 @@ class RentalServiceImplTest {
         // Arrange
         rentalDto.setChosenPricingTier(null);
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        when(vehicleRepository.findById(1L)).thenReturn(Optional.of(vehicle));
+        when(bookingExecutor.lockVehicle(1L)).thenReturn(Optional.of(vehicle));
         when(rentalMapper.dtoToRental(any(RentalDto.class))).thenReturn(rental);
 
         // Act & Assert
@@ -164,11 +198,180 @@ class RentalServiceImplTest {
         assertEquals("El nivel de precios elegido (chosenPricingTier) es requerido.", exception.getMessage());
     }
 
+    // Caso borde: El vehículo ya tiene una reserva que se solapa con las fechas pedidas.
+    @Test
+    void createRental_shouldThrowBadRequestException_whenVehicleIsBookedInRange() {
+        // Arrange
+        vehicle.setStatus(VehicleStatus.RENTED); // Alquilado, pero podría reservarse en otras fechas
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookingExecutor.lockVehicle(1L)).thenReturn(Optional.of(vehicle));
+        when(rentalMapper.dtoToRental(any(RentalDto.class))).thenReturn(rental);
+        when(vehicleAvailabilityService.isAvailable(1L, rentalDto.getStartDate(), rentalDto.getEndDate(), null)).thenReturn(false);
+
+        // Act & Assert
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> {
+            rentalService.createRental(rentalDto);
+        });
+        assertEquals("El vehiculo ya está reservado en esas fechas", exception.getMessage());
+        verify(rentalRepository, never()).save(any(Rental.class));
+    }
+
+    // Caso borde: Otra reserva confirmó tras el bloqueo y el índice aún no la refleja; la consulta la detecta.
+    @Test
+    void createRental_shouldThrowBadRequestException_whenOverlapIsCommittedButNotIndexed() {
+        // Arrange
+        when(bookingExecutor.lockVehicle(1L)).thenReturn(Optional.of(vehicle));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(rentalMapper.dtoToRental(any(RentalDto.class))).thenReturn(rental);
+        when(vehicleAvailabilityService.isAvailable(1L, rentalDto.getStartDate(), rentalDto.getEndDate(), null)).thenReturn(true);
+        when(rentalRepository.existsOverlappingBooking(1L, rentalDto.getStartDate(), rentalDto.getEndDate(), null)).thenReturn(true);
+
+        // Act & Assert
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> {
+            rentalService.createRental(rentalDto);
+        });
+        assertEquals("El vehiculo ya está reservado en esas fechas", exception.getMessage());
+        verify(rentalRepository, never()).save(any(Rental.class));
+        verify(vehicleRepository, never()).save(any(Vehicle.class));
+    }
+
+    // Caso de éxito: Un alquiler que empieza ya deja el vehículo alquilado.
+    @Test
+    void createRental_shouldMarkVehicleRented_whenRentalIsInProgress() {
+        // Arrange
+        rentalDto.setStartDate(LocalDateTime.now().minusHours(1));
+        rental.setStartDate(rentalDto.getStartDate());
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(bookingExecutor.lockVehicle(1L)).thenReturn(Optional.of(vehicle));
+        when(vehicleAvailabilityService.isAvailable(1L, rentalDto.getStartDate(), rentalDto.getEndDate(), null)).thenReturn(true);
+        when(pricingService.calculateDailyRate(any(VehicleType.class), any(PricingTier.class))).thenReturn(new BigDecimal("100"));
+        when(rentalMapper.dtoToRental(any(RentalDto.class))).thenReturn(rental);
+        when(rentalRepository.save(any(Rental.class))).thenReturn(rental);
+        when(rentalMapper.rentalToDto(any(Rental.class))).thenReturn(rentalDto);
+
+        // Act
+        rentalService.createRental(rentalDto);
+
+        // Assert
+        assertEquals(VehicleStatus.RENTED, vehicle.getStatus());
+        verify(vehicleRepository, times(1)).save(vehicle);
+    }
+
+    // Caso de éxito: Un lote carga clientes y vehículos con una consulta por tipo y rechaza solo los elementos inválidos.
+    @Test
+    void createRentals_shouldPrefetchOnceAndReportPerItem() {
+        // Arrange
+        RentalDto overlapping = new RentalDto();
+        overlapping.setCustomerId(1L);
+        overlapping.setVehicleId(1L);
+        overlapping.setStartDate(rentalDto.getStartDate().plusDays(1));
+        overlapping.setEndDate(rentalDto.getEndDate().plusDays(1));
+        overlapping.setChosenPricingTier(PricingTier.STANDARD);
+        RentalDto unknownCustomer = new RentalDto();
+        unknownCustomer.setCustomerId(7L);
+        unknownCustomer.setVehicleId(1L);
+        unknownCustomer.setStartDate(rentalDto.getEndDate().plusDays(5));
+        unknownCustomer.setEndDate(rentalDto.getEndDate().plusDays(6));
+        unknownCustomer.setChosenPricingTier(PricingTier.STANDARD);
+
+        when(bookingExecutor.lockVehicles(any())).thenReturn(List.of(vehicle));
+        when(customerRepository.findAllById(any())).thenReturn(List.of(customer));
+        when(rentalRepository.findBookedIntervals(any(), any(), any())).thenReturn(List.of());
+        when(pricingService.calculateDailyRate(VehicleType.SEDAN, PricingTier.STANDARD)).thenReturn(new BigDecimal("100"));
+        when(rentalMapper.dtoToRental(rentalDto)).thenReturn(rental);
+        when(rentalRepository.saveAll(any())).thenReturn(List.of(rental));
+        when(rentalMapper.rentalToDto(rental)).thenReturn(rentalDto);
+
+        // Act
+        List<RentalBatchResult> results = rentalService.createRentals(List.of(rentalDto, overlapping, unknownCustomer));
+
+        // Assert
+        assertEquals(BatchItemStatus.CREATED, results.get(0).status());
+        assertEquals(new BigDecimal("200"), rental.getTotalPrice());
+        // Las reservas del lote son futuras: el vehículo sigue disponible
+        assertEquals(VehicleStatus.AVAILABLE, vehicle.getStatus());
+        assertEquals(BatchItemStatus.REJECTED, results.get(1).status());
+        assertEquals("El vehiculo ya está reservado en esas fechas", results.get(1).error());
+        assertEquals(BatchItemStatus.REJECTED, results.get(2).status());
+        assertEquals("Cliente No Encontrado por ID: 7", results.get(2).error());
+        verify(bookingExecutor, times(1)).lockVehicles(any());
+        verify(customerRepository, times(1)).findAllById(any());
+        verify(customerRepository, never()).findById(any());
+        verify(rentalRepository, times(1)).saveAll(List.of(rental));
+        verify(rentalRollupService, times(1)).addAll(any());
+    }
+
+    // Caso borde: Un lote vacío se rechaza completo.
+    @Test
+    void createRentals_shouldThrowBadRequestException_whenBatchIsEmpty() {
+        assertThrows(BadRequestException.class, () -> rentalService.createRentals(List.of()));
+    }
+
+    // Caso de éxito: El cambio masivo de estado cierra los alquileres activos y rechaza los ya cerrados.
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateRentalStatuses_shouldCompleteActiveAndRejectClosed() {
+        // Arrange
+        rental.setRentalStatus(RentalStatus.ACTIVE);
+        vehicle.setStatus(VehicleStatus.RENTED);
+        Rental cancelled = new Rental();
+        cancelled.setId(2L);
+        cancelled.setRentalStatus(RentalStatus.CANCELLED);
+        when(rentalRepository.findAllWithVehicleByIdIn(any())).thenReturn(List.of(rental, cancelled));
+        when(rentalMapper.rentalToDto(rental)).thenReturn(rentalDto);
+
+        // Act
+        List<RentalBatchResult> results = rentalService.updateRentalStatuses(
+                new RentalStatusBatchRequest(List.of(1L, 2L, 3L), RentalStatus.COMPLETED));
+
+        // Assert
+        assertEquals(BatchItemStatus.UPDATED, results.get(0).status());
+        assertEquals(RentalStatus.COMPLETED, rental.getRentalStatus());
+        assertEquals(VehicleStatus.AVAILABLE, vehicle.getStatus());
+        assertEquals(BatchItemStatus.REJECTED, results.get(1).status());
+        assertEquals("Alquiler no encontrado con ID: 3", results.get(2).error());
+        verify(rentalRepository, times(1)).saveAll(List.of(rental));
+        // Verifica que el agregado diario se ajusta una sola vez para todo el lote.
+        ArgumentCaptor<Collection<RentalRollupService.Contribution>> before = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<RentalRollupService.Contribution>> after = ArgumentCaptor.forClass(Collection.class);
+        verify(rentalRollupService, times(1)).moveAll(before.capture(), after.capture());
+        verify(rentalRollupService, never()).move(any(), any());
+        assertEquals(RentalStatus.ACTIVE, before.getValue().iterator().next().rentalStatus());
+        assertEquals(RentalStatus.COMPLETED, after.getValue().iterator().next().rentalStatus());
+    }
+
+    // Caso borde: El cambio masivo no libera un vehículo con otro alquiler en curso.
+    @Test
+    void updateRentalStatuses_shouldKeepVehicleRented_whenAnotherRentalIsInProgress() {
+        // Arrange
+        rental.setRentalStatus(RentalStatus.PENDING);
+        vehicle.setStatus(VehicleStatus.RENTED);
+        when(rentalRepository.findAllWithVehicleByIdIn(any())).thenReturn(List.of(rental));
+        when(rentalMapper.rentalToDto(rental)).thenReturn(rentalDto);
+        when(rentalRepository.findVehicleIdsInUse(eq(Set.of(1L)), any(), eq(Set.of(1L)))).thenReturn(List.of(1L));
+
+        // Act
+        rentalService.updateRentalStatuses(new RentalStatusBatchRequest(List.of(1L), RentalStatus.CANCELLED));
+
+        // Assert
+        assertEquals(RentalStatus.CANCELLED, rental.getRentalStatus());
+        assertEquals(VehicleStatus.RENTED, vehicle.getStatus());
+        verify(vehicleRepository).saveAll(List.of());
+    }
+
+    // Caso borde: Solo se admiten los estados de cierre en el cambio masivo.
+    @Test
+    void updateRentalStatuses_shouldRejectNonClosingStatus() {
+        assertThrows(BadRequestException.class, () -> rentalService.updateRentalStatuses(
+                new RentalStatusBatchRequest(List.of(1L), RentalStatus.ACTIVE)));
+    }
+
     // Caso de éxito: Cancelar un alquiler existente.
     @Test
     void cancelRental_shouldSucceed_whenRentalExists() {
         // Arrange
         rental.setRentalStatus(RentalStatus.ACTIVE);
+        vehicle.setStatus(VehicleStatus.RENTED);
         when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
         when(rentalRepository.save(any(Rental.class))).thenReturn(rental);
         when(rentalMapper.rentalToDto(any(Rental.class))).thenReturn(rentalDto);
@@ -185,6 +388,13 @@ class RentalServiceImplTest {
         assertEquals(VehicleStatus.AVAILABLE, vehicle.getStatus());
         verify(vehicleRepository, times(1)).save(vehicle);
         verify(rentalRepository, times(1)).save(rental);
+        // Verifica que el aporte al agregado diario pasó de ACTIVE a CANCELLED.
+        ArgumentCaptor<RentalRollupService.Contribution> before = ArgumentCaptor.forClass(RentalRollupService.Contribution.class);
+        ArgumentCaptor<RentalRollupService.Contribution> after = ArgumentCaptor.forClass(RentalRollupService.Contribution.class);
+        verify(rentalRollupService).move(before.capture(), after.capture());
+        assertEquals(RentalStatus.ACTIVE, before.getValue().rentalStatus());
+        assertEquals(RentalStatus.CANCELLED, after.getValue().rentalStatus());
+        assertEquals(BigDecimal.ZERO, after.getValue().revenue());
     }
 
     // Caso borde: Intentar cancelar un alquiler que no existe.
@@ -206,6 +416,7 @@ class RentalServiceImplTest {
         // Arrange
         rentalDto.setEndDate(LocalDateTime.now().plusDays(5)); // Se extienden las fechas
         when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
+        when(vehicleAvailabilityService.isAvailable(1L, rentalDto.getStartDate(), rentalDto.getEndDate(), 1L)).thenReturn(true);
         when(pricingService.calculateDailyRate(any(VehicleType.class), any(PricingTier.class))).thenReturn(new BigDecimal("100"));
         when(rentalRepository.save(any(Rental.class))).thenReturn(rental);
         when(rentalMapper.rentalToDto(any(Rental.class))).thenReturn(rentalDto);
@@ -219,6 +430,49 @@ class RentalServiceImplTest {
         verify(rentalRepository, times(1)).save(rental);
     }
 
+    // Caso de éxito: Adelantar el inicio de un alquiler activo a ahora deja el vehículo alquilado.
+    @Test
+    void updateRental_shouldMarkVehicleRented_whenNewDatesStartTheRental() {
+        // Arrange
+        rental.setRentalStatus(RentalStatus.ACTIVE);
+        rentalDto.setStartDate(LocalDateTime.now().minusHours(1));
+        when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
+        when(vehicleAvailabilityService.isAvailable(1L, rentalDto.getStartDate(), rentalDto.getEndDate(), 1L)).thenReturn(true);
+        when(pricingService.calculateDailyRate(any(VehicleType.class), any(PricingTier.class))).thenReturn(new BigDecimal("100"));
+        when(rentalRepository.save(any(Rental.class))).thenReturn(rental);
+        when(rentalMapper.rentalToDto(any(Rental.class))).thenReturn(rentalDto);
+
+        // Act
+        rentalService.updateRental(1L, rentalDto);
+
+        // Assert
+        assertEquals(VehicleStatus.RENTED, vehicle.getStatus());
+        verify(vehicleRepository, times(1)).save(vehicle);
+        verify(rentalRepository, never()).findVehicleIdsInUse(any(), any(), any());
+    }
+
+    // Caso borde: Aplazar el alquiler en curso libera el vehículo aunque conserve la reserva futura.
+    @Test
+    void updateRental_shouldReleaseVehicle_whenRentalMovesToTheFuture() {
+        // Arrange
+        rental.setRentalStatus(RentalStatus.ACTIVE);
+        rental.setStartDate(LocalDateTime.now().minusHours(1));
+        vehicle.setStatus(VehicleStatus.RENTED);
+        when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
+        when(vehicleAvailabilityService.isAvailable(1L, rentalDto.getStartDate(), rentalDto.getEndDate(), 1L)).thenReturn(true);
+        when(pricingService.calculateDailyRate(any(VehicleType.class), any(PricingTier.class))).thenReturn(new BigDecimal("100"));
+        when(rentalRepository.save(any(Rental.class))).thenReturn(rental);
+        when(rentalMapper.rentalToDto(any(Rental.class))).thenReturn(rentalDto);
+
+        // Act
+        rentalService.updateRental(1L, rentalDto);
+
+        // Assert
+        assertEquals(VehicleStatus.AVAILABLE, vehicle.getStatus());
+        verify(rentalRepository).findVehicleIdsInUse(eq(Set.of(1L)), any(), eq(Set.of(1L)));
+        verify(vehicleRepository, times(1)).save(vehicle);
+    }
+
     // Caso borde: Actualizar un alquiler con fechas inválidas.
     @Test
     void updateRental_shouldThrowBadRequestException_whenStartDateIsAfterEndDate() {
@@ -261,10 +515,31 @@ class RentalServiceImplTest {
         });
     }
 
+    // Caso borde: Cancelar una reserva no libera el vehículo si otro alquiler suyo está en curso.
+    @Test
+    void cancelRental_shouldKeepVehicleRented_whenAnotherRentalIsInProgress() {
+        // Arrange
+        rental.setRentalStatus(RentalStatus.PENDING);
+        vehicle.setStatus(VehicleStatus.RENTED);
+        when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
+        when(rentalRepository.save(any(Rental.class))).thenReturn(rental);
+        when(rentalMapper.rentalToDto(any(Rental.class))).thenReturn(rentalDto);
+        when(rentalRepository.findVehicleIdsInUse(eq(Set.of(1L)), any(), eq(Set.of(1L)))).thenReturn(List.of(1L));
+
+        // Act
+        rentalService.cancelRental(1L);
+
+        // Assert
+        assertEquals(RentalStatus.CANCELLED, rental.getRentalStatus());
+        assertEquals(VehicleStatus.RENTED, vehicle.getStatus());
+        verify(vehicleRepository, never()).save(vehicle);
+    }
+
     // Caso de éxito: Eliminar un alquiler.
     @Test
     void deleteRental_shouldSucceed_andMakeVehicleAvailable() {
         // Arrange
+        vehicle.setStatus(VehicleStatus.RENTED);
         when(rentalRepository.findById(1L)).thenReturn(Optional.of(rental));
 
         // Act
@@ -276,5 +551,45 @@ class RentalServiceImplTest {
         verify(vehicleRepository, times(1)).save(vehicle);
         // Verifica que el método delete del repositorio fue llamado.
         verify(rentalRepository, times(1)).delete(rental);
+        verify(rentalRollupService, times(1)).subtract(any(RentalRollupService.Contribution.class));
+    }
+
+    // Caso de éxito: La lista por cursor devuelve una página y el token de la siguiente.
+    @Test
+    void scrollRentals_shouldReturnPageAndNextCursor_whenMoreRentalsExist() {
+        // Arrange
+        Rental second = new Rental();
+        second.setId(2L);
+        second.setStartDate(rental.getStartDate().plusHours(1));
+        when(rentalRepository.findRangeAfter(any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(RentalCursor.ORIGIN.startDate()), eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(rental, second));
+        when(rentalMapper.rentalToDto(rental)).thenReturn(rentalDto);
+
+        // Act
+        CursorPage<RentalDto> page = rentalService.scrollRentals("", 1, null, null);
+
+        // Assert
+        assertEquals(1, page.items().size());
+        assertTrue(page.hasNext());
+        assertEquals(new RentalCursor(rental.getStartDate(), rental.getId()), RentalCursor.decode(page.nextCursor()));
+    }
+
+    // Caso borde: Un cursor manipulado se rechaza con BadRequestException.
+    @Test
+    void scrollRentals_shouldThrowBadRequestException_whenCursorIsInvalid() {
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> rentalService.scrollRentals("not-a-cursor", 10, null, null));
+        assertEquals("Cursor de paginación inválido", exception.getMessage());
+        verifyNoInteractions(rentalRepository);
+    }
+
+    // Caso borde: Un rango de fechas invertido en el listado filtrado se rechaza sin consultar.
+    @Test
+    void findRentals_shouldThrowBadRequestException_whenRangeIsInverted() {
+        RentalFilter filter = new RentalFilter(null, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), null, null, null);
+        assertThrows(BadRequestException.class,
+                () -> rentalService.findRentals(filter, org.springframework.data.domain.PageRequest.of(0, 20)));
+        verifyNoInteractions(rentalRepository);
     }
-}
\ No newline at end of file
+}
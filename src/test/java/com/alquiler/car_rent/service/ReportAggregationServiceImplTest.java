@@ -0,0 +1,267 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants.ReportSection;
+import com.alquiler.car_rent.commons.dtos.RentalReportRow;
+import com.alquiler.car_rent.commons.enums.PricingTier;
+import com.alquiler.car_rent.commons.enums.RentalStatus;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+import com.alquiler.car_rent.repositories.RentalDailyRollupRepository;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.service.impl.reportsImpl.ReportAggregationServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportAggregationServiceImplTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    @Mock
+    private RentalRepository rentalRepository;
+    @Mock
+    private RentalDailyRollupRepository rollupRepository;
+
+    @InjectMocks
+    private ReportAggregationServiceImpl reportAggregationService;
+
+    private RentalReportRow row(long id, long customerId, String customer, long vehicleId, String brand, String model,
+                                VehicleType type, PricingTier tier, LocalDateTime start, int days, String price) {
+        return new RentalReportRow(id, customerId, customer, vehicleId, brand, model, type, tier,
+                RentalStatus.COMPLETED, start, start.plusDays(days), new BigDecimal(price));
+    }
+
+    // Caso de éxito: Todas las métricas se calculan con una sola consulta y una sola pasada.
+    @Test
+    @SuppressWarnings("unchecked")
+    void aggregateRentalMetrics_shouldComputeAllMetricsInSinglePass() {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Stream<RentalReportRow> rows = Stream.of(
+                row(1, 10, "Ana", 100, "Toyota", "Corolla", VehicleType.SEDAN, PricingTier.STANDARD,
+                        LocalDateTime.of(2025, 1, 5, 10, 0), 2, "100.00"),
+                row(2, 10, "Ana", 200, "Ford", "Ranger", VehicleType.PICKUP, PricingTier.PREMIUM,
+                        LocalDateTime.of(2025, 2, 3, 10, 0), 4, "300.00"),
+                row(3, 20, "Luis", 100, "Toyota", "Corolla", VehicleType.SEDAN, PricingTier.STANDARD,
+                        LocalDateTime.of(2025, 2, 10, 10, 0), 3, "150.00")
+        ).onClose(() -> closed.set(true));
+        when(rentalRepository.streamReportRows(START, END)).thenReturn(rows);
+
+        // Act
+        Map<String, Object> metrics = reportAggregationService.aggregateRentalMetrics(START, END, ReportSection.rentalSections());
+
+        // Assert
+        assertEquals(3L, metrics.get("totalRentals"));
+        assertEquals(550.0, (Double) metrics.get("totalRevenue"), 0.001);
+        assertEquals(2L, metrics.get("uniqueCustomers"));
+        assertEquals(3L, metrics.get("averageRentalDuration"));
+
+        List<Map<String, Object>> topCustomers = (List<Map<String, Object>>) metrics.get("topCustomersByRentals");
+        assertEquals("Ana", topCustomers.get(0).get("name"));
+        assertEquals(2L, topCustomers.get(0).get("rentalCount"));
+        Map<String, Double> avgByCustomer = (Map<String, Double>) metrics.get("averageRentalDurationByTopCustomers");
+        assertEquals(3.0, avgByCustomer.get("Ana"), 0.001);
+        assertEquals(3.0, avgByCustomer.get("Luis"), 0.001);
+
+        Map<String, Object> mostRented = (Map<String, Object>) metrics.get("mostRentedVehicle");
+        assertEquals("Toyota", mostRented.get("brand"));
+        assertEquals(2L, mostRented.get("rentalCount"));
+        assertEquals(2, ((List<?>) metrics.get("vehicleUsage")).size());
+
+        Map<VehicleType, Long> byType = (Map<VehicleType, Long>) metrics.get("rentalsByVehicleType");
+        assertEquals(2L, byType.get(VehicleType.SEDAN));
+        Map<PricingTier, Double> revenueByTier = (Map<PricingTier, Double>) metrics.get("revenueByPricingTier");
+        assertEquals(250.0, revenueByTier.get(PricingTier.STANDARD), 0.001);
+
+        List<Map<String, Object>> trends = (List<Map<String, Object>>) metrics.get("rentalTrends");
+        assertEquals(2, trends.size());
+        assertEquals("2025-01", trends.get(0).get("period"));
+        assertEquals(2L, trends.get(1).get("rentalCount"));
+
+        assertTrue(closed.get(), "El stream de la consulta debe cerrarse tras la agregación");
+        verify(rentalRepository, times(1)).streamReportRows(START, END);
+        verifyNoMoreInteractions(rentalRepository);
+    }
+
+    // Caso borde: Sin alquileres en el rango se devuelven métricas vacías sin errores.
+    @Test
+    void aggregateRentalMetrics_shouldReturnEmptyMetrics_whenNoRentals() {
+        // Arrange
+        when(rentalRepository.streamReportRows(START, END)).thenReturn(Stream.empty());
+
+        // Act
+        Map<String, Object> metrics = reportAggregationService.aggregateRentalMetrics(START, END, ReportSection.rentalSections());
+
+        // Assert
+        assertEquals(0L, metrics.get("totalRentals"));
+        assertEquals(0.0, (Double) metrics.get("totalRevenue"), 0.001);
+        assertEquals(0L, metrics.get("averageRentalDuration"));
+        assertTrue(((Map<?, ?>) metrics.get("mostRentedVehicle")).isEmpty());
+        assertFalse(metrics.containsKey("averageRentalDurationByTopCustomers"));
+    }
+
+    // Caso de éxito: La pasada única devuelve solo las secciones pedidas, sin las que cubren los agregados diarios.
+    @Test
+    void aggregateRentalMetrics_shouldKeepOnlyRequestedSections() {
+        // Arrange
+        when(rentalRepository.streamReportRows(START, END)).thenReturn(Stream.of(
+                row(1, 10, "Ana", 100, "Toyota", "Corolla", VehicleType.SEDAN, PricingTier.STANDARD,
+                        LocalDateTime.of(2025, 1, 5, 10, 0), 2, "100.00")));
+
+        // Act
+        Map<String, Object> metrics = reportAggregationService.aggregateRentalMetrics(START, END,
+                EnumSet.of(ReportSection.CUSTOMER_COUNTS, ReportSection.MOST_RENTED_VEHICLE));
+
+        // Assert
+        assertEquals(Set.of("uniqueCustomers", "activeCustomers", "mostRentedVehicle"), metrics.keySet());
+    }
+
+    // Caso de éxito: Con rango a medianoche los agregados diarios cubren totales, tendencias, desgloses y duración.
+    @Test
+    void rollupSections_shouldCoverRollupSections_whenRangeIsAlignedToDays() {
+        // Arrange
+        ReflectionTestUtils.setField(reportAggregationService, "rollupEnabled", true);
+
+        // Act
+        Set<ReportSection> sections = reportAggregationService.rollupSections(START, END);
+
+        // Assert
+        assertEquals(EnumSet.of(ReportSection.TOTALS, ReportSection.RENTAL_TRENDS, ReportSection.VEHICLE_TYPE_BREAKDOWN,
+                ReportSection.PRICING_TIER_BREAKDOWN, ReportSection.AVERAGE_DURATION), sections);
+    }
+
+    // Caso borde: Un rango que no empieza a medianoche no se puede servir desde buckets diarios.
+    @Test
+    void rollupSections_shouldBeEmpty_whenRangeIsNotAlignedToDays() {
+        // Arrange
+        ReflectionTestUtils.setField(reportAggregationService, "rollupEnabled", true);
+
+        // Act
+        Set<ReportSection> sections = reportAggregationService.rollupSections(START.plusHours(9), END);
+
+        // Assert
+        assertTrue(sections.isEmpty());
+    }
+
+    // Caso de éxito: Las secciones pedidas se resuelven con sus consultas agregadas, sin recorrer el rango.
+    @Test
+    void aggregateSections_shouldQueryOnlyRequestedSections() {
+        // Arrange
+        when(rentalRepository.countByDateRange(START, END)).thenReturn(7L);
+        when(rentalRepository.getTotalRevenueInRange(START, END)).thenReturn(840.0);
+        when(rentalRepository.countDistinctVehiclesInRange(START, END)).thenReturn(4L);
+
+        // Act
+        Map<String, Object> metrics = reportAggregationService.aggregateSections(START, END,
+                EnumSet.of(ReportSection.TOTALS, ReportSection.UNIQUE_VEHICLES));
+
+        // Assert
+        assertEquals(7L, metrics.get("totalRentals"));
+        assertEquals(840.0, (Double) metrics.get("totalRevenue"), 0.001);
+        assertEquals(4L, metrics.get("uniqueVehicles"));
+        assertEquals(3, metrics.size());
+        verify(rentalRepository).countByDateRange(START, END);
+        verify(rentalRepository).getTotalRevenueInRange(START, END);
+        verify(rentalRepository).countDistinctVehiclesInRange(START, END);
+        verifyNoMoreInteractions(rentalRepository);
+    }
+
+    // Caso de éxito: Con los agregados activos los totales suman los buckets del rango y los alquileres que ya estaban en curso.
+    @Test
+    void aggregateSections_shouldCombineRollupWithCarryOver_whenRollupEnabled() {
+        // Arrange
+        ReflectionTestUtils.setField(reportAggregationService, "rollupEnabled", true);
+        LocalDate startDay = START.toLocalDate();
+        LocalDate endDay = END.toLocalDate();
+        // Empezó antes del rango y termina dentro: la consulta directa lo cuenta, los buckets del rango no
+        when(rentalRepository.findRollupCarryOverRows(START, END)).thenReturn(List.of(
+                row(9, 30, "Eva", 300, "Kia", "Rio", VehicleType.SEDAN, PricingTier.STANDARD,
+                        LocalDateTime.of(2024, 12, 30, 10, 0), 4, "80.00")));
+        when(rollupRepository.sumTotals(startDay, endDay)).thenReturn(List.<Object[]>of(
+                new Object[]{3L, new BigDecimal("420.00"), 8L}));
+        when(rollupRepository.sumByMonth(startDay, endDay)).thenReturn(List.<Object[]>of(
+                new Object[]{2025, 1, 2L, new BigDecimal("300.00")},
+                new Object[]{2025, 2, 1L, new BigDecimal("120.00")}));
+
+        // Act
+        Map<String, Object> metrics = reportAggregationService.aggregateSections(START, END,
+                EnumSet.of(ReportSection.TOTALS, ReportSection.AVERAGE_DURATION, ReportSection.RENTAL_TRENDS));
+
+        // Assert
+        assertEquals(4L, metrics.get("totalRentals"));
+        assertEquals(500.0, (Double) metrics.get("totalRevenue"), 0.001);
+        assertEquals(3L, metrics.get("averageRentalDuration"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> trends = (List<Map<String, Object>>) metrics.get("rentalTrends");
+        assertEquals(List.of("2024-12", "2025-01", "2025-02"), trends.stream().map(t -> t.get("period")).toList());
+        assertEquals(1L, trends.get(0).get("rentalCount"));
+        verify(rentalRepository, never()).countByDateRange(any(), any());
+        verify(rentalRepository, never()).findRentalTrends(any(), any());
+    }
+
+    // Caso borde: Los desgloses omiten el bucket sin tipo, igual que la consulta directa, y suman los alquileres en curso.
+    @Test
+    @SuppressWarnings("unchecked")
+    void aggregateSections_shouldBuildBreakdownFromRollup_whenRollupEnabled() {
+        // Arrange
+        ReflectionTestUtils.setField(reportAggregationService, "rollupEnabled", true);
+        when(rentalRepository.findRollupCarryOverRows(START, END)).thenReturn(List.of(
+                row(9, 30, "Eva", 300, "Ford", "Ranger", VehicleType.PICKUP, PricingTier.PREMIUM,
+                        LocalDateTime.of(2024, 12, 30, 10, 0), 4, "80.00")));
+        when(rollupRepository.sumByVehicleType(START.toLocalDate(), END.toLocalDate())).thenReturn(List.<Object[]>of(
+                new Object[]{VehicleType.SEDAN, 5L, new BigDecimal("500.00")},
+                new Object[]{VehicleType.PICKUP, 1L, new BigDecimal("150.00")},
+                new Object[]{null, 2L, new BigDecimal("90.00")}));
+
+        // Act
+        Map<String, Object> metrics = reportAggregationService.aggregateSections(START, END,
+                EnumSet.of(ReportSection.VEHICLE_TYPE_BREAKDOWN));
+
+        // Assert
+        Map<VehicleType, Long> counts = (Map<VehicleType, Long>) metrics.get("rentalsByVehicleType");
+        Map<VehicleType, Double> revenue = (Map<VehicleType, Double>) metrics.get("revenueByVehicleType");
+        assertEquals(Map.of(VehicleType.SEDAN, 5L, VehicleType.PICKUP, 2L), counts);
+        assertEquals(230.0, revenue.get(VehicleType.PICKUP), 0.001);
+        verify(rentalRepository, never()).findRentalCountsByVehicleType(any(), any());
+    }
+
+    // Caso de éxito: Los conteos distintos se resuelven con COUNT(DISTINCT) en base de datos.
+    @Test
+    void aggregateSections_shouldCountDistinctInDatabase() {
+        // Arrange
+        when(rentalRepository.countDistinctCustomersInRange(START, END)).thenReturn(10_000L);
+        when(rentalRepository.countDistinctVehiclesInRange(START, END)).thenReturn(500L);
+
+        // Act
+        Map<String, Object> metrics = reportAggregationService.aggregateSections(START, END,
+                EnumSet.of(ReportSection.CUSTOMER_COUNTS, ReportSection.UNIQUE_VEHICLES));
+
+        // Assert
+        assertEquals(10_000L, metrics.get("uniqueCustomers"));
+        assertEquals(metrics.get("uniqueCustomers"), metrics.get("activeCustomers"));
+        assertEquals(500L, metrics.get("uniqueVehicles"));
+        verify(rentalRepository, never()).streamReportRows(any(), any());
+    }
+}
@@ -0,0 +1,85 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
+import com.alquiler.car_rent.service.impl.reportsImpl.ReportCacheServiceImpl;
+import com.alquiler.car_rent.service.reportService.ReportCacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCacheServiceImplTest {
+
+    private static final ReportCacheService.Key JANUARY = new ReportCacheService.Key(ReportingConstants.TimePeriod.MONTHLY,
+            LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), null, ReportingConstants.ReportSection.all());
+    private static final ReportCacheService.Key MARCH = new ReportCacheService.Key(ReportingConstants.TimePeriod.MONTHLY,
+            LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31), null, ReportingConstants.ReportSection.all());
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReportCacheServiceImpl reportCacheService;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reportCacheService = new ReportCacheServiceImpl(meterRegistry, true, Duration.ofMinutes(2), 100);
+        loads = new AtomicInteger();
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    // Caso de éxito: La segunda consulta con la misma clave no vuelve a calcular el reporte.
+    @Test
+    void get_shouldReuseCachedValue_andRecordHitsAndMisses() {
+        // Act
+        String first = reportCacheService.get(JANUARY, () -> load("enero"));
+        String second = reportCacheService.get(JANUARY, () -> load("otro"));
+
+        // Assert
+        assertEquals("enero", first);
+        assertEquals("enero", second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "reportData").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "reportData").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    // Caso de éxito: Un cambio de alquiler invalida solo los reportes cuyo rango se solapa.
+    @Test
+    void onRentalChanged_shouldEvictOnlyOverlappingEntries() {
+        // Arrange
+        reportCacheService.get(JANUARY, () -> load("enero"));
+        reportCacheService.get(MARCH, () -> load("marzo"));
+
+        // Act
+        reportCacheService.onRentalChanged(RentalChangedEvent.of(1L,
+                LocalDateTime.of(2025, 1, 30, 10, 0), LocalDateTime.of(2025, 2, 2, 10, 0)));
+        reportCacheService.get(JANUARY, () -> load("enero"));
+        reportCacheService.get(MARCH, () -> load("marzo"));
+
+        // Assert: enero se recalcula, marzo sigue en cache
+        assertEquals(3, loads.get());
+    }
+
+    // Caso borde: Con el cache deshabilitado siempre se calcula el valor.
+    @Test
+    void get_shouldAlwaysLoad_whenCacheIsDisabled() {
+        ReportCacheServiceImpl disabled = new ReportCacheServiceImpl(meterRegistry, false, Duration.ofMinutes(2), 100);
+
+        disabled.get(JANUARY, () -> load("enero"));
+        disabled.get(JANUARY, () -> load("enero"));
+
+        assertEquals(2, loads.get());
+    }
+}
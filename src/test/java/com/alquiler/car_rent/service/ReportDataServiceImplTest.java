@@ -6,28 +6,38 @@ import com.alquiler.car_rent.commons.entities.Vehicle;
 import com.alquiler.car_rent.commons.enums.VehicleType;
 import com.alquiler.car_rent.repositories.RentalRepository;
 import com.alquiler.car_rent.service.impl.reportsImpl.ReportDataServiceImpl;
+import com.alquiler.car_rent.service.impl.reportsImpl.ReportSectionExecutor;
 import com.alquiler.car_rent.service.reportService.ExcelReportService;
 import com.alquiler.car_rent.service.reportService.MetricsService;
+import com.alquiler.car_rent.service.reportService.ReportAggregationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Limit;
 
+import org.springframework.transaction.PlatformTransactionManager;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +49,8 @@ class ReportDataServiceImplTest {
     private MetricsService metricsService;
     @Mock
     private ExcelReportService excelReportService;
+    @Mock
+    private ReportAggregationService reportAggregationService;
 
     @InjectMocks
     private ReportDataServiceImpl reportDataService;
@@ -49,7 +61,8 @@ class ReportDataServiceImplTest {
     @BeforeEach
     void setUp() {
         // Inicializar pageSize manualmente para las pruebas unitarias
-        reportDataService = new ReportDataServiceImpl(rentalRepository, metricsService, excelReportService);
+        reportDataService = new ReportDataServiceImpl(rentalRepository, metricsService, excelReportService, reportAggregationService,
+                new ReportSectionExecutor(mock(PlatformTransactionManager.class), false, 1, Duration.ofSeconds(5)));
         // Usar Reflection para establecer el campo pageSize, ya que es privado y no se inyecta con @Value en tests unitarios
         try {
             java.lang.reflect.Field pageSizeField = ReportDataServiceImpl.class.getDeclaredField("pageSize");
@@ -82,29 +95,13 @@ class ReportDataServiceImplTest {
         LocalDate startDate = LocalDate.of(2025, 7, 1);
         LocalDate endDate = LocalDate.of(2025, 7, 31);
 
-        List<Rental> rentals = Collections.singletonList(testRental);
-
-        when(rentalRepository.searchByDateRange(
-                eq(startDate.atStartOfDay()), // Expected start date time
-                eq(endDate.plusDays(1).atStartOfDay()), // Expected end date time (inclusive)
-                any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(rentals));
-
-        // Mockear las llamadas a metricsService
-        when(metricsService.getUniqueCustomersRented(any(), any(), any())).thenReturn(5L);
-        when(metricsService.getActiveCustomersCount(any(), any(), any())).thenReturn(3L);
+        when(reportAggregationService.aggregateRentalMetrics(
+                startDate.atStartOfDay(), // Expected start date time
+                endDate.plusDays(1).atStartOfDay(), // Expected end date time (inclusive)
+                ReportingConstants.ReportSection.rentalSections()))
+                .thenReturn(aggregatedMetrics(1L, 100.0));
         when(metricsService.getNewCustomersCount(any(), any(), any())).thenReturn(2L);
-        when(metricsService.getCustomerActivity(any(), any(), any())).thenReturn(Collections.emptyList());
-        when(metricsService.getTopCustomersByRentals(any(), any(), any(), eq(10))).thenReturn(Collections.emptyList());
-        when(metricsService.getVehicleUsage(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getMostRentedVehicle(any(), any(), any())).thenReturn(Collections.emptyMap());
         when(metricsService.getAvailableVehiclesCount()).thenReturn(10L);
-        when(metricsService.getRentalTrends(any(), any(), any())).thenReturn(Collections.emptyList());
-        when(metricsService.getAverageRentalDuration(any(), any(), any())).thenReturn(3.0);
-        when(metricsService.getRentalsCountByVehicleType(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getRevenueByVehicleType(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getRentalsCountByPricingTier(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getRevenueByPricingTier(any(), any(), any())).thenReturn(Collections.emptyMap());
 
         // Act
         Map<String, Object> reportData = reportDataService.generateReportData(
@@ -115,37 +112,24 @@ class ReportDataServiceImplTest {
         assertEquals(ReportingConstants.TimePeriod.MONTHLY.name(), reportData.get("period"));
         assertEquals(startDate, reportData.get("startDate"));
         assertEquals(endDate, reportData.get("endDate"));
-        assertEquals(1, reportData.get("totalRentals"));
+        assertEquals(1L, reportData.get("totalRentals"));
         assertEquals(100.0, (Double) reportData.get("totalRevenue"), 0.001);
         assertEquals(10L, reportData.get("availableVehicles"));
+        assertEquals(2L, reportData.get("newCustomers"));
+        verify(rentalRepository, never()).searchByDateRange(any(), any(), any());
     }
 
     // Caso borde: Generar datos de reporte para ALL_TIME sin fechas específicas.
     @Test
     void generateReportData_shouldReturnAllTimeData_whenNoDatesProvided() {
         // Arrange
-        List<Rental> rentals = Collections.singletonList(testRental);
-        when(rentalRepository.searchByDateRange(
-                eq(LocalDateTime.of(1900, 1, 1, 0, 0)), // SAFE_MIN_DATE
-                eq(LocalDateTime.of(2150, 1, 1, 0, 0).plusDays(1)), // SAFE_MAX_DATE + 1 day
-                any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(rentals));
-
-        // Mockear las llamadas a metricsService (similar al test anterior)
-        when(metricsService.getUniqueCustomersRented(any(), any(), any())).thenReturn(5L);
-        when(metricsService.getActiveCustomersCount(any(), any(), any())).thenReturn(3L);
+        when(reportAggregationService.aggregateRentalMetrics(
+                LocalDateTime.of(1900, 1, 1, 0, 0), // SAFE_MIN_DATE
+                LocalDateTime.of(2150, 1, 1, 0, 0).plusDays(1), // SAFE_MAX_DATE + 1 day
+                ReportingConstants.ReportSection.rentalSections()))
+                .thenReturn(aggregatedMetrics(1L, 100.0));
         when(metricsService.getNewCustomersCount(any(), any(), any())).thenReturn(2L);
-        when(metricsService.getCustomerActivity(any(), any(), any())).thenReturn(Collections.emptyList());
-        when(metricsService.getTopCustomersByRentals(any(), any(), any(), eq(10))).thenReturn(Collections.emptyList());
-        when(metricsService.getVehicleUsage(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getMostRentedVehicle(any(), any(), any())).thenReturn(Collections.emptyMap());
         when(metricsService.getAvailableVehiclesCount()).thenReturn(10L);
-        when(metricsService.getRentalTrends(any(), any(), any())).thenReturn(Collections.emptyList());
-        when(metricsService.getAverageRentalDuration(any(), any(), any())).thenReturn(3.0);
-        when(metricsService.getRentalsCountByVehicleType(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getRevenueByVehicleType(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getRentalsCountByPricingTier(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getRevenueByPricingTier(any(), any(), any())).thenReturn(Collections.emptyMap());
 
         // Act
         Map<String, Object> reportData = reportDataService.generateReportData(
@@ -157,7 +141,7 @@ class ReportDataServiceImplTest {
         // Las fechas de inicio y fin deberían ser las seguras por defecto
         assertEquals(LocalDate.of(1900, 1, 1), reportData.get("startDate"));
         assertEquals(LocalDate.of(2150, 1, 1), reportData.get("endDate"));
-        assertEquals(1, reportData.get("totalRentals"));
+        assertEquals(1L, reportData.get("totalRentals"));
         assertEquals(100.0, (Double) reportData.get("totalRevenue"), 0.001);
     }
 
@@ -165,25 +149,10 @@ class ReportDataServiceImplTest {
     @Test
     void generateReportData_shouldHandleEmptyRentalsList() {
         // Arrange
-        List<Rental> rentals = Collections.emptyList();
-        when(rentalRepository.searchByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(rentals));
-
-        // Mockear las llamadas a metricsService para devolver valores por defecto/vacíos
-        when(metricsService.getUniqueCustomersRented(any(), any(), any())).thenReturn(0L);
-        when(metricsService.getActiveCustomersCount(any(), any(), any())).thenReturn(0L);
+        when(reportAggregationService.aggregateRentalMetrics(any(LocalDateTime.class), any(LocalDateTime.class), any()))
+                .thenReturn(aggregatedMetrics(0L, 0.0));
         when(metricsService.getNewCustomersCount(any(), any(), any())).thenReturn(0L);
-        when(metricsService.getCustomerActivity(any(), any(), any())).thenReturn(Collections.emptyList());
-        when(metricsService.getTopCustomersByRentals(any(), any(), any(), eq(10))).thenReturn(Collections.emptyList());
-        when(metricsService.getVehicleUsage(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getMostRentedVehicle(any(), any(), any())).thenReturn(Collections.emptyMap());
         when(metricsService.getAvailableVehiclesCount()).thenReturn(0L);
-        when(metricsService.getRentalTrends(any(), any(), any())).thenReturn(Collections.emptyList());
-        when(metricsService.getAverageRentalDuration(any(), any(), any())).thenReturn(0.0);
-        when(metricsService.getRentalsCountByVehicleType(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getRevenueByVehicleType(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getRentalsCountByPricingTier(any(), any(), any())).thenReturn(Collections.emptyMap());
-        when(metricsService.getRevenueByPricingTier(any(), any(), any())).thenReturn(Collections.emptyMap());
 
         // Act
         Map<String, Object> reportData = reportDataService.generateReportData(
@@ -191,18 +160,68 @@ class ReportDataServiceImplTest {
 
         // Assert
         assertNotNull(reportData);
-        assertEquals(0, reportData.get("totalRentals"));
+        assertEquals(0L, reportData.get("totalRentals"));
         assertEquals(0.0, (Double) reportData.get("totalRevenue"), 0.001);
         assertEquals(0L, reportData.get("availableVehicles"));
     }
 
+    // Caso de éxito: El reporte completo toma de los agregados diarios lo que cubren y recorre el rango solo para el resto.
+    @Test
+    void generateReportData_shouldServeRollupSectionsFromRollup_forFullReport() {
+        // Arrange
+        LocalDateTime start = LocalDate.of(2025, 7, 1).atStartOfDay();
+        LocalDateTime end = LocalDate.of(2025, 8, 1).atStartOfDay();
+        Set<ReportingConstants.ReportSection> fromRollup = EnumSet.of(ReportingConstants.ReportSection.TOTALS,
+                ReportingConstants.ReportSection.RENTAL_TRENDS, ReportingConstants.ReportSection.VEHICLE_TYPE_BREAKDOWN,
+                ReportingConstants.ReportSection.PRICING_TIER_BREAKDOWN, ReportingConstants.ReportSection.AVERAGE_DURATION);
+        Set<ReportingConstants.ReportSection> streamed = ReportingConstants.ReportSection.rentalSections();
+        streamed.removeAll(fromRollup);
+        when(reportAggregationService.rollupSections(start, end)).thenReturn(EnumSet.copyOf(fromRollup));
+        when(reportAggregationService.aggregateSections(start, end, fromRollup)).thenReturn(aggregatedMetrics(4L, 400.0));
+        when(reportAggregationService.aggregateRentalMetrics(start, end, streamed))
+                .thenReturn(Map.of("uniqueCustomers", 3L));
+
+        // Act
+        Map<String, Object> reportData = reportDataService.generateReportData(ReportingConstants.TimePeriod.MONTHLY,
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31));
+
+        // Assert
+        assertEquals(4L, reportData.get("totalRentals"));
+        assertEquals(3L, reportData.get("uniqueCustomers"));
+        verify(reportAggregationService).aggregateSections(start, end, fromRollup);
+        verify(reportAggregationService).aggregateRentalMetrics(start, end, streamed);
+    }
+
+    // Caso de éxito: Pedir una sola sección usa las consultas por sección y omite el resto del reporte.
+    @Test
+    void generateReportData_shouldComputeOnlyRequestedSections() {
+        // Arrange
+        LocalDate startDate = LocalDate.of(2025, 7, 1);
+        LocalDate endDate = LocalDate.of(2025, 7, 31);
+        Set<ReportingConstants.ReportSection> sections = EnumSet.of(ReportingConstants.ReportSection.TOTALS);
+        when(reportAggregationService.aggregateSections(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), sections))
+                .thenReturn(aggregatedMetrics(3L, 250.0));
+
+        // Act
+        Map<String, Object> reportData = reportDataService.generateReportData(
+                ReportingConstants.TimePeriod.MONTHLY, startDate, endDate, sections);
+
+        // Assert
+        assertEquals(3L, reportData.get("totalRentals"));
+        assertFalse(reportData.containsKey("newCustomers"));
+        assertFalse(reportData.containsKey("availableVehicles"));
+        verify(reportAggregationService, never()).aggregateRentalMetrics(any(), any(), any());
+        verifyNoInteractions(metricsService);
+    }
+
     // Caso de éxito: Probar el método getRentalsInRange directamente.
     @Test
     void getRentalsInRange_shouldReturnRentals_whenCalledDirectly() {
         // Arrange
         List<Rental> rentals = Collections.singletonList(testRental);
-        when(rentalRepository.searchByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(rentals));
+        when(rentalRepository.findReportRangeAfter(any(LocalDateTime.class), any(LocalDateTime.class),
+                any(LocalDateTime.class), anyLong(), any(Limit.class)))
+                .thenReturn(rentals);
 
         // Act
         List<Rental> result = reportDataService.getRentalsInRange(LocalDateTime.now().minusDays(10), LocalDateTime.now());
@@ -211,6 +230,33 @@ class ReportDataServiceImplTest {
         assertFalse(result.isEmpty());
         assertEquals(1, result.size());
         assertEquals(testRental, result.get(0));
+        verify(rentalRepository, never()).searchByDateRange(any(), any(), any());
+    }
+
+    // Caso de éxito: getRentalsInRange avanza por clave (startDate, id) desde el último alquiler de cada lote.
+    @Test
+    void getRentalsInRange_shouldSeekFromLastRentalOfEachBatch() throws Exception {
+        // Arrange
+        java.lang.reflect.Field pageSizeField = ReportDataServiceImpl.class.getDeclaredField("pageSize");
+        pageSizeField.setAccessible(true);
+        pageSizeField.set(reportDataService, 1);
+
+        Rental secondRental = new Rental();
+        secondRental.setId(2L);
+        secondRental.setStartDate(LocalDateTime.of(2025, 7, 16, 10, 0));
+        LocalDateTime start = LocalDateTime.of(2025, 7, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 8, 1, 0, 0);
+
+        when(rentalRepository.findReportRangeAfter(eq(start), eq(end), any(LocalDateTime.class), anyLong(), eq(Limit.of(1))))
+                .thenReturn(List.of(testRental), List.of(secondRental), List.of());
+
+        // Act
+        List<Rental> result = reportDataService.getRentalsInRange(start, end);
+
+        // Assert
+        assertEquals(List.of(testRental, secondRental), result);
+        verify(rentalRepository).findReportRangeAfter(start, end, testRental.getStartDate(), testRental.getId(), Limit.of(1));
+        verify(rentalRepository).findReportRangeAfter(start, end, secondRental.getStartDate(), secondRental.getId(), Limit.of(1));
     }
 
     // Caso de éxito: Probar el método toDateTime.
@@ -253,4 +299,11 @@ class ReportDataServiceImplTest {
 
         assertArrayEquals(expectedBytes, result);
     }
+
+    private Map<String, Object> aggregatedMetrics(long totalRentals, double totalRevenue) {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("totalRentals", totalRentals);
+        metrics.put("totalRevenue", totalRevenue);
+        return metrics;
+    }
 }
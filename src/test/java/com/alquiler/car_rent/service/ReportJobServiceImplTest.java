@@ -0,0 +1,137 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.dtos.ReportJobDto;
+import com.alquiler.car_rent.commons.dtos.ReportJobRequest;
+import com.alquiler.car_rent.commons.enums.ReportJobPriority;
+import com.alquiler.car_rent.commons.enums.ReportJobStatus;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+import com.alquiler.car_rent.exceptions.TooManyRequestsException;
+import com.alquiler.car_rent.service.impl.reportsImpl.ReportJobServiceImpl;
+import com.alquiler.car_rent.service.reportService.ReportingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobServiceImplTest {
+
+    @Mock
+    private ReportingService reportingService;
+
+    @TempDir
+    Path spoolDir;
+
+    private ReportJobServiceImpl reportJobService;
+
+    @AfterEach
+    void tearDown() {
+        if (reportJobService != null) {
+            reportJobService.shutdown();
+        }
+    }
+
+    // Caso de éxito: El trabajo se ejecuta en segundo plano y su resultado queda en disco para descargarlo.
+    @Test
+    void submit_shouldCompleteJobAndSpoolResult() throws Exception {
+        // Arrange
+        reportJobService = new ReportJobServiceImpl(reportingService, 2, 10, 1, 1, spoolDir, Duration.ofHours(1));
+        when(reportingService.generateReportData(ReportingConstants.TimePeriod.MONTHLY, null, null)).thenReturn(Map.of());
+        when(reportingService.generateReport(ReportingConstants.OutputFormat.JSON, ReportingConstants.ReportType.RENTAL_SUMMARY,
+                ReportingConstants.TimePeriod.MONTHLY, null, null)).thenReturn("{\"totalRentals\":3}".getBytes());
+
+        // Act
+        ReportJobDto submitted = reportJobService.submit(request(ReportingConstants.OutputFormat.JSON, ReportJobPriority.NORMAL));
+        ReportJobDto finished = awaitFinished(submitted.getId());
+
+        // Assert
+        assertEquals(ReportJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(100, finished.getProgress());
+        assertNotNull(finished.getExpiresAt());
+        Path resultFile = reportJobService.getResultFile(submitted.getId());
+        assertEquals("{\"totalRentals\":3}", Files.readString(resultFile));
+    }
+
+    // Caso de éxito: Un trabajo Excel escribe el libro directo en el archivo, sin generarlo antes en memoria.
+    @Test
+    void submit_shouldStreamExcelJobToSpoolFile() throws Exception {
+        // Arrange
+        reportJobService = new ReportJobServiceImpl(reportingService, 2, 10, 1, 1, spoolDir, Duration.ofHours(1));
+        when(reportingService.generateReportData(ReportingConstants.TimePeriod.MONTHLY, null, null)).thenReturn(Map.of());
+        doAnswer(invocation -> {
+            invocation.getArgument(2, OutputStream.class).write("xlsx".getBytes());
+            return null;
+        }).when(reportingService).writeExcelReport(eq(ReportingConstants.ReportType.RENTAL_SUMMARY), any(), any());
+
+        // Act
+        ReportJobDto submitted = reportJobService.submit(request(ReportingConstants.OutputFormat.EXCEL, ReportJobPriority.NORMAL));
+        ReportJobDto finished = awaitFinished(submitted.getId());
+
+        // Assert
+        assertEquals(ReportJobStatus.COMPLETED, finished.getStatus());
+        assertEquals("xlsx", Files.readString(reportJobService.getResultFile(submitted.getId())));
+        verify(reportingService, never()).generateReport(any(), any(), any(), any(), any());
+    }
+
+    // Caso borde: Con el único cupo de PDF ocupado, un segundo PDF espera y la cola llena se rechaza.
+    @Test
+    void submit_shouldHonorFormatLimitAndRejectWhenQueueIsFull() throws Exception {
+        // Arrange
+        reportJobService = new ReportJobServiceImpl(reportingService, 2, 1, 1, 1, spoolDir, Duration.ofHours(1));
+        CountDownLatch release = new CountDownLatch(1);
+        when(reportingService.generateReportData(any(), any(), any())).thenReturn(Map.of());
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(reportingService).writePdfReport(eq(ReportingConstants.ReportType.RENTAL_SUMMARY), any(), any());
+
+        // Act
+        ReportJobDto first = reportJobService.submit(request(ReportingConstants.OutputFormat.PDF, ReportJobPriority.NORMAL));
+        ReportJobDto second = reportJobService.submit(request(ReportingConstants.OutputFormat.PDF, ReportJobPriority.HIGH));
+
+        // Assert
+        assertThrows(TooManyRequestsException.class,
+                () -> reportJobService.submit(request(ReportingConstants.OutputFormat.PDF, ReportJobPriority.LOW)));
+        assertEquals(ReportJobStatus.QUEUED, reportJobService.getJob(second.getId()).getStatus());
+        assertThrows(BadRequestException.class, () -> reportJobService.getResultFile(second.getId()));
+
+        release.countDown();
+        assertEquals(ReportJobStatus.COMPLETED, awaitFinished(first.getId()).getStatus());
+        assertEquals(ReportJobStatus.COMPLETED, awaitFinished(second.getId()).getStatus());
+    }
+
+    private ReportJobRequest request(ReportingConstants.OutputFormat format, ReportJobPriority priority) {
+        return new ReportJobRequest(format, ReportingConstants.ReportType.RENTAL_SUMMARY,
+                ReportingConstants.TimePeriod.MONTHLY, null, null, priority);
+    }
+
+    private ReportJobDto awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ReportJobDto job = reportJobService.getJob(jobId);
+        while (job.getStatus() != ReportJobStatus.COMPLETED && job.getStatus() != ReportJobStatus.FAILED
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = reportJobService.getJob(jobId);
+        }
+        return job;
+    }
+}
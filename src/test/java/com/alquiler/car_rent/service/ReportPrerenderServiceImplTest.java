@@ -0,0 +1,85 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants;
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
+import com.alquiler.car_rent.service.impl.reportsImpl.ReportPrerenderServiceImpl;
+import com.alquiler.car_rent.service.reportService.ReportingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReportPrerenderServiceImplTest {
+
+    private static final ReportingConstants.OutputFormat JSON = ReportingConstants.OutputFormat.JSON;
+    private static final ReportingConstants.ReportType SUMMARY = ReportingConstants.ReportType.RENTAL_SUMMARY;
+
+    @Mock
+    private ReportingService reportingService;
+
+    @TempDir
+    Path directory;
+
+    private ReportPrerenderServiceImpl prerenderService;
+
+    @BeforeEach
+    void setUp() {
+        prerenderService = new ReportPrerenderServiceImpl(reportingService, true,
+                List.of(ReportingConstants.TimePeriod.MONTHLY, ReportingConstants.TimePeriod.ANNUAL),
+                List.of(SUMMARY), List.of(JSON), directory);
+        when(reportingService.getReportETag(eq(JSON), eq(SUMMARY), any(), isNull(), isNull())).thenReturn("\"v1\"");
+        when(reportingService.generateReport(eq(JSON), eq(SUMMARY), any(), isNull(), isNull())).thenReturn("{}".getBytes());
+    }
+
+    // Caso de éxito: Las combinaciones configuradas se guardan en disco y se sirven si el ETag coincide.
+    @Test
+    void refresh_shouldStoreReportsAndServeThemWhenETagMatches() throws Exception {
+        // Act
+        int rendered = prerenderService.refresh();
+        Optional<Path> file = prerenderService.findPrerendered(JSON, SUMMARY, ReportingConstants.TimePeriod.MONTHLY, null, null, "\"v1\"");
+
+        // Assert
+        assertEquals(2, rendered);
+        assertTrue(file.isPresent());
+        assertEquals("{}", Files.readString(file.get()));
+        assertTrue(prerenderService.findPrerendered(JSON, SUMMARY, ReportingConstants.TimePeriod.MONTHLY, null, null, "\"v2\"").isEmpty());
+        assertTrue(prerenderService.findPrerendered(JSON, SUMMARY, ReportingConstants.TimePeriod.MONTHLY,
+                LocalDate.now().minusDays(3), LocalDate.now(), "\"v1\"").isEmpty());
+    }
+
+    // Caso de éxito: Tras un cambio de alquiler solo se vuelven a renderizar los períodos cuyo rango lo incluye.
+    @Test
+    void refresh_shouldOnlyRerenderRangesWithRentalChanges() {
+        // Arrange
+        prerenderService.refresh();
+        LocalDate sixMonthsAgo = LocalDate.now().minusMonths(6);
+
+        // Act
+        int unchanged = prerenderService.refresh();
+        prerenderService.onRentalChanged(new RentalChangedEvent(1L, sixMonthsAgo, sixMonthsAgo.plusDays(2)));
+        int rerendered = prerenderService.refresh();
+
+        // Assert
+        assertEquals(0, unchanged);
+        assertEquals(1, rerendered);
+        verify(reportingService, times(1)).generateReport(JSON, SUMMARY, ReportingConstants.TimePeriod.MONTHLY, null, null);
+        verify(reportingService, times(2)).generateReport(JSON, SUMMARY, ReportingConstants.TimePeriod.ANNUAL, null, null);
+    }
+}
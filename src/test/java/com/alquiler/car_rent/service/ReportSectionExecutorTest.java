@@ -0,0 +1,164 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.constants.ReportingConstants.ReportSection;
+import com.alquiler.car_rent.service.impl.reportsImpl.ReportSectionExecutor;
+import com.alquiler.car_rent.service.impl.reportsImpl.ReportSectionExecutor.SectionTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReportSectionExecutorTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private ReportSectionExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // Caso de éxito: En modo paralelo las secciones corren a la vez y se combinan sus claves.
+    @Test
+    void execute_shouldRunSectionsConcurrently_whenParallelEnabled() {
+        // Arrange
+        executor = new ReportSectionExecutor(transactionManager, true, 2, Duration.ofSeconds(5));
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<SectionTask> tasks = List.of(
+                new SectionTask(EnumSet.of(ReportSection.TOTALS), () -> awaitOther(bothStarted, Map.of("totalRentals", 3L))),
+                new SectionTask(EnumSet.of(ReportSection.NEW_CUSTOMERS), () -> awaitOther(bothStarted, Map.of("newCustomers", 2L))));
+
+        // Act
+        Map<String, Object> result = executor.execute(tasks);
+
+        // Assert
+        assertEquals(3L, result.get("totalRentals"));
+        assertEquals(2L, result.get("newCustomers"));
+        assertFalse(result.containsKey("partial"));
+    }
+
+    // Caso borde: Una sección que no termina antes del plazo se omite y se informa como incompleta.
+    @Test
+    void execute_shouldReturnPartialResult_whenDeadlineExpires() {
+        // Arrange
+        executor = new ReportSectionExecutor(transactionManager, true, 2, Duration.ofMillis(200));
+        List<SectionTask> tasks = List.of(
+                new SectionTask(EnumSet.of(ReportSection.TOTALS), () -> Map.of("totalRentals", 3L)),
+                new SectionTask(EnumSet.of(ReportSection.RENTAL_TRENDS), () -> {
+                    try {
+                        Thread.sleep(5_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Map.of("rentalTrends", List.of());
+                }));
+
+        // Act
+        Map<String, Object> result = executor.execute(tasks);
+
+        // Assert
+        assertEquals(3L, result.get("totalRentals"));
+        assertFalse(result.containsKey("rentalTrends"));
+        assertEquals(true, result.get("partial"));
+        assertEquals(List.of("RENTAL_TRENDS"), result.get("incompleteSections"));
+    }
+
+    // Caso de éxito: Cada sección paralela corre en una transacción de solo lectura con el plazo como timeout de sus consultas.
+    @Test
+    void execute_shouldBoundSectionQueriesByDeadline() {
+        // Arrange
+        executor = new ReportSectionExecutor(transactionManager, true, 2, Duration.ofSeconds(5));
+        List<SectionTask> tasks = List.of(
+                new SectionTask(EnumSet.of(ReportSection.TOTALS), () -> Map.of("totalRentals", 3L)),
+                new SectionTask(EnumSet.of(ReportSection.NEW_CUSTOMERS), () -> Map.of("newCustomers", 2L)));
+
+        // Act
+        executor.execute(tasks);
+
+        // Assert
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(2)).getTransaction(definitions.capture());
+        definitions.getAllValues().forEach(definition -> {
+            assertTrue(definition.isReadOnly());
+            // Plazo de 5 s más el segundo de margen que necesita Hibernate
+            assertTrue(definition.getTimeout() >= 2 && definition.getTimeout() <= 6, "Timeout " + definition.getTimeout());
+        });
+    }
+
+    // Caso borde: Si una consulta colgada no suelta su turno, las secciones en espera no arrancan pasado el plazo.
+    @Test
+    void execute_shouldNotStartWaitingSections_afterDeadline() throws InterruptedException {
+        // Arrange
+        executor = new ReportSectionExecutor(transactionManager, true, 1, Duration.ofMillis(300));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean secondStarted = new AtomicBoolean();
+        List<SectionTask> tasks = List.of(
+                new SectionTask(EnumSet.of(ReportSection.TOTALS), () -> {
+                    // Como una consulta JDBC: ignora la interrupción del cancel(true)
+                    while (release.getCount() > 0) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException ignored) {
+                        }
+                    }
+                    return Map.of("totalRentals", 3L);
+                }),
+                new SectionTask(EnumSet.of(ReportSection.NEW_CUSTOMERS), () -> {
+                    secondStarted.set(true);
+                    return Map.of("newCustomers", 2L);
+                }));
+
+        // Act
+        Map<String, Object> result = executor.execute(tasks);
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        assertEquals(List.of("TOTALS", "NEW_CUSTOMERS"), result.get("incompleteSections"));
+        assertFalse(secondStarted.get());
+    }
+
+    // Caso de éxito: Sin modo paralelo las secciones se calculan en el hilo que llama y los errores se propagan.
+    @Test
+    void execute_shouldRunInline_whenParallelDisabled() {
+        // Arrange
+        executor = new ReportSectionExecutor(transactionManager, false, 4, Duration.ofSeconds(5));
+        Thread caller = Thread.currentThread();
+        List<SectionTask> tasks = List.of(
+                new SectionTask(EnumSet.of(ReportSection.TOTALS), () -> Map.of("sameThread", Thread.currentThread() == caller)),
+                new SectionTask(EnumSet.of(ReportSection.NEW_CUSTOMERS), () -> {
+                    throw new IllegalStateException("fallo");
+                }));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> executor.execute(tasks));
+        assertEquals(true, executor.execute(tasks.subList(0, 1)).get("sameThread"));
+    }
+
+    private Map<String, Object> awaitOther(CountDownLatch latch, Map<String, Object> value) {
+        latch.countDown();
+        try {
+            // Si las secciones corrieran en serie este await agotaría su espera y la prueba fallaría
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,84 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.config.SmsProviderConfig;
+import com.alquiler.car_rent.service.impl.SmsCircuitBreaker;
+import com.alquiler.car_rent.service.impl.SmsCircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmsCircuitBreakerTest {
+
+    // Caso borde: Los envíos lentos también abren el circuito aunque no fallen.
+    @Test
+    void onSuccess_shouldOpenCircuit_whenSlowCallsExceedThreshold() {
+        // Arrange
+        SmsCircuitBreaker breaker = new SmsCircuitBreaker(config(Duration.ofMinutes(1)));
+        long slow = Duration.ofSeconds(6).toNanos();
+
+        // Act
+        breaker.onSuccess(1_000_000);
+        breaker.onSuccess(slow);
+        breaker.onSuccess(slow);
+        breaker.onSuccess(slow);
+
+        // Assert: 3 de 4 lentos con umbral 0.75
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    // Caso de éxito: Pasado el tiempo abierto, un único envío de prueba decide si se cierra.
+    @Test
+    void tryAcquirePermission_shouldAllowSingleProbe_andCloseOnSuccess() {
+        // Arrange
+        SmsCircuitBreaker breaker = new SmsCircuitBreaker(config(Duration.ZERO));
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(1_000_000);
+        }
+        assertEquals(State.OPEN, breaker.getState());
+
+        // Act
+        boolean probe = breaker.tryAcquirePermission();
+        boolean second = breaker.tryAcquirePermission();
+        breaker.onSuccess(1_000_000);
+
+        // Assert
+        assertTrue(probe);
+        assertFalse(second);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    // Caso borde: Si el envío de prueba no llega a hacerse, el turno se devuelve y otro envío puede probar.
+    @Test
+    void releasePermission_shouldFreeProbe_whenItWasNotSent() {
+        // Arrange
+        SmsCircuitBreaker breaker = new SmsCircuitBreaker(config(Duration.ZERO));
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(1_000_000);
+        }
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.isAvailable());
+
+        // Act
+        breaker.releasePermission();
+
+        // Assert
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.isAvailable());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    private static SmsProviderConfig.CircuitBreaker config(Duration openDuration) {
+        SmsProviderConfig.CircuitBreaker config = new SmsProviderConfig.CircuitBreaker();
+        config.setWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(0.5);
+        config.setSlowCallThreshold(Duration.ofSeconds(5));
+        config.setSlowCallRateThreshold(0.75);
+        config.setOpenDuration(openDuration);
+        return config;
+    }
+}
@@ -0,0 +1,228 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.entities.SmsOutboxMessage;
+import com.alquiler.car_rent.commons.enums.SmsOutboxStatus;
+import com.alquiler.car_rent.config.SmsProviderConfig;
+import com.alquiler.car_rent.repositories.SmsOutboxRepository;
+import com.alquiler.car_rent.service.impl.SmsOutboxServiceImpl;
+import com.alquiler.car_rent.service.impl.SmsRateLimiter;
+import com.alquiler.car_rent.service.impl.SmsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SmsOutboxServiceImplTest {
+
+    @Mock
+    private SmsOutboxRepository outboxRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SmsProviderConfig providerConfig;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SmsOutboxServiceImpl outbox;
+
+    @AfterEach
+    void tearDown() {
+        if (outbox != null) {
+            outbox.shutdown();
+        }
+    }
+
+    // Caso de éxito: Encolar solo inserta el mensaje pendiente, sin llamar al proveedor.
+    @Test
+    void enqueue_shouldStorePendingMessage_withoutCallingProvider() {
+        // Arrange
+        FakeSmsProvider provider = new FakeSmsProvider("fake");
+        outbox = outbox(provider, 5);
+
+        // Act
+        outbox.enqueue("+1234567890", "Recordatorio");
+
+        // Assert
+        ArgumentCaptor<SmsOutboxMessage> saved = ArgumentCaptor.forClass(SmsOutboxMessage.class);
+        verify(outboxRepository).save(saved.capture());
+        assertEquals(SmsOutboxStatus.PENDING, saved.getValue().getStatus());
+        assertEquals(0, saved.getValue().getAttempts());
+        assertNotNull(saved.getValue().getNextAttemptAt());
+        assertTrue(provider.getDelivered().isEmpty());
+        assertEquals(1.0, meterRegistry.counter("sms.outbox.enqueued").count());
+    }
+
+    // Caso de éxito: Los mensajes reservados se envían en paralelo y quedan SENT con su proveedor.
+    @Test
+    void dispatchDue_shouldDeliverClaimedMessages_andMarkThemSent() {
+        // Arrange
+        FakeSmsProvider provider = new FakeSmsProvider("fake");
+        outbox = outbox(provider, 5);
+        List<SmsOutboxMessage> due = new ArrayList<>(IntStream.rangeClosed(1, 20)
+                .mapToObj(i -> message((long) i, 0)).toList());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(outboxRepository.findDueForUpdate(any(), any(), any())).thenReturn(due);
+
+        // Act
+        outbox.dispatchDue();
+        outbox.shutdown();
+
+        // Assert
+        assertEquals(20, provider.getDelivered().size());
+        due.forEach(message -> {
+            assertEquals(SmsOutboxStatus.SENDING, message.getStatus());
+            assertEquals(1, message.getAttempts());
+        });
+        verify(outboxRepository, times(20)).markSent(any(), eq(1), eq("fake"), any());
+        verify(outboxRepository, never()).markFailed(any(), anyInt(), any(), any(), any());
+        assertEquals(20.0, meterRegistry.counter("sms.outbox.sent", "provider", "fake").count());
+        assertEquals(20, meterRegistry.timer("sms.outbox.delivery", "outcome", "sent").count());
+    }
+
+    // Caso borde: Solo se reservan tantos mensajes como huecos quedan en la cola del pool.
+    @Test
+    void dispatchDue_shouldClaimUpToQueueCapacity() {
+        // Arrange
+        outbox = outbox(new FakeSmsProvider("fake"), 5);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(outboxRepository.findDueForUpdate(any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        outbox.dispatchDue();
+
+        // Assert
+        verify(outboxRepository).findDueForUpdate(eq(List.of(SmsOutboxStatus.PENDING, SmsOutboxStatus.SENDING)),
+                any(), eq(Limit.of(16)));
+    }
+
+    // Caso borde: Un fallo del proveedor reprograma el mensaje con espera creciente.
+    @Test
+    void dispatchDue_shouldRescheduleWithBackoff_whenProviderFails() {
+        // Arrange
+        outbox = outbox(new FakeSmsProvider("fake", 1), 5);
+        SmsOutboxMessage message = message(1L, 1);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(outboxRepository.findDueForUpdate(any(), any(), any())).thenReturn(List.of(message));
+        when(outboxRepository.markFailed(eq(1L), eq(2), any(), any(), any())).thenReturn(1);
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        outbox.dispatchDue();
+        outbox.shutdown();
+
+        // Assert: segundo intento, espera base de 10s duplicada
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).markFailed(eq(1L), eq(2), eq(SmsOutboxStatus.PENDING), next.capture(), anyString());
+        assertFalse(next.getValue().isBefore(before.plusSeconds(20)));
+        assertTrue(next.getValue().isBefore(before.plusSeconds(26)));
+        verify(outboxRepository, never()).markSent(any(), anyInt(), any(), any());
+        assertEquals(1.0, meterRegistry.counter("sms.outbox.retried").count());
+    }
+
+    // Caso borde: Al agotar los intentos el mensaje queda DEAD y no se vuelve a intentar.
+    @Test
+    void dispatchDue_shouldDeadLetter_whenAttemptsAreExhausted() {
+        // Arrange
+        outbox = outbox(new FakeSmsProvider("fake", 1), 3);
+        SmsOutboxMessage message = message(1L, 2);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(outboxRepository.findDueForUpdate(any(), any(), any())).thenReturn(List.of(message));
+        when(outboxRepository.markFailed(eq(1L), eq(3), any(), any(), any())).thenReturn(1);
+
+        // Act
+        outbox.dispatchDue();
+        outbox.shutdown();
+
+        // Assert
+        verify(outboxRepository).markFailed(eq(1L), eq(3), eq(SmsOutboxStatus.DEAD), any(), eq("fake no disponible"));
+        assertEquals(1.0, meterRegistry.counter("sms.outbox.dead").count());
+        assertEquals(0.0, meterRegistry.counter("sms.outbox.retried").count());
+    }
+
+    // Caso borde: Si la reserva venció y otro trabajador tomó el mensaje, el fallo del intento anterior no lo reprograma ni cuenta.
+    @Test
+    void dispatchDue_shouldIgnoreFailure_whenLeaseWasTakenOver() {
+        // Arrange
+        outbox = outbox(new FakeSmsProvider("fake", 1), 5);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(outboxRepository.findDueForUpdate(any(), any(), any())).thenReturn(List.of(message(1L, 0)));
+        when(outboxRepository.markFailed(any(), anyInt(), any(), any(), any())).thenReturn(0);
+
+        // Act
+        outbox.dispatchDue();
+        outbox.shutdown();
+
+        // Assert
+        verify(outboxRepository).markFailed(eq(1L), eq(1), eq(SmsOutboxStatus.PENDING), any(), anyString());
+        assertEquals(0.0, meterRegistry.counter("sms.outbox.retried").count());
+        assertEquals(0.0, meterRegistry.counter("sms.outbox.dead").count());
+    }
+
+    // Caso borde: Un mensaje cuya reserva venció en el último intento queda DEAD al reservarse y no se reenvía.
+    @Test
+    void dispatchDue_shouldDeadLetter_whenLeaseExpiresOnLastAttempt() {
+        // Arrange
+        FakeSmsProvider provider = new FakeSmsProvider("fake");
+        outbox = outbox(provider, 3);
+        SmsOutboxMessage expired = message(1L, 3);
+        expired.setStatus(SmsOutboxStatus.SENDING);
+        SmsOutboxMessage pending = message(2L, 0);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(outboxRepository.findDueForUpdate(any(), any(), any())).thenReturn(List.of(expired, pending));
+        when(outboxRepository.markSent(any(), anyInt(), any(), any())).thenReturn(1);
+
+        // Act
+        outbox.dispatchDue();
+        outbox.shutdown();
+
+        // Assert
+        assertEquals(SmsOutboxStatus.DEAD, expired.getStatus());
+        assertEquals(3, expired.getAttempts());
+        assertNotNull(expired.getLastError());
+        assertEquals(1, provider.getDelivered().size());
+        verify(outboxRepository, never()).markSent(eq(1L), anyInt(), any(), any());
+        verify(outboxRepository).markSent(eq(2L), eq(1), eq("fake"), any());
+        assertEquals(1.0, meterRegistry.counter("sms.outbox.dead").count());
+    }
+
+    private SmsOutboxServiceImpl outbox(FakeSmsProvider provider, int maxAttempts) {
+        when(providerConfig.getProvider()).thenReturn(provider.getProviderName());
+        when(providerConfig.getCircuitBreaker()).thenReturn(new SmsProviderConfig.CircuitBreaker());
+        SmsServiceImpl smsService = new SmsServiceImpl(providerConfig, List.of(provider),
+                new SmsRateLimiter(providerConfig, 1000), meterRegistry);
+        return new SmsOutboxServiceImpl(outboxRepository, smsService, transactionManager, meterRegistry,
+                4, 16, maxAttempts, Duration.ofSeconds(10), Duration.ofMinutes(30), Duration.ofMinutes(5));
+    }
+
+    private static SmsOutboxMessage message(Long id, int attempts) {
+        LocalDateTime now = LocalDateTime.now();
+        return SmsOutboxMessage.builder()
+                .id(id)
+                .recipient("+50760000" + String.format("%03d", id))
+                .body("Recordatorio")
+                .status(SmsOutboxStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.dtos.SmsBatchResult;
+import com.alquiler.car_rent.exceptions.SmsDeliveryException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmsProviderTest {
+
+    // Caso de éxito: El envío por lote por defecto no supera el paralelismo indicado.
+    @Test
+    void sendBatch_shouldFanOutWithBoundedParallelism() {
+        // Arrange
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        SmsProvider provider = new SmsProvider() {
+            @Override
+            public void sendSms(String to, String message) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+
+            @Override
+            public String getProviderName() {
+                return "lento";
+            }
+        };
+        List<String> recipients = IntStream.range(0, 40).mapToObj(i -> "+10000000" + String.format("%02d", i)).toList();
+
+        // Act
+        List<SmsBatchResult> results = provider.sendBatch(recipients, "Campaña", 4);
+
+        // Assert
+        assertEquals(40, results.size());
+        assertTrue(results.stream().allMatch(SmsBatchResult::sent));
+        assertTrue(maxInFlight.get() <= 4, "Envíos simultáneos: " + maxInFlight.get());
+        assertTrue(maxInFlight.get() > 1, "El lote debería enviarse en paralelo");
+    }
+
+    // Caso borde: Un destinatario que falla no afecta al resto y los resultados respetan el orden.
+    @Test
+    void sendBatch_shouldReportFailuresPerRecipient_inRequestOrder() {
+        // Arrange
+        SmsProvider provider = new SmsProvider() {
+            @Override
+            public void sendSms(String to, String message) {
+                if (to.endsWith("2")) {
+                    throw new SmsDeliveryException("Número inválido");
+                }
+            }
+
+            @Override
+            public String getProviderName() {
+                return "fake";
+            }
+        };
+
+        // Act
+        List<SmsBatchResult> results = provider.sendBatch(List.of("+1000000001", "+1000000002", "+1000000003"), "Campaña", 2);
+
+        // Assert
+        assertEquals(List.of("+1000000001", "+1000000002", "+1000000003"), results.stream().map(SmsBatchResult::to).toList());
+        assertEquals(List.of(true, false, true), results.stream().map(SmsBatchResult::sent).toList());
+        assertEquals("Número inválido", results.get(1).error());
+    }
+}
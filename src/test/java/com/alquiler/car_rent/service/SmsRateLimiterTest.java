@@ -0,0 +1,53 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.config.SmsProviderConfig;
+import com.alquiler.car_rent.service.impl.SmsRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmsRateLimiterTest {
+
+    // Caso de éxito: Tras la ráfaga inicial, los envíos esperan al ritmo configurado del proveedor.
+    @Test
+    void acquire_shouldThrottleToConfiguredRate_afterInitialBurst() throws InterruptedException {
+        // Arrange
+        SmsProviderConfig config = new SmsProviderConfig();
+        config.setRateLimits(Map.of("lento", 20.0));
+        SmsRateLimiter limiter = new SmsRateLimiter(config, 1000);
+
+        // Act: 20 de ráfaga más 10 a 20 por segundo
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 30; i++) {
+            limiter.acquire("lento");
+        }
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        // Assert
+        assertTrue(elapsedMillis >= 400, "Se esperaban al menos 400 ms, fueron " + elapsedMillis);
+    }
+
+    // Caso borde: Los proveedores no comparten cubeta.
+    @Test
+    void acquire_shouldKeepSeparateBucketsPerProvider() throws InterruptedException {
+        // Arrange
+        SmsProviderConfig config = new SmsProviderConfig();
+        config.setRateLimits(Map.of("lento", 5.0));
+        SmsRateLimiter limiter = new SmsRateLimiter(config, 1000);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("lento");
+        }
+
+        // Act
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire("rapido");
+        }
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+        // Assert
+        assertTrue(elapsedMillis < 200, "El proveedor rápido no debería esperar, tardó " + elapsedMillis);
+    }
+}
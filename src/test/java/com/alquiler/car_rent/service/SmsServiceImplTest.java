@@ -1,15 +1,24 @@
 package com.alquiler.car_rent.service;
 
+import com.alquiler.car_rent.commons.dtos.SmsBatchResult;
 import com.alquiler.car_rent.config.SmsProviderConfig;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+import com.alquiler.car_rent.exceptions.SmsDeliveryException;
 import com.alquiler.car_rent.service.SmsProvider;
+import com.alquiler.car_rent.service.impl.SmsRateLimiter;
 import com.alquiler.car_rent.service.impl.SmsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,17 +33,30 @@ class SmsServiceImplTest {
     @Mock
     private SmsProvider vonageProvider;
 
+    @Mock
+    private SmsRateLimiter rateLimiter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SmsProviderConfig.CircuitBreaker breakerConfig = new SmsProviderConfig.CircuitBreaker();
+    private final SmsProviderConfig.Batch batchConfig = new SmsProviderConfig.Batch();
+
     private SmsServiceImpl smsService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(providerConfig.getCircuitBreaker()).thenReturn(breakerConfig);
+        lenient().when(providerConfig.getBatch()).thenReturn(batchConfig);
+        lenient().when(twilioProvider.getProviderName()).thenReturn("twilio");
+        lenient().when(vonageProvider.getProviderName()).thenReturn("vonage");
+    }
+
     @Test
     void sendSms_shouldUseTwilio_whenTwilioIsTheActiveProvider() {
         // Arrange
         when(providerConfig.getProvider()).thenReturn("twilio");
-        when(twilioProvider.getProviderName()).thenReturn("twilio");
-        when(vonageProvider.getProviderName()).thenReturn("vonage");
 
         // Act
-        smsService = new SmsServiceImpl(providerConfig, List.of(twilioProvider, vonageProvider));
+        smsService = newService();
         String toNumber = "+123456789";
         String message = "Mensaje de prueba";
         smsService.sendSms(toNumber, message);
@@ -48,11 +70,9 @@ class SmsServiceImplTest {
     void sendSms_shouldUseVonage_whenVonageIsTheActiveProvider() {
         // Arrange
         when(providerConfig.getProvider()).thenReturn("vonage");
-        when(twilioProvider.getProviderName()).thenReturn("twilio");
-        when(vonageProvider.getProviderName()).thenReturn("vonage");
 
         // Act
-        smsService = new SmsServiceImpl(providerConfig, List.of(twilioProvider, vonageProvider));
+        smsService = newService();
         String toNumber = "+987654321";
         String message = "Otro mensaje";
         smsService.sendSms(toNumber, message);
@@ -63,18 +83,220 @@ class SmsServiceImplTest {
     }
 
     @Test
-    void sendSms_shouldDoNothing_whenNoProviderIsFound() {
-        // Arrange
+    void sendSms_shouldUseRegisteredProviders_whenConfiguredProviderIsUnknown() {
+        // Arrange: un nombre mal escrito ya no descarta los mensajes
         when(providerConfig.getProvider()).thenReturn("invalid-provider");
-        when(twilioProvider.getProviderName()).thenReturn("twilio");
-        when(vonageProvider.getProviderName()).thenReturn("vonage");
 
         // Act
-        smsService = new SmsServiceImpl(providerConfig, List.of(twilioProvider, vonageProvider));
-        smsService.sendSms("any-number", "any-message");
+        smsService = newService();
+        String provider = smsService.deliver("+123456789", "Mensaje");
 
         // Assert
-        verify(twilioProvider, never()).sendSms(anyString(), anyString());
-        verify(vonageProvider, never()).sendSms(anyString(), anyString());
+        assertTrue(List.of("twilio", "vonage").contains(provider));
+    }
+
+    @Test
+    void deliver_shouldWaitForRateLimit_andReturnProviderName() throws InterruptedException {
+        // Arrange
+        when(providerConfig.getProvider()).thenReturn("twilio");
+        smsService = newService();
+
+        // Act
+        String provider = smsService.deliver("+123456789", "Mensaje");
+
+        // Assert
+        assertEquals("twilio", provider);
+        verify(rateLimiter, times(1)).acquire("twilio");
+        verify(twilioProvider, times(1)).sendSms("+123456789", "Mensaje");
+    }
+
+    @Test
+    void deliver_shouldThrow_whenNoProviderIsRegistered() {
+        // Arrange
+        when(providerConfig.getProvider()).thenReturn("twilio");
+        smsService = new SmsServiceImpl(providerConfig, List.of(), rateLimiter, meterRegistry);
+
+        // Act & Assert: la bandeja de salida necesita el fallo para reintentar
+        assertThrows(SmsDeliveryException.class, () -> smsService.deliver("+123456789", "Mensaje"));
+    }
+
+    // Caso borde: Si el proveedor principal falla, el mensaje sale por el de respaldo.
+    @Test
+    void deliver_shouldFailOverToBackupProvider_whenPrimaryFails() {
+        // Arrange
+        when(providerConfig.getProvider()).thenReturn("vonage");
+        doThrow(new SmsDeliveryException("Vonage caído")).when(vonageProvider).sendSms(anyString(), anyString());
+        smsService = newService();
+
+        // Act
+        String provider = smsService.deliver("+123456789", "Mensaje");
+
+        // Assert
+        assertEquals("twilio", provider);
+        verify(twilioProvider, times(1)).sendSms("+123456789", "Mensaje");
+        assertEquals(1.0, meterRegistry.counter("sms.provider.failover").count());
+        assertEquals(1, meterRegistry.timer("sms.provider.latency", "provider", "vonage", "outcome", "failed").count());
+        assertEquals(1, meterRegistry.timer("sms.provider.latency", "provider", "twilio", "outcome", "sent").count());
+    }
+
+    // Caso borde: Con el circuito abierto el proveedor caído deja de recibir intentos.
+    @Test
+    void deliver_shouldSkipProvider_whenItsCircuitIsOpen() {
+        // Arrange
+        breakerConfig.setWindowSize(4);
+        breakerConfig.setMinimumCalls(2);
+        breakerConfig.setOpenDuration(Duration.ofMinutes(5));
+        when(providerConfig.getProvider()).thenReturn("vonage");
+        doThrow(new SmsDeliveryException("Vonage caído")).when(vonageProvider).sendSms(anyString(), anyString());
+        smsService = newService();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertEquals("twilio", smsService.deliver("+123456789", "Mensaje " + i));
+        }
+
+        // Assert
+        verify(vonageProvider, times(2)).sendSms(anyString(), anyString());
+        verify(twilioProvider, times(5)).sendSms(anyString(), anyString());
+        assertEquals(2.0, meterRegistry.get("sms.provider.circuit").tag("provider", "vonage").gauge().value());
+    }
+
+    // Caso borde: Si todos los proveedores fallan se propaga el error para reintentar más tarde.
+    @Test
+    void deliver_shouldThrow_whenAllProvidersFail() {
+        // Arrange
+        when(providerConfig.getProvider()).thenReturn("vonage");
+        doThrow(new SmsDeliveryException("Vonage caído")).when(vonageProvider).sendSms(anyString(), anyString());
+        doThrow(new IllegalStateException("Twilio caído")).when(twilioProvider).sendSms(anyString(), anyString());
+        smsService = newService();
+
+        // Act & Assert
+        assertThrows(SmsDeliveryException.class, () -> smsService.deliver("+123456789", "Mensaje"));
+    }
+
+    // Caso de éxito: El tráfico se reparte según los pesos configurados.
+    @Test
+    void deliver_shouldDistributeTrafficByWeight() {
+        // Arrange
+        when(providerConfig.getWeights()).thenReturn(Map.of("twilio", 3, "vonage", 1));
+        smsService = newService();
+
+        // Act
+        int twilio = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (smsService.deliver("+123456789", "Mensaje").equals("twilio")) {
+                twilio++;
+            }
+        }
+
+        // Assert: 75% esperado
+        assertTrue(twilio > 680 && twilio < 820, "Envíos por twilio: " + twilio);
+    }
+
+    // Caso de éxito: Los destinatarios que falla el principal salen por el de respaldo y los repetidos se envían una vez.
+    @Test
+    void sendBatch_shouldRetryFailedRecipientsOnBackupProvider() {
+        // Arrange
+        FakeSmsProvider vonage = new FakeSmsProvider("vonage", 2);
+        FakeSmsProvider twilio = new FakeSmsProvider("twilio");
+        when(providerConfig.getProvider()).thenReturn("vonage");
+        smsService = new SmsServiceImpl(providerConfig, List.of(twilio, vonage), rateLimiter, meterRegistry);
+        List<String> recipients = List.of("+1000000001", "+1000000002", "+1000000003", "+1000000001", "+1000000004");
+
+        // Act
+        List<SmsBatchResult> results = smsService.sendBatch(recipients, "Campaña");
+
+        // Assert
+        assertEquals(List.of("+1000000001", "+1000000002", "+1000000003", "+1000000004"),
+                results.stream().map(SmsBatchResult::to).toList());
+        assertTrue(results.stream().allMatch(SmsBatchResult::sent));
+        assertEquals(2, results.stream().filter(result -> result.provider().equals("twilio")).count());
+        assertEquals(2, twilio.getDelivered().size());
+        assertEquals(2.0, meterRegistry.counter("sms.provider.failover").count());
+    }
+
+    // Caso borde: Cada tramo consume del límite por segundo tantos tokens como destinatarios lleva.
+    @Test
+    void sendBatch_shouldAcquireRateLimitPerChunk() throws InterruptedException {
+        // Arrange
+        FakeSmsProvider vonage = new FakeSmsProvider("vonage");
+        when(providerConfig.getProvider()).thenReturn("vonage");
+        batchConfig.setChunkSize(2);
+        smsService = new SmsServiceImpl(providerConfig, List.of(vonage), rateLimiter, meterRegistry);
+
+        // Act
+        smsService.sendBatch(List.of("+1000000001", "+1000000002", "+1000000003", "+1000000004", "+1000000005"), "Campaña");
+
+        // Assert
+        verify(rateLimiter, times(2)).acquire("vonage", 2);
+        verify(rateLimiter, times(1)).acquire("vonage", 1);
+        assertEquals(5, vonage.getDelivered().size());
+    }
+
+    // Caso borde: Si el envío de prueba del circuito semiabierto se interrumpe esperando turno, el siguiente puede probar.
+    @Test
+    void deliver_shouldReleaseProbe_whenInterruptedWaitingForRateLimit() throws InterruptedException {
+        // Arrange
+        FakeSmsProvider vonage = new FakeSmsProvider("vonage", 4);
+        when(providerConfig.getProvider()).thenReturn("vonage");
+        breakerConfig.setWindowSize(4);
+        breakerConfig.setMinimumCalls(4);
+        breakerConfig.setOpenDuration(Duration.ZERO);
+        smsService = new SmsServiceImpl(providerConfig, List.of(vonage), rateLimiter, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(SmsDeliveryException.class, () -> smsService.deliver("+123456789", "Mensaje"));
+        }
+        doThrow(new InterruptedException()).doNothing().when(rateLimiter).acquire("vonage");
+
+        // Act
+        assertThrows(SmsDeliveryException.class, () -> smsService.deliver("+123456789", "Mensaje"));
+        assertTrue(Thread.interrupted());
+        String provider = smsService.deliver("+123456789", "Mensaje");
+
+        // Assert
+        assertEquals("vonage", provider);
+        assertEquals(List.of("+123456789"), vonage.getDelivered());
+    }
+
+    // Caso borde: Lo mismo cuando el tramo de prueba de un lote se interrumpe.
+    @Test
+    void sendBatch_shouldReleaseProbe_whenInterruptedWaitingForRateLimit() throws InterruptedException {
+        // Arrange
+        FakeSmsProvider vonage = new FakeSmsProvider("vonage", 4);
+        when(providerConfig.getProvider()).thenReturn("vonage");
+        breakerConfig.setWindowSize(4);
+        breakerConfig.setMinimumCalls(4);
+        breakerConfig.setOpenDuration(Duration.ZERO);
+        smsService = new SmsServiceImpl(providerConfig, List.of(vonage), rateLimiter, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(SmsDeliveryException.class, () -> smsService.deliver("+123456789", "Mensaje"));
+        }
+        doThrow(new InterruptedException()).doNothing().when(rateLimiter).acquire("vonage", 1);
+
+        // Act
+        assertThrows(SmsDeliveryException.class, () -> smsService.sendBatch(List.of("+1000000001"), "Campaña"));
+        assertTrue(Thread.interrupted());
+        List<SmsBatchResult> results = smsService.sendBatch(List.of("+1000000001"), "Campaña");
+
+        // Assert
+        assertTrue(results.get(0).sent());
+    }
+
+    // Caso borde: Un lote mayor que el máximo se rechaza antes de enviar nada.
+    @Test
+    void sendBatch_shouldRejectBatch_whenItExceedsMaxRecipients() {
+        // Arrange
+        when(providerConfig.getProvider()).thenReturn("twilio");
+        batchConfig.setMaxRecipients(2);
+        smsService = newService();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> smsService.sendBatch(List.of("+1000000001", "+1000000002", "+1000000003"), "Campaña"));
+        verifyNoInteractions(rateLimiter);
+    }
+
+    private SmsServiceImpl newService() {
+        return new SmsServiceImpl(providerConfig, List.of(twilioProvider, vonageProvider), rateLimiter, meterRegistry);
     }
 }
@@ -0,0 +1,174 @@
+package com.alquiler.car_rent.service;
+
+import com.alquiler.car_rent.commons.dtos.RentalInterval;
+import com.alquiler.car_rent.commons.dtos.VehicleDto;
+import com.alquiler.car_rent.commons.entities.Vehicle;
+import com.alquiler.car_rent.commons.enums.VehicleType;
+import com.alquiler.car_rent.commons.events.RentalChangedEvent;
+import com.alquiler.car_rent.commons.mappers.VehicleMapper;
+import com.alquiler.car_rent.exceptions.BadRequestException;
+import com.alquiler.car_rent.repositories.RentalRepository;
+import com.alquiler.car_rent.repositories.VehicleRepository;
+import com.alquiler.car_rent.service.impl.VehicleAvailabilityServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleAvailabilityServiceImplTest {
+
+    // El índice descarta los alquileres terminados, así que las fechas de prueba van siempre al futuro
+    private static final LocalDateTime BASE = LocalDateTime.now().plusDays(30).truncatedTo(ChronoUnit.HOURS);
+
+    @Mock
+    private RentalRepository rentalRepository;
+    @Mock
+    private VehicleRepository vehicleRepository;
+    @Mock
+    private VehicleMapper vehicleMapper;
+
+    @InjectMocks
+    private VehicleAvailabilityServiceImpl availabilityService;
+
+    // Caso de éxito: Tras reconstruir el índice se detectan solapamientos; devolver y recoger a la misma hora no choca.
+    @Test
+    void isAvailable_shouldDetectOverlaps_afterRebuild() {
+        // Arrange
+        when(rentalRepository.streamBookedIntervals(any())).thenReturn(Stream.of(
+                new RentalInterval(1L, 10L, BASE, BASE.plusDays(3)),
+                new RentalInterval(2L, 10L, BASE.plusDays(10), BASE.plusDays(12))));
+
+        // Act
+        availabilityService.rebuild();
+
+        // Assert
+        assertFalse(availabilityService.isAvailable(10L, BASE.plusDays(2), BASE.plusDays(4), null));
+        assertTrue(availabilityService.isAvailable(10L, BASE.plusDays(3), BASE.plusDays(10), null));
+        assertFalse(availabilityService.isAvailable(10L, BASE.minusDays(1), BASE.plusDays(20), null));
+        assertTrue(availabilityService.isAvailable(10L, BASE.plusDays(2), BASE.plusDays(4), 1L));
+        assertTrue(availabilityService.isAvailable(99L, BASE, BASE.plusDays(30), null));
+    }
+
+    // Caso de éxito: Un alquiler cancelado o con fechas nuevas actualiza el índice tras el evento de cambio.
+    @Test
+    void onRentalChanged_shouldReindexOnlyThatRental() {
+        // Arrange
+        when(rentalRepository.streamBookedIntervals(any())).thenReturn(Stream.of(
+                new RentalInterval(1L, 10L, BASE, BASE.plusDays(3))));
+        availabilityService.rebuild();
+        when(rentalRepository.findBookedInterval(1L))
+                .thenReturn(Optional.of(new RentalInterval(1L, 10L, BASE.plusDays(5), BASE.plusDays(6))))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        availabilityService.onRentalChanged(new RentalChangedEvent(1L, BASE.toLocalDate(), BASE.plusDays(6).toLocalDate()));
+        assertTrue(availabilityService.isAvailable(10L, BASE, BASE.plusDays(3), null));
+        assertFalse(availabilityService.isAvailable(10L, BASE.plusDays(5), BASE.plusDays(7), null));
+
+        availabilityService.onRentalChanged(new RentalChangedEvent(1L, BASE.toLocalDate(), BASE.plusDays(6).toLocalDate()));
+        assertTrue(availabilityService.isAvailable(10L, BASE.plusDays(5), BASE.plusDays(7), null));
+    }
+
+    // Caso de éxito: La búsqueda por tipo devuelve solo los vehículos libres en el rango.
+    @Test
+    void findAvailableVehicles_shouldFilterBookedVehicles() {
+        // Arrange
+        when(rentalRepository.streamBookedIntervals(any())).thenReturn(Stream.of(
+                new RentalInterval(1L, 10L, BASE, BASE.plusDays(3))));
+        availabilityService.rebuild();
+        Vehicle booked = new Vehicle();
+        booked.setId(10L);
+        Vehicle free = new Vehicle();
+        free.setId(11L);
+        VehicleDto freeDto = new VehicleDto();
+        freeDto.setId(11L);
+        when(vehicleRepository.findByVehicleTypeAndStatusIn(eq(VehicleType.SEDAN), any())).thenReturn(List.of(booked, free));
+        when(vehicleMapper.vehicleToDto(free)).thenReturn(freeDto);
+
+        // Act
+        List<VehicleDto> result = availabilityService.findAvailableVehicles(BASE.plusDays(1), BASE.plusDays(2), VehicleType.SEDAN);
+
+        // Assert
+        assertEquals(List.of(freeDto), result);
+    }
+
+    // Caso de éxito: Los alquileres terminados salen del índice; los vigentes y futuros se conservan.
+    @Test
+    void evictEnded_shouldDropOnlyEndedRentals() throws InterruptedException {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        when(rentalRepository.streamBookedIntervals(any())).thenReturn(Stream.of(
+                new RentalInterval(1L, 10L, now.minusDays(2), now.plusNanos(500_000_000)),
+                new RentalInterval(2L, 11L, now.minusDays(1), now.plusDays(1))));
+        availabilityService.rebuild();
+        assertFalse(availabilityService.isAvailable(10L, now.minusDays(1), now.plusNanos(500_000_000), null));
+        when(rentalRepository.findBookedInterval(3L))
+                .thenReturn(Optional.of(new RentalInterval(3L, 12L, now.minusDays(5), now.minusDays(4))));
+
+        // Act
+        availabilityService.onRentalChanged(new RentalChangedEvent(3L, now.minusDays(5).toLocalDate(), now.minusDays(4).toLocalDate()));
+        Thread.sleep(600);
+        availabilityService.evictEnded();
+
+        // Assert
+        assertTrue(availabilityService.isAvailable(10L, now.minusDays(1), now.plusNanos(500_000_000), null));
+        assertTrue(availabilityService.isAvailable(12L, now.minusDays(5), now.minusDays(4), null));
+        assertFalse(availabilityService.isAvailable(11L, now, now.plusHours(1), null));
+    }
+
+    // Caso borde: Un rango invertido se rechaza.
+    @Test
+    void isAvailable_shouldRejectInvertedRange() {
+        assertThrows(BadRequestException.class,
+                () -> availabilityService.isAvailable(10L, BASE.plusDays(2), BASE, null));
+    }
+
+    // Caso de éxito: Con muchas altas y bajas el árbol responde igual que una comparación exhaustiva.
+    @Test
+    void isAvailable_shouldMatchBruteForce_afterRandomMutations() {
+        // Arrange
+        Random random = new Random(42);
+        List<RentalInterval> intervals = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            LocalDateTime start = BASE.plusHours(random.nextInt(24 * 365));
+            intervals.add(new RentalInterval(id, 10L, start, start.plusHours(1 + random.nextInt(24 * 10))));
+        }
+        when(rentalRepository.streamBookedIntervals(any())).thenReturn(intervals.stream());
+        availabilityService.rebuild();
+        // Se cancela la mitad de los alquileres
+        when(rentalRepository.findBookedInterval(any())).thenReturn(Optional.empty());
+        List<RentalInterval> remaining = new ArrayList<>();
+        for (RentalInterval interval : intervals) {
+            if (interval.rentalId() % 2 == 0) {
+                availabilityService.onRentalChanged(new RentalChangedEvent(interval.rentalId(),
+                        interval.startDate().toLocalDate(), interval.endDate().toLocalDate()));
+            } else {
+                remaining.add(interval);
+            }
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 1_000; i++) {
+            LocalDateTime from = BASE.plusHours(random.nextInt(24 * 380));
+            LocalDateTime to = from.plusHours(1 + random.nextInt(24 * 5));
+            boolean expected = remaining.stream()
+                    .noneMatch(r -> r.startDate().isBefore(to) && r.endDate().isAfter(from));
+            assertEquals(expected, availabilityService.isAvailable(10L, from, to, null), "Rango " + from + " - " + to);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.alquiler.car_rent.service;
 
 import com.alquiler.car_rent.commons.dtos.VehicleDto;
+import com.alquiler.car_rent.commons.dtos.VehicleFilter;
 import com.alquiler.car_rent.commons.entities.Vehicle;
 import com.alquiler.car_rent.commons.enums.PricingTier;
 import com.alquiler.car_rent.commons.enums.VehicleStatus;
@@ -15,6 +16,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.Collections;
 import java.util.List;
@@ -138,6 +144,25 @@ public class VehicleServiceImplTest {
         verify(vehicleRepository, times(1)).findAll();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFindVehicles_ReturnsMappedPage() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 20);
+        when(vehicleRepository.findAll(any(Specification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(vehicle), pageable, 1));
+        when(vehicleMapper.vehicleToDto(vehicle)).thenReturn(vehicleDto);
+
+        // Act
+        Page<VehicleDto> results = vehicleService.findVehicles(
+                new VehicleFilter(VehicleStatus.AVAILABLE, null, null, null), pageable);
+
+        // Assert
+        assertEquals(1, results.getTotalElements());
+        assertEquals(vehicleDto, results.getContent().get(0));
+        verify(vehicleRepository, never()).findAll();
+    }
+
     @Test
     void testFindVehicleByStatus_Success() {
         // Arrange